@@ -416,9 +416,8 @@ public class OpenFileAction extends DiskAccessAction {
                 String msg = trn("Opening {0} file...", "Opening {0} files...", files.size(), files.size());
                 getProgressMonitor().setCustomText(msg);
                 getProgressMonitor().indeterminateSubTask(msg);
-                if (importer.importDataHandleExceptions(files, getProgressMonitor().createSubTaskMonitor(files.size(), false))) {
-                    successfullyOpenedFiles.addAll(files);
-                }
+                successfullyOpenedFiles.addAll(
+                        importer.importFilesHandleExceptions(files, getProgressMonitor().createSubTaskMonitor(files.size(), false)));
             } else {
                 for (File f : files) {
                     if (canceled) return;
@@ -428,12 +427,13 @@ public class OpenFileAction extends DiskAccessAction {
                     }
                 }
             }
-            if (this.options.contains(Options.RECORD_HISTORY) && !importer.isBatchImporter()) {
+            if (this.options.contains(Options.RECORD_HISTORY) && importer.isRecordedInHistory()) {
                 for (File f : files) {
                     try {
                         if (successfullyOpenedFiles.contains(f)) {
                             fileHistory.add(f.getCanonicalPath());
-                        } else {
+                        } else if (!canceled) {
+                            // files skipped on cancellation are kept in the history
                             failedAll.add(f.getCanonicalPath());
                         }
                     } catch (IOException e) {
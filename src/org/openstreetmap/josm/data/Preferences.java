@@ -14,6 +14,7 @@ import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.InvalidPathException;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -28,7 +29,13 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -56,6 +63,7 @@ import org.openstreetmap.josm.tools.ListenerList;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.PlatformManager;
 import org.openstreetmap.josm.tools.ReflectionUtils;
+import org.openstreetmap.josm.tools.Stopwatch;
 import org.openstreetmap.josm.tools.Utils;
 import org.xml.sax.SAXException;
 
@@ -110,6 +118,13 @@ public class Preferences extends AbstractPreferences {
 
     private static final long MAX_AGE_DEFAULT_PREFERENCES = TimeUnit.DAYS.toSeconds(50);
 
+    /**
+     * Saves the preferences files in the background, the thread terminates when there is nothing to save.
+     * It does not keep the JVM alive, pending changes are written by {@link #flush()} on termination.
+     */
+    private static final ExecutorService SAVE_EXECUTOR = new ThreadPoolExecutor(0, 1, 10, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), newDaemonThreadFactory("preferences-save-%d"));
+
     private final IBaseDirectories dirs;
     boolean modifiedDefault;
 
@@ -118,19 +133,31 @@ public class Preferences extends AbstractPreferences {
      */
     private boolean saveOnPut = true;
 
+    /**
+     * The number of changes since the preferences file has been saved, coalesced into one save in the background.
+     */
+    private final AtomicInteger unsavedChanges = new AtomicInteger();
+
+    /**
+     * Serializes the writing of the preferences files.
+     */
+    private final Object saveLock = new Object();
+
     /**
      * Maps the setting name to the current value of the setting.
      * The map must not contain null as key or value. The mapped setting objects
      * must not have a null value.
+     * <p>
+     * The map is read without locking, modifications are done while holding the lock of this instance.
      */
-    protected final SortedMap<String, Setting<?>> settingsMap = new TreeMap<>();
+    protected final SortedMap<String, Setting<?>> settingsMap = new ConcurrentSkipListMap<>();
 
     /**
      * Maps the setting name to the default value of the setting.
      * The map must not contain null as key or value. The value of the mapped
      * setting objects can be null.
      */
-    protected final SortedMap<String, Setting<?>> defaultsMap = new TreeMap<>();
+    protected final SortedMap<String, Setting<?>> defaultsMap = new ConcurrentSkipListMap<>();
 
     /**
      * Indicates whether {@link #init(boolean)} completed successfully.
@@ -332,7 +359,7 @@ public class Preferences extends AbstractPreferences {
      * Get all named colors, including customized and the default ones.
      * @return a map of all named colors (maps preference key to {@link ColorInfo})
      */
-    public synchronized Map<String, ColorInfo> getAllNamedColors() {
+    public Map<String, ColorInfo> getAllNamedColors() {
         final Map<String, ColorInfo> all = new TreeMap<>();
         for (final Entry<String, Setting<?>> e : settingsMap.entrySet()) {
             if (!e.getKey().startsWith(NamedColorProperty.NAMED_COLOR_PREFIX))
@@ -361,19 +388,68 @@ public class Preferences extends AbstractPreferences {
     }
 
     /**
-     * Called after every put. In case of a problem, do nothing but output the error in log.
+     * Saves the preferences file. Changes made with save on put enabled are saved in the background,
+     * see {@link #flush()}.
      * @throws IOException if any I/O error occurs
      */
-    public synchronized void save() throws IOException {
-        save(getPreferenceFile(), settingsMap.entrySet().stream().filter(e -> !e.getValue().equals(defaultsMap.get(e.getKey()))), false);
+    public void save() throws IOException {
+        synchronized (saveLock) {
+            unsavedChanges.set(0);
+            save(getPreferenceFile(), settingsMap.entrySet().stream().filter(e -> !e.getValue().equals(defaultsMap.get(e.getKey()))), false);
+        }
+    }
+
+    /**
+     * Saves the preferences file if changes have not been saved yet. In case of a problem, do nothing but output the error in log.
+     */
+    public void flush() {
+        synchronized (saveLock) {
+            int changes = unsavedChanges.get();
+            if (changes == 0) {
+                return;
+            }
+            final Stopwatch stopwatch = Stopwatch.createStarted();
+            try {
+                save();
+                Logging.debug("Saved {0} preference changes in {1}", changes, stopwatch);
+            } catch (IOException | InvalidPathException e) {
+                File file = getPreferenceFile();
+                try {
+                    file = file.getAbsoluteFile();
+                } catch (SecurityException ex) {
+                    Logging.trace(ex);
+                }
+                Logging.log(Logging.LEVEL_WARN, tr("Failed to persist preferences to ''{0}''", file), e);
+            }
+        }
+    }
+
+    /**
+     * Saves the preferences file in the background. Changes made before the save starts are saved together.
+     */
+    private void saveLater() {
+        if (unsavedChanges.getAndIncrement() == 0) {
+            SAVE_EXECUTOR.execute(this::flush);
+        }
+    }
+
+    private static ThreadFactory newDaemonThreadFactory(String nameFormat) {
+        ThreadFactory factory = Utils.newThreadFactory(nameFormat, Thread.NORM_PRIORITY);
+        return runnable -> {
+            Thread thread = factory.newThread(runnable);
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 
     /**
      * Stores the defaults to the defaults file
      * @throws IOException If the file could not be saved
      */
-    public synchronized void saveDefaults() throws IOException {
-        save(getDefaultsCacheFile(), defaultsMap.entrySet().stream(), true);
+    public void saveDefaults() throws IOException {
+        synchronized (saveLock) {
+            save(getDefaultsCacheFile(), defaultsMap.entrySet().stream(), true);
+        }
     }
 
     protected void save(File prefFile, Stream<Entry<String, Setting<?>>> settings, boolean defaults) throws IOException {
@@ -398,7 +474,14 @@ public class Preferences extends AbstractPreferences {
 
         File tmpFile = new File(prefFile + "_tmp");
         // Only replace the pref file if the _tmp file is valid
-        checkFileValidity(tmpFile, f -> Files.move(f.toPath(), prefFile.toPath(), StandardCopyOption.REPLACE_EXISTING));
+        checkFileValidity(tmpFile, f -> {
+            try {
+                Files.move(f.toPath(), prefFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Logging.trace(e);
+                Files.move(f.toPath(), prefFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        });
 
         setCorrectPermissions(prefFile);
         setCorrectPermissions(backupFile);
@@ -645,8 +728,8 @@ public class Preferences extends AbstractPreferences {
     }
 
     /**
-     * Set a value for a certain setting. The changed setting is saved to the preference file immediately.
-     * Due to caching mechanisms on modern operating systems and hardware, this shouldn't be a performance problem.
+     * Set a value for a certain setting. The changed setting is saved to the preference file in the background,
+     * together with the other settings changed in the meantime.
      * @param key the unique identifier for the setting
      * @param setting the value of the setting. In case it is null, the key-value entry will be removed.
      * @return {@code true}, if something has changed (i.e. value is different than before)
@@ -673,17 +756,7 @@ public class Preferences extends AbstractPreferences {
                 settingsMap.put(key, settingCopy);
             }
             if (saveOnPut) {
-                try {
-                    save();
-                } catch (IOException | InvalidPathException e) {
-                    File file = getPreferenceFile();
-                    try {
-                        file = file.getAbsoluteFile();
-                    } catch (SecurityException ex) {
-                        Logging.trace(ex);
-                    }
-                    Logging.log(Logging.LEVEL_WARN, tr("Failed to persist preferences to ''{0}''", file), e);
-                }
+                saveLater();
             }
         }
         // Call outside of synchronized section in case some listener wait for other thread that wait for preference lock
@@ -697,7 +770,7 @@ public class Preferences extends AbstractPreferences {
      * @param def The default value to use if it was not found
      * @return The setting
      */
-    public synchronized Setting<?> getSetting(String key, Setting<?> def) {
+    public Setting<?> getSetting(String key, Setting<?> def) {
         return getSetting(key, def, Setting.class);
     }
 
@@ -712,14 +785,15 @@ public class Preferences extends AbstractPreferences {
      */
     @SuppressWarnings("unchecked")
     @Override
-    public synchronized <T extends Setting<?>> T getSetting(String key, T def, Class<T> klass) {
+    public <T extends Setting<?>> T getSetting(String key, T def, Class<T> klass) {
         CheckParameterUtil.ensureParameterNotNull(key);
         CheckParameterUtil.ensureParameterNotNull(def);
         Setting<?> oldDef = defaultsMap.get(key);
         if (oldDef != null && oldDef.isNew() && oldDef.getValue() != null && def.getValue() != null && !def.equals(oldDef)) {
             Logging.info("Defaults for " + key + " differ: " + def + " != " + defaultsMap.get(key));
         }
-        if (def.getValue() != null || oldDef == null) {
+        // the defaults are only replaced when they have changed, or to renew the time of defaults read from the cache file
+        if (oldDef == null || (def.getValue() != null && (!oldDef.isNew() || !def.equals(oldDef)))) {
             Setting<?> defCopy = def.copy();
             defCopy.setTime(System.currentTimeMillis() / 1000);
             defCopy.setNew(true);
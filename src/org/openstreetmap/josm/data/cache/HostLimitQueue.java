@@ -3,11 +3,18 @@ package org.openstreetmap.josm.data.cache;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Comparator;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
 
 import org.openstreetmap.josm.tools.Logging;
 
@@ -22,15 +29,121 @@ import org.openstreetmap.josm.tools.Logging;
  * [2] If we have a queue, and for all hosts in queue we will fail to acquire semaphore, the thread
  *     take the first available job and wait for semaphore. It might be the case, that semaphore was released
  *     for some task further in queue, but this implementation doesn't try to detect such situation
+ * <p>
+ * Among the jobs whose host has a free slot, the one with the lowest {@linkplain JCSCachedTileLoaderJob#getPriority()
+ * priority} value is taken first. Regular jobs are always preferred over
+ * {@linkplain JCSCachedTileLoaderJob#isSpeculative() speculative} ones. When a regular job of the same
+ * {@linkplain JCSCachedTileLoaderJob#getSource() source} is offered, queued speculative jobs with an
+ * {@link #OUT_OF_VIEW_PRIORITY} are canceled, as they were scheduled for a view of that layer that is no longer current.
+ * The other speculative jobs are kept, they only run when there is no regular work left.
+ * <p>
+ * As priorities may change while jobs are queued (see {@link #reprioritize(ToDoubleFunction)}), the queue is not
+ * kept sorted, but scanned when a job is taken. The queue is expected to hold at most a few hundred jobs.
  *
  * @author Wiktor Niesiobędzki
  */
 public class HostLimitQueue extends LinkedBlockingDeque<Runnable> {
     private static final long serialVersionUID = 1L;
 
+    /**
+     * Priority of jobs which are out of range of the current view. Speculative jobs with this priority are canceled
+     * when a regular job of the same source is offered.
+     */
+    public static final double OUT_OF_VIEW_PRIORITY = Double.MAX_VALUE;
+
+    /** Number of attempts to acquire the best job, before falling back to the first one in the queue */
+    private static final int FIND_ATTEMPTS = 3;
+
+    private static final Comparator<JCSCachedTileLoaderJob<?, ?>> JOB_ORDER =
+            Comparator.<JCSCachedTileLoaderJob<?, ?>, Boolean>comparing(JCSCachedTileLoaderJob::isSpeculative)
+            .thenComparingDouble(JCSCachedTileLoaderJob::getPriority);
+
     private final Map<String, Semaphore> hostSemaphores = new ConcurrentHashMap<>();
+    private final transient Map<String, HostCounters> hostCounters = new ConcurrentHashMap<>();
     private final int hostLimit;
 
+    private static final class HostCounters {
+        private final LongAdder started = new LongAdder();
+        private final LongAdder canceled = new LongAdder();
+        private final LongAdder totalWaitTime = new LongAdder();
+        private final AtomicLong maxWaitTime = new AtomicLong();
+    }
+
+    /**
+     * Download queue statistics of a single host.
+     */
+    public static final class HostStatistics {
+        private final String host;
+        private final int queueDepth;
+        private final long startedJobs;
+        private final long canceledJobs;
+        private final long averageWaitTime;
+        private final long maxWaitTime;
+
+        HostStatistics(String host, int queueDepth, HostCounters counters) {
+            this.host = host;
+            this.queueDepth = queueDepth;
+            this.startedJobs = counters.started.sum();
+            this.canceledJobs = counters.canceled.sum();
+            this.averageWaitTime = startedJobs == 0 ? 0 : counters.totalWaitTime.sum() / startedJobs;
+            this.maxWaitTime = counters.maxWaitTime.get();
+        }
+
+        /**
+         * Returns the host name.
+         * @return the host name
+         */
+        public String getHost() {
+            return host;
+        }
+
+        /**
+         * Returns the number of jobs currently waiting in the queue.
+         * @return the number of queued jobs
+         */
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        /**
+         * Returns the number of jobs that have been taken from the queue for execution.
+         * @return the number of started jobs
+         */
+        public long getStartedJobs() {
+            return startedJobs;
+        }
+
+        /**
+         * Returns the number of jobs that have been canceled while waiting in the queue.
+         * @return the number of canceled jobs
+         */
+        public long getCanceledJobs() {
+            return canceledJobs;
+        }
+
+        /**
+         * Returns the average time started jobs have spent in the queue.
+         * @return the average wait time in milliseconds
+         */
+        public long getAverageWaitTime() {
+            return averageWaitTime;
+        }
+
+        /**
+         * Returns the longest time a started job has spent in the queue.
+         * @return the maximum wait time in milliseconds
+         */
+        public long getMaxWaitTime() {
+            return maxWaitTime;
+        }
+
+        @Override
+        public String toString() {
+            return host + ": queued " + queueDepth + ", started " + startedJobs + ", canceled " + canceledJobs
+                    + ", wait avg " + averageWaitTime + " ms, max " + maxWaitTime + " ms";
+        }
+    }
+
     /**
      * Creates an unbounded queue
      * @param hostLimit how many parallel calls to host to allow
@@ -51,42 +164,130 @@ public class HostLimitQueue extends LinkedBlockingDeque<Runnable> {
     }
 
     private JCSCachedTileLoaderJob<?, ?> findJob() {
+        for (int attempt = 0; attempt < FIND_ATTEMPTS; attempt++) {
+            JCSCachedTileLoaderJob<?, ?> best = null;
+            for (Runnable r : this) {
+                if (r instanceof JCSCachedTileLoaderJob) {
+                    JCSCachedTileLoaderJob<?, ?> job = (JCSCachedTileLoaderJob<?, ?>) r;
+                    if ((best == null || JOB_ORDER.compare(job, best) < 0) && getSemaphore(job).availablePermits() > 0) {
+                        best = job;
+                    }
+                }
+            }
+            if (best == null) {
+                Logging.debug("TMS - No job found, as host limit is reached for all queued jobs");
+                return null;
+            }
+            if (tryAcquireSemaphore(best)) {
+                if (remove(best)) {
+                    return best;
+                }
+                // we have acquired the semaphore, but we didn't manage to remove job, as someone else did
+                // release the semaphore and look for another candidate
+                releaseSemaphore(best);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean offer(Runnable job) {
+        if (job instanceof JCSCachedTileLoaderJob) {
+            JCSCachedTileLoaderJob<?, ?> jcsJob = (JCSCachedTileLoaderJob<?, ?>) job;
+            if (!jcsJob.isSpeculative()) {
+                Object source = jcsJob.getSource();
+                cancelSpeculativeJobs(j -> j.getPriority() >= OUT_OF_VIEW_PRIORITY && Objects.equals(j.getSource(), source));
+            }
+            jcsJob.setQueuedTime(System.currentTimeMillis());
+        }
+        return super.offer(job);
+    }
+
+    /**
+     * Removes all speculative jobs from the queue and marks them as canceled.
+     * @return number of canceled jobs
+     */
+    public int cancelSpeculativeJobs() {
+        return cancelSpeculativeJobs(job -> true);
+    }
+
+    private int cancelSpeculativeJobs(Predicate<JCSCachedTileLoaderJob<?, ?>> predicate) {
+        int canceled = cancelIf(job -> job.isSpeculative() && predicate.test(job));
+        if (canceled > 0) {
+            Logging.debug("TMS - Canceled {0} speculative jobs", canceled);
+        }
+        return canceled;
+    }
+
+    /**
+     * Removes all jobs matching the given predicate from the queue and marks them as canceled.
+     * @param predicate selects the jobs to cancel
+     * @return number of canceled jobs
+     */
+    public int cancelIf(Predicate<JCSCachedTileLoaderJob<?, ?>> predicate) {
+        int canceled = 0;
+        for (Runnable r : this) {
+            if (r instanceof JCSCachedTileLoaderJob && predicate.test((JCSCachedTileLoaderJob<?, ?>) r) && remove(r)) {
+                cancel((JCSCachedTileLoaderJob<?, ?>) r);
+                canceled++;
+            }
+        }
+        return canceled;
+    }
+
+    /**
+     * Assigns new priorities to all queued jobs, e.g. after the view has changed. Jobs for which the function
+     * returns {@link Double#NaN} are not needed anymore, they are removed from the queue and marked as canceled.
+     * @param priority computes the new priority of a job, lower values are executed first
+     * @return number of canceled jobs
+     */
+    public int reprioritize(ToDoubleFunction<JCSCachedTileLoaderJob<?, ?>> priority) {
+        int canceled = 0;
         for (Runnable r : this) {
             if (r instanceof JCSCachedTileLoaderJob) {
                 JCSCachedTileLoaderJob<?, ?> job = (JCSCachedTileLoaderJob<?, ?>) r;
-                if (tryAcquireSemaphore(job)) {
+                double newPriority = priority.applyAsDouble(job);
+                if (Double.isNaN(newPriority)) {
                     if (remove(job)) {
-                        return job;
-                    } else {
-                        // we have acquired the semaphore, but we didn't manage to remove job, as someone else did
-                        // release the semaphore and look for another candidate
-                        releaseSemaphore(job);
+                        cancel(job);
+                        canceled++;
                     }
                 } else {
-                    URL url = null;
-                    try {
-                        url = job.getUrl();
-                    } catch (IOException e) {
-                        Logging.debug(e);
-                    }
-                    Logging.debug("TMS - Skipping job {0} because host limit reached", url);
+                    job.setPriority(newPriority);
                 }
             }
         }
-        return null;
+        return canceled;
+    }
+
+    /**
+     * Returns the download statistics of all hosts that have been accessed through this queue.
+     * @return the statistics, sorted by host name
+     */
+    public Map<String, HostStatistics> getStatistics() {
+        Map<String, Integer> depth = new ConcurrentHashMap<>();
+        for (Runnable r : this) {
+            String host = r instanceof JCSCachedTileLoaderJob ? getHost((JCSCachedTileLoaderJob<?, ?>) r) : null;
+            if (host != null) {
+                depth.merge(host, 1, Integer::sum);
+            }
+        }
+        Map<String, HostStatistics> ret = new TreeMap<>();
+        hostCounters.forEach((host, counters) -> ret.put(host, new HostStatistics(host, depth.getOrDefault(host, 0), counters)));
+        return ret;
     }
 
     @Override
     public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
         Runnable job = findJob();
         if (job != null) {
-            return job;
+            return started(job);
         }
         job = pollFirst(timeout, unit);
         if (job != null) {
             try {
                 boolean gotLock = tryAcquireSemaphore(job, timeout, unit);
-                return gotLock ? job : null;
+                return gotLock ? started(job) : null;
             } catch (InterruptedException e) {
                 // acquire my got interrupted, first offer back what was taken
                 if (!offer(job)) {
@@ -102,7 +303,7 @@ public class HostLimitQueue extends LinkedBlockingDeque<Runnable> {
     public Runnable take() throws InterruptedException {
         Runnable job = findJob();
         if (job != null) {
-            return job;
+            return started(job);
         }
         job = takeFirst();
         try {
@@ -114,9 +315,46 @@ public class HostLimitQueue extends LinkedBlockingDeque<Runnable> {
             }
             throw e;
         }
+        return started(job);
+    }
+
+    private Runnable started(Runnable job) {
+        if (job instanceof JCSCachedTileLoaderJob) {
+            JCSCachedTileLoaderJob<?, ?> jcsJob = (JCSCachedTileLoaderJob<?, ?>) job;
+            HostCounters counters = getCounters(jcsJob);
+            if (counters != null) {
+                long waitTime = Math.max(0, System.currentTimeMillis() - jcsJob.getQueuedTime());
+                counters.started.increment();
+                counters.totalWaitTime.add(waitTime);
+                counters.maxWaitTime.accumulateAndGet(waitTime, Math::max);
+            }
+        }
         return job;
     }
 
+    private void cancel(JCSCachedTileLoaderJob<?, ?> job) {
+        HostCounters counters = getCounters(job);
+        if (counters != null) {
+            counters.canceled.increment();
+        }
+        job.handleJobCancellation();
+    }
+
+    private static String getHost(JCSCachedTileLoaderJob<?, ?> job) {
+        try {
+            URL url = job.getUrl();
+            return url != null ? url.getHost() : null;
+        } catch (IOException e) {
+            Logging.trace(e);
+            return null;
+        }
+    }
+
+    private HostCounters getCounters(JCSCachedTileLoaderJob<?, ?> job) {
+        String host = getHost(job);
+        return host != null ? hostCounters.computeIfAbsent(host, k -> new HostCounters()) : null;
+    }
+
     private Semaphore getSemaphore(JCSCachedTileLoaderJob<?, ?> job) {
         String host;
         try {
@@ -97,6 +97,9 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
     private final ThreadPoolExecutor downloadJobExecutor;
     private Runnable finishTask;
     private boolean force;
+    private volatile boolean speculative;
+    private volatile double priority;
+    private volatile long queuedTime;
     private final long minimumExpiryTime;
 
     /**
@@ -585,6 +588,59 @@ public abstract class JCSCachedTileLoaderJob<K, V extends CacheEntry> implements
 
     }
 
+    /**
+     * Marks this job as speculative. Speculative jobs load data that is not needed right now (e.g. tiles
+     * outside of the visible area), so they are executed only when there is no other work to do. Those out of
+     * range of the current view are dropped as soon as regular jobs of the same {@linkplain #getSource() source} arrive.
+     * @param speculative {@code true} if this job is speculative
+     */
+    public void setSpeculative(boolean speculative) {
+        this.speculative = speculative;
+    }
+
+    /**
+     * Determines whether this job is speculative.
+     * @return {@code true} if this job is speculative
+     * @see #setSpeculative(boolean)
+     */
+    public boolean isSpeculative() {
+        return speculative;
+    }
+
+    /**
+     * Returns the source this job loads data from, e.g. the tile source of a layer. Queued speculative jobs out of
+     * range of the view are canceled when a regular job of the same source arrives, see {@link HostLimitQueue}.
+     * @return the source, or {@code null} if unknown
+     */
+    public Object getSource() {
+        return null;
+    }
+
+    /**
+     * Sets the priority of this job. Jobs with lower values are executed first.
+     * @param priority the priority
+     * @see HostLimitQueue
+     */
+    public void setPriority(double priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the priority of this job. Jobs with lower values are executed first.
+     * @return the priority, {@code 0} by default
+     */
+    public double getPriority() {
+        return priority;
+    }
+
+    void setQueuedTime(long queuedTime) {
+        this.queuedTime = queuedTime;
+    }
+
+    long getQueuedTime() {
+        return queuedTime;
+    }
+
     /**
      * Marks this job as canceled
      */
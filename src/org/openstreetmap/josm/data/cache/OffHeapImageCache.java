@@ -0,0 +1,392 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Byte-budgeted cache of decoded image pixels, stored outside of the Java heap.
+ * <p>
+ * Pixels are kept as 32 bit integers in direct {@link ByteBuffer} slabs, which are divided into pages of fixed size.
+ * An image occupies as many pages as needed, the pages do not need to be contiguous, so there is no fragmentation.
+ * Slabs are allocated lazily, until the budget is reached. Afterwards, entries are evicted using the CLOCK
+ * (second chance) algorithm, an approximation of LRU that does not need to reorder entries on every access.
+ * <p>
+ * Images are copied row by row into and out of the slabs. They are not wrapped around the direct buffers, as
+ * Java2D only accelerates images backed by Java arrays; drawing an image backed by a direct buffer would go through
+ * the generic per-pixel loops on every repaint.
+ *
+ * @param <K> the type of keys
+ */
+public class OffHeapImageCache<K> {
+    /** Number of pixels per page, 64 KiB */
+    private static final int PAGE_INTS = 16 * 1024;
+    private static final int PAGE_BYTES = PAGE_INTS * Integer.BYTES;
+    /** Number of pages per slab, 4 MiB */
+    private static final int PAGES_PER_SLAB = 64;
+
+    private final List<IntBuffer> slabs = new ArrayList<>();
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+    private final List<Entry<K>> clock = new ArrayList<>();
+    private int clockHand;
+    /** Number of entries in {@link #clock} that have already been removed from the cache */
+    private int removedInClock;
+    private int[] freePages = new int[PAGES_PER_SLAB];
+    private int freePageCount;
+    private int maxPages;
+    /** Set, if the JVM refused to allocate more direct memory, so that we do not try again and again */
+    private boolean allocationFailed;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    private static final class Entry<K> {
+        private final K key;
+        private final int width;
+        private final int height;
+        private final int type;
+        private final int[] pages;
+        private boolean referenced;
+        private boolean removed;
+
+        Entry(K key, int width, int height, int type, int[] pages) {
+            this.key = key;
+            this.width = width;
+            this.height = height;
+            this.type = type;
+            this.pages = pages;
+        }
+    }
+
+    /**
+     * Constructs a new {@code OffHeapImageCache}.
+     * @param budget the maximum number of bytes used for pixel data
+     */
+    public OffHeapImageCache(long budget) {
+        setBudget(budget);
+    }
+
+    /**
+     * Sets the maximum number of bytes used for pixel data. If the budget is decreased, entries are evicted until
+     * the cache fits into the new budget. Memory that is already allocated is only returned by {@link #clear()}.
+     * @param budget the maximum number of bytes used for pixel data
+     */
+    public synchronized void setBudget(long budget) {
+        maxPages = (int) Math.min(Integer.MAX_VALUE, Math.max(0, budget) / PAGE_BYTES);
+        allocationFailed = false;
+        while (getUsedPages() > maxPages && evictOne()) {
+            // evict until within budget
+        }
+    }
+
+    /**
+     * Returns the maximum number of bytes used for pixel data.
+     * @return the budget in bytes
+     */
+    public synchronized long getBudget() {
+        return (long) maxPages * PAGE_BYTES;
+    }
+
+    /**
+     * Returns the number of bytes currently used by cached images.
+     * @return the used bytes
+     */
+    public synchronized long getUsedBytes() {
+        return (long) getUsedPages() * PAGE_BYTES;
+    }
+
+    /**
+     * Returns the number of bytes allocated outside of the heap.
+     * @return the allocated bytes
+     */
+    public synchronized long getAllocatedBytes() {
+        return (long) slabs.size() * PAGES_PER_SLAB * PAGE_BYTES;
+    }
+
+    /**
+     * Returns the number of cached images.
+     * @return the number of cached images
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Stores the pixels of an image. A previous image with the same key is replaced.
+     * @param key the key
+     * @param image the image
+     * @return {@code true} if the image has been stored, {@code false} if it does not fit into the budget
+     */
+    public synchronized boolean put(K key, BufferedImage image) {
+        remove(key);
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int pageCount = (int) (((long) width * height + PAGE_INTS - 1) / PAGE_INTS);
+        if (pageCount > maxPages || !reservePages(pageCount)) {
+            return false;
+        }
+        int[] pages = new int[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            pages[i] = freePages[--freePageCount];
+        }
+        int type = getStoredType(image);
+        Entry<K> entry = new Entry<>(key, width, height, type, pages);
+        PixelCursor cursor = new PixelCursor(pages);
+        int[] row = new int[width];
+        boolean intRaster = type == image.getType();
+        for (int y = 0; y < height; y++) {
+            if (intRaster) {
+                image.getRaster().getDataElements(0, y, width, 1, row);
+            } else {
+                image.getRGB(0, y, width, 1, row, 0, width);
+            }
+            cursor.write(row);
+        }
+        entries.put(key, entry);
+        clock.add(entry);
+        return true;
+    }
+
+    /**
+     * Returns a new heap image with the pixels stored for the given key.
+     * @param key the key
+     * @return the image, or {@code null} if there is no image stored for the key
+     */
+    public synchronized BufferedImage get(K key) {
+        Entry<K> entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        entry.referenced = true;
+        BufferedImage image = new BufferedImage(entry.width, entry.height, entry.type);
+        WritableRaster raster = image.getRaster();
+        PixelCursor cursor = new PixelCursor(entry.pages);
+        int[] row = new int[entry.width];
+        for (int y = 0; y < entry.height; y++) {
+            cursor.read(row);
+            raster.setDataElements(0, y, entry.width, 1, row);
+        }
+        return image;
+    }
+
+    /**
+     * Determines whether an image is stored for the given key.
+     * @param key the key
+     * @return {@code true} if an image is stored for the key
+     */
+    public synchronized boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    /**
+     * Removes the image stored for the given key.
+     * @param key the key
+     * @return {@code true} if an image has been removed
+     */
+    public synchronized boolean remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            release(entry);
+            if (++removedInClock > clock.size() / 2) {
+                clock.removeIf(e -> e.removed);
+                clockHand = 0;
+                removedInClock = 0;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all images and releases the allocated memory.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        clock.clear();
+        clockHand = 0;
+        removedInClock = 0;
+        slabs.clear();
+        freePages = new int[PAGES_PER_SLAB];
+        freePageCount = 0;
+        allocationFailed = false;
+    }
+
+    /**
+     * Returns cache statistics as string.
+     * @return cache statistics as string
+     */
+    public synchronized String getStats() {
+        return String.format(Locale.ROOT, "Images: %d, used: %s, allocated: %s, budget: %s, hits: %d, misses: %d, evictions: %d",
+                entries.size(),
+                Utils.getSizeString(getUsedBytes(), Locale.getDefault()),
+                Utils.getSizeString(getAllocatedBytes(), Locale.getDefault()),
+                Utils.getSizeString(getBudget(), Locale.getDefault()),
+                hits, misses, evictions);
+    }
+
+    private static int getStoredType(BufferedImage image) {
+        switch (image.getType()) {
+        case BufferedImage.TYPE_INT_ARGB:
+        case BufferedImage.TYPE_INT_ARGB_PRE:
+        case BufferedImage.TYPE_INT_RGB:
+            return image.getType();
+        default:
+            return image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        }
+    }
+
+    private int getUsedPages() {
+        return slabs.size() * PAGES_PER_SLAB - freePageCount;
+    }
+
+    /**
+     * Makes sure that the given number of pages is free, by allocating new slabs or evicting entries.
+     * @param pageCount the number of pages needed
+     * @return {@code true} if enough pages are free
+     */
+    private boolean reservePages(int pageCount) {
+        while (getUsedPages() + pageCount > maxPages) {
+            if (!evictOne()) {
+                return false;
+            }
+        }
+        while (freePageCount < pageCount) {
+            if (!allocateSlab() && !evictOne()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean allocateSlab() {
+        if (allocationFailed) {
+            return false;
+        }
+        IntBuffer slab;
+        try {
+            slab = ByteBuffer.allocateDirect(PAGES_PER_SLAB * PAGE_BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+        } catch (OutOfMemoryError e) {
+            // direct memory is limited by -XX:MaxDirectMemorySize, continue with what we have
+            Logging.log(Logging.LEVEL_WARN, "Unable to allocate more memory for decoded images, limiting cache to "
+                    + Utils.getSizeString(getAllocatedBytes(), Locale.getDefault()), e);
+            allocationFailed = true;
+            return false;
+        }
+        int firstPage = slabs.size() * PAGES_PER_SLAB;
+        slabs.add(slab);
+        if (freePages.length < freePageCount + PAGES_PER_SLAB) {
+            int[] newFreePages = new int[slabs.size() * PAGES_PER_SLAB];
+            System.arraycopy(freePages, 0, newFreePages, 0, freePageCount);
+            freePages = newFreePages;
+        }
+        for (int i = PAGES_PER_SLAB - 1; i >= 0; i--) {
+            freePages[freePageCount++] = firstPage + i;
+        }
+        return true;
+    }
+
+    /**
+     * Evicts the next entry that has not been accessed since the clock hand passed it the last time.
+     * @return {@code true} if an entry has been evicted
+     */
+    private boolean evictOne() {
+        while (!clock.isEmpty()) {
+            if (clockHand >= clock.size()) {
+                clockHand = 0;
+            }
+            Entry<K> entry = clock.get(clockHand);
+            if (entry.removed) {
+                removeFromClock();
+                removedInClock--;
+            } else if (entry.referenced) {
+                entry.referenced = false;
+                clockHand++;
+            } else {
+                entries.remove(entry.key);
+                release(entry);
+                removeFromClock();
+                evictions++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void removeFromClock() {
+        // move the last entry into the gap, the order of the clock does not matter
+        int last = clock.size() - 1;
+        clock.set(clockHand, clock.get(last));
+        clock.remove(last);
+    }
+
+    private void release(Entry<K> entry) {
+        entry.removed = true;
+        for (int page : entry.pages) {
+            freePages[freePageCount++] = page;
+        }
+    }
+
+    /**
+     * Sequential access to the pixels stored in a list of pages.
+     */
+    private final class PixelCursor {
+        private final int[] pages;
+        private int page;
+        private int offset;
+
+        PixelCursor(int[] pages) {
+            this.pages = pages;
+        }
+
+        void write(int[] data) {
+            int done = 0;
+            while (done < data.length) {
+                IntBuffer buffer = position();
+                int len = Math.min(data.length - done, PAGE_INTS - offset);
+                buffer.put(data, done, len);
+                advance(len);
+                done += len;
+            }
+        }
+
+        void read(int[] data) {
+            int done = 0;
+            while (done < data.length) {
+                IntBuffer buffer = position();
+                int len = Math.min(data.length - done, PAGE_INTS - offset);
+                buffer.get(data, done, len);
+                advance(len);
+                done += len;
+            }
+        }
+
+        private IntBuffer position() {
+            int p = pages[page];
+            IntBuffer slab = slabs.get(p / PAGES_PER_SLAB).duplicate();
+            slab.position((p % PAGES_PER_SLAB) * PAGE_INTS + offset);
+            return slab;
+        }
+
+        private void advance(int len) {
+            offset += len;
+            if (offset == PAGE_INTS) {
+                page++;
+                offset = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,551 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.awt.Color;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import org.openstreetmap.josm.data.Bounds;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.data.projection.Projecting;
+
+/**
+ * A gpx track segment that stores its points in parallel primitive arrays instead of {@link WayPoint} objects.
+ * <p>
+ * Latitude, longitude, elevation, time, hdop and the projected coordinates of a point take less than 50 bytes
+ * this way, compared to several hundred bytes for a {@code WayPoint} with its attribute map. All other attributes and
+ * extensions are stored sparsely, only for the points that have them, so no information is lost.
+ * <p>
+ * {@link #getWayPoints()} materializes the points on demand. Once handed out, the materialized points are kept
+ * for the lifetime of the segment, so changes to them are preserved and their identity does not change. Code that
+ * only reads the points should use the index based accessors like {@link #lat(int)} or
+ * {@link #getEastNorth(int, Projecting)}, or {@link #getWayPointsView()}, to keep the memory savings.
+ */
+public class CompactGpxTrackSegment extends WithAttributes implements IGpxTrackSegment {
+
+    /** Segments with at least this number of points are stored compactly when reading gpx files, 0 disables it */
+    public static final IntegerProperty MIN_POINTS = new IntegerProperty("gpx.compact_segment.min_points", 10_000);
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+    /** Flag: the elevation was written as an integer (e.g. "12" instead of "12.0") */
+    private static final byte ELE_INTEGER = 1;
+
+    private final double[] lat;
+    private final double[] lon;
+    private final float[] ele;
+    private final long[] time;
+    private final float[] hdop;
+    private final byte[] flags;
+    /** Attributes, that are not stored in the arrays, by point index */
+    private final Map<Integer, Map<String, Object>> otherAttributes;
+    /** Extensions by point index */
+    private final Map<Integer, GpxExtensionCollection> pointExtensions;
+    private final Bounds bounds;
+    private final double length;
+
+    private double[] east;
+    private double[] north;
+    private Object eastNorthCacheKey;
+    private List<WayPoint> wayPoints;
+    private final List<WayPoint> view = new View();
+    /** The first and the last point of {@link #view}, so that the segment can be identified by its first point */
+    private WayPoint first;
+    private WayPoint last;
+    /** The drawing state of the points of {@link #view}, see {@link #setDrawState} */
+    private Color[] customColoring;
+    private byte[] drawLineAndDir;
+
+    /**
+     * Constructs a new {@code CompactGpxTrackSegment}.
+     * @param wayPoints list of waypoints
+     */
+    public CompactGpxTrackSegment(Collection<WayPoint> wayPoints) {
+        this(Builder.compact(wayPoints));
+    }
+
+    private CompactGpxTrackSegment(Builder builder) {
+        final int size = builder.size;
+        this.lat = Arrays.copyOf(builder.lat, size);
+        this.lon = Arrays.copyOf(builder.lon, size);
+        this.ele = Arrays.copyOf(builder.ele, size);
+        this.time = Arrays.copyOf(builder.time, size);
+        this.hdop = Arrays.copyOf(builder.hdop, size);
+        this.flags = Arrays.copyOf(builder.flags, size);
+        this.otherAttributes = builder.otherAttributes;
+        this.pointExtensions = builder.pointExtensions;
+        this.bounds = calculateBounds();
+        this.length = calculateLength();
+    }
+
+    /**
+     * Creates a track segment, using the compact representation for segments with many points.
+     * @param wayPoints list of waypoints
+     * @return a new track segment
+     * @see #MIN_POINTS
+     */
+    public static IGpxTrackSegment create(Collection<WayPoint> wayPoints) {
+        Builder builder = new Builder();
+        wayPoints.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Collects the points of a track segment while they are read. The points are moved into primitive arrays as soon
+     * as the segment reaches {@link #MIN_POINTS} points, so that the {@link WayPoint} objects of large segments can be
+     * garbage collected right away instead of being held until the end of the segment.
+     */
+    public static final class Builder {
+        private final int minPoints;
+        /** The points, as long as the segment is below {@link #minPoints}, {@code null} afterwards */
+        private List<WayPoint> pending = new ArrayList<>();
+        private int size;
+        private double[] lat = new double[0];
+        private double[] lon = new double[0];
+        private float[] ele = new float[0];
+        private long[] time = new long[0];
+        private float[] hdop = new float[0];
+        private byte[] flags = new byte[0];
+        private final Map<Integer, Map<String, Object>> otherAttributes = new HashMap<>();
+        private final Map<Integer, GpxExtensionCollection> pointExtensions = new HashMap<>();
+
+        /**
+         * Constructs a new {@code Builder}, using the compact representation for segments with at least
+         * {@link #MIN_POINTS} points.
+         */
+        public Builder() {
+            this(MIN_POINTS.get());
+        }
+
+        private Builder(int minPoints) {
+            this.minPoints = minPoints;
+        }
+
+        private static Builder compact(Collection<WayPoint> wayPoints) {
+            Builder builder = new Builder(0);
+            builder.pending = null;
+            builder.ensureCapacity(wayPoints.size());
+            wayPoints.forEach(builder::append);
+            return builder;
+        }
+
+        /**
+         * Adds a point to the end of the segment.
+         * @param wpt the point
+         */
+        public void add(WayPoint wpt) {
+            if (pending == null) {
+                append(wpt);
+            } else {
+                pending.add(wpt);
+                if (minPoints > 0 && pending.size() >= minPoints) {
+                    List<WayPoint> points = pending;
+                    pending = null;
+                    ensureCapacity(points.size());
+                    points.forEach(this::append);
+                }
+            }
+        }
+
+        /**
+         * Determines if no point has been added yet.
+         * @return {@code true} if no point has been added yet
+         */
+        public boolean isEmpty() {
+            return pending != null ? pending.isEmpty() : size == 0;
+        }
+
+        /**
+         * Creates the track segment with all points that have been added.
+         * @return a {@link CompactGpxTrackSegment} if the segment has at least {@link #MIN_POINTS} points,
+         * a {@link GpxTrackSegment} otherwise
+         */
+        public IGpxTrackSegment build() {
+            return pending != null ? new GpxTrackSegment(pending) : new CompactGpxTrackSegment(this);
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > lat.length) {
+                lat = Arrays.copyOf(lat, capacity);
+                lon = Arrays.copyOf(lon, capacity);
+                ele = Arrays.copyOf(ele, capacity);
+                time = Arrays.copyOf(time, capacity);
+                hdop = Arrays.copyOf(hdop, capacity);
+                flags = Arrays.copyOf(flags, capacity);
+            }
+        }
+
+        private void append(WayPoint wpt) {
+            if (size == lat.length) {
+                ensureCapacity(Math.max(16, size + (size >> 1)));
+            }
+            final int i = size++;
+            lat[i] = wpt.lat();
+            lon[i] = wpt.lon();
+            int stored = 0;
+            ele[i] = Float.NaN;
+            Object e = wpt.attr.get(PT_ELE);
+            if (e instanceof String && storeElevation(i, (String) e)) {
+                stored++;
+            }
+            time[i] = NO_TIME;
+            Object instant = wpt.attr.get(PT_TIME);
+            if (instant instanceof Instant && ((Instant) instant).getNano() % 1_000_000 == 0) {
+                time[i] = ((Instant) instant).toEpochMilli();
+                stored++;
+            }
+            hdop[i] = Float.NaN;
+            Object h = wpt.attr.get(PT_HDOP);
+            if (h instanceof Float && !((Float) h).isNaN()) {
+                hdop[i] = (Float) h;
+                stored++;
+            }
+            if (wpt.attr.size() > stored) {
+                Map<String, Object> other = new HashMap<>(wpt.attr);
+                if (!Float.isNaN(ele[i])) {
+                    other.remove(PT_ELE);
+                }
+                if (time[i] != NO_TIME) {
+                    other.remove(PT_TIME);
+                }
+                if (!Float.isNaN(hdop[i])) {
+                    other.remove(PT_HDOP);
+                }
+                otherAttributes.put(i, other);
+            }
+            if (wpt.hasExtensions() && !wpt.getExtensions().isEmpty()) {
+                // copy, so that the original waypoint is not kept alive by the parent references of the extensions
+                GpxExtensionCollection extensions = new GpxExtensionCollection();
+                copyExtensions(wpt.getExtensions(), extensions);
+                pointExtensions.put(i, extensions);
+            }
+        }
+
+        private boolean storeElevation(int i, String value) {
+            try {
+                float f = Float.parseFloat(value);
+                if (Float.isNaN(f)) {
+                    return false;
+                } else if (value.equals(Float.toString(f))) {
+                    ele[i] = f;
+                } else if (f == (int) f && value.equals(Integer.toString((int) f))) {
+                    ele[i] = f;
+                    flags[i] |= ELE_INTEGER;
+                } else {
+                    // the value would not be written the same way again, keep it in the attributes
+                    return false;
+                }
+                return true;
+            } catch (NumberFormatException e) {
+                return false;
+            }
+        }
+    }
+
+    private Bounds calculateBounds() {
+        Bounds result = null;
+        for (int i = 0; i < lat.length; i++) {
+            if (result == null) {
+                result = new Bounds(new LatLon(lat[i], lon[i]));
+            } else {
+                result.extend(lat[i], lon[i]);
+            }
+        }
+        return result;
+    }
+
+    private double calculateLength() {
+        double result = 0.0; // in meters
+        for (int i = 1; i < lat.length; i++) {
+            double d = new LatLon(lat[i - 1], lon[i - 1]).greatCircleDistance(new LatLon(lat[i], lon[i]));
+            if (!Double.isNaN(d) && !Double.isInfinite(d)) {
+                result += d;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of points.
+     * @return the number of points
+     */
+    public int size() {
+        return lat.length;
+    }
+
+    /**
+     * Returns the latitude of a point.
+     * @param index the index of the point
+     * @return the latitude
+     */
+    public double lat(int index) {
+        return lat[index];
+    }
+
+    /**
+     * Returns the longitude of a point.
+     * @param index the index of the point
+     * @return the longitude
+     */
+    public double lon(int index) {
+        return lon[index];
+    }
+
+    /**
+     * Determines if a point has a time.
+     * @param index the index of the point
+     * @return {@code true} if the point has a time
+     */
+    public boolean hasTime(int index) {
+        return time[index] != NO_TIME || getInstant(index) != null;
+    }
+
+    /**
+     * Returns the time of a point in milliseconds since the epoch.
+     * @param index the index of the point
+     * @return the time, or 0 if the point has no time (like {@link WayPoint#getTimeInMillis()})
+     */
+    public long getTimeInMillis(int index) {
+        if (time[index] != NO_TIME) {
+            return time[index];
+        }
+        Instant instant = getInstant(index);
+        return instant != null ? instant.toEpochMilli() : 0;
+    }
+
+    private Instant getInstant(int index) {
+        Map<String, Object> other = otherAttributes.get(index);
+        Object instant = other != null ? other.get(PT_TIME) : null;
+        return instant instanceof Instant ? (Instant) instant : null;
+    }
+
+    /**
+     * Returns the elevation of a point.
+     * @param index the index of the point
+     * @return the elevation, or {@code NaN} if the point has no (numeric) elevation
+     */
+    public double getElevation(int index) {
+        return ele[index];
+    }
+
+    /**
+     * Returns the horizontal dilution of precision of a point.
+     * @param index the index of the point
+     * @return the hdop, or {@code NaN} if the point has no hdop
+     */
+    public double getHdop(int index) {
+        return hdop[index];
+    }
+
+    /**
+     * Returns the projected coordinates of a point. The coordinates of all points are cached per projection.
+     * @param index the index of the point
+     * @param projecting the projection
+     * @return the projected coordinates
+     */
+    public synchronized EastNorth getEastNorth(int index, Projecting projecting) {
+        Object cacheKey = projecting.getCacheKey();
+        if (east == null || !Objects.equals(cacheKey, eastNorthCacheKey)) {
+            double[] newEast = new double[lat.length];
+            double[] newNorth = new double[lat.length];
+            for (int i = 0; i < lat.length; i++) {
+                EastNorth en = projecting.latlon2eastNorth(new LatLon(lat[i], lon[i]));
+                newEast[i] = en.east();
+                newNorth[i] = en.north();
+            }
+            east = newEast;
+            north = newNorth;
+            eastNorthCacheKey = cacheKey;
+        }
+        return new EastNorth(east[index], north[index]);
+    }
+
+    /**
+     * Invalidates the cached projected coordinates, of the arrays and of the materialized points.
+     */
+    public synchronized void invalidateEastNorthCache() {
+        east = null;
+        north = null;
+        eastNorthCacheKey = null;
+        if (wayPoints != null) {
+            wayPoints.forEach(WayPoint::invalidateEastNorthCache);
+        } else {
+            if (first != null) {
+                first.invalidateEastNorthCache();
+            }
+            if (last != null) {
+                last.invalidateEastNorthCache();
+            }
+        }
+    }
+
+    /**
+     * Stores the drawing state ({@link WayPoint#customColoring}, {@link WayPoint#drawLine} and {@link WayPoint#dir})
+     * of a point of {@link #getWayPointsView()}, so that it is restored when the point is created again.
+     * @param index the index of the point
+     * @param wpt the point with the drawing state
+     */
+    public synchronized void setDrawState(int index, WayPoint wpt) {
+        if (wayPoints != null) {
+            return;
+        }
+        if (customColoring == null) {
+            customColoring = new Color[lat.length];
+            drawLineAndDir = new byte[lat.length];
+        }
+        customColoring[index] = wpt.customColoring;
+        drawLineAndDir[index] = (byte) ((wpt.drawLine ? 0x80 : 0) | (wpt.dir & 0x7f));
+    }
+
+    private synchronized WayPoint getViewPoint(int index) {
+        if (wayPoints != null) {
+            return wayPoints.get(index);
+        } else if (index == 0 && first != null) {
+            return first;
+        } else if (index == lat.length - 1 && last != null) {
+            return last;
+        }
+        WayPoint wpt = createWayPoint(index);
+        if (customColoring != null) {
+            wpt.customColoring = customColoring[index];
+            wpt.drawLine = (drawLineAndDir[index] & 0x80) != 0;
+            wpt.dir = drawLineAndDir[index] & 0x7f;
+        }
+        if (index == 0) {
+            first = wpt;
+        } else if (index == lat.length - 1) {
+            last = wpt;
+        }
+        return wpt;
+    }
+
+    /**
+     * The points of the segment, created on each access unless they have been materialized.
+     */
+    private final class View extends AbstractList<WayPoint> implements RandomAccess {
+        @Override
+        public WayPoint get(int index) {
+            return getViewPoint(index);
+        }
+
+        @Override
+        public int size() {
+            return lat.length;
+        }
+    }
+
+    /**
+     * Creates a new {@link WayPoint} for a point.
+     * @param index the index of the point
+     * @return a new waypoint with all attributes and extensions of the point
+     */
+    public WayPoint createWayPoint(int index) {
+        WayPoint wpt = new WayPoint(new LatLon(lat[index], lon[index]));
+        Map<String, Object> other = otherAttributes.get(index);
+        if (other != null) {
+            wpt.attr.putAll(other);
+        }
+        if (!Float.isNaN(ele[index])) {
+            wpt.put(PT_ELE, (flags[index] & ELE_INTEGER) != 0 ? Integer.toString((int) ele[index]) : Float.toString(ele[index]));
+        }
+        if (time[index] != NO_TIME) {
+            wpt.setInstant(Instant.ofEpochMilli(time[index]));
+        }
+        if (!Float.isNaN(hdop[index])) {
+            wpt.put(PT_HDOP, hdop[index]);
+        }
+        GpxExtensionCollection extensions = pointExtensions.get(index);
+        if (extensions != null) {
+            copyExtensions(extensions, wpt.getExtensions());
+        }
+        return wpt;
+    }
+
+    private static void copyExtensions(GpxExtensionCollection from, GpxExtensionCollection to) {
+        for (GpxExtension extension : from) {
+            GpxExtension copy = new GpxExtension(extension.getPrefix(), extension.getKey(), extension.getValue());
+            copy.attr.putAll(extension.attr);
+            to.add(copy);
+            if (extension.hasExtensions()) {
+                copyExtensions(extension.getExtensions(), copy.getExtensions());
+            }
+            if (!extension.isVisible()) {
+                copy.hide();
+            }
+        }
+    }
+
+    @Override
+    public Bounds getBounds() {
+        return bounds == null ? null : new Bounds(bounds);
+    }
+
+    @Override
+    public synchronized Collection<WayPoint> getWayPoints() {
+        if (wayPoints == null) {
+            List<WayPoint> materialized = new ArrayList<>(lat.length);
+            for (int i = 0; i < lat.length; i++) {
+                materialized.add(getViewPoint(i));
+            }
+            wayPoints = Collections.unmodifiableList(materialized);
+            first = null;
+            last = null;
+            customColoring = null;
+            drawLineAndDir = null;
+        }
+        return wayPoints;
+    }
+
+    /**
+     * Returns the points of the segment for reading. Unless the points have been materialized by
+     * {@link #getWayPoints()}, they are created on each access and not kept, so changes to them are lost,
+     * except for the drawing state stored with {@link #setDrawState}. Only the first and the last point are kept,
+     * so that the segment can be identified by its first point like other segments.
+     * @return the points, in order
+     */
+    public List<WayPoint> getWayPointsView() {
+        return view;
+    }
+
+    @Override
+    public double length() {
+        return length;
+    }
+
+    @Override
+    public int getUpdateCount() {
+        return 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), Arrays.hashCode(lat), Arrays.hashCode(lon), Arrays.hashCode(time), otherAttributes);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || !super.equals(obj) || getClass() != obj.getClass())
+            return false;
+        CompactGpxTrackSegment other = (CompactGpxTrackSegment) obj;
+        return Arrays.equals(lat, other.lat)
+            && Arrays.equals(lon, other.lon)
+            && Arrays.equals(ele, other.ele)
+            && Arrays.equals(time, other.time)
+            && Arrays.equals(hdop, other.hdop)
+            && Arrays.equals(flags, other.flags)
+            && otherAttributes.equals(other.otherAttributes)
+            && pointExtensions.equals(other.pointExtensions);
+    }
+}
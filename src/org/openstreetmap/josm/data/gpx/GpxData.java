@@ -21,6 +21,8 @@ import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import org.openstreetmap.josm.data.Bounds;
@@ -28,6 +30,7 @@ import org.openstreetmap.josm.data.Data;
 import org.openstreetmap.josm.data.DataSource;
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.gpx.IGpxTrack.GpxTrackChangeListener;
+import org.openstreetmap.josm.data.projection.Projection;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
@@ -149,6 +152,9 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
 
     private List<GpxTrackSegmentSpan> segSpans;
 
+    /** Index of the track point times for image correlation, discarded when the data changes */
+    private GpxTimeIndex timeIndex;
+
     /**
      * Merges data from another object.
      * @param other existing GPX data
@@ -389,6 +395,18 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         return segSpans;
     }
 
+    /**
+     * Returns the index of the track point times used to correlate images, built with the given settings.
+     * @param settings the interpolation and tagging settings
+     * @return the index
+     */
+    synchronized GpxTimeIndex getTimeIndex(GpxTimeIndex.Settings settings) {
+        if (timeIndex == null || !timeIndex.getSettings().equals(settings)) {
+            timeIndex = new GpxTimeIndex(privateTracks, settings);
+        }
+        return timeIndex;
+    }
+
     private boolean anySegmentOverlapsWith(GpxTrackSegmentSpan other) {
         return getSegmentSpans().stream().anyMatch(s -> s.overlapsWith(other));
     }
@@ -668,6 +686,7 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
 
     /**
      * Gets a stream of all track points in the segments of the tracks of this data.
+     * The points of compact segments are created on demand, see {@link CompactGpxTrackSegment#getWayPointsView()}.
      * @return The stream
      * @see #getTracks()
      * @see IGpxTrack#getSegments()
@@ -675,7 +694,17 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
      * @since 12156
      */
     public synchronized Stream<WayPoint> getTrackPoints() {
-        return getTracks().stream().flatMap(trk -> trk.getSegments().stream()).flatMap(trkseg -> trkseg.getWayPoints().stream());
+        return getTracks().stream().flatMap(trk -> trk.getSegments().stream())
+                .flatMap(trkseg -> trkseg instanceof CompactGpxTrackSegment
+                        ? ((CompactGpxTrackSegment) trkseg).getWayPointsView().stream() : trkseg.getWayPoints().stream());
+    }
+
+    private static LongStream getTimesInMillis(IGpxTrackSegment seg) {
+        if (seg instanceof CompactGpxTrackSegment) {
+            CompactGpxTrackSegment compact = (CompactGpxTrackSegment) seg;
+            return IntStream.range(0, compact.size()).mapToLong(compact::getTimeInMillis);
+        }
+        return seg.getWayPoints().stream().mapToLong(WayPoint::getTimeInMillis);
     }
 
     /**
@@ -770,8 +799,7 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
      */
     public static Optional<Interval> getMinMaxTimeForTrack(IGpxTrack trk) {
         final LongSummaryStatistics statistics = trk.getSegments().stream()
-                .flatMap(seg -> seg.getWayPoints().stream())
-                .mapToLong(WayPoint::getTimeInMillis)
+                .flatMapToLong(GpxData::getTimesInMillis)
                 .summaryStatistics();
         return statistics.getCount() == 0 || (statistics.getMin() == 0 && statistics.getMax() == 0)
                 ? Optional.empty()
@@ -789,8 +817,7 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
         long now = System.currentTimeMillis();
         final LongSummaryStatistics statistics = tracks.stream()
                 .flatMap(trk -> trk.getSegments().stream())
-                .flatMap(seg -> seg.getWayPoints().stream())
-                .mapToLong(WayPoint::getTimeInMillis)
+                .flatMapToLong(GpxData::getTimesInMillis)
                 .filter(t -> t > 0 && t <= now)
                 .summaryStatistics();
         return statistics.getCount() == 0
@@ -831,93 +858,147 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
          * where RN = sqrt(PR^2 - PN^2)
          */
 
-        double pnminsq = tolerance * tolerance;
-        EastNorth bestEN = null;
-        double bestTime = Double.NaN;
-        double px = p.east();
-        double py = p.north();
-        double rx = 0.0, ry = 0.0, sx, sy, x, y;
+        final NearestPoint nearest = new NearestPoint(p, tolerance);
+        final Projection projection = ProjectionRegistry.getProjection();
         for (IGpxTrack track : privateTracks) {
             for (IGpxTrackSegment seg : track.getSegments()) {
-                WayPoint r = null;
-                for (WayPoint wpSeg : seg.getWayPoints()) {
-                    EastNorth en = wpSeg.getEastNorth(ProjectionRegistry.getProjection());
-                    if (r == null) {
-                        r = wpSeg;
-                        rx = en.east();
-                        ry = en.north();
-                        x = px - rx;
-                        y = py - ry;
-                        double pRsq = x * x + y * y;
-                        if (pRsq < pnminsq) {
-                            pnminsq = pRsq;
-                            bestEN = en;
-                            if (r.hasDate()) {
-                                bestTime = r.getTime();
-                            }
-                        }
-                    } else {
-                        sx = en.east();
-                        sy = en.north();
-                        double a = sy - ry;
-                        double b = rx - sx;
-                        double c = -a * rx - b * ry;
-                        double rssq = a * a + b * b;
-                        if (rssq == 0) {
-                            continue;
-                        }
-                        double pnsq = a * px + b * py + c;
-                        pnsq = pnsq * pnsq / rssq;
-                        if (pnsq < pnminsq) {
-                            x = px - rx;
-                            y = py - ry;
-                            double prsq = x * x + y * y;
-                            x = px - sx;
-                            y = py - sy;
-                            double pssq = x * x + y * y;
-                            if (prsq - pnsq <= rssq && pssq - pnsq <= rssq) {
-                                double rnoverRS = Math.sqrt((prsq - pnsq) / rssq);
-                                double nx = rx - rnoverRS * b;
-                                double ny = ry + rnoverRS * a;
-                                bestEN = new EastNorth(nx, ny);
-                                if (r.hasDate() && wpSeg.hasDate()) {
-                                    bestTime = r.getTime() + rnoverRS * (wpSeg.getTime() - r.getTime());
-                                }
-                                pnminsq = pnsq;
-                            }
-                        }
-                        r = wpSeg;
-                        rx = sx;
-                        ry = sy;
+                if (seg instanceof CompactGpxTrackSegment) {
+                    // work on the arrays, without materializing the points
+                    CompactGpxTrackSegment compact = (CompactGpxTrackSegment) seg;
+                    for (int i = 0; i < compact.size(); i++) {
+                        nearest.next(compact.getEastNorth(i, projection),
+                                compact.hasTime(i) ? compact.getTimeInMillis(i) / 1000. : Double.NaN);
                     }
-                }
-                if (r != null) {
-                    EastNorth c = r.getEastNorth(ProjectionRegistry.getProjection());
-                    /* if there is only one point in the seg, it will do this twice, but no matter */
-                    rx = c.east();
-                    ry = c.north();
-                    x = px - rx;
-                    y = py - ry;
-                    double prsq = x * x + y * y;
-                    if (prsq < pnminsq) {
-                        pnminsq = prsq;
-                        bestEN = c;
-                        if (r.hasDate()) {
-                            bestTime = r.getTime();
-                        }
+                } else {
+                    for (WayPoint wpSeg : seg.getWayPoints()) {
+                        nearest.next(wpSeg.getEastNorth(projection), wpSeg.hasDate() ? wpSeg.getTime() : Double.NaN);
                     }
                 }
+                nearest.endSegment();
             }
         }
-        if (bestEN == null)
+        if (nearest.bestEN == null)
             return null;
-        WayPoint best = new WayPoint(ProjectionRegistry.getProjection().eastNorth2latlon(bestEN));
-        if (!Double.isNaN(bestTime)) {
-            best.setTimeInMillis((long) (bestTime * 1000));
+        WayPoint best = new WayPoint(projection.eastNorth2latlon(nearest.bestEN));
+        if (!Double.isNaN(nearest.bestTime)) {
+            best.setTimeInMillis((long) (nearest.bestTime * 1000));
         }
         return best;
     }
 
+    /**
+     * Search state of {@link #nearestPointOnTrack}, fed with the points of one segment after the other.
+     */
+    private static final class NearestPoint {
+        /*
+         * assume the coordinates of P are xp,yp, and those of a section of track between two
+         * trackpoints are R=xr,yr and S=xs,ys. Let N be the projected point.
+         *
+         * The equation of RS is Ax + By + C = 0 where A = ys - yr B = xr - xs C = - Axr - Byr
+         *
+         * Also, note that the distance RS^2 is A^2 + B^2
+         *
+         * If RS^2 == 0.0 ignore the degenerate section of track
+         *
+         * PN^2 = (Axp + Byp + C)^2 / RS^2 that is the distance from P to the line
+         *
+         * so if PN^2 is less than PNmin^2 (initialized to tolerance) we can reject the line
+         * otherwise... determine if the projected poijnt lies within the bounds of the line: PR^2 -
+         * PN^2 <= RS^2 and PS^2 - PN^2 <= RS^2
+         *
+         * where PR^2 = (xp - xr)^2 + (yp-yr)^2 and PS^2 = (xp - xs)^2 + (yp-ys)^2
+         *
+         * If so, calculate N as xn = xr + (RN/RS) B yn = y1 + (RN/RS) A
+         *
+         * where RN = sqrt(PR^2 - PN^2)
+         */
+        private final double px;
+        private final double py;
+        private double pnminsq;
+        private EastNorth bestEN;
+        private double bestTime = Double.NaN;
+        /** The previous point of the segment (R), {@code null} at the start of a segment */
+        private EastNorth r;
+        private double rTime;
+
+        NearestPoint(EastNorth p, double tolerance) {
+            this.px = p.east();
+            this.py = p.north();
+            this.pnminsq = tolerance * tolerance;
+        }
+
+        /**
+         * Process the next point of the current segment
+         * @param en the projected coordinates of the point
+         * @param time the time of the point in seconds, or {@code NaN}
+         */
+        void next(EastNorth en, double time) {
+            if (r == null) {
+                checkPoint(en, time);
+                r = en;
+                rTime = time;
+                return;
+            }
+            double rx = r.east();
+            double ry = r.north();
+            double sx = en.east();
+            double sy = en.north();
+            double a = sy - ry;
+            double b = rx - sx;
+            double c = -a * rx - b * ry;
+            double rssq = a * a + b * b;
+            if (rssq == 0) {
+                return;
+            }
+            double pnsq = a * px + b * py + c;
+            pnsq = pnsq * pnsq / rssq;
+            if (pnsq < pnminsq) {
+                double x = px - rx;
+                double y = py - ry;
+                double prsq = x * x + y * y;
+                x = px - sx;
+                y = py - sy;
+                double pssq = x * x + y * y;
+                if (prsq - pnsq <= rssq && pssq - pnsq <= rssq) {
+                    double rnoverRS = Math.sqrt((prsq - pnsq) / rssq);
+                    double nx = rx - rnoverRS * b;
+                    double ny = ry + rnoverRS * a;
+                    bestEN = new EastNorth(nx, ny);
+                    if (!Double.isNaN(rTime) && !Double.isNaN(time)) {
+                        bestTime = rTime + rnoverRS * (time - rTime);
+                    }
+                    pnminsq = pnsq;
+                }
+            }
+            r = en;
+            rTime = time;
+        }
+
+        /**
+         * Finish the current segment
+         */
+        void endSegment() {
+            if (r != null) {
+                /* if there is only one point in the seg, it will do this twice, but no matter */
+                checkPoint(r, rTime);
+            }
+            r = null;
+        }
+
+        private void checkPoint(EastNorth en, double time) {
+            double x = px - en.east();
+            double y = py - en.north();
+            double prsq = x * x + y * y;
+            if (prsq < pnminsq) {
+                pnminsq = prsq;
+                bestEN = en;
+                if (!Double.isNaN(time)) {
+                    bestTime = time;
+                }
+            }
+        }
+    }
+
     /**
      * Iterate over all track segments and over all routes.
      *
@@ -935,7 +1016,16 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
      */
     public synchronized void resetEastNorthCache() {
         privateWaypoints.forEach(WayPoint::invalidateEastNorthCache);
-        getTrackPoints().forEach(WayPoint::invalidateEastNorthCache);
+        for (IGpxTrack track : privateTracks) {
+            for (IGpxTrackSegment seg : track.getSegments()) {
+                if (seg instanceof CompactGpxTrackSegment) {
+                    // don't materialize the points just to invalidate them
+                    ((CompactGpxTrackSegment) seg).invalidateEastNorthCache();
+                } else {
+                    seg.getWayPoints().forEach(WayPoint::invalidateEastNorthCache);
+                }
+            }
+        }
         for (GpxRoute route: getRoutes()) {
             if (route.routePoints == null) {
                 continue;
@@ -1153,6 +1243,9 @@ public class GpxData extends WithAttributes implements Data, IGpxLayerPrefs {
     }
 
     private void fireInvalidate(boolean setModified) {
+        synchronized (this) {
+            timeIndex = null;
+        }
         if (setModified) {
             setModified(true);
         }
@@ -6,7 +6,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
 
 import org.openstreetmap.josm.data.coor.ILatLon;
 import org.openstreetmap.josm.data.coor.LatLon;
@@ -14,7 +13,6 @@ import org.openstreetmap.josm.data.projection.Projection;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
-import org.openstreetmap.josm.tools.Pair;
 import org.openstreetmap.josm.tools.Utils;
 
 /**
@@ -78,83 +76,34 @@ public final class GpxImageCorrelation {
         final long offset = settings.getOffset();
         final TimeSource imgTimeSource = settings.getImgTimeSource();
 
-        boolean isFirst = true;
-        long prevWpTime = 0;
-        WayPoint prevWp = null;
-
-        for (List<List<WayPoint>> segs : loadTracks(selectedGpx.getTracks())) {
-            boolean firstSegment = true;
-            for (List<WayPoint> wps : segs) {
-                int size = wps.size();
-                for (int i = 0; i < size; i++) {
-                    final WayPoint curWp = wps.get(i);
-                    // Interpolate timestamps in the segment, if one or more waypoints miss them
-                    if (!curWp.hasDate()) {
-                        //check if any of the following waypoints has a timestamp...
-                        if (i > 0 && wps.get(i - 1).hasDate()) {
-                            long prevWpTimeNoOffset = wps.get(i - 1).getTimeInMillis();
-                            double totalDist = 0;
-                            List<Pair<Double, WayPoint>> nextWps = new ArrayList<>();
-                            for (int j = i; j < size; j++) {
-                                totalDist += wps.get(j - 1).greatCircleDistance(wps.get(j));
-                                nextWps.add(new Pair<>(totalDist, wps.get(j)));
-                                if (wps.get(j).hasDate()) {
-                                    // ...if yes, interpolate everything in between
-                                    long timeDiff = wps.get(j).getTimeInMillis() - prevWpTimeNoOffset;
-                                    for (Pair<Double, WayPoint> pair : nextWps) {
-                                        pair.b.setTimeInMillis((long) (prevWpTimeNoOffset + (timeDiff * (pair.a / totalDist))));
-                                    }
-                                    break;
-                                }
-                            }
-                            if (!curWp.hasDate()) {
-                                break; //It's pointless to continue with this segment, because none of the following waypoints had a timestamp
-                            }
-                        } else {
-                            // Timestamps on waypoints without preceding timestamps in the same segment can not be interpolated, so try next one
-                            continue;
-                        }
-                    }
-
-                    final long curWpTime = curWp.getTimeInMillis() + offset;
-                    boolean interpolate = true;
-                    int tagTime = 0;
-                    if (i == 0) {
-                        if (firstSegment) {
-                            // First segment of the track, so apply settings for tracks
-                            firstSegment = false;
-                            if (!trkInt || isFirst || prevWp == null ||
-                                    Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(trkTime) ||
-                                    prevWp.greatCircleDistance(curWp) > trkDist) {
-                                isFirst = false;
-                                interpolate = false;
-                                if (trkTag) {
-                                    tagTime = trkTagTime;
-                                }
-                            }
-                        } else {
-                            // Apply settings for segments
-                            if (!segInt || prevWp == null ||
-                                    Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(segTime) ||
-                                    prevWp.greatCircleDistance(curWp) > segDist) {
-                                interpolate = false;
-                                if (segTag) {
-                                    tagTime = segTagTime;
-                                }
-                            }
-                        }
-                    }
-                    WayPoint nextWp = i < size - 1 ? wps.get(i + 1) : null;
-                    ret += matchPoints(images, prevWp, prevWpTime, curWp, curWpTime, imgTimeSource, offset,
-                                       interpolate, tagTime, nextWp, dirpos, datumSettings);
-                    prevWp = curWp;
-                    prevWpTime = curWpTime;
-                }
-            }
+        final GpxTimeIndex index = selectedGpx.getTimeIndex(new GpxTimeIndex.Settings(
+                trkInt, trkTime, trkDist, trkTag, trkTagTime, segInt, segTime, segDist, segTag, segTagTime));
+        final long[] imageTimes = new long[images.size()];
+        for (int j = 0; j < imageTimes.length; j++) {
+            imageTimes[j] = images.get(j).getTimeSourceInstant(imgTimeSource).toEpochMilli();
         }
-        if (trkTag && prevWp != null) {
-            ret += matchPoints(images, prevWp, prevWpTime, prevWp, prevWpTime, imgTimeSource, offset,
-                               false, trkTagTime, null, dirpos, datumSettings);
+        final int[] intervals = index.find(imageTimes, offset);
+
+        // the latest image of an interval is directed to the next track point, the other ones to the current track point
+        final boolean[] hasLaterImage = new boolean[index.size()];
+        for (int j = images.size() - 1; j >= 0; j--) {
+            final int k = intervals[j];
+            if (k < 0 || images.get(j).getTmp().hasNewGpsData()) {
+                continue;
+            }
+            final WayPoint prevWp = index.getPrevWp(k);
+            final long prevWpTime = index.getPrevWpTime(k, offset);
+            final WayPoint curWp = index.getCurWp(k);
+            final long curWpTime = index.getCurWpTime(k, offset);
+            final WayPoint nextWp = index.getNextWp(k);
+            if (!index.isInterpolated(k) || index.isLast(k)) {
+                tagImage(images.get(j), imageTimes[j], prevWp, prevWpTime, curWp, curWpTime, offset, nextWp, dirpos);
+            } else {
+                interpolateImage(images.get(j), prevWp, prevWpTime, curWp, curWpTime, imgTimeSource, offset,
+                        hasLaterImage[k] ? curWp.getCoor() : nextWp.getCoor(), dirpos, datumSettings);
+            }
+            hasLaterImage[k] = true;
+            ret++;
         }
         Logging.debug("Correlated {0} total points", ret);
         return ret;
@@ -165,7 +114,9 @@ public final class GpxImageCorrelation {
         for (IGpxTrack trk : tracks) {
             List<List<WayPoint>> segs = new ArrayList<>();
             for (IGpxTrackSegment seg : trk.getSegments()) {
-                List<WayPoint> wps = new ArrayList<>(seg.getWayPoints());
+                // the points of compact segments are created on demand, they are not materialized
+                List<WayPoint> wps = seg instanceof CompactGpxTrackSegment
+                        ? ((CompactGpxTrackSegment) seg).getWayPointsView() : new ArrayList<>(seg.getWayPoints());
                 if (!wps.isEmpty()) {
                     //remove waypoints at the beginning of the track/segment without timestamps
                     int wp;
@@ -355,67 +306,88 @@ public final class GpxImageCorrelation {
         return null;
     }
 
+    /**
+     * Tags an image with the position of the nearer one of two track points.
+     * @param curImg the image
+     * @param time the time of the image
+     * @param prevWp the previous track point, may be {@code null}
+     * @param prevWpTime the time of the previous track point, with offset
+     * @param curWp the current track point
+     * @param curWpTime the time of the current track point, with offset
+     * @param offset the offset between image and track point times
+     * @param nextWp the next track point of the segment, {@code null} if the current point is the last one
+     * @param dirpos the image direction settings
+     */
     // CHECKSTYLE.OFF: ParameterNumber
-    private static int matchPoints(List<? extends GpxImageEntry>
-                                        images,
-                                        WayPoint prevWp,
-                                        long prevWpTime,
-                                        WayPoint curWp,
-                                        long curWpTime,
-                                        TimeSource imgTimeSource,
-                                        long offset,
-                                        boolean interpolate,
-                                        int tagTime,
-                                        WayPoint nextWp,
-                                        GpxImageDirectionPositionSettings dirpos,
-                                        GpxImageDatumSettings datumSettings) {
-
-        final boolean isLast = nextWp == null;
-
-        // i is the index of the timewise last photo that has the same or earlier EXIF time
-        int i;
-        if (isLast) {
-            i = images.size() - 1;
+    private static void tagImage(GpxImageEntry curImg,
+                                 long time,
+                                 WayPoint prevWp,
+                                 long prevWpTime,
+                                 WayPoint curWp,
+                                 long curWpTime,
+                                 long offset,
+                                 WayPoint nextWp,
+                                 GpxImageDirectionPositionSettings dirpos) {
+        final GpxImageEntry curTmp = curImg.getTmp();
+        final long half = Math.abs(curWpTime - prevWpTime) / 2;
+        if (prevWp != null && time < curWpTime - half) {
+            curTmp.setPos(prevWp.getCoor());
         } else {
-            i = getLastIndexOfListBefore(images, curWpTime, imgTimeSource);
+            curTmp.setPos(curWp.getCoor());
         }
-
-        if (Logging.isDebugEnabled()) {
-            Logging.debug("Correlating images for i={1} - curWp={2}/{3} - prevWp={4}/{5} - nextWp={6} - tagTime={7} - interpolate={8}",
-                    i, curWp, curWpTime, prevWp, prevWpTime, nextWp, tagTime, interpolate);
-        }
-
-        // no photos match
-        if (i < 0) {
-            Logging.debug("Correlated nothing, no photos match");
-            return 0;
+        //TODO fix this, nextWp doesn't exist here
+        if (nextWp != null && dirpos.isSetImageDirection()) {
+            double direction = curWp.bearing(nextWp);
+            curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
+        } else if (nextWp == null && prevWp != null && dirpos.isSetImageDirection()) {
+            //last image in the sequence without any next waypoint-> get previous direction angle
+            double direction = prevWp.bearing(curWp);
+            curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
         }
+        curTmp.setGpsTime(curImg.getExifInstant().minusMillis(offset));
+        curTmp.flagNewGpsData();
+        curImg.tmpUpdated();
+    }
 
-        int ret = 0;
+    /**
+     * Tags an image with a position interpolated between two track points, assuming a constant speed in between.
+     * @param curImg the image
+     * @param prevWp the previous track point
+     * @param prevWpTime the time of the previous track point, with offset
+     * @param curWp the current track point
+     * @param curWpTime the time of the current track point, with offset
+     * @param imgTimeSource the time source of the image
+     * @param offset the offset between image and track point times
+     * @param nextCoorForDirection the position the image is directed to
+     * @param dirpos the image direction and position settings
+     * @param datumSettings the GPS datum settings
+     */
+    private static void interpolateImage(GpxImageEntry curImg,
+                                         WayPoint prevWp,
+                                         long prevWpTime,
+                                         WayPoint curWp,
+                                         long curWpTime,
+                                         TimeSource imgTimeSource,
+                                         long offset,
+                                         LatLon nextCoorForDirection,
+                                         GpxImageDirectionPositionSettings dirpos,
+                                         GpxImageDatumSettings datumSettings) {
         Double speed = null;
-        Double prevElevation = null;
-        Double prevHPosErr = null;
-        Double prevGpsDop = null;
-        Double prevGpsTrack = null;
-        String prevGpsFixMode = null;
         //list of differential GPS mode
         //TODO move these lists in Gpx.Constants?
         final List<String> diffMode = Arrays.asList("dgps", "float rtk", "rtk");
         final List<String> positioningModes = Arrays.asList("none", "manual", "estimated", "2d", "3d", "dgps", "float rtk", "rtk");
 
-
-        if (prevWp != null && interpolate) {
-            double distance = prevWp.greatCircleDistance(curWp);
-            // This is in km/h, 3.6 * m/s
-            if (curWpTime > prevWpTime) {
-                speed = 3600 * distance / (curWpTime - prevWpTime);
-            }
-            prevElevation = getElevation(prevWp);
-            prevHPosErr = getHPosErr(prevWp);
-            prevGpsDop = getGpsDop(prevWp);
-            prevGpsTrack = getGpsTrack(prevWp);
-            prevGpsFixMode = prevWp.getString(GpxConstants.PT_FIX);
+        double distance = prevWp.greatCircleDistance(curWp);
+        // This is in km/h, 3.6 * m/s
+        if (curWpTime > prevWpTime) {
+            speed = 3600 * distance / (curWpTime - prevWpTime);
         }
+        final Double prevElevation = getElevation(prevWp);
+        final Double prevHPosErr = getHPosErr(prevWp);
+        final Double prevGpsDop = getGpsDop(prevWp);
+        final Double prevGpsTrack = getGpsTrack(prevWp);
+        final String prevGpsFixMode = prevWp.getString(GpxConstants.PT_FIX);
 
         final Double curElevation = getElevation(curWp);
         final Double curHPosErr = getHPosErr(curWp);
@@ -423,148 +395,93 @@ public final class GpxImageCorrelation {
         final Double curGpsTrack = getGpsTrack(curWp);
         final String curGpsFixMode = curWp.getString(GpxConstants.PT_FIX);
 
-        if (!interpolate || isLast) {
-            final long half = Math.abs(curWpTime - prevWpTime) / 2;
-            while (i >= 0) {
-                final GpxImageEntry curImg = images.get(i);
-                final GpxImageEntry curTmp = curImg.getTmp();
-                final long time = curImg.getTimeSourceInstant(imgTimeSource).toEpochMilli();
-                if ((!isLast && time > curWpTime) || time < prevWpTime) {
-                    break;
-                }
-                long tagms = TimeUnit.MINUTES.toMillis(tagTime);
-                if (!curTmp.hasNewGpsData() &&
-                        (Math.abs(time - curWpTime) <= tagms
-                        || Math.abs(prevWpTime - time) <= tagms)) {
-                    if (prevWp != null && time < curWpTime - half) {
-                        curTmp.setPos(prevWp.getCoor());
-                    } else {
-                        curTmp.setPos(curWp.getCoor());
-                    }
-                    //TODO fix this, nextWp doesn't exist here
-                    if (nextWp != null && dirpos.isSetImageDirection()) {
-                        double direction = curWp.bearing(nextWp);
-                        curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
-                    } else if (nextWp == null && isLast && dirpos.isSetImageDirection()) {
-                        //last image in the sequence without any next waypoint-> get previous direction angle
-                        double direction = prevWp.bearing(curWp);
-                        curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
-                    }
-                    curTmp.setGpsTime(curImg.getExifInstant().minusMillis(offset));
-                    curTmp.flagNewGpsData();
-                    curImg.tmpUpdated();
-
-                    ret++;
-                }
-                i--;
+        final long imgTime = curImg.getTimeSourceInstant(imgTimeSource).toEpochMilli();
+        final GpxImageEntry curTmp = curImg.getTmp();
+        // The values of timeDiff are between 0 and 1, it is not seconds but a dimensionless variable
+        final double timeDiff = (double) (imgTime - prevWpTime) / Math.abs(curWpTime - prevWpTime);
+        final boolean shiftXY = dirpos.getShiftImageX() != 0d || dirpos.getShiftImageY() != 0d;
+        final LatLon prevCoor = prevWp.getCoor();
+        final LatLon curCoor = curWp.getCoor();
+        LatLon position = prevCoor.interpolate(curCoor, timeDiff);
+        if (nextCoorForDirection != null && (shiftXY || dirpos.isSetImageDirection())) {
+            double direction = position.bearing((ILatLon) nextCoorForDirection);
+            if (dirpos.isSetImageDirection()) {
+                curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
             }
-        } else if (prevWp != null) {
-            // This code gives a simple linear interpolation of the coordinates between current and
-            // previous track point assuming a constant speed in between
-            @SuppressWarnings("null")
-            LatLon nextCoorForDirection = nextWp.getCoor();
-            while (i >= 0) {
-                final GpxImageEntry curImg = images.get(i);
-                final long imgTime = curImg.getTimeSourceInstant(imgTimeSource).toEpochMilli();
-                if (imgTime < prevWpTime) {
-                    break;
-                }
-                final GpxImageEntry curTmp = curImg.getTmp();
-                if (!curTmp.hasNewGpsData()) {
-                    // The values of timeDiff are between 0 and 1, it is not seconds but a dimensionless variable
-                    final double timeDiff = (double) (imgTime - prevWpTime) / Math.abs(curWpTime - prevWpTime);
-                    final boolean shiftXY = dirpos.getShiftImageX() != 0d || dirpos.getShiftImageY() != 0d;
-                    final LatLon prevCoor = prevWp.getCoor();
-                    final LatLon curCoor = curWp.getCoor();
-                    LatLon position = prevCoor.interpolate(curCoor, timeDiff);
-                    if (nextCoorForDirection != null && (shiftXY || dirpos.isSetImageDirection())) {
-                        double direction = position.bearing((ILatLon) nextCoorForDirection);
-                        if (dirpos.isSetImageDirection()) {
-                            curTmp.setExifImgDir(computeDirection(direction, dirpos.getImageDirectionAngleOffset()));
-                        }
-                        if (shiftXY) {
-                            final Projection proj = ProjectionRegistry.getProjection();
-                            final double offsetX = dirpos.getShiftImageX();
-                            final double offsetY = dirpos.getShiftImageY();
-                            final double r = Math.sqrt(offsetX * offsetX + offsetY * offsetY);
-                            final double orientation = (direction + LatLon.ZERO.bearing((ILatLon) new LatLon(offsetX, offsetY))) % (2 * Math.PI);
-                            position = proj.eastNorth2latlon(proj.latlon2eastNorth(position)
-                                    .add(r * Math.sin(orientation), r * Math.cos(orientation)));
-                        }
-                    }
-                    curTmp.setPos(position);
-                    curTmp.setSpeed(speed);
-                    if (curElevation != null && prevElevation != null) {
-                        curTmp.setElevation(prevElevation + (curElevation - prevElevation) * timeDiff + dirpos.getElevationShift());
-                    }
-
-                    // Add exif GpsHPositioningerror interpolated value
-                    if (curHPosErr != null && prevHPosErr != null) {
-                        Double interpolatedValue = prevHPosErr + (curHPosErr - prevHPosErr) * timeDiff;
-                        curTmp.setExifHPosErr(Math.round(interpolatedValue*10000)/10000.0);
-                    }
+            if (shiftXY) {
+                final Projection proj = ProjectionRegistry.getProjection();
+                final double offsetX = dirpos.getShiftImageX();
+                final double offsetY = dirpos.getShiftImageY();
+                final double r = Math.sqrt(offsetX * offsetX + offsetY * offsetY);
+                final double orientation = (direction + LatLon.ZERO.bearing((ILatLon) new LatLon(offsetX, offsetY))) % (2 * Math.PI);
+                position = proj.eastNorth2latlon(proj.latlon2eastNorth(position)
+                        .add(r * Math.sin(orientation), r * Math.cos(orientation)));
+            }
+        }
+        curTmp.setPos(position);
+        curTmp.setSpeed(speed);
+        if (curElevation != null && prevElevation != null) {
+            curTmp.setElevation(prevElevation + (curElevation - prevElevation) * timeDiff + dirpos.getElevationShift());
+        }
 
-                    // Add exif GpsDifferentialMode
-                    // Get previous and current waypoint differential. As no interpolation is possible,
-                    // set differential mode to 0 if any waypoint isn't in differential mode.
-                    if (prevGpsFixMode != null) {
-                        if (diffMode.contains(prevGpsFixMode) && diffMode.contains(curGpsFixMode)) {
-                            curTmp.setGpsDiffMode(1);
-                        } else {
-                            curTmp.setGpsDiffMode(0);
-                        }
-                    }
+        // Add exif GpsHPositioningerror interpolated value
+        if (curHPosErr != null && prevHPosErr != null) {
+            Double interpolatedValue = prevHPosErr + (curHPosErr - prevHPosErr) * timeDiff;
+            curTmp.setExifHPosErr(Math.round(interpolatedValue*10000)/10000.0);
+        }
 
-                    // Add exif GpsMeasureMode
-                    if (prevGpsFixMode != null && curGpsFixMode != null) {
-                        Integer gps2d3dMode = getGps2d3dMode(prevGpsFixMode, curGpsFixMode, positioningModes);
-                        if (gps2d3dMode != null) {
-                            curTmp.setGps2d3dMode(gps2d3dMode);
-                        }
-                    }
-                    
-                    // Add exif GpsProcessingMethod. As no interpolation is possible,
-                    // set processing method to the "lowest" previous and current processing method value.
-                    if (prevGpsFixMode != null && curGpsFixMode != null) {
-                        String gpsProcMethod = getGpsProcMethod(prevGpsFixMode, curGpsFixMode, positioningModes);                       
-                        if (gpsProcMethod != null) {
-                            curTmp.setExifGpsProcMethod(gpsProcMethod);
-                        }
-                    }
+        // Add exif GpsDifferentialMode
+        // Get previous and current waypoint differential. As no interpolation is possible,
+        // set differential mode to 0 if any waypoint isn't in differential mode.
+        if (prevGpsFixMode != null) {
+            if (diffMode.contains(prevGpsFixMode) && diffMode.contains(curGpsFixMode)) {
+                curTmp.setGpsDiffMode(1);
+            } else {
+                curTmp.setGpsDiffMode(0);
+            }
+        }
 
-                    // Add Exif GpsDop with interpolated GPS DOP value
-                    if (curGpsDop != null && prevGpsDop != null) {
-                        Double interpolatedValue = prevGpsDop + (curGpsDop - prevGpsDop) * timeDiff;
-                        curTmp.setExifGpsDop(Math.round(interpolatedValue*100)/100.0);
-                    }
+        // Add exif GpsMeasureMode
+        if (prevGpsFixMode != null && curGpsFixMode != null) {
+            Integer gps2d3dMode = getGps2d3dMode(prevGpsFixMode, curGpsFixMode, positioningModes);
+            if (gps2d3dMode != null) {
+                curTmp.setGps2d3dMode(gps2d3dMode);
+            }
+        }
 
-                    // Add Exif GpsTrack tag
-                    if (dirpos.isSetGpxTrackDirection()) {
-                        if (curGpsTrack != null && prevGpsTrack != null) {
-                            curTmp.setExifGpsTrack(prevGpsTrack + (curGpsTrack - prevGpsTrack) * timeDiff);
-                        }
-                    }
-                    
-                    // Add GpsDatum tag
-                    if (datumSettings.isSetImageGpsDatum()) {
-                        if (diffMode.contains(prevGpsFixMode) && diffMode.contains(curGpsFixMode)) {
-                            curTmp.setExifGpsDatum(datumSettings.getImageGpsDatum());
-                        } else //without differential mode, datum is WGS-84
-                            curTmp.setExifGpsDatum("WGS-84");
-                    }
+        // Add exif GpsProcessingMethod. As no interpolation is possible,
+        // set processing method to the "lowest" previous and current processing method value.
+        if (prevGpsFixMode != null && curGpsFixMode != null) {
+            String gpsProcMethod = getGpsProcMethod(prevGpsFixMode, curGpsFixMode, positioningModes);
+            if (gpsProcMethod != null) {
+                curTmp.setExifGpsProcMethod(gpsProcMethod);
+            }
+        }
 
-                    curTmp.setGpsTime(curImg.getTimeSourceInstant(imgTimeSource).minusMillis(offset));
-                    curTmp.flagNewGpsData();
-                    curImg.tmpUpdated();
+        // Add Exif GpsDop with interpolated GPS DOP value
+        if (curGpsDop != null && prevGpsDop != null) {
+            Double interpolatedValue = prevGpsDop + (curGpsDop - prevGpsDop) * timeDiff;
+            curTmp.setExifGpsDop(Math.round(interpolatedValue*100)/100.0);
+        }
 
-                    nextCoorForDirection = curCoor;
-                    ret++;
-                }
-                i--;
+        // Add Exif GpsTrack tag
+        if (dirpos.isSetGpxTrackDirection()) {
+            if (curGpsTrack != null && prevGpsTrack != null) {
+                curTmp.setExifGpsTrack(prevGpsTrack + (curGpsTrack - prevGpsTrack) * timeDiff);
             }
         }
-        Logging.debug("Correlated {0} image(s)", ret);
-        return ret;
+
+        // Add GpsDatum tag
+        if (datumSettings.isSetImageGpsDatum()) {
+            if (diffMode.contains(prevGpsFixMode) && diffMode.contains(curGpsFixMode)) {
+                curTmp.setExifGpsDatum(datumSettings.getImageGpsDatum());
+            } else //without differential mode, datum is WGS-84
+                curTmp.setExifGpsDatum("WGS-84");
+        }
+
+        curTmp.setGpsTime(curImg.getTimeSourceInstant(imgTimeSource).minusMillis(offset));
+        curTmp.flagNewGpsData();
+        curImg.tmpUpdated();
     }
     // CHECKSTYLE.ON: ParameterNumber
 
@@ -577,44 +494,4 @@ public final class GpxImageCorrelation {
     private static double computeDirection(double direction, double angleOffset) {
         return (Utils.toDegrees(direction) + angleOffset) % 360d;
     }
-
-    /**
-     * Finds the last image in the sorted image list which is before the given time
-     * @param images list of images
-     * @param searchedTime time to search
-     * @return index of last image before given time
-     */
-    private static int getLastIndexOfListBefore(List<? extends GpxImageEntry> images, long searchedTime, TimeSource imgTimeSource) {
-        int lstSize = images.size();
-
-        // No photos or the first photo taken is later than the search period
-        if (lstSize == 0 || searchedTime < images.get(0).getTimeSourceInstant(imgTimeSource).toEpochMilli())
-            return -1;
-
-        // The search period is later than the last photo
-        if (searchedTime > images.get(lstSize - 1).getTimeSourceInstant(imgTimeSource).toEpochMilli())
-            return lstSize-1;
-
-        // The searched index is somewhere in the middle, do a binary search from the beginning
-        int curIndex;
-        int startIndex = 0;
-        int endIndex = lstSize-1;
-        while (endIndex - startIndex > 1) {
-            curIndex = (endIndex + startIndex) / 2;
-            if (searchedTime > images.get(curIndex).getTimeSourceInstant(imgTimeSource).toEpochMilli()) {
-                startIndex = curIndex;
-            } else {
-                endIndex = curIndex;
-            }
-        }
-        if (searchedTime < images.get(endIndex).getTimeSourceInstant(imgTimeSource).toEpochMilli())
-            return startIndex;
-
-        // This final loop is to check if photos with the exact same EXIF time follows
-        while ((endIndex < (lstSize - 1)) && (images.get(endIndex).getTimeSourceInstant(imgTimeSource).toEpochMilli()
-                == images.get(endIndex + 1).getTimeSourceInstant(imgTimeSource).toEpochMilli())) {
-            endIndex++;
-        }
-        return endIndex;
-    }
 }
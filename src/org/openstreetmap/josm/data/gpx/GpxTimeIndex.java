@@ -0,0 +1,395 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openstreetmap.josm.tools.Pair;
+
+/**
+ * Index of the track point times of GPX data, used to correlate images with the tracks.
+ * <p>
+ * The tracks are walked once in the order of the correlation, and each track point becomes an interval from the previous
+ * track point to this one. An image is correlated with the first interval that contains its time, so the intervals are
+ * sorted by start time and the matching intervals of an image are found by binary search. The index does not depend on
+ * the time offset of the images, it is reused while the offset is adjusted. The intervals matched by the images are
+ * cached for the last offsets. The index only refers to the track points by their position in their segment, so that
+ * the points of compact segments are not kept, see {@link CompactGpxTrackSegment#getWayPointsView()}.
+ */
+final class GpxTimeIndex {
+
+    /** Images are matched in parallel above this number of images */
+    private static final int PARALLEL_THRESHOLD = 1000;
+    /** Number of offsets to cache the matched intervals for */
+    private static final int CACHED_OFFSETS = 16;
+
+    private static final byte TAG_NONE = 0;
+    private static final byte TAG_TRACK = 1;
+    private static final byte TAG_SEGMENT = 2;
+
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    /**
+     * Settings used to interpolate and tag images between tracks and segments.
+     */
+    static final class Settings {
+        final boolean trkInt;
+        final int trkTime;
+        final int trkDist;
+        final boolean trkTag;
+        final int trkTagTime;
+        final boolean segInt;
+        final int segTime;
+        final int segDist;
+        final boolean segTag;
+        final int segTagTime;
+
+        // CHECKSTYLE.OFF: ParameterNumber
+        Settings(boolean trkInt, int trkTime, int trkDist, boolean trkTag, int trkTagTime,
+                boolean segInt, int segTime, int segDist, boolean segTag, int segTagTime) {
+            this.trkInt = trkInt;
+            this.trkTime = trkTime;
+            this.trkDist = trkDist;
+            this.trkTag = trkTag;
+            this.trkTagTime = trkTagTime;
+            this.segInt = segInt;
+            this.segTime = segTime;
+            this.segDist = segDist;
+            this.segTag = segTag;
+            this.segTagTime = segTagTime;
+        }
+        // CHECKSTYLE.ON: ParameterNumber
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(trkInt, trkTime, trkDist, trkTag, trkTagTime, segInt, segTime, segDist, segTag, segTagTime);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Settings other = (Settings) obj;
+            return trkInt == other.trkInt && trkTime == other.trkTime && trkDist == other.trkDist
+                    && trkTag == other.trkTag && trkTagTime == other.trkTagTime
+                    && segInt == other.segInt && segTime == other.segTime && segDist == other.segDist
+                    && segTag == other.segTag && segTagTime == other.segTagTime;
+        }
+    }
+
+    private final Settings settings;
+    /** The track points of the segments, in the order of the correlation */
+    private final List<List<WayPoint>> segments = new ArrayList<>();
+    /** The segment of each track point of the index, as index in {@link #segments} */
+    private final int[] pointSegments;
+    /** The position of each track point of the index in its segment */
+    private final int[] pointIndices;
+    /** The times of the track points, in milliseconds */
+    private final long[] times;
+    /** Whether the position is interpolated between the previous track point and this one */
+    private final BitSet interpolate = new BitSet();
+    /** Whether the track point is the last point of its segment */
+    private final BitSet lastInSegment = new BitSet();
+    private final byte[] tagTimes;
+    /** Whether images after the last track point are tagged with it, this is the interval {@code pointIndices.length} */
+    private final boolean tagAfterLast;
+
+    /** Intervals between the times of two track points of a segment, sorted by start time */
+    private final long[] starts;
+    private final int[] startOrder;
+    /** The maximum end time of the intervals up to the index in {@link #starts} */
+    private final long[] maxEnds;
+    /** Other intervals, which have to be checked for each image */
+    private final int[] unsortedIntervals;
+
+    private long[] cachedImageTimes;
+    private final Map<Long, int[]> cachedMatches = new LinkedHashMap<Long, int[]>(CACHED_OFFSETS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+            return size() > CACHED_OFFSETS;
+        }
+    };
+
+    /**
+     * Constructs a new {@code GpxTimeIndex}. Missing times of track points between track points with time are
+     * interpolated.
+     * @param tracks the tracks
+     * @param settings the settings used to interpolate and tag images
+     */
+    GpxTimeIndex(Collection<IGpxTrack> tracks, Settings settings) {
+        this.settings = settings;
+        List<Integer> segmentList = new ArrayList<>();
+        List<Integer> indexList = new ArrayList<>();
+        List<Long> timeList = new ArrayList<>();
+        List<Byte> tagList = new ArrayList<>();
+
+        boolean isFirst = true;
+        long prevWpTime = 0;
+        WayPoint prevWp = null;
+
+        for (List<List<WayPoint>> segs : GpxImageCorrelation.loadTracks(tracks)) {
+            boolean firstSegment = true;
+            for (List<WayPoint> wps : segs) {
+                final int segment = segments.size();
+                segments.add(wps);
+                final long[] wpTimes = getTimes(wps);
+                int size = wps.size();
+                for (int i = 0; i < size; i++) {
+                    if (wpTimes[i] == NO_TIME) {
+                        if (i > 0 && wpTimes[i - 1] != NO_TIME) {
+                            break; //It's pointless to continue with this segment, because none of the following waypoints had a timestamp
+                        }
+                        // Timestamps on waypoints without preceding timestamps in the same segment can not be interpolated, so try next one
+                        continue;
+                    }
+
+                    final WayPoint curWp = wps.get(i);
+                    final long curWpTime = wpTimes[i];
+                    boolean interpolatePoint = true;
+                    byte tagTime = TAG_NONE;
+                    if (i == 0) {
+                        if (firstSegment) {
+                            // First segment of the track, so apply settings for tracks
+                            firstSegment = false;
+                            if (!settings.trkInt || isFirst || prevWp == null ||
+                                    Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(settings.trkTime) ||
+                                    prevWp.greatCircleDistance(curWp) > settings.trkDist) {
+                                isFirst = false;
+                                interpolatePoint = false;
+                                if (settings.trkTag) {
+                                    tagTime = TAG_TRACK;
+                                }
+                            }
+                        } else {
+                            // Apply settings for segments
+                            if (!settings.segInt || prevWp == null ||
+                                    Math.abs(curWpTime - prevWpTime) > TimeUnit.MINUTES.toMillis(settings.segTime) ||
+                                    prevWp.greatCircleDistance(curWp) > settings.segDist) {
+                                interpolatePoint = false;
+                                if (settings.segTag) {
+                                    tagTime = TAG_SEGMENT;
+                                }
+                            }
+                        }
+                    }
+                    int index = indexList.size();
+                    segmentList.add(segment);
+                    indexList.add(i);
+                    timeList.add(curWpTime);
+                    tagList.add(tagTime);
+                    interpolate.set(index, interpolatePoint);
+                    lastInSegment.set(index, i == size - 1);
+                    prevWp = curWp;
+                    prevWpTime = curWpTime;
+                }
+            }
+        }
+        pointSegments = segmentList.stream().mapToInt(Integer::intValue).toArray();
+        pointIndices = indexList.stream().mapToInt(Integer::intValue).toArray();
+        times = timeList.stream().mapToLong(Long::longValue).toArray();
+        tagTimes = new byte[tagList.size()];
+        for (int i = 0; i < tagTimes.length; i++) {
+            tagTimes[i] = tagList.get(i);
+        }
+        tagAfterLast = settings.trkTag && pointIndices.length > 0;
+
+        // the intervals within segments are bounded by the times of their track points, they are sorted by start time
+        List<Integer> sorted = new ArrayList<>();
+        List<Integer> unsorted = new ArrayList<>();
+        for (int k = 0; k < size(); k++) {
+            if (k == 0 || isLast(k)) {
+                unsorted.add(k);
+            } else if (times[k - 1] <= times[k]) {
+                sorted.add(k);
+            }
+        }
+        sorted.sort(Comparator.comparingLong(k -> times[k - 1]));
+        startOrder = sorted.stream().mapToInt(Integer::intValue).toArray();
+        starts = new long[startOrder.length];
+        maxEnds = new long[startOrder.length];
+        for (int j = 0; j < startOrder.length; j++) {
+            starts[j] = times[startOrder[j] - 1];
+            maxEnds[j] = Math.max(j > 0 ? maxEnds[j - 1] : Long.MIN_VALUE, times[startOrder[j]]);
+        }
+        unsortedIntervals = unsorted.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Returns the times of the points of a segment. Missing times between points with time are interpolated by the
+     * distance between the points, and set on the points.
+     * @param wps the points of the segment
+     * @return the times in milliseconds, {@link #NO_TIME} for points without time
+     */
+    private static long[] getTimes(List<WayPoint> wps) {
+        final int size = wps.size();
+        final long[] wpTimes = new long[size];
+        for (int i = 0; i < size; i++) {
+            WayPoint wpt = wps.get(i);
+            wpTimes[i] = wpt.hasDate() ? wpt.getTimeInMillis() : NO_TIME;
+        }
+        for (int i = 1; i < size; i++) {
+            // Interpolate timestamps in the segment, if one or more waypoints miss them
+            if (wpTimes[i] == NO_TIME && wpTimes[i - 1] != NO_TIME) {
+                //check if any of the following waypoints has a timestamp...
+                long prevWpTimeNoOffset = wpTimes[i - 1];
+                double totalDist = 0;
+                WayPoint prevWp = wps.get(i - 1);
+                List<Pair<Double, WayPoint>> nextWps = new ArrayList<>();
+                for (int j = i; j < size; j++) {
+                    WayPoint wpt = wps.get(j);
+                    totalDist += prevWp.greatCircleDistance(wpt);
+                    nextWps.add(new Pair<>(totalDist, wpt));
+                    prevWp = wpt;
+                    if (wpTimes[j] != NO_TIME) {
+                        // ...if yes, interpolate everything in between
+                        long timeDiff = wpTimes[j] - prevWpTimeNoOffset;
+                        for (int n = 0; n < nextWps.size(); n++) {
+                            Pair<Double, WayPoint> pair = nextWps.get(n);
+                            pair.b.setTimeInMillis((long) (prevWpTimeNoOffset + (timeDiff * (pair.a / totalDist))));
+                            wpTimes[i + n] = pair.b.getTimeInMillis();
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return wpTimes;
+    }
+
+    /**
+     * Returns the settings used to build this index.
+     * @return the settings
+     */
+    Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * Returns the number of intervals.
+     * @return the number of intervals
+     */
+    int size() {
+        return pointIndices.length + (tagAfterLast ? 1 : 0);
+    }
+
+    private WayPoint getPoint(int k) {
+        return segments.get(pointSegments[k]).get(pointIndices[k]);
+    }
+
+    WayPoint getPrevWp(int k) {
+        return k > 0 ? getPoint(k - 1) : null;
+    }
+
+    WayPoint getCurWp(int k) {
+        return getPoint(Math.min(k, pointIndices.length - 1));
+    }
+
+    WayPoint getNextWp(int k) {
+        return isLast(k) ? null : getPoint(k + 1);
+    }
+
+    long getPrevWpTime(int k, long offset) {
+        return k > 0 ? times[k - 1] + offset : 0;
+    }
+
+    long getCurWpTime(int k, long offset) {
+        return times[Math.min(k, pointIndices.length - 1)] + offset;
+    }
+
+    boolean isLast(int k) {
+        return k >= pointIndices.length || lastInSegment.get(k);
+    }
+
+    boolean isInterpolated(int k) {
+        return k < pointIndices.length && interpolate.get(k);
+    }
+
+    int getTagTime(int k) {
+        byte tagTime = k < pointIndices.length ? tagTimes[k] : TAG_TRACK;
+        return tagTime == TAG_TRACK ? settings.trkTagTime : tagTime == TAG_SEGMENT ? settings.segTagTime : 0;
+    }
+
+    /**
+     * Determines if an image is correlated with an interval, if the image is not correlated with an earlier interval.
+     * @param k the interval
+     * @param time the time of the image
+     * @param offset the offset between image and track point times
+     * @return {@code true} if the image is correlated with the interval
+     */
+    boolean matches(int k, long time, long offset) {
+        final boolean isLast = isLast(k);
+        final long prevWpTime = getPrevWpTime(k, offset);
+        final long curWpTime = getCurWpTime(k, offset);
+        if ((!isLast && time > curWpTime) || time < prevWpTime) {
+            return false;
+        } else if (!isInterpolated(k) || isLast) {
+            long tagms = TimeUnit.MINUTES.toMillis(getTagTime(k));
+            return Math.abs(time - curWpTime) <= tagms || Math.abs(prevWpTime - time) <= tagms;
+        }
+        return getPrevWp(k) != null;
+    }
+
+    /**
+     * Finds the first interval an image is correlated with.
+     * @param time the time of the image
+     * @param offset the offset between image and track point times
+     * @return the interval, or {@code -1}
+     */
+    int find(long time, long offset) {
+        int best = Integer.MAX_VALUE;
+        final long trackTime = time - offset;
+        int j = Arrays.binarySearch(starts, trackTime);
+        if (j >= 0) {
+            while (j + 1 < starts.length && starts[j + 1] == trackTime) {
+                j++;
+            }
+        } else {
+            j = -j - 2;
+        }
+        for (; j >= 0 && maxEnds[j] >= trackTime; j--) {
+            int k = startOrder[j];
+            if (k < best && matches(k, time, offset)) {
+                best = k;
+            }
+        }
+        for (int k : unsortedIntervals) {
+            if (k >= best) {
+                break;
+            } else if (matches(k, time, offset)) {
+                best = k;
+            }
+        }
+        return best == Integer.MAX_VALUE ? -1 : best;
+    }
+
+    /**
+     * Finds the first interval each image is correlated with.
+     * @param imageTimes the times of the images
+     * @param offset the offset between image and track point times
+     * @return the interval of each image, {@code -1} if the image is not correlated
+     */
+    synchronized int[] find(long[] imageTimes, long offset) {
+        if (!Arrays.equals(imageTimes, cachedImageTimes)) {
+            cachedMatches.clear();
+            cachedImageTimes = imageTimes.clone();
+        }
+        return cachedMatches.computeIfAbsent(offset, o -> {
+            IntStream indexes = IntStream.range(0, imageTimes.length);
+            if (imageTimes.length > PARALLEL_THRESHOLD) {
+                indexes = indexes.parallel();
+            }
+            return indexes.map(i -> find(imageTimes[i], offset)).toArray();
+        });
+    }
+}
@@ -4,6 +4,7 @@ package org.openstreetmap.josm.data.gpx;
 import java.awt.Color;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
@@ -13,6 +14,7 @@ import java.util.Objects;
  */
 public class Line implements Collection<WayPoint> {
     private final Collection<WayPoint> waypoints;
+    private final IGpxTrackSegment trackSegment;
     private final boolean unordered;
     private final Color color;
 
@@ -24,20 +26,28 @@ public class Line implements Collection<WayPoint> {
      * @since 15496
      */
     public Line(Collection<WayPoint> waypoints, Map<String, Object> attributes, Color color) {
+        this(waypoints, null, attributes, color);
+    }
+
+    private Line(Collection<WayPoint> waypoints, IGpxTrackSegment trackSegment, Map<String, Object> attributes, Color color) {
         this.color = color;
         this.waypoints = Objects.requireNonNull(waypoints);
+        this.trackSegment = trackSegment;
         unordered = attributes.isEmpty() && waypoints.stream().allMatch(x -> x.get(GpxConstants.PT_TIME) == null);
     }
 
     /**
-     * Constructs a new {@code Line}.
+     * Constructs a new {@code Line}. The points of a {@link CompactGpxTrackSegment} are not materialized, see
+     * {@link CompactGpxTrackSegment#getWayPointsView()}.
      * @param trackSegment track segment
      * @param trackAttributes track attributes
      * @param color color of the track
      * @since 15496
      */
     public Line(IGpxTrackSegment trackSegment, Map<String, Object> trackAttributes, Color color) {
-        this(trackSegment.getWayPoints(), trackAttributes, color);
+        this(trackSegment instanceof CompactGpxTrackSegment
+                ? ((CompactGpxTrackSegment) trackSegment).getWayPointsView() : trackSegment.getWayPoints(),
+                trackSegment, trackAttributes, color);
     }
 
     /**
@@ -56,6 +66,34 @@ public class Line implements Collection<WayPoint> {
         return unordered;
     }
 
+    /**
+     * Returns the track segment of this line.
+     * @return the track segment, or {@code null} if this line has not been created from a track segment
+     */
+    public IGpxTrackSegment getTrackSegment() {
+        return trackSegment;
+    }
+
+    /**
+     * Returns the waypoint at the given position. This takes constant time for lines of track segments.
+     * @param index the position of the waypoint
+     * @return the waypoint
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public WayPoint get(int index) {
+        if (waypoints instanceof List) {
+            return ((List<WayPoint>) waypoints).get(index);
+        }
+        if (index < 0 || index >= waypoints.size()) {
+            throw new IndexOutOfBoundsException(Integer.toString(index));
+        }
+        Iterator<WayPoint> it = waypoints.iterator();
+        for (int i = 0; i < index; i++) {
+            it.next();
+        }
+        return it.next();
+    }
+
     /**
      * Returns the track/route color
      * @return the color
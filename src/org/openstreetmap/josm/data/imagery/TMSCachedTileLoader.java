@@ -3,6 +3,7 @@ package org.openstreetmap.josm.data.imagery;
 
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
 
 import org.apache.commons.jcs3.access.behavior.ICacheAccess;
 import org.apache.commons.jcs3.engine.behavior.ICache;
@@ -119,7 +120,16 @@ public class TMSCachedTileLoader implements TileLoader, CachedTileLoader {
      * @return cache statistics as string
      */
     public String getStats() {
-        return cache.getStats();
+        StringBuilder ret = new StringBuilder(cache.getStats())
+                .append("\n--------- Decoded tiles\n")
+                .append(TileImageStore.getInstance().getStats());
+        if (downloadExecutor.getQueue() instanceof HostLimitQueue) {
+            ret.append("\n--------- Download queue\n");
+            for (HostLimitQueue.HostStatistics stats : ((HostLimitQueue) downloadExecutor.getQueue()).getStatistics().values()) {
+                ret.append(stats).append('\n');
+            }
+        }
+        return ret.toString();
     }
 
     /**
@@ -135,6 +145,31 @@ public class TMSCachedTileLoader implements TileLoader, CachedTileLoader {
         }
     }
 
+    /**
+     * Assigns new priorities to the queued tasks of the given tile source, e.g. after the view has changed.
+     * Tasks for which the function returns {@link Double#NaN} are canceled. Tasks of other tile sources, which
+     * may share the same download executor, are not affected.
+     * <p>
+     * If the download executor does not support priorities, all outstanding tasks are canceled.
+     * @param source the tile source whose tasks are reprioritized
+     * @param priority computes the new priority of a tile, lower values are loaded first
+     */
+    public void reprioritizeTasks(TileSource source, ToDoubleFunction<Tile> priority) {
+        if (downloadExecutor.getQueue() instanceof HostLimitQueue) {
+            ((HostLimitQueue) downloadExecutor.getQueue()).reprioritize(job -> {
+                if (job instanceof TMSCachedTileLoaderJob) {
+                    Tile tile = ((TMSCachedTileLoaderJob) job).getTile();
+                    if (tile != null && tile.getTileSource() == source) {
+                        return priority.applyAsDouble(tile);
+                    }
+                }
+                return job.getPriority();
+            });
+        } else {
+            cancelOutstandingTasks();
+        }
+    }
+
     @Override
     public boolean hasOutstandingTasks() {
         return downloadExecutor.getTaskCount() > downloadExecutor.getCompletedTaskCount();
@@ -94,6 +94,19 @@ public class TMSCachedTileLoaderJob extends JCSCachedTileLoaderJob<String, Buffe
         return null;
     }
 
+    @Override
+    public Object getSource() {
+        return tile != null ? tile.getTileSource() : null;
+    }
+
+    /**
+     * Returns the tile loaded by this job.
+     * @return the tile
+     */
+    public Tile getTile() {
+        return tile;
+    }
+
     /*
      *  this doesn't needs to be synchronized, as it's not that costly to keep only one execution
      *  in parallel, but URL creation and Tile.getUrl() are costly and are not needed when fetching
@@ -0,0 +1,219 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.josm.data.cache.OffHeapImageCache;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Keeps the decoded images of imagery tiles within a fixed heap budget, shared by all imagery layers.
+ * <p>
+ * Images of tiles that have been painted recently stay on the heap. When the heap budget is exceeded, the pixels
+ * of the least recently painted tiles are moved to an {@link OffHeapImageCache} and restored, when the tile is
+ * painted again. If the pixels have been evicted from the off-heap cache in the meantime, the tile is marked as not
+ * loaded, so that it is loaded again from the disk cache.
+ * <p>
+ * Only plain {@link Tile}s are managed: subclasses such as reprojected tiles transform the image given to
+ * {@link Tile#setImage}, so their image cannot be restored that way.
+ */
+public final class TileImageStore {
+    /** Maximum memory (in MB) used for decoded tile images outside of the Java heap, 0 disables the store */
+    public static final IntegerProperty OFF_HEAP_CACHE_SIZE = new IntegerProperty("imagery.generic.offheap_cache_size", 256);
+    /** Maximum memory (in MB) used for decoded tile images on the Java heap, if the off-heap store is enabled */
+    public static final IntegerProperty HEAP_CACHE_SIZE = new IntegerProperty("imagery.generic.heap_cache_size", 128);
+
+    private static final long MB = 1024L * 1024L;
+    /** Maximum number of spilled tiles which are remembered, older ones are loaded again from the disk cache */
+    private static final int MAX_SPILLED = 16_384;
+    private static final TileImageStore INSTANCE = new TileImageStore();
+
+    /** Tiles with an image on the heap, in the order of access, with the size of the image in bytes */
+    private final Map<TileKey, Long> onHeap = new LinkedHashMap<>(256, 0.75f, true);
+    private final OffHeapImageCache<TileKey> offHeap = new OffHeapImageCache<>(OFF_HEAP_CACHE_SIZE.get() * MB);
+    /** Tiles whose image has been moved off the heap, in the order of spilling */
+    private final Map<TileKey, Boolean> spilled = new LinkedHashMap<TileKey, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TileKey, Boolean> eldest) {
+            if (size() > MAX_SPILLED) {
+                offHeap.remove(eldest.getKey());
+                eldest.getKey().tile.setLoaded(false);
+                return true;
+            }
+            return false;
+        }
+    };
+    private long heapBytes;
+    private long restored;
+    private long reloaded;
+
+    /**
+     * Tiles are compared by identity, as several layers may show tiles of the same source at the same position.
+     */
+    private static final class TileKey {
+        private final Tile tile;
+
+        TileKey(Tile tile) {
+            this.tile = tile;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TileKey && ((TileKey) obj).tile == tile;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tile);
+        }
+    }
+
+    private TileImageStore() {
+        OFF_HEAP_CACHE_SIZE.addListener(e -> offHeap.setBudget(e.getProperty().get() * MB));
+    }
+
+    /**
+     * Returns the unique instance.
+     * @return the unique instance
+     */
+    public static TileImageStore getInstance() {
+        return INSTANCE;
+    }
+
+    private static boolean isEnabled() {
+        return OFF_HEAP_CACHE_SIZE.get() > 0;
+    }
+
+    private static boolean isManaged(Tile tile) {
+        return tile.getClass() == Tile.class;
+    }
+
+    /**
+     * Registers the image of a tile that has just been loaded.
+     * @param tile the tile
+     */
+    public synchronized void imageLoaded(Tile tile) {
+        BufferedImage img = tile.getImage();
+        if (!isEnabled() || img == null || img == Tile.LOADING_IMAGE || img == Tile.ERROR_IMAGE || !isManaged(tile)) {
+            return;
+        }
+        TileKey key = new TileKey(tile);
+        spilled.remove(key);
+        offHeap.remove(key);
+        Long old = onHeap.put(key, 4L * img.getWidth() * img.getHeight());
+        heapBytes += onHeap.get(key) - (old != null ? old : 0);
+        spill();
+    }
+
+    /**
+     * Returns the image of a tile for painting, restoring it from the off-heap store if needed.
+     * @param tile the tile
+     * @return the image of the tile, or {@code null} if the tile has no image. In this case, the tile may have been
+     * marked as not loaded and needs to be loaded again.
+     */
+    public synchronized BufferedImage getImage(Tile tile) {
+        BufferedImage img = tile.getImage();
+        if (!isManaged(tile)) {
+            return img;
+        }
+        TileKey key = new TileKey(tile);
+        if (img != null) {
+            onHeap.get(key); // mark as recently used
+            return img;
+        }
+        if (spilled.remove(key) != null && tile.isLoaded() && !tile.hasError()) {
+            img = offHeap.get(key);
+            if (img != null) {
+                offHeap.remove(key);
+                tile.setImage(img);
+                restored++;
+                imageLoaded(tile);
+            } else {
+                // the pixels were evicted from the off-heap store
+                tile.setLoaded(false);
+                reloaded++;
+            }
+        }
+        return img;
+    }
+
+    /**
+     * Forgets all tiles of a tile source, e.g. because its layer has been destroyed or its tile cache has been cleared.
+     * Images on the heap are kept on their tile, tiles whose image has been moved off the heap are marked as not loaded.
+     * @param source the tile source
+     */
+    public synchronized void clear(TileSource source) {
+        if (source == null) {
+            return;
+        }
+        for (TileKey key : new ArrayList<>(onHeap.keySet())) {
+            if (key.tile.getTileSource() == source) {
+                release(key);
+            }
+        }
+        for (TileKey key : new ArrayList<>(spilled.keySet())) {
+            if (key.tile.getTileSource() == source) {
+                release(key);
+            }
+        }
+    }
+
+    private void release(TileKey key) {
+        Long size = onHeap.remove(key);
+        if (size != null) {
+            heapBytes -= size;
+        }
+        if (spilled.remove(key) != null) {
+            offHeap.remove(key);
+            // the pixels are gone, the tile must be loaded again if it is still used
+            key.tile.setLoaded(false);
+        }
+    }
+
+    /**
+     * Moves the least recently used images off the heap until the heap budget is met.
+     */
+    private void spill() {
+        long budget = HEAP_CACHE_SIZE.get() * MB;
+        Iterator<Map.Entry<TileKey, Long>> it = onHeap.entrySet().iterator();
+        while (heapBytes > budget && it.hasNext()) {
+            Map.Entry<TileKey, Long> e = it.next();
+            it.remove();
+            heapBytes -= e.getValue();
+            Tile tile = e.getKey().tile;
+            BufferedImage img = tile.getImage();
+            if (img != null && tile.isLoaded() && !tile.hasError()) {
+                if (offHeap.put(e.getKey(), img)) {
+                    spilled.put(e.getKey(), Boolean.TRUE);
+                } else {
+                    // does not fit into the off-heap store, it will be loaded again from the disk cache when needed
+                    tile.setLoaded(false);
+                }
+                tile.setImage(null);
+            }
+        }
+    }
+
+    /**
+     * Returns statistics of the store as string.
+     * @return statistics of the store as string
+     */
+    public synchronized String getStats() {
+        if (!isEnabled()) {
+            return "Disabled";
+        }
+        return String.format(Locale.ROOT, "Heap: %d images, %s of %s, restored: %d, reloaded: %d\nOff-heap: %s",
+                onHeap.size(),
+                Utils.getSizeString(heapBytes, Locale.getDefault()),
+                Utils.getSizeString(HEAP_CACHE_SIZE.get() * MB, Locale.getDefault()),
+                restored, reloaded, offHeap.getStats());
+    }
+}
@@ -4,6 +4,7 @@ package org.openstreetmap.josm.data.imagery.street_level;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -166,6 +167,23 @@ public interface IImageEntry<I extends IImageEntry<I>> {
         return image;
     }
 
+    /**
+     * Reads a region of the image represented by this entry in the given target dimension.
+     * The region is not rotated according to the EXIF orientation of the image.
+     * @param region the region to read, relative to the size of the stored image (coordinates between 0 and 1)
+     * @param target the desired dimension used for {@linkplain IIOParam#setSourceSubsampling subsampling}
+     * @return the read region, or {@code null}
+     * @throws IOException if any I/O error occurs
+     */
+    default BufferedImage readRegion(Rectangle2D region, Dimension target) throws IOException {
+        URI imageUrl = getImageURI();
+        if (imageUrl == null) {
+            return null;
+        }
+        Logging.debug("Loading region {0} of {1}", region, imageUrl);
+        return ImageProvider.read(imageUrl.toURL(), false, false, r -> ImageUtils.withSourceRegion(r, region, target));
+    }
+
     /**
      * Sets the width of this ImageEntry.
      * @param width set the width of this ImageEntry
@@ -0,0 +1,258 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery.vectortile.mapbox;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.openstreetmap.josm.data.osm.TagMap;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+
+/**
+ * A cache of decoded vector tiles, so that tiles do not need to be parsed again when they are loaded again from the
+ * tile cache, e.g. after zooming out and in again.
+ * <p>
+ * Tiles are kept in a compact form: the features of a layer are stored in a few primitive arrays, geometry commands as
+ * packed integers, and tag keys and values as indexes into a string dictionary of the tile. The dictionaries are
+ * counted in the memory budget and evicted together with their tile. A tile is only returned from the cache if the raw
+ * data has not changed (same length and CRC32 checksum).
+ */
+public final class DecodedTileCache {
+    /** The maximum memory used for decoded tiles in MB */
+    public static final IntegerProperty CACHE_SIZE = new IntegerProperty("imagery.vector.decoded_cache_size", 64);
+
+    private static final DecodedTileCache INSTANCE = new DecodedTileCache();
+
+    private final Map<String, CompactTile> tiles = new LinkedHashMap<>(64, 0.75f, true);
+    private long size;
+    private long strings;
+    private long hits;
+    private long misses;
+
+    private static final class CompactTile {
+        private final int length;
+        private final long checksum;
+        private final CompactLayer[] layers;
+        /** The tag keys and values of the features */
+        private final String[] dictionary;
+        private final long size;
+
+        CompactTile(int length, long checksum, CompactLayer[] layers, String[] dictionary) {
+            this.length = length;
+            this.checksum = checksum;
+            this.layers = layers;
+            this.dictionary = dictionary;
+            long tileSize = 16L + 4L * dictionary.length;
+            for (CompactLayer layer : layers) {
+                tileSize += layer.size();
+            }
+            for (String s : dictionary) {
+                // object header, fields and array of a Latin-1 string
+                tileSize += 48L + s.length();
+            }
+            this.size = tileSize;
+        }
+    }
+
+    /**
+     * The features of a layer. The tags and geometry of feature {@code i} are stored in the ranges
+     * {@code [tagOffsets[i], tagOffsets[i + 1])} and {@code [geometryOffsets[i], geometryOffsets[i + 1])}.
+     */
+    private static final class CompactLayer {
+        private final String name;
+        private final byte version;
+        private final int extent;
+        private final long[] ids;
+        private final byte[] types;
+        private final int[] tagOffsets;
+        /** Alternating key and value indexes into the dictionary */
+        private final int[] tags;
+        private final int[] geometryOffsets;
+        /** Command integers, each followed by its parameters */
+        private final int[] geometry;
+
+        CompactLayer(String name, byte version, int extent, long[] ids, byte[] types, int[] tagOffsets, int[] tags,
+                int[] geometryOffsets, int[] geometry) {
+            this.name = name;
+            this.version = version;
+            this.extent = extent;
+            this.ids = ids;
+            this.types = types;
+            this.tagOffsets = tagOffsets;
+            this.tags = tags;
+            this.geometryOffsets = geometryOffsets;
+            this.geometry = geometry;
+        }
+
+        long size() {
+            return 64L + 9L * ids.length + 4L * (tagOffsets.length + tags.length + geometryOffsets.length + geometry.length);
+        }
+    }
+
+    private DecodedTileCache() {
+        // Hide constructor
+    }
+
+    /**
+     * Returns the unique instance.
+     * @return the unique instance
+     */
+    public static DecodedTileCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Get the decoded layers of a tile, parsing the raw data only if the tile is not in the cache.
+     * @param key The key of the tile, unique for the tile source and the tile position
+     * @param content The raw data of the tile
+     * @return The layers of the tile. The layers are newly created, so they can be modified or destroyed by the caller.
+     * @throws IOException if the raw data cannot be parsed
+     */
+    public List<Layer> getLayers(String key, byte[] content) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(content);
+        final long checksum = crc.getValue();
+        synchronized (this) {
+            CompactTile tile = tiles.get(key);
+            if (tile != null && tile.length == content.length && tile.checksum == checksum) {
+                hits++;
+                return toLayers(tile);
+            }
+            misses++;
+        }
+        List<Layer> layers = MVTTile.parseLayers(content);
+        Map<String, Integer> dictionary = new HashMap<>();
+        CompactLayer[] compactLayers = new CompactLayer[layers.size()];
+        for (int i = 0; i < compactLayers.length; i++) {
+            compactLayers[i] = toCompactLayer(layers.get(i), dictionary);
+        }
+        String[] dictionaryArray = new String[dictionary.size()];
+        dictionary.forEach((s, index) -> dictionaryArray[index] = s);
+        synchronized (this) {
+            put(key, new CompactTile(content.length, checksum, compactLayers, dictionaryArray));
+        }
+        return layers;
+    }
+
+    /**
+     * Removes all tiles from the cache.
+     */
+    public synchronized void clear() {
+        tiles.clear();
+        size = 0;
+        strings = 0;
+    }
+
+    /**
+     * Returns statistics of the cache as string.
+     * @return statistics of the cache as string
+     */
+    public synchronized String getStats() {
+        return "Decoded vector tiles: " + tiles.size() + ", " + (size / 1024) + " KiB, strings: " + strings
+                + ", hits: " + hits + ", misses: " + misses;
+    }
+
+    private void put(String key, CompactTile tile) {
+        CompactTile old = tiles.put(key, tile);
+        size += tile.size;
+        strings += tile.dictionary.length;
+        if (old != null) {
+            size -= old.size;
+            strings -= old.dictionary.length;
+        }
+        long maxSize = CACHE_SIZE.get() * 1024L * 1024L;
+        Iterator<CompactTile> it = tiles.values().iterator();
+        while (size > maxSize && it.hasNext()) {
+            CompactTile evicted = it.next();
+            size -= evicted.size;
+            strings -= evicted.dictionary.length;
+            it.remove();
+        }
+    }
+
+    private static int intern(Map<String, Integer> dictionary, String s) {
+        return dictionary.computeIfAbsent(s, k -> dictionary.size());
+    }
+
+    private static CompactLayer toCompactLayer(Layer layer, Map<String, Integer> dictionary) {
+        Collection<Feature> features = layer.getFeatures();
+        int featureCount = features.size();
+        long[] ids = new long[featureCount];
+        byte[] types = new byte[featureCount];
+        int[] tagOffsets = new int[featureCount + 1];
+        int[] geometryOffsets = new int[featureCount + 1];
+        int tagCount = 0;
+        int geometryCount = 0;
+        for (Feature feature : features) {
+            tagCount += feature.getTags() != null ? 2 * feature.getTags().size() : 0;
+            for (CommandInteger command : feature.getGeometry()) {
+                geometryCount += 1 + command.getOperations().length;
+            }
+        }
+        int[] tags = new int[tagCount];
+        int[] geometry = new int[geometryCount];
+        int i = 0;
+        int t = 0;
+        int g = 0;
+        for (Feature feature : features) {
+            ids[i] = feature.getId();
+            types[i] = (byte) feature.getGeometryType().ordinal();
+            if (feature.getTags() != null) {
+                for (Map.Entry<String, String> tag : feature.getTags().entrySet()) {
+                    tags[t++] = intern(dictionary, tag.getKey());
+                    tags[t++] = intern(dictionary, tag.getValue());
+                }
+            }
+            for (CommandInteger command : feature.getGeometry()) {
+                short[] operations = command.getOperations();
+                int parameterNumber = command.getType().getParameterNumber();
+                int count = parameterNumber == 0 ? 1 : operations.length / parameterNumber;
+                geometry[g++] = command.getType().getId() | (count << 3);
+                for (short operation : operations) {
+                    geometry[g++] = operation;
+                }
+            }
+            i++;
+            tagOffsets[i] = t;
+            geometryOffsets[i] = g;
+        }
+        return new CompactLayer(layer.getName(), layer.getVersion(), layer.getExtent(), ids, types, tagOffsets, tags,
+                geometryOffsets, geometry);
+    }
+
+    private static List<Layer> toLayers(CompactTile tile) {
+        List<Layer> layers = new ArrayList<>(tile.layers.length);
+        GeometryTypes[] geometryTypes = GeometryTypes.getAllValues();
+        for (CompactLayer compact : tile.layers) {
+            List<Feature> features = new ArrayList<>(compact.ids.length);
+            for (int i = 0; i < compact.ids.length; i++) {
+                TagMap tags = null;
+                if (compact.tagOffsets[i + 1] > compact.tagOffsets[i]) {
+                    String[] tagArray = new String[compact.tagOffsets[i + 1] - compact.tagOffsets[i]];
+                    for (int j = 0; j < tagArray.length; j++) {
+                        tagArray[j] = tile.dictionary[compact.tags[compact.tagOffsets[i] + j]];
+                    }
+                    tags = new TagMap(tagArray);
+                }
+                List<CommandInteger> geometry = new ArrayList<>();
+                int g = compact.geometryOffsets[i];
+                while (g < compact.geometryOffsets[i + 1]) {
+                    CommandInteger command = new CommandInteger(compact.geometry[g++]);
+                    for (int j = command.getOperations().length; j > 0; j--) {
+                        command.addParameter(compact.geometry[g++]);
+                    }
+                    geometry.add(command);
+                }
+                features.add(new Feature(compact.ids[i], geometryTypes[compact.types[i]], geometry, tags));
+            }
+            layers.add(new Layer(compact.name, compact.version, compact.extent, features));
+        }
+        return layers;
+    }
+}
@@ -118,6 +118,21 @@ public class Feature {
         }
     }
 
+    /**
+     * Create a new Feature from already decoded information
+     *
+     * @param id The id of the feature
+     * @param geometryType The geometry type
+     * @param geometry The geometry commands
+     * @param tags The tags, may be {@code null}
+     */
+    Feature(long id, GeometryTypes geometryType, List<CommandInteger> geometry, TagMap tags) {
+        this.id = id;
+        this.geometryType = geometryType;
+        this.geometry.addAll(geometry);
+        this.tags = tags;
+    }
+
     /**
      * Parse a tag value
      *
@@ -180,6 +180,20 @@ public final class Layer implements Destroyable {
         this(getAllRecords(bytes));
     }
 
+    /**
+     * Create a layer from already decoded features
+     * @param name The name of the layer
+     * @param version The version of the vector tile specification
+     * @param extent The extent of the tile
+     * @param features The features of the layer
+     */
+    Layer(String name, byte version, int extent, List<Feature> features) {
+        this.name = name;
+        this.version = version;
+        this.extent = extent;
+        this.featureCollection = features;
+    }
+
     /**
      * Get the extent of the tile
      * @return The layer extent
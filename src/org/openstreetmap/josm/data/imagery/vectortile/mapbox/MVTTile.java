@@ -50,20 +50,7 @@ public class MVTTile extends Tile implements VectorTile, IQuadBucketType {
     public void loadImage(final InputStream inputStream) throws IOException {
         if (this.image == null || this.image == Tile.LOADING_IMAGE || this.image == Tile.ERROR_IMAGE) {
             this.initLoading();
-            ProtobufParser parser = new ProtobufParser(inputStream);
-            Collection<ProtobufRecord> protobufRecords = parser.allRecords();
-            this.layers = new ArrayList<>(protobufRecords.size());
-            for (ProtobufRecord protoBufRecord : protobufRecords) {
-                if (protoBufRecord.getField() == Layer.LAYER_FIELD) {
-                    try (protoBufRecord; // Cleanup bytes
-                         ProtobufParser tParser = new ProtobufParser(protoBufRecord.getBytes())) {
-                        this.layers.add(new Layer(tParser.allRecords()));
-                    } catch (IOException e) {
-                        Logging.error(e);
-                    }
-                }
-            }
-            this.layers = new ArrayList<>(this.layers);
+            this.layers = DecodedTileCache.getInstance().getLayers(this.getKey(), inputStream.readAllBytes());
 
             this.extent = layers.stream().filter(Objects::nonNull).mapToInt(Layer::getExtent).max().orElse(Layer.DEFAULT_EXTENT);
             if (this.getData() != null) {
@@ -78,6 +65,31 @@ public class MVTTile extends Tile implements VectorTile, IQuadBucketType {
         }
     }
 
+    /**
+     * Parse the layers of a tile
+     * @param bytes The raw data of the tile
+     * @return The layers of the tile
+     * @throws IOException if the data cannot be read
+     */
+    static List<Layer> parseLayers(byte[] bytes) throws IOException {
+        Collection<ProtobufRecord> protobufRecords;
+        try (ProtobufParser parser = new ProtobufParser(bytes)) {
+            protobufRecords = parser.allRecords();
+        }
+        List<Layer> parsedLayers = new ArrayList<>(protobufRecords.size());
+        for (ProtobufRecord protoBufRecord : protobufRecords) {
+            if (protoBufRecord.getField() == Layer.LAYER_FIELD) {
+                try (protoBufRecord; // Cleanup bytes
+                     ProtobufParser tParser = new ProtobufParser(protoBufRecord.getBytes())) {
+                    parsedLayers.add(new Layer(tParser.allRecords()));
+                } catch (IOException e) {
+                    Logging.error(e);
+                }
+            }
+        }
+        return parsedLayers;
+    }
+
     @Override
     public Collection<Layer> getLayers() {
         return this.layers;
@@ -1,13 +1,17 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.imagery.vectortile.mapbox;
 
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadPoolExecutor;
 
 import org.openstreetmap.gui.jmapviewer.Tile;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
 import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
+import org.openstreetmap.josm.data.cache.CacheEntry;
+import org.openstreetmap.josm.data.cache.CacheEntryAttributes;
 import org.openstreetmap.josm.data.imagery.TMSCachedTileLoaderJob;
 import org.openstreetmap.josm.data.imagery.TileJobOptions;
+import org.openstreetmap.josm.tools.Utils;
 
 import org.apache.commons.jcs3.access.behavior.ICacheAccess;
 
@@ -17,10 +21,26 @@ import org.apache.commons.jcs3.access.behavior.ICacheAccess;
  * @since 17862
  */
 public class MapboxVectorCachedTileLoaderJob extends TMSCachedTileLoaderJob {
+    /**
+     * Decoding a tile takes much longer than reading it from the cache, so it is done on a separate pool.
+     * This way, the download threads (and their per-host slots) are free for the next tile.
+     */
+    private static final ForkJoinPool DECODER = Utils.newForkJoinPool("imagery.vector.decoder.threads",
+            "mvt-decoder-%d", Thread.NORM_PRIORITY);
 
     public MapboxVectorCachedTileLoaderJob(TileLoaderListener listener, Tile tile,
                                            ICacheAccess<String, BufferedImageCacheEntry> cache, TileJobOptions options,
                                            ThreadPoolExecutor downloadExecutor) {
         super(listener, tile, cache, options, downloadExecutor);
     }
+
+    @Override
+    public void loadingFinished(CacheEntry object, CacheEntryAttributes attributes, LoadResult result) {
+        if (result == LoadResult.SUCCESS) {
+            // the tile stays in loading state until it is decoded, so it is not submitted again meanwhile
+            DECODER.execute(() -> super.loadingFinished(object, attributes, result));
+        } else {
+            super.loadingFinished(object, attributes, result);
+        }
+    }
 }
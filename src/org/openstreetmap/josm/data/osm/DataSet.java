@@ -525,6 +525,14 @@ public final class DataSet implements OsmData<OsmPrimitive, Node, Way, Relation>
         });
     }
 
+    /**
+     * Prepares the dataset for a number of primitives to be added, so that its storage is not resized while they are added.
+     * @param count the number of primitives which may be added
+     */
+    void ensureCapacity(int count) {
+        allPrimitives.ensureCapacity(allPrimitives.size() + count);
+    }
+
     /**
      * Adds recursively a primitive, and all its children, to the dataset.
      *
@@ -1129,9 +1137,9 @@ public final class DataSet implements OsmData<OsmPrimitive, Node, Way, Relation>
         fireEvent(new TagsChangedEvent(this, prim, originalKeys));
     }
 
-    void fireRelationMembersChanged(Relation r) {
+    void fireRelationMembersChanged(Relation r, List<RelationMember> originalMembers) {
         store.reindexRelation(r, Relation::updatePosition);
-        fireEvent(new RelationMembersChangedEvent(this, r));
+        fireEvent(new RelationMembersChangedEvent(this, r, originalMembers));
     }
 
     void fireNodeMoved(Node node, LatLon newCoor, EastNorth eastNorth) {
@@ -8,8 +8,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -41,6 +41,8 @@ public class DataSetMerger {
      * Key is the PrimitiveId in their dataset, the value is the PrimitiveId in my dataset
      */
     private final Map<PrimitiveId, PrimitiveId> mergedMap;
+    /** The primitives of {@link #mergedMap}, to resolve the references of ways and relations without id lookups */
+    private final Map<OsmPrimitive, OsmPrimitive> mergeTargets;
     /** a set of primitive ids for which we have to fix references (to nodes and
      * to relation members) after the first phase of merging
      */
@@ -62,6 +64,7 @@ public class DataSetMerger {
         this.sourceDataSet = sourceDataSet;
         conflicts = new ConflictCollection();
         mergedMap = new HashMap<>();
+        mergeTargets = new IdentityHashMap<>();
         objectsWithChildrenToMerge = new HashSet<>();
         objectsToDelete = new HashSet<>();
     }
@@ -98,7 +101,7 @@ public class DataSetMerger {
                     continue;
                 }
                 if (target.hasEqualSemanticAttributes(source)) {
-                    mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
+                    setMergeTarget(source, target);
                     // copy the technical attributes from other version
                     target.setVisible(source.isVisible());
                     target.setUser(source.getUser());
@@ -122,15 +125,17 @@ public class DataSetMerger {
         }
         target.mergeFrom(source);
         targetDataSet.addPrimitive(target);
-        mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
+        setMergeTarget(source, target);
         objectsWithChildrenToMerge.add(source.getPrimitiveId());
     }
 
+    private void setMergeTarget(OsmPrimitive source, OsmPrimitive target) {
+        mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
+        mergeTargets.put(source, target);
+    }
+
     protected OsmPrimitive getMergeTarget(OsmPrimitive mergeSource) {
-        PrimitiveId targetId = mergedMap.get(mergeSource.getPrimitiveId());
-        if (targetId == null)
-            return null;
-        return targetDataSet.getPrimitiveById(targetId);
+        return mergeTargets.get(mergeSource);
     }
 
     protected void addConflict(Conflict<?> c) {
@@ -250,7 +255,20 @@ public class DataSetMerger {
             } else
                 throw new IllegalStateException(tr("Missing merge target for node with id {0}", sourceNode.getUniqueId()));
         }
-        target.setNodes(newNodes);
+        // keep unchanged node lists, setting them reindexes the way
+        if (!hasNodes(target, newNodes)) {
+            target.setNodes(newNodes);
+        }
+    }
+
+    private static boolean hasNodes(Way way, List<Node> nodes) {
+        if (way.getNodesCount() != nodes.size())
+            return false;
+        for (int i = 0; i < nodes.size(); i++) {
+            if (way.getNode(i) != nodes.get(i))
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -264,7 +282,7 @@ public class DataSetMerger {
         Relation target = (Relation) getMergeTarget(source);
         if (target == null)
             throw new IllegalStateException(tr("Missing merge target for relation with id {0}", source.getUniqueId()));
-        List<RelationMember> newMembers = new LinkedList<>();
+        List<RelationMember> newMembers = new ArrayList<>(source.getMembersCount());
         for (RelationMember sourceMember : source.getMembers()) {
             OsmPrimitive targetMember = getMergeTarget(sourceMember.getMember());
             if (targetMember == null)
@@ -276,7 +294,21 @@ public class DataSetMerger {
                 targetMember.setDeleted(false);
             }
         }
-        target.setMembers(newMembers);
+        // keep unchanged member lists, setting them reindexes the relation
+        if (!hasMembers(target, newMembers)) {
+            target.setMembers(newMembers);
+        }
+    }
+
+    private static boolean hasMembers(Relation relation, List<RelationMember> members) {
+        if (relation.getMembersCount() != members.size())
+            return false;
+        for (int i = 0; i < members.size(); i++) {
+            RelationMember member = relation.getMember(i);
+            if (member.getMember() != members.get(i).getMember() || !member.getRole().equals(members.get(i).getRole()))
+                return false;
+        }
+        return true;
     }
 
     /**
@@ -292,7 +324,7 @@ public class DataSetMerger {
         if (target == null)
             return false;
         // found a corresponding target, remember it
-        mergedMap.put(source.getPrimitiveId(), target.getPrimitiveId());
+        setMergeTarget(source, target);
 
         if (target.getVersion() > source.getVersion())
             // target.version > source.version => keep target version
@@ -427,10 +459,12 @@ public class DataSetMerger {
     public void merge(ProgressMonitor progressMonitor, boolean mergeBounds) {
         if (sourceDataSet == null)
             return;
+        int count = sourceDataSet.allPrimitives().size();
         if (progressMonitor != null) {
-            progressMonitor.beginTask(tr("Merging data..."), sourceDataSet.allPrimitives().size());
+            progressMonitor.beginTask(tr("Merging data..."), count);
         }
         targetDataSet.update(() -> {
+            targetDataSet.ensureCapacity(count);
             List<? extends OsmPrimitive> candidates = null;
             for (Node node: sourceDataSet.getNodes()) {
                 // lazy initialisation to improve performance, see #19898
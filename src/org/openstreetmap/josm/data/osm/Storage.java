@@ -372,24 +372,42 @@ public class Storage<T> extends AbstractSet<T> {
 
     private void ensureSpace() {
         if (size > data.length*LOAD_FACTOR) { // rehash
-            @SuppressWarnings("unchecked")
-            T[] big = (T[]) new Object[data.length * 2];
-            int nMask = big.length - 1;
+            resize(data.length * 2);
+        }
+    }
 
-            for (T o : data) {
-                if (o == null) {
-                    continue;
-                }
-                int bucket = rehash(hash.getHashCode(o)) & nMask;
-                while (big[bucket] != null) {
-                    bucket = (bucket+1) & nMask;
-                }
-                big[bucket] = o;
-            }
+    /**
+     * Increases the capacity of this storage, if necessary, so that it can hold the given number of elements
+     * without being rehashed while they are added.
+     * @param capacity the number of elements
+     */
+    public synchronized void ensureCapacity(int capacity) {
+        if (capacity > data.length*LOAD_FACTOR) {
+            resize(1 << (int) Math.ceil(Math.log(capacity/LOAD_FACTOR) / Math.log(2)));
+            modCount++;
+        }
+    }
+
+    private void resize(int length) {
+        @SuppressWarnings("unchecked")
+        T[] big = (T[]) new Object[length];
+        int nMask = big.length - 1;
 
-            data = big;
-            mask = nMask;
+        for (T o : data) {
+            if (o == null) {
+                continue;
+            }
+            int bucket = rehash(hash.getHashCode(o)) & nMask;
+            while (big[bucket] != null) {
+                bucket = (bucket+1) & nMask;
+            }
+            big[bucket] = o;
         }
+
+        data = big;
+        mask = nMask;
+        // safe iterators keep the previous array
+        arrayCopyNecessary = false;
     }
 
     // -------------- factories --------------------
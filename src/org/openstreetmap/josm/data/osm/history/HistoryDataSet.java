@@ -4,10 +4,15 @@ package org.openstreetmap.josm.data.osm.history;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Collectors;
 
@@ -15,6 +20,7 @@ import org.openstreetmap.josm.data.osm.Changeset;
 import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
 import org.openstreetmap.josm.data.osm.PrimitiveId;
 import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.layer.LayerManager.LayerAddEvent;
 import org.openstreetmap.josm.gui.layer.LayerManager.LayerChangeListener;
@@ -24,10 +30,18 @@ import org.openstreetmap.josm.tools.CheckParameterUtil;
 
 /**
  * A data set holding histories of OSM primitives.
+ * <p>
+ * Consecutive versions of a primitive share the tags, nodes and members which did not change.
+ * The number of versions of the unique instance is bounded, the least recently used histories are removed when it is
+ * exceeded. Other instances, which are used to load histories before they are merged into the unique instance, are not
+ * bounded, so that a bulk load is kept completely.
  * @since 1670
  * @since 10386 (new LayerChangeListener interface)
  */
 public class HistoryDataSet implements LayerChangeListener {
+    /** the maximum number of versions kept in the unique history data set */
+    public static final IntegerProperty MAX_VERSIONS = new IntegerProperty("history.max-versions", 100_000);
+
     /** the unique instance */
     private static HistoryDataSet historyDataSet;
 
@@ -38,24 +52,37 @@ public class HistoryDataSet implements LayerChangeListener {
      */
     public static synchronized HistoryDataSet getInstance() {
         if (historyDataSet == null) {
-            historyDataSet = new HistoryDataSet();
+            historyDataSet = new HistoryDataSet(true);
             MainApplication.getLayerManager().addLayerChangeListener(historyDataSet);
         }
         return historyDataSet;
     }
 
-    /** the history data */
+    /** the history data, most recently used last */
     private final Map<PrimitiveId, ArrayList<HistoryOsmPrimitive>> data;
+    /** the number of versions in {@link #data} */
+    private int size;
     private final CopyOnWriteArrayList<HistoryDataSetListener> listeners;
     private final Map<Long, Changeset> changesets;
+    /** whether the number of versions is bounded by {@link #MAX_VERSIONS} */
+    private final boolean bounded;
 
     /**
-     * Constructs a new {@code HistoryDataSet}.
+     * Constructs a new {@code HistoryDataSet}, whose number of versions is not bounded.
      */
     public HistoryDataSet() {
-        data = new HashMap<>();
+        this(false);
+    }
+
+    /**
+     * Constructs a new {@code HistoryDataSet}.
+     * @param bounded whether the number of versions is bounded by {@link #MAX_VERSIONS}
+     */
+    HistoryDataSet(boolean bounded) {
+        data = new LinkedHashMap<>(16, 0.75f, true);
         listeners = new CopyOnWriteArrayList<>();
         changesets = new HashMap<>();
+        this.bounded = bounded;
     }
 
     /**
@@ -106,12 +133,14 @@ public class HistoryDataSet implements LayerChangeListener {
             throw new IllegalArgumentException(MessageFormat.format("Parameter ''{0}'' > 0 expected, got {1}", "version", version));
 
         SimplePrimitiveId pid = new SimplePrimitiveId(id, type);
-        List<HistoryOsmPrimitive> versions = data.get(pid);
-        if (versions == null)
-            return null;
-        return versions.stream()
-                .filter(primitive -> primitive.matches(id, version))
-                .findFirst().orElse(null);
+        synchronized (data) {
+            List<HistoryOsmPrimitive> versions = data.get(pid);
+            if (versions == null)
+                return null;
+            return versions.stream()
+                    .filter(primitive -> primitive.matches(id, version))
+                    .findFirst().orElse(null);
+        }
     }
 
     /**
@@ -121,17 +150,53 @@ public class HistoryDataSet implements LayerChangeListener {
      */
     public void put(HistoryOsmPrimitive primitive) {
         PrimitiveId id = new SimplePrimitiveId(primitive.getId(), primitive.getType());
-        data.computeIfAbsent(id, k-> new ArrayList<>()).add(primitive);
+        synchronized (data) {
+            List<HistoryOsmPrimitive> versions = data.computeIfAbsent(id, k -> new ArrayList<>());
+            HistoryOsmPrimitive closest = null;
+            for (HistoryOsmPrimitive version : versions) {
+                if (closest == null || Math.abs(version.getVersion() - primitive.getVersion())
+                        < Math.abs(closest.getVersion() - primitive.getVersion())) {
+                    closest = version;
+                }
+            }
+            if (closest != null) {
+                primitive.shareUnchanged(closest);
+            }
+            versions.add(primitive);
+            size++;
+            evict(Collections.singleton(id));
+        }
         fireHistoryUpdated(id);
     }
 
+    /**
+     * Removes the least recently used histories until the number of versions does not exceed {@link #MAX_VERSIONS}.
+     * The histories to keep are never removed, even if they exceed {@link #MAX_VERSIONS} on their own.
+     * @param keep the histories which must not be removed
+     */
+    private void evict(Set<PrimitiveId> keep) {
+        if (!bounded)
+            return;
+        int maxSize = MAX_VERSIONS.get();
+        for (Iterator<Map.Entry<PrimitiveId, ArrayList<HistoryOsmPrimitive>>> it = data.entrySet().iterator();
+                size > maxSize && it.hasNext();) {
+            Map.Entry<PrimitiveId, ArrayList<HistoryOsmPrimitive>> entry = it.next();
+            if (!keep.contains(entry.getKey())) {
+                size -= entry.getValue().size();
+                it.remove();
+            }
+        }
+    }
+
     /**
      * Adds a changeset to the data set
      *
      * @param changeset the changeset to add
      */
     public void putChangeset(Changeset changeset) {
-        changesets.put((long) changeset.getId(), changeset);
+        synchronized (data) {
+            changesets.put((long) changeset.getId(), changeset);
+        }
         fireHistoryUpdated(null);
     }
 
@@ -165,13 +230,15 @@ public class HistoryDataSet implements LayerChangeListener {
      */
     public History getHistory(PrimitiveId pid) {
         PrimitiveId key = new SimplePrimitiveId(pid.getUniqueId(), pid.getType());
-        List<HistoryOsmPrimitive> versions = data.get(Objects.requireNonNull(key, "key"));
-        if (versions == null)
-            return null;
-        for (HistoryOsmPrimitive i : versions) {
-            i.setChangeset(changesets.get(i.getChangesetId()));
+        synchronized (data) {
+            List<HistoryOsmPrimitive> versions = data.get(Objects.requireNonNull(key, "key"));
+            if (versions == null)
+                return null;
+            for (HistoryOsmPrimitive i : versions) {
+                i.setChangeset(changesets.get(i.getChangesetId()));
+            }
+            return new History(pid.getUniqueId(), pid.getType(), versions);
         }
-        return new History(pid.getUniqueId(), pid.getType(), versions);
     }
 
     /**
@@ -182,8 +249,17 @@ public class HistoryDataSet implements LayerChangeListener {
     public void mergeInto(HistoryDataSet other) {
         if (other == null)
             return;
-        this.data.putAll(other.data);
-        this.changesets.putAll(other.changesets);
+        synchronized (data) {
+            Set<PrimitiveId> merged;
+            synchronized (other.data) {
+                this.data.putAll(other.data);
+                merged = new HashSet<>(other.data.keySet());
+            }
+            size = data.values().stream().mapToInt(List::size).sum();
+            // the merged histories have just been requested, only older ones are removed
+            evict(merged);
+            this.changesets.putAll(other.changesets);
+        }
         fireHistoryUpdated(null);
     }
 
@@ -192,10 +268,12 @@ public class HistoryDataSet implements LayerChangeListener {
      * @return The ids
      */
     public Collection<Long> getChangesetIds() {
-        return data.values().stream()
-                .flatMap(Collection::stream)
-                .map(HistoryOsmPrimitive::getChangesetId)
-                .collect(Collectors.toSet());
+        synchronized (data) {
+            return data.values().stream()
+                    .flatMap(Collection::stream)
+                    .map(HistoryOsmPrimitive::getChangesetId)
+                    .collect(Collectors.toSet());
+        }
     }
 
     /* ------------------------------------------------------------------------------ */
@@ -224,7 +302,10 @@ public class HistoryDataSet implements LayerChangeListener {
      * @since 17471
      */
     public void clear() {
-        data.clear();
+        synchronized (data) {
+            data.clear();
+            size = 0;
+        }
         fireCacheCleared();
     }
 }
@@ -39,6 +39,8 @@ public abstract class HistoryOsmPrimitive implements Tagged, Comparable<HistoryO
     private final Instant timestamp;
     private final long version;
     private Map<String, String> tags;
+    /** {@code true} if the tags are shared with another version, see {@link #shareUnchanged} */
+    private boolean tagsShared;
 
     /**
      * Constructs a new {@code HistoryOsmPrimitive}.
@@ -220,6 +222,10 @@ public abstract class HistoryOsmPrimitive implements Tagged, Comparable<HistoryO
 
     @Override
     public final void put(String key, String value) {
+        if (tagsShared) {
+            tags = new HashMap<>(tags);
+            tagsShared = false;
+        }
         tags.put(key, value);
     }
 
@@ -303,6 +309,20 @@ public abstract class HistoryOsmPrimitive implements Tagged, Comparable<HistoryO
         } else {
             this.tags = new HashMap<>(tags);
         }
+        tagsShared = false;
+    }
+
+    /**
+     * Shares the data which did not change since the previous version of this primitive, in order to save memory.
+     * The shared data is copied before it is modified.
+     * @param previous the previous version of this primitive
+     */
+    void shareUnchanged(HistoryOsmPrimitive previous) {
+        if (tags != previous.tags && tags.equals(previous.tags)) {
+            tags = previous.tags;
+            tagsShared = true;
+            previous.tagsShared = true;
+        }
     }
 
     /**
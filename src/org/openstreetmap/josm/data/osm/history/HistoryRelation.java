@@ -20,7 +20,9 @@ import org.openstreetmap.josm.tools.CheckParameterUtil;
  */
 public class HistoryRelation extends HistoryOsmPrimitive {
 
-    private final List<RelationMemberData> members = new ArrayList<>();
+    private List<RelationMemberData> members = new ArrayList<>();
+    /** {@code true} if the members are shared with another version, see {@link #shareUnchanged} */
+    private boolean membersShared;
 
     /**
      * constructor
@@ -134,9 +136,26 @@ public class HistoryRelation extends HistoryOsmPrimitive {
      */
     public void addMember(RelationMemberData member) {
         CheckParameterUtil.ensureParameterNotNull(member, "member");
+        if (membersShared) {
+            members = new ArrayList<>(members);
+            membersShared = false;
+        }
         members.add(member);
     }
 
+    @Override
+    void shareUnchanged(HistoryOsmPrimitive previous) {
+        super.shareUnchanged(previous);
+        if (previous instanceof HistoryRelation) {
+            HistoryRelation relation = (HistoryRelation) previous;
+            if (members != relation.members && members.equals(relation.members)) {
+                members = relation.members;
+                membersShared = true;
+                relation.membersShared = true;
+            }
+        }
+    }
+
     @Override
     public String getDisplayName(HistoryNameFormatter formatter) {
         return formatter.format(this);
@@ -21,7 +21,9 @@ import org.openstreetmap.josm.tools.CheckParameterUtil;
  */
 public class HistoryWay extends HistoryOsmPrimitive {
 
-    private final List<Long> nodeIds = new ArrayList<>();
+    private List<Long> nodeIds = new ArrayList<>();
+    /** {@code true} if the node ids are shared with another version, see {@link #shareUnchanged} */
+    private boolean nodeIdsShared;
 
     /**
      * Constructs a new {@code HistoryWay}.
@@ -128,6 +130,10 @@ public class HistoryWay extends HistoryOsmPrimitive {
      * @param ref the node id to add
      */
     public void addNode(long ref) {
+        if (nodeIdsShared) {
+            nodeIds = new ArrayList<>(nodeIds);
+            nodeIdsShared = false;
+        }
         nodeIds.add(ref);
     }
 
@@ -145,6 +151,19 @@ public class HistoryWay extends HistoryOsmPrimitive {
         return formatter.format(this);
     }
 
+    @Override
+    void shareUnchanged(HistoryOsmPrimitive previous) {
+        super.shareUnchanged(previous);
+        if (previous instanceof HistoryWay) {
+            HistoryWay way = (HistoryWay) previous;
+            if (nodeIds != way.nodeIds && nodeIds.equals(way.nodeIds)) {
+                nodeIds = way.nodeIds;
+                nodeIdsShared = true;
+                way.nodeIdsShared = true;
+            }
+        }
+    }
+
     /**
      * Fills the way attributes with values from this history.
      * @param data way data to fill
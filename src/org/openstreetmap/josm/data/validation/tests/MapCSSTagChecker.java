@@ -14,11 +14,14 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -270,9 +273,13 @@ public class MapCSSTagChecker extends Test.TagTest {
      * @since 7275
      */
     public synchronized ParseResult addMapCSS(String url) throws ParseException, IOException {
+        return addMapCSS(url, getAssertionConsumer(url));
+    }
+
+    private static Consumer<String> getAssertionConsumer(String url) {
         // Check assertions, useful for development of local files
         final boolean checkAssertions = Config.getPref().getBoolean("validator.check_assert_local_rules", false) && Utils.isLocalUrl(url);
-        return addMapCSS(url, checkAssertions ? Logging::warn : null);
+        return checkAssertions ? Logging::warn : null;
     }
 
     /**
@@ -287,25 +294,40 @@ public class MapCSSTagChecker extends Test.TagTest {
      * @since 18365 (public, primarily for ValidatorCLI)
      */
     public synchronized ParseResult addMapCSS(String url, Consumer<String> assertionConsumer) throws ParseException, IOException {
+        ParseResult result = readMapCSS(url, assertionConsumer);
+        addChecks(url, result);
+        return result;
+    }
+
+    /**
+     * Reads the tag checks of a MapCSS config file, without adding them.
+     * @param url The unique URL of the MapCSS config file
+     * @param assertionConsumer A string consumer for error messages.
+     * @return List of tag checks and parsing errors
+     * @throws ParseException if the config file does not match MapCSS syntax
+     * @throws IOException if any I/O error occurs
+     */
+    private static ParseResult readMapCSS(String url, Consumer<String> assertionConsumer) throws ParseException, IOException {
         CheckParameterUtil.ensureParameterNotNull(url, "url");
-        ParseResult result;
         try (CachedFile cache = new CachedFile(url)) {
             Pair<ZipFile, InputStream> zip = cache.findZipEntryInputStream("validator.mapcss", "");
             try (InputStream s = zip != null ? zip.b : cache.getInputStream();
             Reader reader = new BufferedReader(UTFInputStreamReader.create(s))) {
                 if (zip != null)
                     I18n.addTexts(cache.getFile());
-                result = MapCSSTagCheckerRule.readMapCSS(reader, assertionConsumer);
-                checks.remove(url);
-                checks.putAll(url, result.parseChecks);
-                urlTitles.put(url, findURLTitle(url));
-                indexData = null;
+                return MapCSSTagCheckerRule.readMapCSS(reader, assertionConsumer);
             } finally {
                 if (zip != null)
                     Utils.close(zip.a);
             }
         }
-        return result;
+    }
+
+    private void addChecks(String url, ParseResult result) {
+        checks.remove(url);
+        checks.putAll(url, result.parseChecks);
+        urlTitles.put(url, findURLTitle(url));
+        indexData = null;
     }
 
     /** Find a user friendly string for the url.
@@ -332,10 +354,21 @@ public class MapCSSTagChecker extends Test.TagTest {
         checks.clear();
         urlTitles.clear();
         indexData = null;
+        // the rule files are independent of each other, parse them in parallel and add them in order
+        Map<SourceEntry, CompletableFuture<ParseResult>> results = new LinkedHashMap<>();
         for (SourceEntry source : new ValidatorPrefHelper().get()) {
-            if (!source.active) {
-                continue;
+            if (source.active) {
+                results.put(source, CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return readMapCSS(source.url, getAssertionConsumer(source.url));
+                    } catch (IOException | ParseException e) {
+                        throw new CompletionException(e);
+                    }
+                }));
             }
+        }
+        for (Entry<SourceEntry, CompletableFuture<ParseResult>> result : results.entrySet()) {
+            SourceEntry source = result.getKey();
             String i = source.url;
             try {
                 if (!i.startsWith("resource:")) {
@@ -343,7 +376,7 @@ public class MapCSSTagChecker extends Test.TagTest {
                 } else if (Logging.isDebugEnabled()) {
                     Logging.debug(tr("Adding {0} to tag checker", i));
                 }
-                addMapCSS(i);
+                addChecks(i, getResult(result.getValue()));
                 if (Config.getPref().getBoolean("validator.auto_reload_local_rules", true) && source.isLocal()) {
                     FileWatcher.getDefaultInstance().registerSource(source);
                 }
@@ -358,6 +391,24 @@ public class MapCSSTagChecker extends Test.TagTest {
         MapCSSTagCheckerAsserts.clear();
     }
 
+    private static ParseResult getResult(CompletableFuture<ParseResult> future) throws IOException, ParseException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof ParseException) {
+                throw (ParseException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
     /**
      * Reload tagchecker rule.
      * @param rule tagchecker rule to reload
@@ -46,7 +46,7 @@ final class MapCSSTagCheckerAsserts {
      * @param assertions The assertions to check (map values correspond to expected result)
      * @param assertionConsumer The handler for assertion error messages
      */
-    static void checkAsserts(final MapCSSTagCheckerRule check, final Map<String, Boolean> assertions,
+    static synchronized void checkAsserts(final MapCSSTagCheckerRule check, final Map<String, Boolean> assertions,
                              final Consumer<String> assertionConsumer) {
         final DataSet ds = new DataSet();
         Logging.debug("Check: {0}", check);
@@ -87,7 +87,7 @@ final class MapCSSTagCheckerAsserts {
     /**
      * Clear previous checks (remove from memory)
      */
-    public static void clear() {
+    public static synchronized void clear() {
         previousChecks.clear();
         previousChecks.trimToSize();
     }
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -30,7 +31,8 @@ import org.openstreetmap.josm.data.osm.HighlightUpdateListener;
 import org.openstreetmap.josm.data.osm.IPrimitive;
 import org.openstreetmap.josm.data.osm.OsmData;
 import org.openstreetmap.josm.data.osm.PrimitiveId;
-import org.openstreetmap.josm.data.osm.Storage;
+import org.openstreetmap.josm.data.osm.QuadBuckets;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
 import org.openstreetmap.josm.data.osm.UploadPolicy;
 import org.openstreetmap.josm.data.osm.WaySegment;
 import org.openstreetmap.josm.data.osm.event.IDataSelectionEventSource;
@@ -55,7 +57,7 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
        IDataSelectionEventSource<VectorPrimitive, VectorNode, VectorWay, VectorRelation, VectorDataSet> {
     // Note: In Java 8, computeIfAbsent is blocking for both pre-existing and new values. In Java 9, it is only blocking
     // for new values (perf increase). See JDK-8161372 for more info.
-    private final Map<Integer, Storage<MVTTile>> dataStoreMap = new ConcurrentHashMap<>();
+    private final Map<Integer, ZoomLevel> dataStoreMap = new ConcurrentHashMap<>();
     // This is for "custom" data
     private final VectorDataStore customDataStore = new VectorDataStore();
     // Both of these listener lists are useless, since they expect OsmPrimitives at this time
@@ -104,6 +106,83 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
      */
     private ElemStyles styles;
     private final Collection<PrimitiveId> highlighted = new HashSet<>();
+    /**
+     * The MVT layers that should not be shown
+     */
+    private Set<String> invisibleLayers = Collections.emptySet();
+
+    /**
+     * The tiles of a single zoom level.
+     * <p>
+     * Each tile has its own {@link VectorDataStore}. Features that cross tile boundaries are split into one piece per
+     * tile; the pieces share the id of the feature. This class keeps track of the pieces, so that adding, replacing or removing a
+     * tile only touches the primitives of that tile, and so that all pieces of a feature can be found without looking
+     * at every tile.
+     */
+    private static final class ZoomLevel {
+        /** The tiles, indexed by their bounds */
+        private final QuadBuckets<MVTTile> tiles = new QuadBuckets<>();
+        /** The tiles by key, so that a tile that has been loaded again replaces the old one */
+        private final Map<String, MVTTile> tilesByKey = new HashMap<>();
+        /** The primitives of all tiles by id. There may be several primitives (pieces) for an id. */
+        private final Map<PrimitiveId, List<VectorPrimitive>> primitivesById = new HashMap<>();
+
+        /**
+         * Add a tile
+         * @param tile The tile to add
+         * @return The tile that has been replaced, if any
+         */
+        MVTTile add(MVTTile tile) {
+            final MVTTile old = this.tilesByKey.put(tile.getKey(), tile);
+            if (old == tile) {
+                return null;
+            } else if (old != null) {
+                removeFromIndex(old);
+            }
+            this.tiles.add(tile);
+            for (VectorPrimitive primitive : tile.getData().getAllPrimitives()) {
+                this.primitivesById.computeIfAbsent(getId(primitive), id -> new ArrayList<>(1)).add(primitive);
+            }
+            return old;
+        }
+
+        /**
+         * Remove a tile. The pieces of its features in other tiles are kept.
+         * @param tile The tile to remove
+         * @return {@code true} if the tile was part of this zoom level
+         */
+        boolean remove(MVTTile tile) {
+            if (!this.tilesByKey.remove(tile.getKey(), tile)) {
+                return false;
+            }
+            removeFromIndex(tile);
+            return true;
+        }
+
+        private void removeFromIndex(MVTTile tile) {
+            this.tiles.remove(tile);
+            for (VectorPrimitive primitive : tile.getData().getAllPrimitives()) {
+                final PrimitiveId id = getId(primitive);
+                final List<VectorPrimitive> pieces = this.primitivesById.get(id);
+                if (pieces != null && pieces.remove(primitive) && pieces.isEmpty()) {
+                    this.primitivesById.remove(id);
+                }
+            }
+        }
+
+        /**
+         * Get the pieces of a primitive
+         * @param id The id of the primitive
+         * @return The primitives with the id, one for each tile the primitive is part of
+         */
+        List<VectorPrimitive> getPieces(PrimitiveId id) {
+            return this.primitivesById.getOrDefault(getId(id), Collections.emptyList());
+        }
+
+        private static PrimitiveId getId(PrimitiveId id) {
+            return id instanceof SimplePrimitiveId ? id : new SimplePrimitiveId(id.getUniqueId(), id.getType());
+        }
+    }
 
     @Override
     public Collection<DataSource> getDataSources() {
@@ -170,61 +249,50 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
     @Override
     public List<VectorNode> searchNodes(BBox bbox) {
         return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getStore)
-                    .flatMap(store -> store.searchNodes(bbox).stream()).collect(Collectors.toList());
+            final List<VectorNode> found = new ArrayList<>();
+            for (VectorDataStore dataStore : this.getDataStores(bbox)) {
+                found.addAll(dataStore.getStore().searchNodes(bbox));
+            }
+            return found;
         }).orElseGet(Collections::emptyList);
     }
 
     @Override
     public boolean containsNode(VectorNode vectorNode) {
-        return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getStore)
-                    .anyMatch(store -> store.containsNode(vectorNode));
-        }).orElse(Boolean.FALSE);
+        return tryRead(this.readWriteLock, () -> this.getDataStores(vectorNode.getBBox()).stream()
+                .anyMatch(dataStore -> dataStore.getStore().containsNode(vectorNode))).orElse(Boolean.FALSE);
     }
-
     @Override
     public List<VectorWay> searchWays(BBox bbox) {
         return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getStore)
-                    .flatMap(store -> store.searchWays(bbox).stream()).collect(Collectors.toList());
+            final List<VectorWay> found = new ArrayList<>();
+            for (VectorDataStore dataStore : this.getDataStores(bbox)) {
+                found.addAll(dataStore.getStore().searchWays(bbox));
+            }
+            return found;
         }).orElseGet(Collections::emptyList);
     }
 
     @Override
     public boolean containsWay(VectorWay vectorWay) {
-        return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getStore)
-                    .anyMatch(store -> store.containsWay(vectorWay));
-        }).orElse(Boolean.FALSE);
+        return tryRead(this.readWriteLock, () -> this.getDataStores(vectorWay.getBBox()).stream()
+                .anyMatch(dataStore -> dataStore.getStore().containsWay(vectorWay))).orElse(Boolean.FALSE);
     }
-
     @Override
     public List<VectorRelation> searchRelations(BBox bbox) {
         return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getStore)
-                    .flatMap(store -> store.searchRelations(bbox).stream()).collect(Collectors.toList());
+            final List<VectorRelation> found = new ArrayList<>();
+            for (VectorDataStore dataStore : this.getDataStores(bbox)) {
+                found.addAll(dataStore.getStore().searchRelations(bbox));
+            }
+            return found;
         }).orElseGet(Collections::emptyList);
     }
 
     @Override
     public boolean containsRelation(VectorRelation vectorRelation) {
-        return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getStore)
-                    .anyMatch(store -> store.containsRelation(vectorRelation));
-        }).orElse(Boolean.FALSE);
+        return tryRead(this.readWriteLock, () -> this.getDataStores(vectorRelation.getBBox()).stream()
+                .anyMatch(dataStore -> dataStore.getStore().containsRelation(vectorRelation))).orElse(Boolean.FALSE);
     }
 
     /**
@@ -244,21 +312,35 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
      * @return The primitives for the ids (note: as this is vector data, a {@link PrimitiveId} may have multiple associated primitives)
      */
     public Stream<VectorPrimitive> getPrimitivesById(PrimitiveId... primitiveIds) {
-        final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-        return Stream.concat(dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty(),
-                Stream.of(this.customDataStore)).map(VectorDataStore::getPrimitivesMap)
-                .flatMap(m -> Stream.of(primitiveIds).map(m::get)).filter(Objects::nonNull);
+        return this.getPrimitivesById(Arrays.asList(primitiveIds)).stream();
+    }
+
+    private List<VectorPrimitive> getPrimitivesById(Collection<? extends PrimitiveId> primitiveIds) {
+        return tryRead(this.readWriteLock, () -> {
+            final ZoomLevel zoomLevel = this.getBestZoomDataStore().orElse(null);
+            final Map<PrimitiveId, VectorPrimitive> custom = this.customDataStore.getPrimitivesMap();
+            final List<VectorPrimitive> found = new ArrayList<>(primitiveIds.size());
+            for (PrimitiveId primitiveId : primitiveIds) {
+                if (primitiveId == null) {
+                    continue;
+                }
+                if (zoomLevel != null) {
+                    found.addAll(zoomLevel.getPieces(primitiveId));
+                }
+                final VectorPrimitive primitive = custom.get(primitiveId);
+                if (primitive != null) {
+                    found.add(primitive);
+                }
+            }
+            return found;
+        }).orElseGet(Collections::emptyList);
     }
 
     @Override
     public <T extends VectorPrimitive> Collection<T> getPrimitives(Predicate<? super VectorPrimitive> predicate) {
-        Collection<VectorPrimitive> primitives = tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            final Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-            return Stream.concat(dataStoreStream, Stream.of(this.customDataStore))
-                    .map(VectorDataStore::getAllPrimitives).flatMap(Collection::stream).distinct().collect(Collectors.toList());
-
-        }).orElseGet(Collections::emptyList);
+        final List<VectorPrimitive> primitives = tryRead(this.readWriteLock, () -> this.getDataStores().stream()
+                .flatMap(dataStore -> dataStore.getAllPrimitives().stream()).collect(Collectors.toList()))
+                .orElseGet(Collections::emptyList);
         return new SubclassFilteredCollection<>(primitives, predicate);
     }
 
@@ -361,24 +443,46 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
 
     @Override
     public Collection<VectorPrimitive> getAllSelected() {
-        return tryRead(this.readWriteLock, () -> {
-            final Storage<MVTTile> dataStore = this.getBestZoomDataStore().orElse(null);
-            Stream<VectorDataStore> dataStoreStream = dataStore != null ? dataStore.stream().map(MVTTile::getData) : Stream.empty();
-                return Stream.concat(dataStoreStream, Stream.of(this.customDataStore)).map(VectorDataStore::getPrimitivesMap)
-                  .flatMap(dataMap -> {
-                    // Synchronize on dataMap to avoid concurrent modification errors
-                    synchronized (dataMap) {
-                        return this.currentSelectedPrimitives.stream().map(dataMap::get).filter(Objects::nonNull);
-                    }
-                }).collect(Collectors.toList());
-        }).orElseGet(Collections::emptyList);
+        return this.getPrimitivesById(this.currentSelectedPrimitives);
+    }
+
+    /**
+     * Get the data stores to read from
+     * @return The data stores of the tiles at the best zoom level and the custom data store
+     */
+    private List<VectorDataStore> getDataStores() {
+        final ZoomLevel zoomLevel = this.getBestZoomDataStore().orElse(null);
+        final List<VectorDataStore> dataStores = new ArrayList<>(zoomLevel != null ? zoomLevel.tiles.size() + 1 : 1);
+        if (zoomLevel != null) {
+            for (MVTTile tile : zoomLevel.tiles) {
+                dataStores.add(tile.getData());
+            }
+        }
+        dataStores.add(this.customDataStore);
+        return dataStores;
+    }
+
+    /**
+     * Get the data stores to read from for an area
+     * @param bbox The area
+     * @return The data stores of the tiles at the best zoom level intersecting the area and the custom data store
+     */
+    private List<VectorDataStore> getDataStores(BBox bbox) {
+        final ZoomLevel zoomLevel = this.getBestZoomDataStore().orElse(null);
+        final List<MVTTile> tiles = zoomLevel != null ? zoomLevel.tiles.search(bbox) : Collections.emptyList();
+        final List<VectorDataStore> dataStores = new ArrayList<>(tiles.size() + 1);
+        for (MVTTile tile : tiles) {
+            dataStores.add(tile.getData());
+        }
+        dataStores.add(this.customDataStore);
+        return dataStores;
     }
 
     /**
      * Get the best zoom datastore
      * @return A datastore with data, or {@code null} if no good datastore exists.
      */
-    private Optional<Storage<MVTTile>> getBestZoomDataStore() {
+    private Optional<ZoomLevel> getBestZoomDataStore() {
         final int currentZoom = this.zoom;
         if (this.dataStoreMap.containsKey(currentZoom)) {
             return Optional.of(this.dataStoreMap.get(currentZoom));
@@ -554,17 +658,47 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
     }
 
     /**
-     * Add tile data to this dataset
+     * Add tile data to this dataset. If a tile for the same position has already been added, it is replaced.
      * @param tile The tile to add
      */
     public void addTileData(MVTTile tile) {
         tryWrite(this.readWriteLock, () -> {
             final int currentZoom = tile.getZoom();
             // computeIfAbsent should be thread safe (ConcurrentHashMap indicates it is, anyway)
-            final Storage<MVTTile> dataStore = this.dataStoreMap.computeIfAbsent(currentZoom, tZoom -> new Storage<>());
-            tile.getData().getAllPrimitives().forEach(primitive -> primitive.setDataSet(this));
-            dataStore.add(tile);
+            final ZoomLevel zoomLevel = this.dataStoreMap.computeIfAbsent(currentZoom, tZoom -> new ZoomLevel());
+            final Set<String> currentInvisibleLayers = this.invisibleLayers;
+            for (VectorPrimitive primitive : tile.getData().getAllPrimitives()) {
+                primitive.setDataSet(this);
+                if (!currentInvisibleLayers.isEmpty()) {
+                    primitive.setVisible(!currentInvisibleLayers.contains(primitive.getLayer()));
+                }
+            }
+            final MVTTile replaced = zoomLevel.add(tile);
+            if (replaced != null) {
+                replaced.getData().getAllPrimitives().forEach(primitive -> primitive.setDataSet(null));
+            }
+        });
+    }
+
+    /**
+     * Remove tile data from this dataset. Only the primitives of this tile are removed, the pieces of features that
+     * cross the tile boundary are kept in the other tiles.
+     * @param tile The tile to remove
+     * @return {@code true} if the tile was part of this dataset
+     */
+    public boolean removeTileData(MVTTile tile) {
+        final boolean[] removed = {false};
+        tryWrite(this.readWriteLock, () -> {
+            final ZoomLevel zoomLevel = this.dataStoreMap.get(tile.getZoom());
+            if (zoomLevel != null && zoomLevel.remove(tile)) {
+                tile.getData().getAllPrimitives().forEach(primitive -> primitive.setDataSet(null));
+                if (zoomLevel.tilesByKey.isEmpty()) {
+                    this.dataStoreMap.remove(tile.getZoom());
+                }
+                removed[0] = true;
+            }
         });
+        return removed[0];
     }
 
     /**
@@ -635,11 +769,26 @@ public class VectorDataSet implements OsmData<VectorPrimitive, VectorNode, Vecto
      * @param invisibleLayers The layer to not show
      */
     public void setInvisibleLayers(Collection<String> invisibleLayers) {
-        String[] currentInvisibleLayers = invisibleLayers.stream().filter(Objects::nonNull).toArray(String[]::new);
-        List<String> temporaryList = Arrays.asList(currentInvisibleLayers);
-        this.dataStoreMap.values().stream().flatMap(Collection::stream).map(MVTTile::getData)
-          .forEach(dataStore -> dataStore.getAllPrimitives().parallelStream()
-            .forEach(primitive -> primitive.setVisible(!temporaryList.contains(primitive.getLayer()))));
+        final Set<String> newInvisibleLayers = invisibleLayers.stream().filter(Objects::nonNull).collect(Collectors.toSet());
+        tryWrite(this.readWriteLock, () -> {
+            // Only the primitives of layers that changed their visibility need to be updated
+            final Set<String> changed = new HashSet<>(newInvisibleLayers);
+            changed.addAll(this.invisibleLayers);
+            changed.removeIf(layer -> newInvisibleLayers.contains(layer) && this.invisibleLayers.contains(layer));
+            this.invisibleLayers = Collections.unmodifiableSet(newInvisibleLayers);
+            if (changed.isEmpty()) {
+                return;
+            }
+            for (ZoomLevel zoomLevel : this.dataStoreMap.values()) {
+                for (MVTTile tile : zoomLevel.tiles) {
+                    for (VectorPrimitive primitive : tile.getData().getAllPrimitives()) {
+                        if (changed.contains(primitive.getLayer())) {
+                            primitive.setVisible(!newInvisibleLayers.contains(primitive.getLayer()));
+                        }
+                    }
+                }
+            }
+        });
     }
 
     @Override
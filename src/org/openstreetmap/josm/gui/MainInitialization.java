@@ -35,6 +35,7 @@ import org.openstreetmap.josm.spi.lifecycle.InitializationTask;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.I18n;
 import org.openstreetmap.josm.tools.ImageProvider;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.OpenBrowser;
 import org.openstreetmap.josm.tools.PlatformManager;
@@ -42,6 +43,7 @@ import org.openstreetmap.josm.tools.Shortcut;
 import org.openstreetmap.josm.tools.Tag2Link;
 import org.openstreetmap.josm.tools.Territories;
 import org.openstreetmap.josm.tools.Utils;
+import org.openstreetmap.josm.tools.bugreport.BugReport;
 
 /**
  * JOSM initialization sequence.
@@ -80,19 +82,25 @@ public class MainInitialization implements InitializationSequence {
                 // help shortcut
                 MainApplication.registerActionShortcut(MainApplication.menu.help,
                         Shortcut.registerShortcut("system:help", tr("Help: {0}", tr("Help")), KeyEvent.VK_F1, Shortcut.DIRECT));
-            }),
-            new InitializationTask(tr("Initializing internal boundaries data"), () -> {
-                Territories.initialize();
-                if (Config.getPref().getBoolean("override.numbering.format", true)) {
-                    I18n.initializeNumberingFormat();
-                }
             })
         );
     }
 
     @Override
     public Collection<InitializationTask> parallelInitializationTasks() {
+        InitializationTask territories = new InitializationTask(tr("Initializing internal boundaries data"), () -> {
+            // a failure is only warned about, so that the presets are still initialized
+            try {
+                Territories.initialize();
+                if (Config.getPref().getBoolean("override.numbering.format", true)) {
+                    I18n.initializeNumberingFormat();
+                }
+            } catch (JosmRuntimeException e) {
+                BugReport.intercept(e).warn();
+            }
+        });
         return Arrays.asList(
+            territories,
             new InitializationTask(tr("Initializing OSM API"), () -> {
                     OsmApi.addOsmApiInitializationListener(api -> {
                         // This checks if there are any layers currently displayed that are now on the blacklist, and removes them.
@@ -117,9 +125,9 @@ public class MainInitialization implements InitializationSequence {
                     }
                 }),
             new InitializationTask(tr("Initializing validator"), OsmValidator::initialize),
-            new InitializationTask(tr("Initializing presets"), TaggingPresets::initialize),
+            // region specific preset items are checked against the known territories
+            new InitializationTask(tr("Initializing presets"), TaggingPresets::initialize, territories),
             new InitializationTask(tr("Initializing map styles"), MapPaintPreference::initialize),
-            new InitializationTask(tr("Initializing Tag2Link rules"), Tag2Link::initialize),
             new InitializationTask(tr("Loading imagery preferences"), ImageryPreference::initialize)
         );
     }
@@ -133,7 +141,8 @@ public class MainInitialization implements InitializationSequence {
     public List<Runnable> asynchronousRunnableTasks() {
         return Arrays.asList(
                 TMSLayer::getCache,
-                OsmValidator::initializeTests
+                OsmValidator::initializeTests,
+                Tag2Link::ensureInitialized
             );
     }
 
@@ -42,6 +42,7 @@ public class MainTermination implements Runnable {
         // Remove all layers because somebody may rely on layerRemoved events (like AutosaveTask)
         MainApplication.getLayerManager().resetState();
         ImageProvider.shutdown(false);
+        Preferences.main().flush();
         try {
             Preferences.main().saveDefaults();
         } catch (IOException | InvalidPathException ex) {
@@ -5,6 +5,8 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
@@ -67,6 +69,15 @@ public abstract class FileImporter implements Comparable<FileImporter> {
         return false;
     }
 
+    /**
+     * Determines if the imported files are added to the history of recently opened files.
+     * @return {@code true} if the imported files are added to the file history. By default, this is only the case
+     * for importers that are not batch importers.
+     */
+    public boolean isRecordedInHistory() {
+        return !isBatchImporter();
+    }
+
     /**
      * Needs to be implemented if isBatchImporter() returns false.
      * @param file file to import
@@ -120,7 +131,12 @@ public abstract class FileImporter implements Comparable<FileImporter> {
         }
     }
 
-    private static void displayError(File f, Exception e) {
+    /**
+     * Displays an error that occurred while reading a file.
+     * @param f the file
+     * @param e the error
+     */
+    protected static void displayError(File f, Exception e) {
         Logging.error(e);
         HelpAwareOptionPane.showMessageDialogInEDT(
                 MainApplication.getMainFrame(),
@@ -147,10 +163,28 @@ public abstract class FileImporter implements Comparable<FileImporter> {
      * @return true if data import was successful
      */
     public boolean importDataHandleExceptions(List<File> files, ProgressMonitor progressMonitor) {
+        return importFilesHandleExceptions(files, progressMonitor).size() == files.size();
+    }
+
+    /**
+     * Wrapper to {@link #importData(List, ProgressMonitor)} to give meaningful output if things go wrong.
+     * Unlike {@link #importDataHandleExceptions(List, ProgressMonitor)}, this method tells which files were imported,
+     * if the importer reports the failed files with a {@link PartialImportException}.
+     * @param files data files to import
+     * @param progressMonitor progress monitor
+     * @return the files that were imported successfully
+     */
+    public List<File> importFilesHandleExceptions(List<File> files, ProgressMonitor progressMonitor) {
         try {
             Logging.info("Open "+files.size()+" files");
             importData(files, progressMonitor);
-            return true;
+            return files;
+        } catch (PartialImportException e) {
+            // the errors have already been reported for each file
+            Logging.warn(e.getMessage());
+            List<File> imported = new ArrayList<>(files);
+            imported.removeAll(e.getFailedFiles());
+            return imported;
         } catch (IOException | IllegalDataException e) {
             Logging.error(e);
             HelpAwareOptionPane.showMessageDialogInEDT(
@@ -159,7 +193,7 @@ public abstract class FileImporter implements Comparable<FileImporter> {
                     tr("Error"),
                     JOptionPane.ERROR_MESSAGE, null
             );
-            return false;
+            return Collections.emptyList();
         }
     }
 
@@ -6,6 +6,8 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 
 import javax.swing.JOptionPane;
 
@@ -23,6 +25,7 @@ import org.openstreetmap.josm.gui.layer.markerlayer.MarkerLayer;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.Compression;
+import org.openstreetmap.josm.io.GpxBulkReader;
 import org.openstreetmap.josm.io.GpxReader;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.Logging;
@@ -133,6 +136,40 @@ public class GpxImporter extends FileImporter {
         }
     }
 
+    /**
+     * Reads the files concurrently, the layers are added in the order of the files.
+     * @throws PartialImportException if some of the files could not be read, or have not been read because the import
+     * has been canceled
+     */
+    @Override
+    public void importData(List<File> files, ProgressMonitor progressMonitor) throws PartialImportException {
+        // the files which are not imported, including the files skipped on cancellation
+        List<File> failed = new ArrayList<>(files);
+        for (GpxBulkReader.Result<GpxReader> result : GpxBulkReader.read(files, GpxReader::new, progressMonitor)) {
+            if (result.getException() != null) {
+                displayError(result.getFile(), result.getException());
+            } else {
+                GpxData data = result.getReader().getGpxData();
+                data.storageFile = result.getFile();
+                addLayers(loadLayers(data, result.isParsedProperly(), result.getFile().getName()));
+                failed.remove(result.getFile());
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new PartialImportException(failed);
+        }
+    }
+
+    @Override
+    public boolean isBatchImporter() {
+        return true;
+    }
+
+    @Override
+    public boolean isRecordedInHistory() {
+        return true;
+    }
+
     /**
      * Adds the specified GPX and marker layers to Map.main
      * @param data The layers to add
@@ -6,6 +6,8 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
 
 import javax.swing.JOptionPane;
@@ -20,6 +22,7 @@ import org.openstreetmap.josm.gui.layer.markerlayer.MarkerLayer;
 import org.openstreetmap.josm.gui.progress.ProgressMonitor;
 import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.Compression;
+import org.openstreetmap.josm.io.GpxBulkReader;
 import org.openstreetmap.josm.io.IGpxReader;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.xml.sax.SAXException;
@@ -45,26 +48,60 @@ public abstract class GpxLikeImporter<T extends IGpxReader> extends FileImporter
 
     @Override
     public final void importData(File file, ProgressMonitor progressMonitor) throws IOException {
-        final String fn = file.getName();
         try (InputStream fis = Compression.getUncompressedFileInputStream(file)) {
-            final T r = buildAndParse(fis, klass);
-            if (r.getNumberOfCoordinates() > 0) {
-                r.getGpxData().storageFile = file;
-                final GpxLayer gpxLayer = new GpxLayer(r.getGpxData(), fn, true);
-                final File fileFinal = file;
-
-                GuiHelper.runInEDT(() -> {
-                    MainApplication.getLayerManager().addLayer(gpxLayer);
-                    if (Config.getPref().getBoolean("marker.makeautomarkers", true)) {
-                        MarkerLayer ml = new MarkerLayer(r.getGpxData(), tr("Markers from {0}", fn), fileFinal, gpxLayer);
-                        if (!ml.data.isEmpty()) {
-                            MainApplication.getLayerManager().addLayer(ml);
-                        }
-                    }
-                });
+            addLayers(file, buildAndParse(fis, klass));
+        }
+    }
+
+    /**
+     * Reads the files concurrently, the layers are added in the order of the files.
+     * @throws PartialImportException if some of the files could not be read, or have not been read because the import
+     * has been canceled
+     */
+    @Override
+    public final void importData(List<File> files, ProgressMonitor progressMonitor) throws PartialImportException {
+        // the files which are not imported, including the files skipped on cancellation
+        List<File> failed = new ArrayList<>(files);
+        for (GpxBulkReader.Result<T> result : GpxBulkReader.read(files, this::newReader, progressMonitor)) {
+            if (result.getException() != null) {
+                displayError(result.getFile(), result.getException());
+            } else {
+                addLayers(result.getFile(), result.getReader());
+                failed.remove(result.getFile());
             }
-            showInfobox(r.getNumberOfCoordinates() > 0, r);
         }
+        if (!failed.isEmpty()) {
+            throw new PartialImportException(failed);
+        }
+    }
+
+    @Override
+    public boolean isBatchImporter() {
+        return true;
+    }
+
+    @Override
+    public boolean isRecordedInHistory() {
+        return true;
+    }
+
+    private void addLayers(File file, T r) {
+        final String fn = file.getName();
+        if (r.getNumberOfCoordinates() > 0) {
+            r.getGpxData().storageFile = file;
+            final GpxLayer gpxLayer = new GpxLayer(r.getGpxData(), fn, true);
+
+            GuiHelper.runInEDT(() -> {
+                MainApplication.getLayerManager().addLayer(gpxLayer);
+                if (Config.getPref().getBoolean("marker.makeautomarkers", true)) {
+                    MarkerLayer ml = new MarkerLayer(r.getGpxData(), tr("Markers from {0}", fn), file, gpxLayer);
+                    if (!ml.data.isEmpty()) {
+                        MainApplication.getLayerManager().addLayer(ml);
+                    }
+                }
+            });
+        }
+        showInfobox(r.getNumberOfCoordinates() > 0, r);
     }
 
     protected final void showInfobox(boolean success, T r) {
@@ -90,6 +127,14 @@ public abstract class GpxLikeImporter<T extends IGpxReader> extends FileImporter
         // Complete if needed
     }
 
+    private T newReader(InputStream fis) throws IOException {
+        try {
+            return klass.getConstructor(InputStream.class).newInstance(fis);
+        } catch (ReflectiveOperationException | IllegalArgumentException | SecurityException e) {
+            throw new IOException(e);
+        }
+    }
+
     protected static final <T extends IGpxReader> T buildAndParse(InputStream fis, Class<T> klass) throws IOException {
         try {
             final T r = klass.getConstructor(InputStream.class).newInstance(fis);
@@ -0,0 +1,37 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import static org.openstreetmap.josm.tools.I18n.trn;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Exception raised by a batch importer when some of the files could not be imported.
+ * <p>
+ * The other files have been imported, and the errors of the failed files have already been reported to the user.
+ * @see FileImporter#importFilesHandleExceptions(List, org.openstreetmap.josm.gui.progress.ProgressMonitor)
+ */
+public class PartialImportException extends IOException {
+
+    private final transient List<File> failedFiles;
+
+    /**
+     * Constructs a new {@code PartialImportException}.
+     * @param failedFiles the files that could not be imported
+     */
+    public PartialImportException(List<File> failedFiles) {
+        super(trn("Could not import {0} file.", "Could not import {0} files.", failedFiles.size(), failedFiles.size()));
+        this.failedFiles = Collections.unmodifiableList(failedFiles);
+    }
+
+    /**
+     * Returns the files that could not be imported.
+     * @return the files that could not be imported
+     */
+    public List<File> getFailedFiles() {
+        return failedFiles;
+    }
+}
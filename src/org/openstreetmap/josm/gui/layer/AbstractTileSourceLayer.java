@@ -71,6 +71,7 @@ import org.openstreetmap.gui.jmapviewer.interfaces.ICoordinate;
 import org.openstreetmap.gui.jmapviewer.interfaces.IProjected;
 import org.openstreetmap.gui.jmapviewer.interfaces.TemplatedTileSource;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileCache;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileJob;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoader;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileLoaderListener;
 import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
@@ -82,12 +83,15 @@ import org.openstreetmap.josm.actions.RenameLayerAction;
 import org.openstreetmap.josm.actions.SaveActionBase;
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.ProjectionBounds;
+import org.openstreetmap.josm.data.cache.HostLimitQueue;
+import org.openstreetmap.josm.data.cache.JCSCachedTileLoaderJob;
 import org.openstreetmap.josm.data.coor.EastNorth;
 import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.imagery.CoordinateConversion;
 import org.openstreetmap.josm.data.imagery.ImageryInfo;
 import org.openstreetmap.josm.data.imagery.OffsetBookmark;
 import org.openstreetmap.josm.data.imagery.TMSCachedTileLoader;
+import org.openstreetmap.josm.data.imagery.TileImageStore;
 import org.openstreetmap.josm.data.imagery.TileLoaderFactory;
 import org.openstreetmap.josm.data.imagery.vectortile.VectorTile;
 import org.openstreetmap.josm.data.osm.visitor.BoundingXYVisitor;
@@ -119,6 +123,7 @@ import org.openstreetmap.josm.gui.layer.imagery.ShowErrorsAction;
 import org.openstreetmap.josm.gui.layer.imagery.TileAnchor;
 import org.openstreetmap.josm.gui.layer.imagery.TileCoordinateConverter;
 import org.openstreetmap.josm.gui.layer.imagery.TilePosition;
+import org.openstreetmap.josm.gui.layer.imagery.TilePrefetcher;
 import org.openstreetmap.josm.gui.layer.imagery.TileSourceDisplaySettings;
 import org.openstreetmap.josm.gui.layer.imagery.TileSourceDisplaySettings.DisplaySettingsChangeEvent;
 import org.openstreetmap.josm.gui.layer.imagery.TileSourceDisplaySettings.DisplaySettingsChangeListener;
@@ -150,6 +155,10 @@ public abstract class AbstractTileSourceLayer<T extends AbstractTMSTileSource> e
 implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeListener, DisplaySettingsChangeListener {
     private static final String PREFERENCE_PREFIX = "imagery.generic";
     private static final int MAX_TILES_SPANNED = 40;
+    /** Queued tiles farther away from the view centre than this number of half view sizes are not loaded */
+    private static final double PRIORITY_MAX_DISTANCE = 4;
+    /** Download priority penalty for each zoom level difference to the displayed zoom level */
+    private static final double PRIORITY_ZOOM_PENALTY = 0.5;
     static { // Registers all setting properties
         new TileSourceDisplaySettings();
     }
@@ -218,6 +227,9 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
     // prepared to be moved to the painter
     protected TileCoordinateConverter coordinateConverter;
     private final long minimumTileExpire;
+    private final TilePrefetcher prefetcher = new TilePrefetcher();
+    /** The tile set relative to which download priorities are computed, i.e. the one currently being displayed */
+    private volatile TileSet priorityTileSet;
 
     /**
      * Creates Tile Source based Imagery Layer based on Imagery Info
@@ -311,6 +323,8 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         if (tile.hasError()) {
             success = false;
             tile.setImage(null);
+        } else if (success) {
+            TileImageStore.getInstance().imageLoaded(tile);
         }
         invalidateLater();
         Logging.debug("tileLoadingFinished() tile: {0} success: {1}", tile, success);
@@ -324,6 +338,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             ((CachedTileLoader) tileLoader).clearCache(tileSource);
         }
         tileCache.clear();
+        TileImageStore.getInstance().clear(tileSource);
     }
 
     @Override
@@ -667,6 +682,8 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
      * Add +2 to maxYtiles / maxXtiles to add space in cache for extra tiles in current zoom level that are
      * download by overloadTiles(). This is not added in computation of visibleTiles as this unnecessarily grow the cache size
      * <p>
+     * Add visibleTiles once more for the viewport predicted by {@link TilePrefetcher}, which is at most one screen away
+     * <p>
      * Check call to tryLoadFromDifferentZoom
      * @see #tryLoadFromDifferentZoom(Graphics2D, int, List, int)
      * @see #drawInViewArea(Graphics2D, MapView, ProjectionBounds)
@@ -676,7 +693,8 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         return (int) Math.ceil(
                 Math.pow(2d, ZOOM_OFFSET.get()) * // use offset to decide, how many tiles are visible
                         visibleTiles * 7 + // 7 to cover tiles from other zooms as described above
-                        ((maxYtiles + 2) * (maxXtiles +2))); // to add as many tiles as they will be accessed on current zoom level
+                        ((maxYtiles + 2) * (maxXtiles +2)) + // to add as many tiles as they will be accessed on current zoom level
+                        visibleTiles); // to add the tiles of the predicted viewport
     }
 
     @Override
@@ -787,7 +805,10 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
     private void zoomChanged(boolean invalidate) {
         Logging.debug("zoomChanged(): {0}", currentZoomLevel);
         if (tileLoader instanceof TMSCachedTileLoader) {
-            tileLoader.cancelOutstandingTasks();
+            // keep queued tiles that are still useful for the new view, but load them in the new order
+            TileSet ts = getVisibleTileSet();
+            priorityTileSet = ts;
+            ((TMSCachedTileLoader) tileLoader).reprioritizeTasks(tileSource, ts::getPriority);
         }
         if (invalidate) {
             invalidate();
@@ -927,13 +948,27 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
     }
 
     private boolean loadTile(Tile tile, boolean force) {
+        return loadTile(tile, force, false);
+    }
+
+    private boolean loadTile(Tile tile, boolean force, boolean speculative) {
         if (tile == null)
             return false;
         if (!force && tile.isLoaded())
             return false;
         if (tile.isLoading())
             return false;
-        tileLoader.createTileLoaderJob(tile).submit(force);
+        TileJob job = tileLoader.createTileLoaderJob(tile);
+        if (job instanceof JCSCachedTileLoaderJob) {
+            JCSCachedTileLoaderJob<?, ?> jcsJob = (JCSCachedTileLoaderJob<?, ?>) job;
+            jcsJob.setSpeculative(speculative);
+            TileSet ts = priorityTileSet;
+            if (ts != null) {
+                double priority = ts.getPriority(tile);
+                jcsJob.setPriority(Double.isNaN(priority) ? HostLimitQueue.OUT_OF_VIEW_PRIORITY : priority);
+            }
+        }
+        job.submit(force);
         return true;
     }
 
@@ -1015,7 +1050,12 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
      * @return  the image of the tile or null.
      */
     private BufferedImage getLoadedTileImage(Tile tile) {
-        BufferedImage img = tile.getImage();
+        boolean wasLoaded = tile.isLoaded();
+        BufferedImage img = TileImageStore.getInstance().getImage(tile);
+        if (wasLoaded && !tile.isLoaded()) {
+            // the decoded image has been dropped from memory, load it again from the tile cache
+            loadTile(tile, false);
+        }
         if (!imageLoaded(img))
             return null;
         return img;
@@ -1327,7 +1367,34 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             return Comparator.comparingInt(t -> Math.abs(t.getXtile() - centerX) + Math.abs(t.getYtile() - centerY));
         }
 
+        /**
+         * Computes the download priority of a tile relative to this tile set, lower values are loaded first.
+         * The priority grows with the distance from the centre of this tile set, for tiles outside of it
+         * and with the difference of zoom levels.
+         * @param tile the tile
+         * @return the priority, or {@link Double#NaN} if the tile is too far away to be worth loading
+         */
+        private double getPriority(Tile tile) {
+            if (zoom == 0) {
+                return Double.NaN;
+            }
+            double scale = Math.pow(2, zoom - tile.getZoom());
+            double halfWidth = (maxX - minX + 1) / 2d;
+            double halfHeight = (maxY - minY + 1) / 2d;
+            double dx = Math.abs((tile.getXtile() + 0.5) * scale - (minX + halfWidth)) / halfWidth;
+            double dy = Math.abs((tile.getYtile() + 0.5) * scale - (minY + halfHeight)) / halfHeight;
+            double distance = Math.max(dx, dy);
+            if (distance > PRIORITY_MAX_DISTANCE) {
+                return Double.NaN;
+            }
+            return distance + (distance > 1 ? 1 : 0) + PRIORITY_ZOOM_PENALTY * Math.abs(zoom - tile.getZoom());
+        }
+
         private void loadAllTiles(boolean force) {
+            loadAllTiles(force, false);
+        }
+
+        private void loadAllTiles(boolean force, boolean speculative) {
             if (!getDisplaySettings().isAutoLoad() && !force) {
                 return;
             }
@@ -1339,7 +1406,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             List<Tile> allTiles = allTilesCreate();
             allTiles.sort(getTileDistanceComparator());
             for (Tile t : allTiles) {
-                loadTile(t, force);
+                loadTile(t, force, speculative);
             }
         }
 
@@ -1360,7 +1427,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             int maxYo = Utils.clamp(maxY+overload, tileSource.getTileYMin(zoom), tileSource.getTileYMax(zoom));
 
             TileSet ts = new TileSet(new TileXY(minXo, minYo), new TileXY(maxXo, maxYo), zoom);
-            ts.loadAllTiles(false);
+            ts.loadAllTiles(false, true);
         }
 
         private void loadAllErrorTiles(boolean force) {
@@ -1564,7 +1631,40 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         // old and unused.
     }
 
+    /**
+     * Speculatively loads the tiles of the viewport predicted from recent pan/zoom motion and of the adjacent
+     * zoom levels. These tiles are requested with low priority and dropped once they are out of range of the view.
+     * @param pb the currently displayed bounds
+     * @param ts the tile set that is currently loaded
+     * @param zoom the zoom level of {@code ts}
+     */
+    private void prefetchTiles(ProjectionBounds pb, TileSet ts, int zoom) {
+        if (!Boolean.TRUE.equals(TilePrefetcher.PROP_PREFETCH.get()) || zoom == 0 || ts.tooLarge()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        ProjectionBounds predicted = prefetcher.predictBounds(now);
+        if (predicted != null) {
+            prefetchTiles(getTileSet(predicted, zoom));
+        }
+        // lower zoom level is cheap (quarter of the tiles) and is used as fallback while panning
+        if (zoom > getMinZoomLvl()) {
+            prefetchTiles(getTileSet(pb, zoom - 1));
+        }
+        if (zoom < getMaxZoomLvl() && prefetcher.isZoomingIn(now)) {
+            prefetchTiles(getTileSet(pb, zoom + 1));
+        }
+    }
+
+    private void prefetchTiles(TileSet ts) {
+        // the next zoom level has four times the tiles of the current one, do not prefetch more than the cache holds
+        if (!ts.tooLarge()) {
+            ts.loadAllTiles(false, true);
+        }
+    }
+
     private void drawInViewArea(Graphics2D g, MapView mv, ProjectionBounds pb) {
+        prefetcher.viewChanged(pb, System.currentTimeMillis());
         int zoom = currentZoomLevel;
         if (getDisplaySettings().isAutoZoom()) {
             zoom = getBestZoom();
@@ -1614,6 +1714,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
             setZoomLevel(zoom, false);
         }
         TileSet ts = dts.getTileSet(zoom);
+        priorityTileSet = ts;
 
         // try to load tiles from desired zoom level, no matter what we will show (for example, tiles from previous zoom level
         // on zoom in)
@@ -1634,6 +1735,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         List<Tile> missedTiles = this.paintTileImages(g, ts);
         if (getDisplaySettings().isAutoLoad()) {
             ts.overloadTiles();
+            prefetchTiles(pb, ts, displayZoomLevel);
         }
         if (getDisplaySettings().isAutoZoom()) {
             /*
@@ -2036,6 +2138,7 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
         if (tileLoader instanceof TMSCachedTileLoader) {
             ((TMSCachedTileLoader) tileLoader).shutdown();
         }
+        TileImageStore.getInstance().clear(tileSource);
     }
 
     private final class TileSourcePainter extends CompatibilityModeLayerPainter {
@@ -2103,8 +2206,10 @@ implements ImageObserver, TileLoaderListener, ZoomChangeListener, FilterChangeLi
     public void projectionChanged(Projection oldValue, Projection newValue) {
         super.projectionChanged(oldValue, newValue);
         displaySettings.setOffsetBookmark(displaySettings.getOffsetBookmark());
+        prefetcher.reset();
         if (tileCache != null) {
             tileCache.clear();
+            TileImageStore.getInstance().clear(tileSource);
         }
     }
 
@@ -0,0 +1,273 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.openstreetmap.josm.data.gpx.GpxImageEntry;
+import org.openstreetmap.josm.data.imagery.street_level.IImageEntry;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.tools.ExifReader;
+import org.openstreetmap.josm.tools.ImageLruCache;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Cache of the images decoded for an {@link ImageDisplay}.
+ * <p>
+ * Images are stored per resolution and region, so that a whole image and the regions decoded when zooming in
+ * are kept side by side. The least recently used images are removed when the cache exceeds its size.
+ * Images can be decoded in the background before they are displayed.
+ */
+final class DecodedImageCache {
+
+    /** The size of a decoded pixel in bytes, images without EXIF rotation are decoded as RGB */
+    private static final int BYTES_PER_PIXEL = 3;
+
+    /** The size of a decoded pixel in bytes, for images rotated according to their EXIF orientation */
+    private static final int ROTATED_BYTES_PER_PIXEL = 4;
+
+    /** The maximum size of the decoded images in MB, by default enough for three images of 6000x3000 pixels */
+    static final IntegerProperty MAX_SIZE = new IntegerProperty("geoimage.viewer.cache_size",
+            (int) Math.ceil(3 * 6000 * 3000 * BYTES_PER_PIXEL / (1024.0 * 1024.0)));
+
+    private static final ForkJoinPool POOL = Utils.newForkJoinPool("geoimage.viewer.threads", "image-decoder-%d", Thread.MIN_PRIORITY);
+
+    private final ImageLruCache<Key> images = new ImageLruCache<>(16, DecodedImageCache::getMaxSize);
+    private final Map<Key, CompletableFuture<BufferedImage>> loading = new HashMap<>();
+
+    /**
+     * Identifies a decoded image.
+     */
+    static final class Key {
+        private final URI uri;
+        private final long lastModified;
+        private final Rectangle region;
+        private final Dimension target;
+
+        private Key(URI uri, long lastModified, Rectangle region, Dimension target) {
+            this.uri = uri;
+            this.lastModified = lastModified;
+            this.region = region != null ? new Rectangle(region) : null;
+            this.target = new Dimension(target);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(uri, lastModified, region, target);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Key other = (Key) obj;
+            return lastModified == other.lastModified && Objects.equals(uri, other.uri)
+                    && Objects.equals(region, other.region) && Objects.equals(target, other.target);
+        }
+    }
+
+    /**
+     * Returns the key of a decoded image.
+     * @param entry the image entry
+     * @param region the decoded region, or {@code null} for the whole image
+     * @param target the dimension the image is decoded for
+     * @return the key, or {@code null} if the image has neither a file nor an URI
+     */
+    static Key getKey(IImageEntry<?> entry, Rectangle region, Dimension target) {
+        File file = entry.getFile();
+        // GpxImageEntry requires a file to return an URI
+        URI uri = file != null ? file.toURI() : entry instanceof GpxImageEntry ? null : entry.getImageURI();
+        return uri != null ? new Key(uri, file != null ? file.lastModified() : 0, region, target) : null;
+    }
+
+    /**
+     * Returns the image for the given key, decoding it in the calling thread if it is neither cached nor being decoded.
+     * @param key the key, or {@code null} to decode the image without caching it
+     * @param reader decodes the image
+     * @return the image, or {@code null} if it cannot be decoded
+     * @throws IOException if the image cannot be read
+     */
+    BufferedImage get(Key key, Callable<BufferedImage> reader) throws IOException {
+        if (key == null) {
+            return call(reader);
+        }
+        CompletableFuture<BufferedImage> future;
+        boolean load = false;
+        synchronized (this) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                return image;
+            }
+            future = loading.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                loading.put(key, future);
+                load = true;
+            }
+        }
+        if (load) {
+            load(key, future, reader);
+        }
+        try {
+            return future.get();
+        } catch (CancellationException e) {
+            // a prefetch of the same image has been cancelled
+            Logging.trace(e);
+            return get(key, reader);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new JosmRuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * Decodes the image for the given key in the background, unless it is cached or already being decoded.
+     * @param key the key, or {@code null} to decode the image without caching it
+     * @param reader decodes the image
+     * @return a future completed with the image, or {@code null} if it cannot be decoded
+     */
+    CompletableFuture<BufferedImage> getAsync(Key key, Callable<BufferedImage> reader) {
+        if (key == null) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call(reader);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, POOL);
+        }
+        CompletableFuture<BufferedImage> future;
+        synchronized (this) {
+            BufferedImage image = images.get(key);
+            if (image != null) {
+                return CompletableFuture.completedFuture(image);
+            }
+            future = loading.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            loading.put(key, future);
+        }
+        CompletableFuture<BufferedImage> f = future;
+        POOL.execute(() -> load(key, f, reader));
+        return future;
+    }
+
+    /**
+     * Cancels the decoding of an image in the background. If the decoding has already started, it is completed
+     * and the image is cached.
+     * @param key the key
+     */
+    synchronized void cancel(Key key) {
+        CompletableFuture<BufferedImage> future = loading.get(key);
+        if (future != null && future.cancel(false)) {
+            loading.remove(key);
+        }
+    }
+
+    private void load(Key key, CompletableFuture<BufferedImage> future, Callable<BufferedImage> reader) {
+        if (future.isCancelled()) {
+            return;
+        }
+        try {
+            BufferedImage image = reader.call();
+            synchronized (this) {
+                loading.remove(key, future);
+                if (image != null) {
+                    images.put(key, image);
+                }
+            }
+            future.complete(image);
+        } catch (Exception e) { // NOPMD
+            Logging.trace(e);
+            synchronized (this) {
+                loading.remove(key, future);
+            }
+            future.completeExceptionally(e);
+        }
+    }
+
+    private static BufferedImage call(Callable<BufferedImage> reader) throws IOException {
+        try {
+            return reader.call();
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) { // NOPMD
+            throw new JosmRuntimeException(e);
+        }
+    }
+
+    /**
+     * Determines if an image should be decoded in the background, before it is displayed.
+     * <p>
+     * The current image and its two neighbours must fit into the cache together, so a neighbour is only prefetched
+     * if its estimated size does not exceed a third of the cache. Larger images would evict the current image,
+     * or would not be cached at all. Images of unknown size are prefetched.
+     * @param entry the image entry
+     * @param target the dimension the image is decoded for
+     * @return {@code true} if the image should be prefetched
+     */
+    static boolean isPrefetchable(IImageEntry<?> entry, Dimension target) {
+        if (!(entry instanceof ImageMetadata)) {
+            return true;
+        }
+        ImageMetadata metadata = (ImageMetadata) entry;
+        if (metadata.getWidth() <= 0 || metadata.getHeight() <= 0) {
+            return true;
+        }
+        Integer orientation = metadata.getExifOrientation();
+        boolean rotated = orientation != null && ExifReader.orientationNeedsCorrection(orientation);
+        return estimateSize(metadata.getWidth(), metadata.getHeight(), target, rotated ? ROTATED_BYTES_PER_PIXEL : BYTES_PER_PIXEL)
+                <= getMaxSize() / 3;
+    }
+
+    /**
+     * Estimates the size of a decoded image, subsampled like {@link ImageUtils#withSubsampling} does.
+     * @param width the width of the stored image
+     * @param height the height of the stored image
+     * @param target the dimension the image is decoded for
+     * @param bytesPerPixel the size of a decoded pixel in bytes
+     * @return the estimated size in bytes
+     */
+    static long estimateSize(int width, int height, Dimension target, int bytesPerPixel) {
+        int subsampling = 1;
+        if (width > target.width || height > target.height) {
+            subsampling = Math.max(1, (int) Math.floor(Math.max((double) width / target.width, (double) height / target.height)));
+        }
+        return (long) ((width + subsampling - 1) / subsampling) * ((height + subsampling - 1) / subsampling) * bytesPerPixel;
+    }
+
+    private static long getMaxSize() {
+        return MAX_SIZE.get() * 1024L * 1024L;
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    synchronized void clear() {
+        images.clear();
+    }
+}
@@ -19,7 +19,12 @@ import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.Future;
 
 import javax.swing.JComponent;
@@ -34,6 +39,7 @@ import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.layer.AbstractMapViewPaintable;
 import org.openstreetmap.josm.gui.layer.geoimage.viewers.projections.IImageViewer;
 import org.openstreetmap.josm.gui.layer.geoimage.viewers.projections.ImageProjectionRegistry;
+import org.openstreetmap.josm.gui.layer.geoimage.viewers.projections.Perspective;
 import org.openstreetmap.josm.gui.layer.imagery.ImageryFilterSettings;
 import org.openstreetmap.josm.gui.layer.imagery.ImageryFilterSettings.FilterChangeListener;
 import org.openstreetmap.josm.gui.util.GuiHelper;
@@ -42,6 +48,7 @@ import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.spi.preferences.PreferenceChangeEvent;
 import org.openstreetmap.josm.spi.preferences.PreferenceChangedListener;
 import org.openstreetmap.josm.tools.Destroyable;
+import org.openstreetmap.josm.tools.ExifReader;
 import org.openstreetmap.josm.tools.ImageProcessor;
 import org.openstreetmap.josm.tools.JosmRuntimeException;
 import org.openstreetmap.josm.tools.Logging;
@@ -70,6 +77,25 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
     /** The image currently displayed after applying {@link #imageProcessor} */
     private transient BufferedImage processedImage;
 
+    /** The decoded images, including the regions of the current image and the prefetched neighbours */
+    private final transient DecodedImageCache decodedImages = new DecodedImageCache();
+
+    /** The neighbours which are being prefetched */
+    private final transient List<DecodedImageCache.Key> prefetchKeys = new ArrayList<>();
+
+    /** A region of the current image decoded at a higher resolution, after applying {@link #imageProcessor} */
+    private transient BufferedImage processedRegion;
+
+    /** The visible rectangle and the target size {@link #processedRegion} was decoded for */
+    private Rectangle regionRect;
+    private Dimension regionTarget;
+
+    /** Set while a region is being decoded */
+    private boolean regionLoading;
+
+    /** Set when the regions of the current image do not have a higher resolution than the image */
+    private boolean noRegionGain;
+
     /**
      * Process the image before it is being displayed
      */
@@ -111,6 +137,14 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
     private static final IntegerProperty MAX_WIDTH =
         new IntegerProperty("geoimage.maximum-width", 6000);
 
+    /** Decode the visible region at a higher resolution when zooming into images larger than {@link #MAX_WIDTH} **/
+    private static final BooleanProperty REGION_DECODING =
+        new BooleanProperty("geoimage.viewer.region-decoding", true);
+
+    /** Decode the previous and next images in the background **/
+    private static final BooleanProperty PREFETCH =
+        new BooleanProperty("geoimage.viewer.prefetch", true);
+
     /** Show a background for the error text (may be hard on eyes) */
     private static final BooleanProperty ERROR_MESSAGE_BACKGROUND = new BooleanProperty("geoimage.message.error.background", false);
 
@@ -283,7 +317,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
         public void run() {
             try {
                 Dimension target = new Dimension(MAX_WIDTH.get(), MAX_WIDTH.get());
-                BufferedImage img = entry.read(target);
+                BufferedImage img = decodedImages.get(DecodedImageCache.getKey(entry, null, target), () -> entry.read(target));
                 if (img == null) {
                     synchronized (ImageDisplay.this) {
                         errorLoading = true;
@@ -304,6 +338,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
                     }
 
                     ImageDisplay.this.image = img;
+                    noRegionGain = false;
                     updateProcessedImage();
                     // This will clear the loading info box
                     ImageDisplay.this.oldEntry = ImageDisplay.this.entry;
@@ -313,6 +348,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
                     errorLoading = false;
                 }
                 ImageDisplay.this.repaint();
+                prefetchNeighbours(entry, target);
             } catch (IOException ex) {
                 Logging.error(ex);
             }
@@ -629,6 +665,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
             if (imageProcessor instanceof ImageryFilterSettings) {
                 ((ImageryFilterSettings) imageProcessor).removeFilterChangeListener(this);
             }
+            decodedImages.clear();
         }
         destroyed = true;
     }
@@ -645,6 +682,7 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
     }
 
     protected LoadImageRunnable setImage0(IImageEntry<?> entry) {
+        cancelStalePrefetches(entry);
         synchronized (this) {
             this.oldEntry = this.entry;
             this.entry = entry;
@@ -692,6 +730,10 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
 
     private void updateProcessedImage() {
         processedImage = image == null ? null : imageProcessor.process(image);
+        synchronized (this) {
+            processedRegion = null;
+            regionRect = null;
+        }
         GuiHelper.runInEDT(this::repaint);
     }
 
@@ -730,6 +772,9 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
             Rectangle target = calculateDrawImageRectangle(currentVisibleRect, size);
 
             currentImageViewer.paintImage(g, currentImage, target, r);
+            if (currentEntry != null && currentEntry == currentOldEntry && !currentVisibleRect.isDragUpdate) {
+                paintRegion(g, currentEntry, currentImage, currentImageViewer, target, r);
+            }
             paintSelectedRect(g, target, currentVisibleRect, size);
             if (currentErrorLoading && currentEntry != null) {
                 String loadingStr = tr("Error on file {0}", currentEntry.getDisplayName());
@@ -742,6 +787,118 @@ public class ImageDisplay extends JComponent implements Destroyable, PreferenceC
         paintErrorMessage(g, currentEntry, currentOldEntry, currentImage, currentErrorLoading, size);
     }
 
+    /**
+     * Paints the visible region of the image decoded at the resolution of the screen, when zoomed into an image that
+     * was decoded at a lower resolution. The region is decoded in the background and painted once it is available.
+     * @param g The graphics to paint on
+     * @param regionEntry The current image entry
+     * @param currentImage The image being painted
+     * @param viewer The image viewer
+     * @param target The target rectangle on the screen
+     * @param r The visible rectangle of the image
+     */
+    private void paintRegion(Graphics g, IImageEntry<?> regionEntry, BufferedImage currentImage, IImageViewer viewer,
+            Rectangle target, Rectangle r) {
+        BufferedImage region;
+        synchronized (this) {
+            region = r.equals(regionRect) && target.getSize().equals(regionTarget) ? processedRegion : null;
+            if (region == null && (regionLoading || noRegionGain)) {
+                return;
+            }
+        }
+        if (region != null) {
+            viewer.paintImage(g, region, target, new Rectangle(0, 0, region.getWidth(), region.getHeight()));
+        } else if (Boolean.TRUE.equals(REGION_DECODING.get()) && viewer instanceof Perspective
+                && r.width < target.width && r.height < target.height
+                && Math.max(currentImage.getWidth(), currentImage.getHeight()) >= MAX_WIDTH.get()
+                && !needsOrientationCorrection(regionEntry)) {
+            loadRegion(regionEntry, new Dimension(currentImage.getWidth(), currentImage.getHeight()), target.getSize(), r);
+        }
+    }
+
+    /**
+     * Determines if the image must be rotated according to its EXIF orientation. Regions are decoded without rotation.
+     */
+    private static boolean needsOrientationCorrection(IImageEntry<?> imageEntry) {
+        Integer orientation = imageEntry instanceof ImageMetadata ? ((ImageMetadata) imageEntry).getExifOrientation() : null;
+        return orientation != null && ExifReader.orientationNeedsCorrection(orientation);
+    }
+
+    private void loadRegion(IImageEntry<?> regionEntry, Dimension imageSize, Dimension targetSize, Rectangle r) {
+        synchronized (this) {
+            regionLoading = true;
+        }
+        Rectangle2D region = new Rectangle2D.Double(
+                (double) r.x / imageSize.width, (double) r.y / imageSize.height,
+                (double) r.width / imageSize.width, (double) r.height / imageSize.height);
+        decodedImages.getAsync(DecodedImageCache.getKey(regionEntry, r, targetSize), () -> regionEntry.readRegion(region, targetSize))
+                .whenComplete((img, ex) -> {
+                    if (ex != null) {
+                        Logging.debug(ex);
+                    }
+                    BufferedImage processed = img != null && img.getWidth() > r.width ? imageProcessor.process(img) : null;
+                    synchronized (this) {
+                        regionLoading = false;
+                        if (regionEntry != entry) {
+                            return;
+                        } else if (processed == null) {
+                            // the image was not subsampled, or cannot be read
+                            noRegionGain = true;
+                        } else {
+                            processedRegion = processed;
+                            regionRect = r;
+                            regionTarget = targetSize;
+                        }
+                    }
+                    repaint();
+                });
+    }
+
+    private void prefetchNeighbours(IImageEntry<?> current, Dimension target) {
+        if (!Boolean.TRUE.equals(PREFETCH.get()) || (current instanceof ImageEntry && ((ImageEntry) current).getDataSet() == null)) {
+            return;
+        }
+        for (IImageEntry<?> neighbour : Arrays.asList(current.getNextImage(), current.getPreviousImage())) {
+            DecodedImageCache.Key key = neighbour != null && neighbour != current && DecodedImageCache.isPrefetchable(neighbour, target)
+                    ? DecodedImageCache.getKey(neighbour, null, target) : null;
+            if (key != null) {
+                synchronized (this) {
+                    if (current != entry) {
+                        // the displayed image has changed meanwhile
+                        return;
+                    }
+                    prefetchKeys.add(key);
+                }
+                decodedImages.getAsync(key, () -> neighbour.read(target));
+            }
+        }
+    }
+
+    /**
+     * Cancels the prefetching of images which are neither the given image nor one of its neighbours.
+     * @param current the image that is displayed now
+     */
+    private synchronized void cancelStalePrefetches(IImageEntry<?> current) {
+        if (prefetchKeys.isEmpty()) {
+            return;
+        }
+        Dimension target = new Dimension(MAX_WIDTH.get(), MAX_WIDTH.get());
+        Set<DecodedImageCache.Key> keep = new HashSet<>();
+        if (current != null) {
+            for (IImageEntry<?> e : Arrays.asList(current, current.getNextImage(), current.getPreviousImage())) {
+                if (e != null) {
+                    keep.add(DecodedImageCache.getKey(e, null, target));
+                }
+            }
+        }
+        for (DecodedImageCache.Key key : prefetchKeys) {
+            if (!keep.contains(key)) {
+                decodedImages.cancel(key);
+            }
+        }
+        prefetchKeys.retainAll(keep);
+    }
+
     /**
      * Paint an error message
      * @param g The graphics to paint on
@@ -0,0 +1,189 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import java.io.File;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.jcs3.access.behavior.ICacheAccess;
+import org.apache.commons.jcs3.engine.behavior.ICache;
+import org.openstreetmap.josm.data.coor.ILatLon;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.imagery.street_level.Projections;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Disk cache of the metadata extracted from local image files.
+ * <p>
+ * Reading the EXIF, XMP and IPTC directories of large images takes most of the time needed to open a folder of photos.
+ * The extracted values are stored in a persistent cache keyed by the path, size and modification time of each file,
+ * so that loading the same images again does not need to parse them.
+ */
+public final class ImageMetadataCache {
+
+    /** The maximum size of the disk cache in MB, {@code 0} to disable the cache */
+    public static final IntegerProperty MAX_DISK_CACHE_SIZE = new IntegerProperty("geoimage.metadata.cache_size", 16);
+
+    private static final String CACHE_NAME = "geoimage-metadata";
+    private static ICacheAccess<String, Entry> cache;
+
+    private ImageMetadataCache() {
+        // Hide default constructor for utilities classes
+    }
+
+    /**
+     * The metadata of an image, as extracted by {@link ImageUtils#applyExif}.
+     */
+    static final class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int width;
+        private final int height;
+        private final Integer exifOrientation;
+        private final Instant exifTime;
+        private final Instant exifGpsTime;
+        private final Double exifLat;
+        private final Double exifLon;
+        private final Double speed;
+        private final Double elevation;
+        private final Double exifImgDir;
+        private final Double exifGpsTrack;
+        private final Double exifHPosErr;
+        private final Integer gpsDiffMode;
+        private final Integer gps2d3dMode;
+        private final Double exifGpsDop;
+        private final String exifGpsDatum;
+        private final String exifGpsProcMethod;
+        private final String iptcCaption;
+        private final String iptcHeadline;
+        private final ArrayList<String> iptcKeywords;
+        private final String iptcObjectName;
+        private final Projections projectionType;
+
+        Entry(ImageMetadata image) {
+            width = image.getWidth();
+            height = image.getHeight();
+            exifOrientation = image.getExifOrientation();
+            exifTime = image.getExifInstant();
+            exifGpsTime = image.getExifGpsInstant();
+            ILatLon coor = image.getExifCoor();
+            exifLat = coor != null ? coor.lat() : null;
+            exifLon = coor != null ? coor.lon() : null;
+            speed = image.getSpeed();
+            elevation = image.getElevation();
+            exifImgDir = image.getExifImgDir();
+            exifGpsTrack = image.getExifGpsTrack();
+            exifHPosErr = image.getExifHPosErr();
+            gpsDiffMode = image.getGpsDiffMode();
+            gps2d3dMode = image.getGps2d3dMode();
+            exifGpsDop = image.getExifGpsDop();
+            exifGpsDatum = image.getExifGpsDatum();
+            exifGpsProcMethod = image.getExifGpsProcMethod();
+            iptcCaption = image.getIptcCaption();
+            iptcHeadline = image.getIptcHeadline();
+            List<String> keywords = image.getIptcKeywords();
+            iptcKeywords = keywords != null ? new ArrayList<>(keywords) : null;
+            iptcObjectName = image.getIptcObjectName();
+            projectionType = image.getProjectionType();
+        }
+
+        /**
+         * Sets the cached values to the given image, like {@link ImageMetadata#extractExif} does.
+         * @param image the image
+         */
+        void applyTo(ImageMetadata image) {
+            if (width > 0 && height > 0) {
+                image.setWidth(width);
+                image.setHeight(height);
+            }
+            image.setExifOrientation(exifOrientation);
+            image.setExifTime(exifTime);
+            image.setExifGpsTime(exifGpsTime);
+            if (exifLat != null && exifLon != null) {
+                image.setExifCoor(new LatLon(exifLat, exifLon));
+                image.setPos(image.getExifCoor());
+            } else {
+                image.setExifCoor(null);
+                image.setPos(null);
+            }
+            image.setSpeed(speed);
+            image.setElevation(elevation);
+            image.setExifImgDir(exifImgDir);
+            image.setExifGpsTrack(exifGpsTrack);
+            image.setExifHPosErr(exifHPosErr);
+            image.setGpsDiffMode(gpsDiffMode);
+            image.setGps2d3dMode(gps2d3dMode);
+            image.setExifGpsDop(exifGpsDop);
+            image.setExifGpsDatum(exifGpsDatum);
+            image.setExifGpsProcMethod(exifGpsProcMethod);
+            if (iptcCaption != null) {
+                image.setIptcCaption(iptcCaption);
+            }
+            if (iptcHeadline != null) {
+                image.setIptcHeadline(iptcHeadline);
+            }
+            if (iptcKeywords != null) {
+                image.setIptcKeywords(new ArrayList<>(iptcKeywords));
+            }
+            if (iptcObjectName != null) {
+                image.setIptcObjectName(iptcObjectName);
+            }
+            if (projectionType != null) {
+                image.setProjectionType(projectionType);
+            }
+        }
+    }
+
+    static synchronized ICacheAccess<String, Entry> getCache() {
+        if (cache == null) {
+            cache = JCSCacheManager.getCache(CACHE_NAME, 0, MAX_DISK_CACHE_SIZE.get() * 1024,
+                    Config.getDirs().getCacheDirectory(true).getPath() + File.separator + CACHE_NAME);
+        }
+        return cache;
+    }
+
+    static String getCacheKey(File file) {
+        return file.getAbsolutePath() + ICache.NAME_COMPONENT_DELIMITER + file.length()
+                + ICache.NAME_COMPONENT_DELIMITER + file.lastModified();
+    }
+
+    /**
+     * Extracts the metadata of the given image, reading it from the cache if the file did not change since it was cached.
+     * @param image the image, with a local file
+     * @throws java.io.UncheckedIOException if the file cannot be read, see {@link ImageMetadata#extractExif}
+     */
+    public static void extractExif(ImageEntry image) {
+        File file = image.getFile();
+        if (MAX_DISK_CACHE_SIZE.get() <= 0 || file == null) {
+            image.extractExif();
+            return;
+        }
+        String key = getCacheKey(file);
+        ICacheAccess<String, Entry> access = getCache();
+        Entry entry = access.get(key);
+        if (entry != null) {
+            entry.applyTo(image);
+            return;
+        }
+        image.extractExif();
+        try {
+            access.put(key, new Entry(image));
+        } catch (RuntimeException e) { // NOPMD
+            Logging.warn(e);
+        }
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public static void clear() {
+        if (MAX_DISK_CACHE_SIZE.get() > 0) {
+            getCache().clear();
+        }
+    }
+}
@@ -5,31 +5,42 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.awt.Dimension;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Locale;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
+import javax.imageio.ImageIO;
 import javax.imageio.ImageReadParam;
 import javax.imageio.ImageReader;
 
 import com.drew.imaging.jpeg.JpegMetadataReader;
 import com.drew.imaging.jpeg.JpegProcessingException;
+import com.drew.imaging.jpeg.JpegSegmentData;
+import com.drew.imaging.jpeg.JpegSegmentReader;
+import com.drew.imaging.jpeg.JpegSegmentType;
 import com.drew.imaging.png.PngMetadataReader;
 import com.drew.imaging.png.PngProcessingException;
 import com.drew.imaging.tiff.TiffMetadataReader;
 import com.drew.imaging.tiff.TiffProcessingException;
+import com.drew.lang.ByteArrayReader;
 import com.drew.metadata.Directory;
 import com.drew.metadata.Metadata;
 import com.drew.metadata.MetadataException;
 import com.drew.metadata.exif.ExifIFD0Directory;
+import com.drew.metadata.exif.ExifThumbnailDirectory;
 import com.drew.metadata.exif.GpsDirectory;
 import com.drew.metadata.iptc.IptcDirectory;
 import com.drew.metadata.jpeg.JpegDirectory;
@@ -91,6 +102,65 @@ public final class ImageUtils {
         }
     }
 
+    /**
+     * Read parameters for a region of an image
+     * @param reader The image reader
+     * @param region The region to read, relative to the image size (coordinates between 0 and 1)
+     * @param target The target area, used for subsampling
+     * @return The read parameters
+     */
+    public static ImageReadParam withSourceRegion(ImageReader reader, Rectangle2D region, Dimension target) {
+        try {
+            ImageReadParam param = reader.getDefaultReadParam();
+            int width = reader.getWidth(0);
+            int height = reader.getHeight(0);
+            int x = (int) Math.floor(region.getMinX() * width);
+            int y = (int) Math.floor(region.getMinY() * height);
+            Rectangle source = new Rectangle(x, y,
+                    (int) Math.ceil(region.getMaxX() * width) - x,
+                    (int) Math.ceil(region.getMaxY() * height) - y).intersection(new Rectangle(width, height));
+            param.setSourceRegion(source);
+            if (source.getWidth() > target.getWidth() || source.getHeight() > target.getHeight()) {
+                int subsampling = (int) Math.floor(Math.max(
+                        source.getWidth() / target.getWidth(),
+                        source.getHeight() / target.getHeight()));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+            }
+            return param;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the thumbnail embedded in the EXIF data of a JPEG file, without decoding the image itself.
+     * @param file The JPEG file
+     * @return The embedded thumbnail, not rotated, or {@code null} if the file does not contain one
+     * @throws IOException if the file cannot be read or is not a JPEG file
+     */
+    public static BufferedImage readExifThumbnail(File file) throws IOException {
+        try {
+            JpegSegmentData segments = JpegSegmentReader.readSegments(file, Collections.singleton(JpegSegmentType.APP1));
+            for (byte[] segment : segments.getSegments(JpegSegmentType.APP1)) {
+                if (!com.drew.metadata.exif.ExifReader.startsWithJpegExifPreamble(segment)) {
+                    continue;
+                }
+                Metadata metadata = new Metadata();
+                new com.drew.metadata.exif.ExifReader().extract(new ByteArrayReader(segment), metadata,
+                        com.drew.metadata.exif.ExifReader.JPEG_SEGMENT_PREAMBLE.length());
+                ExifThumbnailDirectory dir = metadata.getFirstDirectoryOfType(ExifThumbnailDirectory.class);
+                Integer offset = dir != null ? dir.getAdjustedThumbnailOffset() : null;
+                Integer length = dir != null ? dir.getInteger(ExifThumbnailDirectory.TAG_THUMBNAIL_LENGTH) : null;
+                if (offset != null && length != null && offset >= 0 && length > 0 && offset + length <= segment.length) {
+                    return ImageIO.read(new ByteArrayInputStream(segment, offset, length));
+                }
+            }
+            return null;
+        } catch (JpegProcessingException e) {
+            throw new IOException(e);
+        }
+    }
+
     /**
      * Apply exif information from an {@link InputStream}
      * @param image The image to apply information to
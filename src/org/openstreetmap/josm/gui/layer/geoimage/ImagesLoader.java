@@ -15,6 +15,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import javax.swing.JOptionPane;
@@ -24,6 +27,7 @@ import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.PleaseWaitRunnable;
 import org.openstreetmap.josm.gui.io.importexport.ImageImporter;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Utils;
 
@@ -45,6 +49,7 @@ final class ImagesLoader extends PleaseWaitRunnable {
     private final GpxLayer gpxLayer;
 
     private static final BooleanProperty PROP_ONE_LAYER_PER_FOLDER = new BooleanProperty("geoimage.one-layer-per-folder", false);
+    private static final ForkJoinPool POOL = Utils.newForkJoinPool("geoimage.import.threads", "geoimage-import-%d", Thread.NORM_PRIORITY);
 
     /**
      * Constructs a new {@code ImagesLoader}.
@@ -79,29 +84,43 @@ final class ImagesLoader extends PleaseWaitRunnable {
         progressMonitor.subTask(tr("Read photos..."));
         progressMonitor.setTicksCount(files.size());
 
-        // read the image files
+        // read the image files, the metadata of several images is extracted concurrently
+        List<File> fileList = new ArrayList<>(files);
+        List<Future<ImageEntry>> futures = fileList.stream()
+                .map(f -> POOL.submit(() -> readImage(f)))
+                .collect(Collectors.toList());
         Map<String, List<ImageEntry>> entries = new TreeMap<>();
 
-        for (File f : files) {
+        try {
+            for (int i = 0; i < fileList.size(); i++) {
 
-            if (canceled) {
-                break;
-            }
+                if (canceled) {
+                    break;
+                }
 
-            progressMonitor.subTask(tr("Reading {0}...", f.getName()));
-            progressMonitor.worked(1);
+                File f = fileList.get(i);
+                progressMonitor.subTask(tr("Reading {0}...", f.getName()));
 
-            ImageEntry e = new ImageEntry(f);
-            try {
-                e.extractExif();
-            } catch (UncheckedIOException uncheckedIOException) {
+                ImageEntry e = futures.get(i).get();
+                progressMonitor.worked(1);
+                File parentFile = f.getParentFile();
+                entries.computeIfAbsent(parentFile != null ? parentFile.getName() : "", x -> new ArrayList<>()).add(e);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            Logging.trace(ex);
+            canceled = true;
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException) {
                 // We want to throw the actual IOException that is wrapped, not the unchecked IO exception.
                 // See #23866
-                Logging.trace(uncheckedIOException);
-                throw uncheckedIOException.getCause();
+                Logging.trace(cause);
+                throw ((UncheckedIOException) cause).getCause();
             }
-            File parentFile = f.getParentFile();
-            entries.computeIfAbsent(parentFile != null ? parentFile.getName() : "", x -> new ArrayList<>()).add(e);
+            throw new JosmRuntimeException(cause);
+        } finally {
+            futures.forEach(f -> f.cancel(false));
         }
         if (Boolean.TRUE.equals(PROP_ONE_LAYER_PER_FOLDER.get())) {
             entries.entrySet().stream().map(e -> new GeoImageLayer(e.getValue(), gpxLayer, e.getKey())).forEach(layers::add);
@@ -111,6 +130,12 @@ final class ImagesLoader extends PleaseWaitRunnable {
         files.clear();
     }
 
+    private static ImageEntry readImage(File f) {
+        ImageEntry e = new ImageEntry(f);
+        ImageMetadataCache.extractExif(e);
+        return e;
+    }
+
     private void addRecursiveFiles(Collection<File> files, Collection<File> sel) {
         boolean nullFile = false;
 
@@ -2,26 +2,45 @@
 package org.openstreetmap.josm.gui.layer.geoimage;
 
 import java.awt.Dimension;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.apache.commons.jcs3.access.behavior.ICacheAccess;
 import org.apache.commons.jcs3.engine.behavior.ICache;
+import org.openstreetmap.josm.data.ProjectionBounds;
 import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
 import org.openstreetmap.josm.data.cache.JCSCacheManager;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.ILatLon;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
+import org.openstreetmap.josm.data.projection.Projection;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.tools.ImageProvider;
 import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.Stopwatch;
+import org.openstreetmap.josm.tools.Utils;
 
 /**
  * Loads thumbnail previews for a list of images from a {@link GeoImageLayer}.
  *
  * Thumbnails are loaded in the background and cached on disk for the next session.
+ * Several thumbnails are created concurrently, starting with the images closest to the center of the map view.
  */
 public class ThumbsLoader implements Runnable {
     public static final int maxSize = 120;
@@ -31,6 +50,13 @@ public class ThumbsLoader implements Runnable {
     private final GeoImageLayer layer;
     private ICacheAccess<String, BufferedImageCacheEntry> cache;
     private final boolean cacheOff = Config.getPref().getBoolean("geoimage.noThumbnailCache", false);
+    private final AtomicInteger count = new AtomicInteger();
+    private List<ImageEntry> remaining;
+    private ProjectionBounds sortedFor;
+
+    /** Use the thumbnails embedded in the EXIF data of JPEG files instead of decoding the images */
+    private static final BooleanProperty USE_EXIF_THUMBNAILS = new BooleanProperty("geoimage.thumbnails.use_exif", true);
+    private static final ForkJoinPool POOL = Utils.newForkJoinPool("geoimage.thumbnails.threads", "thumbnail-loader-%d", Thread.MIN_PRIORITY);
 
     private ThumbsLoader(Collection<ImageEntry> data, GeoImageLayer layer) {
         this.data = data;
@@ -66,22 +92,32 @@ public class ThumbsLoader implements Runnable {
 
     @Override
     public void run() {
-        int count = 0;
         Stopwatch stopwatch = Stopwatch.createStarted();
         Logging.debug("Loading {0} thumbnails", data.size());
-        for (ImageEntry entry : data) {
-            if (stop) return;
-
-            // Do not load thumbnails that were loaded before.
-            if (!entry.hasThumbnail()) {
-                entry.setThumbnail(loadThumb(entry));
-
-                if (layer != null && MainApplication.isDisplayingMapView()) {
-                    layer.updateBufferAndRepaint();
+        // Do not load thumbnails that were loaded before.
+        remaining = data.stream().filter(entry -> !entry.hasThumbnail()).collect(Collectors.toList());
+        Collections.reverse(remaining);
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < Math.min(POOL.getParallelism(), remaining.size()); i++) {
+            workers.add(() -> {
+                ImageEntry entry;
+                while (!stop && (entry = next()) != null) {
+                    entry.setThumbnail(loadThumb(entry));
+                    count.incrementAndGet();
+                    if (layer != null && MainApplication.isDisplayingMapView()) {
+                        layer.updateBufferAndRepaint();
+                    }
                 }
-            }
-            count++;
+                return null;
+            });
         }
+        try {
+            POOL.invokeAll(workers);
+        } catch (RejectedExecutionException e) {
+            Logging.warn(e);
+            return;
+        }
+        if (stop) return;
         Logging.debug("Loaded {0} thumbnails in {1}", count, stopwatch);
         if (layer != null) {
             layer.thumbsLoaded();
@@ -89,8 +125,49 @@ public class ThumbsLoader implements Runnable {
         }
     }
 
+    /**
+     * Returns the next image to load, the ones closest to the center of the map view first.
+     * The remaining images are sorted again when the map view changed.
+     * @return the next image to load, or {@code null}
+     */
+    private synchronized ImageEntry next() {
+        if (remaining.isEmpty()) {
+            return null;
+        }
+        ProjectionBounds view = layer != null && MainApplication.isDisplayingMapView()
+                ? MainApplication.getMap().mapView.getState().getViewArea().getProjectionBounds() : null;
+        if (view != null && (sortedFor == null
+                || !view.getMin().equals(sortedFor.getMin()) || !view.getMax().equals(sortedFor.getMax()))) {
+            sortedFor = view;
+            Projection projection = ProjectionRegistry.getProjection();
+            EastNorth center = view.getCenter();
+            // the images in the view first, then the closest ones, sorted in descending order
+            // so that the next image is removed from the end of the list
+            remaining.sort(Comparator.comparing((ImageEntry entry) -> !isVisible(entry, view, projection))
+                    .thenComparingDouble(entry -> getDistanceSq(entry, center, projection))
+                    .reversed());
+        }
+        return remaining.remove(remaining.size() - 1);
+    }
+
+    private static boolean isVisible(ImageEntry entry, ProjectionBounds view, Projection projection) {
+        ILatLon pos = entry.getPos();
+        return pos != null && view.contains(pos.getEastNorth(projection));
+    }
+
+    private static double getDistanceSq(ImageEntry entry, EastNorth center, Projection projection) {
+        ILatLon pos = entry.getPos();
+        return pos != null ? pos.getEastNorth(projection).distanceSq(center) : Double.POSITIVE_INFINITY;
+    }
+
+    private static String getCacheKey(ImageEntry entry) {
+        File file = entry.getFile();
+        return file.getAbsolutePath() + ICache.NAME_COMPONENT_DELIMITER + file.length()
+                + ICache.NAME_COMPONENT_DELIMITER + file.lastModified() + ICache.NAME_COMPONENT_DELIMITER + maxSize;
+    }
+
     private BufferedImage loadThumb(ImageEntry entry) {
-        final String cacheIdent = entry.getFile().toString() + ICache.NAME_COMPONENT_DELIMITER + maxSize;
+        final String cacheIdent = getCacheKey(entry);
 
         if (!cacheOff && cache != null) {
             try {
@@ -106,7 +183,10 @@ public class ThumbsLoader implements Runnable {
 
         BufferedImage img;
         try {
-            img = entry.read(new Dimension(maxSize, maxSize));
+            img = readExifThumbnail(entry);
+            if (img == null) {
+                img = entry.read(new Dimension(maxSize, maxSize));
+            }
         } catch (IOException e) {
             Logging.warn("Failed to load geoimage thumb");
             Logging.warn(e);
@@ -129,4 +209,36 @@ public class ThumbsLoader implements Runnable {
 
         return img;
     }
+
+    /**
+     * Reads the thumbnail embedded in a JPEG file, if it is large enough and has the aspect ratio of the image.
+     * Cameras often store letterboxed thumbnails, which are not used.
+     * @param entry the image
+     * @return the rotated thumbnail, scaled down to {@code maxSize}, or {@code null}
+     */
+    private static BufferedImage readExifThumbnail(ImageEntry entry) {
+        String name = entry.getFile().getName().toLowerCase(Locale.ENGLISH);
+        if (!USE_EXIF_THUMBNAILS.get() || entry.getWidth() <= 0 || entry.getHeight() <= 0
+                || !(name.endsWith(".jpg") || name.endsWith(".jpeg"))) {
+            return null;
+        }
+        try {
+            BufferedImage thumb = ImageUtils.readExifThumbnail(entry.getFile());
+            if (thumb == null || Math.max(thumb.getWidth(), thumb.getHeight()) < maxSize
+                    || Math.abs((double) thumb.getWidth() / thumb.getHeight() - (double) entry.getWidth() / entry.getHeight()) > 0.02) {
+                return null;
+            }
+            thumb = ImageUtils.applyExifRotation(thumb, entry.getExifOrientation());
+            // the thumbnail must have the size of a decoded thumbnail, the markers are sized from it
+            double scale = (double) maxSize / Math.max(thumb.getWidth(), thumb.getHeight());
+            if (scale < 1) {
+                thumb = ImageProvider.createScaledImage(thumb, Math.max(1, (int) Math.round(thumb.getWidth() * scale)),
+                        Math.max(1, (int) Math.round(thumb.getHeight() * scale)), RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            }
+            return thumb;
+        } catch (IOException e) {
+            Logging.debug(e);
+            return null;
+        }
+    }
 }
@@ -36,6 +36,7 @@ import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.SystemOfMeasurement;
 import org.openstreetmap.josm.data.SystemOfMeasurement.SoMChangeListener;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxData.GpxDataChangeEvent;
@@ -52,6 +53,7 @@ import org.openstreetmap.josm.gui.layer.MapViewPaintable.MapViewEvent;
 import org.openstreetmap.josm.gui.layer.MapViewPaintable.PaintableInvalidationEvent;
 import org.openstreetmap.josm.gui.layer.MapViewPaintable.PaintableInvalidationListener;
 import org.openstreetmap.josm.gui.preferences.display.GPXSettingsPanel;
+import org.openstreetmap.josm.gui.util.GuiHelper;
 import org.openstreetmap.josm.io.CachedFile;
 import org.openstreetmap.josm.spi.preferences.Config;
 import org.openstreetmap.josm.tools.ColorScale;
@@ -237,6 +239,18 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     // The heat map was invalidated since the last draw.
     private boolean gpxLayerInvalidated;
 
+    /** Simplified segments for zoomed out views */
+    private final GpxLevelOfDetail levelOfDetail;
+    /** The tolerance used to simplify segments in projected units, 0 if segments are drawn completely */
+    private double lodTolerance;
+
+    /** Accumulated track density for heat maps drawn with thin lines */
+    private final GpxHeatMapRaster heatMapRaster;
+    /** The tracks of the heat map raster need to be updated */
+    private boolean heatMapRasterInSync;
+    /** The track visibility of the last update of the heat map raster */
+    private boolean[] heatMapRasterVisibility;
+
     /** minTime saves the start time of the track as epoch seconds */
     private double minTime;
     /** maxTime saves the end time of the track as epoch seconds */
@@ -322,6 +336,8 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         layer = gpxLayer;
         data = gpxLayer.data;
         data.addChangeListener(this);
+        levelOfDetail = new GpxLevelOfDetail(() -> GuiHelper.runInEDT(layer::invalidate));
+        heatMapRaster = new GpxHeatMapRaster(() -> GuiHelper.runInEDT(layer::invalidate));
 
         layer.addInvalidationListener(this);
         SystemOfMeasurement.addSoMChangeListener(this);
@@ -414,9 +430,10 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     @Override
     public void paint(MapViewGraphics graphics) {
         Bounds clipBounds = graphics.getClipBounds().getLatLonBoundsBox();
+        readPreferences();
+        lodTolerance = getLodTolerance(graphics.getMapView());
         List<WayPoint> visibleSegments = listVisibleSegments(clipBounds);
         if (!visibleSegments.isEmpty()) {
-            readPreferences();
             drawAll(graphics.getDefaultGraphics(), graphics.getMapView(), visibleSegments, clipBounds);
             if (graphics.getMapView().getLayerManager().getActiveLayer() == layer) {
                 drawColorBar(graphics.getDefaultGraphics(), graphics.getMapView());
@@ -431,7 +448,7 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         ensureTrackVisibilityLength();
         for (Line segment : getLinesIterable(layer.trackVisibility)) {
 
-            for (WayPoint pt : segment) {
+            for (WayPoint pt : segment.isUnordered() ? segment : levelOfDetail.getPoints(segment, lodTolerance)) {
                 Bounds b = new Bounds(pt.getCoor());
                 if (pt.drawLine && last != null) {
                     b.extend(last.getCoor());
@@ -455,6 +472,19 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         return visibleSegments;
     }
 
+    /**
+     * Returns the tolerance to simplify segments with. Segments are only simplified if they are drawn as plain lines,
+     * as simplification removes points that would be visible when drawn individually.
+     * @param mv the map view
+     * @return the tolerance in projected units, 0 if segments must be drawn completely
+     */
+    private double getLodTolerance(MapView mv) {
+        if (!lines || large || drawCircle || (colored == ColorMode.HEATMAP && heatMapDrawPointMode)) {
+            return 0;
+        }
+        return GpxLevelOfDetail.TOLERANCE.get() * mv.getScale();
+    }
+
     protected Iterable<Line> getLinesIterable(final boolean[] trackVisibility) {
         return data.getLinesIterable(trackVisibility);
     }
@@ -491,6 +521,10 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         // STEP 2b - RE-COMPUTE CACHE DATA *********************
         if (!computeCacheInSync) { // don't compute if the cache is good
             calculateColors();
+            // the simplified segments depend on the WayPoint.drawline attributes
+            levelOfDetail.invalidate();
+            heatMapRasterInSync = false;
+            lodTolerance = getLodTolerance(mv);
             // update the WaiPoint.drawline attributes
             visibleSegments.clear();
             visibleSegments.addAll(listVisibleSegments(clipBounds));
@@ -660,9 +694,17 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
             if (!forceLines) { // don't draw lines between segments, unless forced to
                 oldWp = null;
             }
+            // the points of compact segments are created on demand, their drawing state is stored in the segment
+            CompactGpxTrackSegment compact = segment.getTrackSegment() instanceof CompactGpxTrackSegment
+                    ? (CompactGpxTrackSegment) segment.getTrackSegment() : null;
+            int index = -1;
             for (WayPoint trkPnt : segment) {
+                index++;
                 trkPnt.customColoring = segment.getColor();
                 if (Double.isNaN(trkPnt.lat()) || Double.isNaN(trkPnt.lon())) {
+                    if (compact != null) {
+                        compact.setDrawState(index, trkPnt);
+                    }
                     continue;
                 }
                 // now we are sure some color will be assigned
@@ -728,6 +770,9 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
                 if (color != null) {
                     trkPnt.customColoring = color;
                 }
+                if (compact != null) {
+                    compact.setDrawState(index, trkPnt);
+                }
                 oldWp = trkPnt;
             }
         }
@@ -1464,6 +1509,17 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
                 heatMapGraph2d.setComposite(AlphaComposite.SrcOver.derive(lineAlphaBPoint));
                 drawHeatGrayDotMap(heatMapGraph2d, mv, visibleSegments, lineWidthB);
 
+            } else if (lineWidthF == 0) {
+                // thin lines only, use the accumulated density instead of drawing all tracks
+                ensureTrackVisibilityLength();
+                // the layer is also invalidated when the visibility of tracks changes
+                if (!heatMapRasterInSync || !Arrays.equals(heatMapRasterVisibility, layer.trackVisibility)) {
+                    heatMapRaster.update(getLinesIterable(layer.trackVisibility));
+                    heatMapRasterVisibility = layer.trackVisibility.clone();
+                    heatMapRasterInSync = true;
+                }
+                drawHeatGrayRasterMap(mv, lineAlphaBLine);
+
             } else {
                 drawHeatGrayLineMap(heatMapGraph2d, mv, visibleSegments,
                                     lineWidthF > 1 ? AlphaComposite.SrcOver.derive(lineAlphaFLine) : null,
@@ -1482,6 +1538,29 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
         drawHeatMapGrayMap(g, heatMapImgGray, lineWidthB > 2 ? (int) (lineWidthB*1.25f) : 1, lineWidth > 2 ? (lineWidth - 2) : 1);
     }
 
+    /**
+     * Draw gray heat map from the accumulated track density, each line through a pixel is blended with the given alpha
+     * @param mv              the meta data to current displayed area
+     * @param lineAlpha       the alpha value of a single line
+     */
+    private void drawHeatGrayRasterMap(MapView mv, float lineAlpha) {
+        final int width = heatMapImgGray.getWidth();
+        final int height = heatMapImgGray.getHeight();
+        final int[] imgPixels = ((DataBufferInt) heatMapImgGray.getRaster().getDataBuffer()).getData();
+        heatMapRaster.getCounts(mv.getEastNorth(0, 0), mv.getScale(), width, height, imgPixels);
+
+        // gray value of n blended lines, up to the number of lines that saturates the value
+        final int saturation = (int) Utils.clamp(Math.ceil(Math.log(1 / 510.0) / Math.log(1 - lineAlpha)), 1, 1 << 16);
+        final int[] grayLut = new int[saturation + 1];
+        for (int n = 0; n <= saturation; n++) {
+            grayLut[n] = (int) Math.round(255 * (1 - Math.pow(1 - lineAlpha, n)));
+        }
+        for (int i = 0; i < width * height; i++) {
+            final int gray = grayLut[Math.min(imgPixels[i], saturation)];
+            imgPixels[i] = 0xFF000000 | gray << 16 | gray << 8 | gray;
+        }
+    }
+
     /**
      * Draw a dotted heat map
      *
@@ -1632,6 +1711,8 @@ public class GpxDrawHelper implements SoMChangeListener, MapViewPaintable.LayerP
     @Override
     public void gpxDataChanged(GpxDataChangeEvent e) {
         computeCacheInSync = false;
+        levelOfDetail.invalidate();
+        heatMapRasterInSync = false;
     }
 
     /**
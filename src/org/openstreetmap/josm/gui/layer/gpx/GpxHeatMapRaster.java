@@ -0,0 +1,484 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+import org.openstreetmap.josm.data.projection.Projecting;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Accumulated track density of a GPX layer, used to draw heat maps without drawing all tracks again on every paint.
+ * <p>
+ * The density is stored per zoom level bucket, in square cells whose size is a power of two in projected units. A cell
+ * counts the number of lines passing through it. The cells are grouped into tiles, which are computed in the background
+ * when they become visible and are kept in a cache of limited size. Tiles which are not available yet are drawn empty.
+ * <p>
+ * When the tracks are updated, the new tracks are prepared in the background while the previous ones are still drawn.
+ * Tracks that have been added are added to copies of the cached tiles; when tracks are removed or their lines change,
+ * the tiles are discarded.
+ */
+public class GpxHeatMapRaster {
+    /** The maximum memory used for accumulated tiles in MB */
+    public static final IntegerProperty CACHE_SIZE = new IntegerProperty("draw.rawgps.heatmap.cache_size", 64);
+
+    /** Width and height of a tile in cells */
+    static final int TILE_SIZE = 256;
+
+    private static final ForkJoinPool POOL = Utils.newForkJoinPool("draw.rawgps.heatmap.threads", "gpx-heatmap-%d",
+            Thread.NORM_PRIORITY);
+
+    private final Executor executor;
+    private final Runnable onUpdate;
+    /** The tracks and tiles which are drawn, replaced as a whole when an update is complete */
+    private State state = new State(null, Collections.emptyList());
+    /** The tiles of the current state which are being computed */
+    private final Set<TileKey> pending = new HashSet<>();
+    /** Incremented for each update, the results of outdated updates are discarded */
+    private int generation;
+
+    /**
+     * The tracks of the heat map and the tiles accumulated from them. The tiles are not modified once they are cached.
+     */
+    private static final class State {
+        private final Object projectionCacheKey;
+        private final List<Segment> segments;
+        private final Map<TileKey, int[]> tiles = new LinkedHashMap<>(64, 0.75f, true);
+
+        State(Object projectionCacheKey, List<Segment> segments) {
+            this.projectionCacheKey = projectionCacheKey;
+            this.segments = segments;
+        }
+    }
+
+    /**
+     * The projected points of a track segment, with the bounding box of the points.
+     */
+    static final class Segment {
+        private final WayPoint first;
+        private final WayPoint last;
+        private final double[] east;
+        private final double[] north;
+        /** whether a line is drawn from the previous point to this point */
+        private final boolean[] drawLine;
+        private double minEast = Double.POSITIVE_INFINITY;
+        private double minNorth = Double.POSITIVE_INFINITY;
+        private double maxEast = Double.NEGATIVE_INFINITY;
+        private double maxNorth = Double.NEGATIVE_INFINITY;
+
+        Segment(Collection<WayPoint> points, Projecting projecting) {
+            int n = points.size();
+            east = new double[n];
+            north = new double[n];
+            drawLine = new boolean[n];
+            int i = 0;
+            WayPoint firstPoint = null;
+            WayPoint lastPoint = null;
+            for (WayPoint wpt : points) {
+                EastNorth en = wpt.isLatLonKnown() ? wpt.getEastNorth(projecting) : null;
+                if (en != null) {
+                    east[i] = en.east();
+                    north[i] = en.north();
+                    minEast = Math.min(minEast, east[i]);
+                    minNorth = Math.min(minNorth, north[i]);
+                    maxEast = Math.max(maxEast, east[i]);
+                    maxNorth = Math.max(maxNorth, north[i]);
+                } else {
+                    east[i] = Double.NaN;
+                    north[i] = Double.NaN;
+                }
+                drawLine[i] = i > 0 && wpt.drawLine;
+                if (firstPoint == null) {
+                    firstPoint = wpt;
+                }
+                lastPoint = wpt;
+                i++;
+            }
+            first = firstPoint;
+            last = lastPoint;
+        }
+
+        /**
+         * Determines if the given points are the points of this segment, with the same lines between them.
+         */
+        boolean matches(Collection<WayPoint> points) {
+            if (points.size() != drawLine.length) {
+                return false;
+            }
+            int i = 0;
+            WayPoint wpt = null;
+            for (Iterator<WayPoint> it = points.iterator(); it.hasNext(); i++) {
+                wpt = it.next();
+                if ((i == 0 && wpt != first) || (i > 0 && wpt.drawLine != drawLine[i])) {
+                    return false;
+                }
+            }
+            return wpt == last;
+        }
+
+        boolean intersects(double minE, double minN, double maxE, double maxN) {
+            return minEast <= maxE && maxEast >= minE && minNorth <= maxN && maxNorth >= minN;
+        }
+    }
+
+    private static final class TileKey {
+        private final int level;
+        private final int x;
+        private final int y;
+
+        TileKey(int level, int x, int y) {
+            this.level = level;
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, x, y);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            TileKey other = (TileKey) obj;
+            return level == other.level && x == other.x && y == other.y;
+        }
+    }
+
+    /**
+     * Constructs a new {@code GpxHeatMapRaster}.
+     * @param onUpdate called when updated tracks or new tiles become available, e.g. to repaint the layer
+     */
+    public GpxHeatMapRaster(Runnable onUpdate) {
+        this(POOL, onUpdate);
+    }
+
+    GpxHeatMapRaster(Executor executor, Runnable onUpdate) {
+        this.executor = Objects.requireNonNull(executor);
+        this.onUpdate = Objects.requireNonNull(onUpdate);
+    }
+
+    /**
+     * Updates the tracks of the heat map in the background. Until the update is complete, the previous tracks are drawn.
+     * @param lines the segments of all visible tracks and routes
+     */
+    public void update(Iterable<? extends Collection<WayPoint>> lines) {
+        final List<Collection<WayPoint>> snapshot = new ArrayList<>();
+        for (Collection<WayPoint> line : lines) {
+            if (line.size() >= 2) {
+                snapshot.add(line);
+            }
+        }
+        final Projecting projecting = ProjectionRegistry.getProjection();
+        final int gen;
+        final State previous;
+        synchronized (this) {
+            gen = ++generation;
+            previous = state;
+        }
+        executor.execute(() -> {
+            State next;
+            try {
+                next = computeState(previous, snapshot, projecting);
+            } catch (RuntimeException e) {
+                Logging.error(e);
+                return;
+            }
+            synchronized (this) {
+                if (gen != generation) {
+                    return;
+                }
+                state = next;
+                pending.clear();
+            }
+            onUpdate.run();
+        });
+    }
+
+    /**
+     * Computes the state for the given tracks. Tracks that have been added since the previous state are added to copies
+     * of the cached tiles, all tiles are discarded if tracks have been removed or changed.
+     */
+    private State computeState(State previous, List<Collection<WayPoint>> lines, Projecting projecting) {
+        boolean reset = !Objects.equals(projecting.getCacheKey(), previous.projectionCacheKey);
+        Map<WayPoint, Segment> known = new IdentityHashMap<>();
+        if (!reset) {
+            previous.segments.forEach(s -> known.put(s.first, s));
+        }
+        List<Segment> current = new ArrayList<>();
+        List<Segment> added = new ArrayList<>();
+        for (Collection<WayPoint> line : lines) {
+            Segment segment = known.remove(line.iterator().next());
+            if (segment == null || !segment.matches(line)) {
+                segment = new Segment(line, projecting);
+                added.add(segment);
+            }
+            current.add(segment);
+        }
+        // segments which have not been found again have been removed or changed
+        reset |= current.size() - added.size() < previous.segments.size();
+        State next = new State(projecting.getCacheKey(), current);
+        if (!reset) {
+            List<Map.Entry<TileKey, int[]>> previousTiles;
+            synchronized (this) {
+                previousTiles = new ArrayList<>(previous.tiles.entrySet());
+            }
+            List<Callable<Void>> tasks = new ArrayList<>(previousTiles.size());
+            for (Map.Entry<TileKey, int[]> entry : previousTiles) {
+                int[] tile = entry.getValue().clone();
+                next.tiles.put(entry.getKey(), tile);
+                if (!added.isEmpty()) {
+                    tasks.add(() -> {
+                        accumulate(entry.getKey(), tile, added);
+                        return null;
+                    });
+                }
+            }
+            invokeAll(tasks);
+        }
+        return next;
+    }
+
+    /**
+     * Discards all accumulated data.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        state = new State(null, Collections.emptyList());
+        pending.clear();
+    }
+
+    /**
+     * Returns the cell size used for the given scale, the smallest power of two that is not smaller than the scale.
+     * A cell is therefore drawn as one or two pixels.
+     * @param scale the size of a pixel in projected units
+     * @return the binary exponent of the cell size
+     */
+    static int getLevel(double scale) {
+        int level = Math.getExponent(scale);
+        return Math.scalb(1.0, level) < scale ? level + 1 : level;
+    }
+
+    /**
+     * Returns the number of lines passing through each pixel of a view. Tiles which are not available yet are computed
+     * in the background, their pixels are set to 0 for now.
+     * @param topLeft the projected coordinates of the top left corner of the view
+     * @param scale the size of a pixel in projected units
+     * @param width the width of the view in pixels
+     * @param height the height of the view in pixels
+     * @param counts the array to store the counts, row by row, of size {@code width * height} at least
+     * @return {@code true} if all visible tiles were available
+     */
+    public boolean getCounts(EastNorth topLeft, double scale, int width, int height, int[] counts) {
+        if (width <= 0 || height <= 0) {
+            return true;
+        }
+        final int level = getLevel(scale);
+        final double cellSize = Math.scalb(1.0, level);
+        final long[] cellX = new long[width];
+        for (int px = 0; px < width; px++) {
+            cellX[px] = (long) Math.floor((topLeft.east() + (px + 0.5) * scale) / cellSize);
+        }
+        final long minCellY = (long) Math.floor((topLeft.north() - (height - 0.5) * scale) / cellSize);
+        final long maxCellY = (long) Math.floor((topLeft.north() - 0.5 * scale) / cellSize);
+
+        final State current;
+        final Map<TileKey, int[]> visible = new HashMap<>();
+        final List<TileKey> missing = new ArrayList<>();
+        boolean complete = true;
+        synchronized (this) {
+            current = state;
+            for (long ty = Math.floorDiv(minCellY, TILE_SIZE); ty <= Math.floorDiv(maxCellY, TILE_SIZE); ty++) {
+                for (long tx = Math.floorDiv(cellX[0], TILE_SIZE); tx <= Math.floorDiv(cellX[width - 1], TILE_SIZE); tx++) {
+                    TileKey key = new TileKey(level, (int) tx, (int) ty);
+                    int[] tile = current.tiles.get(key);
+                    if (tile != null) {
+                        visible.put(key, tile);
+                    } else {
+                        complete = false;
+                        if (pending.add(key)) {
+                            missing.add(key);
+                        }
+                    }
+                }
+            }
+
+            // evict the least recently used tiles, but never the visible ones
+            long maxTiles = Math.max(visible.size(), CACHE_SIZE.get() * 1024L * 1024L / (4L * TILE_SIZE * TILE_SIZE));
+            Iterator<int[]> it = current.tiles.values().iterator();
+            while (current.tiles.size() > maxTiles && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+        for (TileKey key : missing) {
+            executor.execute(() -> computeTile(current, key));
+        }
+
+        // resample the tiles
+        for (int py = 0; py < height; py++) {
+            long cy = (long) Math.floor((topLeft.north() - (py + 0.5) * scale) / cellSize);
+            int ty = (int) Math.floorDiv(cy, TILE_SIZE);
+            int rowOffset = (int) Math.floorMod(cy, TILE_SIZE) * TILE_SIZE;
+            int[] tile = null;
+            int tx = Integer.MIN_VALUE;
+            for (int px = 0; px < width; px++) {
+                int ctx = (int) Math.floorDiv(cellX[px], TILE_SIZE);
+                if (ctx != tx) {
+                    tx = ctx;
+                    tile = visible.get(new TileKey(level, tx, ty));
+                }
+                counts[py * width + px] = tile != null ? tile[rowOffset + (int) Math.floorMod(cellX[px], TILE_SIZE)] : 0;
+            }
+        }
+        return complete;
+    }
+
+    /**
+     * Computes a tile of the given state and adds it to the cache, if the state is still current.
+     */
+    private void computeTile(State current, TileKey key) {
+        int[] tile = new int[TILE_SIZE * TILE_SIZE];
+        try {
+            accumulate(key, tile, current.segments);
+        } catch (RuntimeException e) {
+            Logging.error(e);
+            synchronized (this) {
+                if (state == current) {
+                    pending.remove(key);
+                }
+            }
+            return;
+        }
+        synchronized (this) {
+            if (state != current) {
+                return;
+            }
+            pending.remove(key);
+            current.tiles.put(key, tile);
+        }
+        onUpdate.run();
+    }
+
+    /**
+     * Adds the lines of the given segments to a tile.
+     * @param key the tile position
+     * @param tile the cells of the tile
+     * @param segments the segments to add
+     */
+    private static void accumulate(TileKey key, int[] tile, List<Segment> segments) {
+        final double cellSize = Math.scalb(1.0, key.level);
+        final double minEast = (double) key.x * TILE_SIZE * cellSize;
+        final double minNorth = (double) key.y * TILE_SIZE * cellSize;
+        final double maxEast = minEast + TILE_SIZE * cellSize;
+        final double maxNorth = minNorth + TILE_SIZE * cellSize;
+        for (Segment segment : segments) {
+            if (!segment.intersects(minEast - cellSize, minNorth - cellSize, maxEast + cellSize, maxNorth + cellSize)) {
+                continue;
+            }
+            // each line is counted once per cell, also where two lines of a segment join
+            int lastCell = -1;
+            for (int i = 1; i < segment.drawLine.length; i++) {
+                if (!segment.drawLine[i] || Double.isNaN(segment.east[i - 1]) || Double.isNaN(segment.east[i])) {
+                    lastCell = -1;
+                    continue;
+                }
+                lastCell = accumulateLine(tile,
+                        (segment.east[i - 1] - minEast) / cellSize, (segment.north[i - 1] - minNorth) / cellSize,
+                        (segment.east[i] - minEast) / cellSize, (segment.north[i] - minNorth) / cellSize, lastCell);
+            }
+        }
+    }
+
+    /**
+     * Increments the cells along a line, in tile coordinates.
+     * @return the last cell that has been incremented, or {@code -1}
+     */
+    private static int accumulateLine(int[] tile, double x0, double y0, double x1, double y1, int lastCell) {
+        // clip the line to the tile (Liang-Barsky)
+        double dx = x1 - x0;
+        double dy = y1 - y0;
+        double[] t = {0, 1};
+        if (!clip(-dx, x0, t) || !clip(dx, TILE_SIZE - x0, t) || !clip(-dy, y0, t) || !clip(dy, TILE_SIZE - y0, t)) {
+            return -1;
+        }
+        double sx = x0 + t[0] * dx;
+        double sy = y0 + t[0] * dy;
+        double lx = (t[1] - t[0]) * dx;
+        double ly = (t[1] - t[0]) * dy;
+        int steps = (int) Math.ceil(Math.max(Math.abs(lx), Math.abs(ly)));
+        int cell = lastCell;
+        for (int k = 0; k <= steps; k++) {
+            double f = steps > 0 ? (double) k / steps : 0;
+            int cx = (int) Math.floor(sx + f * lx);
+            int cy = (int) Math.floor(sy + f * ly);
+            if (cx < 0 || cy < 0 || cx >= TILE_SIZE || cy >= TILE_SIZE) {
+                // on the border of the tile, belongs to the next tile
+                continue;
+            }
+            int index = cy * TILE_SIZE + cx;
+            if (index != cell) {
+                tile[index]++;
+                cell = index;
+            }
+        }
+        return t[1] < 1 ? -1 : cell;
+    }
+
+    private static boolean clip(double p, double q, double[] t) {
+        if (p == 0) {
+            return q >= 0;
+        }
+        double r = q / p;
+        if (p < 0) {
+            if (r > t[1])
+                return false;
+            t[0] = Math.max(t[0], r);
+        } else {
+            if (r < t[0])
+                return false;
+            t[1] = Math.min(t[1], r);
+        }
+        return true;
+    }
+
+    private static void invokeAll(List<Callable<Void>> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try {
+            for (Future<Void> future : POOL.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JosmRuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new JosmRuntimeException(e.getCause());
+        }
+    }
+}
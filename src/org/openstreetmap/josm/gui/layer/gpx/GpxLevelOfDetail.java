@@ -0,0 +1,331 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.gpx.Line;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.preferences.DoubleProperty;
+import org.openstreetmap.josm.data.projection.Projecting;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Multi-resolution representation of the track segments of a GPX layer, used to draw zoomed out views quickly.
+ * <p>
+ * For each large segment, the Douglas-Peucker tolerance at which a point is removed from the segment is computed once
+ * in the background, in projected coordinates. The points are then grouped into levels of exponentially growing
+ * tolerance. When painting, the coarsest level whose tolerance is below the size of a fraction of a pixel is used,
+ * so that the simplified segment cannot be distinguished from the full one. The levels only store the indices of
+ * their points, so that the points of compact segments are not kept.
+ * <p>
+ * Points where a line is not drawn (gaps in the track) are kept at all levels. The levels therefore depend on the
+ * {@link WayPoint#drawLine} flags and need to be {@link #invalidate() invalidated} when these change.
+ */
+public class GpxLevelOfDetail {
+    /** The maximum distance in pixels between a simplified segment and the full segment, 0 disables simplification */
+    public static final DoubleProperty TOLERANCE = new DoubleProperty("draw.rawgps.lod.tolerance", 0.5);
+
+    /** Segments with less points are always drawn completely */
+    static final int MIN_POINTS = 500;
+    /** Number of levels per segment, the finest level has a tolerance of 2<sup>-LEVELS</sup> times the segment extent */
+    private static final int LEVELS = 24;
+    /** A level is only stored if it has at most this fraction of the points of the next finer stored level */
+    private static final double MIN_REDUCTION = 0.75;
+
+    private static final ForkJoinPool POOL = Utils.newForkJoinPool("draw.rawgps.lod.threads", "gpx-lod-%d", Thread.MIN_PRIORITY);
+
+    private final Executor executor;
+    private final Runnable onUpdate;
+    /** The levels by segment. Segments are identified by their first point, points are not shared between segments */
+    private final Map<WayPoint, Levels> segments = new IdentityHashMap<>();
+    private int generation;
+    private Object projectionCacheKey;
+
+    /**
+     * The levels of one segment, from fine to coarse.
+     */
+    static final class Levels {
+        private final int size;
+        private final double[] tolerances;
+        private final int[][] points;
+
+        Levels(int size, double[] tolerances, int[][] points) {
+            this.size = size;
+            this.tolerances = tolerances;
+            this.points = points;
+        }
+
+        /**
+         * Returns the coarsest level that deviates at most by the given tolerance from the full segment.
+         * @param tolerance the tolerance in projected units
+         * @return the indices of the points of the level, or {@code null} if the full segment is needed
+         */
+        int[] getLevel(double tolerance) {
+            for (int i = tolerances.length - 1; i >= 0; i--) {
+                if (tolerances[i] <= tolerance) {
+                    return points[i];
+                }
+            }
+            return null;
+        }
+
+        int getLevelCount() {
+            return tolerances.length;
+        }
+    }
+
+    /**
+     * Constructs a new {@code GpxLevelOfDetail}.
+     * @param onUpdate called when the levels of a segment become available, e.g. to repaint the layer
+     */
+    public GpxLevelOfDetail(Runnable onUpdate) {
+        this(POOL, onUpdate);
+    }
+
+    GpxLevelOfDetail(Executor executor, Runnable onUpdate) {
+        this.executor = Objects.requireNonNull(executor);
+        this.onUpdate = Objects.requireNonNull(onUpdate);
+    }
+
+    /**
+     * Discards all levels, e.g. after the data or the drawing flags of the points have changed.
+     */
+    public synchronized void invalidate() {
+        generation++;
+        segments.clear();
+    }
+
+    /**
+     * Returns the points of a segment to draw with the given tolerance. If the levels of the segment are not available
+     * yet, they are computed in the background and the full segment is returned for now.
+     * @param segment the points of the segment, in order
+     * @param tolerance the tolerance in projected units, usually a fraction of the size of a pixel
+     * @return the points to draw
+     */
+    public Iterable<WayPoint> getPoints(Collection<WayPoint> segment, double tolerance) {
+        if (tolerance <= 0 || segment.size() < MIN_POINTS) {
+            return segment;
+        }
+        WayPoint first = segment.iterator().next();
+        final int gen;
+        synchronized (this) {
+            Object cacheKey = ProjectionRegistry.getProjection().getCacheKey();
+            if (!Objects.equals(cacheKey, projectionCacheKey)) {
+                invalidate();
+                projectionCacheKey = cacheKey;
+            }
+            Levels levels = segments.get(first);
+            if (levels != null) {
+                int[] level = levels.size == segment.size() ? levels.getLevel(tolerance) : null;
+                return level != null ? select(segment, level) : segment;
+            }
+            // mark as pending, so that the levels are only computed once
+            segments.put(first, new Levels(segment.size(), new double[0], new int[0][]));
+            gen = generation;
+        }
+        executor.execute(() -> {
+            Levels levels;
+            try {
+                levels = computeLevels(segment, ProjectionRegistry.getProjection());
+            } catch (RuntimeException e) {
+                Logging.error(e);
+                return;
+            }
+            synchronized (this) {
+                if (gen != generation) {
+                    return;
+                }
+                segments.put(first, levels);
+            }
+            onUpdate.run();
+        });
+        return segment;
+    }
+
+    /**
+     * Returns the points of a level of a segment.
+     * @param segment the points of the segment, in order
+     * @param level the indices of the points of the level
+     * @return the points of the level
+     */
+    private static List<WayPoint> select(Collection<WayPoint> segment, int[] level) {
+        final IntFunction<WayPoint> points;
+        if (segment instanceof Line) {
+            points = ((Line) segment)::get;
+        } else if (segment instanceof List) {
+            points = ((List<WayPoint>) segment)::get;
+        } else {
+            points = new ArrayList<>(segment)::get;
+        }
+        return new AbstractList<WayPoint>() {
+            @Override
+            public WayPoint get(int index) {
+                return points.apply(level[index]);
+            }
+
+            @Override
+            public int size() {
+                return level.length;
+            }
+        };
+    }
+
+    /**
+     * Computes the levels of a segment.
+     * @param points the points of the segment, in order
+     * @param projecting the projection
+     * @return the levels
+     */
+    static Levels computeLevels(Collection<WayPoint> points, Projecting projecting) {
+        final int n = points.size();
+        double[] east = new double[n];
+        double[] north = new double[n];
+        boolean[] drawLine = new boolean[n];
+        double minEast = Double.POSITIVE_INFINITY;
+        double minNorth = Double.POSITIVE_INFINITY;
+        double maxEast = Double.NEGATIVE_INFINITY;
+        double maxNorth = Double.NEGATIVE_INFINITY;
+        int i = 0;
+        for (WayPoint wpt : points) {
+            drawLine[i] = wpt.drawLine;
+            EastNorth en = wpt.isLatLonKnown() ? wpt.getEastNorth(projecting) : null;
+            if (en != null) {
+                east[i] = en.east();
+                north[i] = en.north();
+                minEast = Math.min(minEast, east[i]);
+                minNorth = Math.min(minNorth, north[i]);
+                maxEast = Math.max(maxEast, east[i]);
+                maxNorth = Math.max(maxNorth, north[i]);
+            } else {
+                east[i] = Double.NaN;
+                north[i] = Double.NaN;
+            }
+            i++;
+        }
+        double extent = Math.max(maxEast - minEast, maxNorth - minNorth);
+        if (!(extent > 0)) {
+            return new Levels(n, new double[0], new int[0][]);
+        }
+
+        double[] importance = computeImportance(drawLine, east, north);
+
+        List<Double> tolerances = new ArrayList<>();
+        List<int[]> levels = new ArrayList<>();
+        int previousSize = n;
+        for (int k = 0; k < LEVELS; k++) {
+            double tolerance = extent * Math.pow(2, k - LEVELS);
+            int count = 0;
+            for (double imp : importance) {
+                if (imp >= tolerance) {
+                    count++;
+                }
+            }
+            if (count <= previousSize * MIN_REDUCTION) {
+                int[] level = new int[count];
+                int j = 0;
+                for (int p = 0; p < n; p++) {
+                    if (importance[p] >= tolerance) {
+                        level[j++] = p;
+                    }
+                }
+                tolerances.add(tolerance);
+                levels.add(level);
+                previousSize = count;
+            }
+        }
+        double[] tol = new double[tolerances.size()];
+        for (int k = 0; k < tol.length; k++) {
+            tol[k] = tolerances.get(k);
+        }
+        return new Levels(n, tol, levels.toArray(new int[0][]));
+    }
+
+    /**
+     * Computes for each point the largest tolerance at which the Douglas-Peucker algorithm keeps it. The importance
+     * of a point is never larger than the importance of the points that enclose it, so that all points with an
+     * importance of at least {@code t} are exactly the result of the algorithm with tolerance {@code t}.
+     * @param drawLine whether a line is drawn from the previous point to each point
+     * @param east the projected east coordinates, {@code NaN} for points without coordinates
+     * @param north the projected north coordinates, {@code NaN} for points without coordinates
+     * @return the importance of each point
+     */
+    private static double[] computeImportance(boolean[] drawLine, double[] east, double[] north) {
+        final int n = drawLine.length;
+        double[] importance = new double[n];
+        // points where the line is interrupted, and their predecessors, are always kept
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            boolean interrupted = Double.isNaN(east[i]) || !drawLine[i]
+                    || (i > 0 && Double.isNaN(east[i - 1]))
+                    || (i + 1 < n && (!drawLine[i + 1] || Double.isNaN(east[i + 1])));
+            if (interrupted || i == 0 || i == n - 1) {
+                importance[i] = Double.POSITIVE_INFINITY;
+                if (i > start + 1) {
+                    simplify(east, north, importance, start, i);
+                }
+                start = i;
+            }
+        }
+        return importance;
+    }
+
+    /**
+     * Computes the importance of the points between {@code first} and {@code last}, which are both kept.
+     */
+    private static void simplify(double[] east, double[] north, double[] importance, int first, int last) {
+        // explicit stack instead of recursion, segments may have millions of points
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = first;
+        stack[top++] = last;
+        while (top > 0) {
+            int hi = stack[--top];
+            int lo = stack[--top];
+            if (hi - lo < 2) {
+                continue;
+            }
+            double bound = Math.min(importance[lo], importance[hi]);
+            int maxIndex = -1;
+            double maxDist = -1;
+            for (int i = lo + 1; i < hi; i++) {
+                double d = distance(east[i], north[i], east[lo], north[lo], east[hi], north[hi]);
+                if (d > maxDist) {
+                    maxDist = d;
+                    maxIndex = i;
+                }
+            }
+            importance[maxIndex] = Math.min(maxDist, bound);
+            if (top + 4 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[top++] = lo;
+            stack[top++] = maxIndex;
+            stack[top++] = maxIndex;
+            stack[top++] = hi;
+        }
+    }
+
+    /**
+     * Returns the distance of point p to the line segment from a to b.
+     */
+    private static double distance(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        double len2 = dx * dx + dy * dy;
+        double t = len2 > 0 ? Utils.clamp(((px - ax) * dx + (py - ay) * dy) / len2, 0, 1) : 0;
+        return Math.hypot(px - ax - t * dx, py - ay - t * dy);
+    }
+}
@@ -0,0 +1,135 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.openstreetmap.josm.data.ProjectionBounds;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.preferences.BooleanProperty;
+import org.openstreetmap.josm.data.preferences.IntegerProperty;
+
+/**
+ * Tracks the recent pan/zoom motion of a map view and predicts where the viewport will be shortly.
+ * <p>
+ * Tile layers use the prediction to request tiles speculatively, before they become visible. The prediction
+ * is a linear extrapolation of the viewport centre and a geometric extrapolation of the viewport size, based on
+ * the samples recorded within the last {@link #PROP_SAMPLE_WINDOW} milliseconds.
+ */
+public class TilePrefetcher {
+    /** Whether tiles outside of the visible area should be loaded speculatively */
+    public static final BooleanProperty PROP_PREFETCH = new BooleanProperty("imagery.generic.prefetch", true);
+    /** How far (in milliseconds) into the future the viewport is predicted */
+    public static final IntegerProperty PROP_LOOKAHEAD = new IntegerProperty("imagery.generic.prefetch.lookahead", 500);
+    /** Only view changes within this time window (in milliseconds) are taken into account for prediction */
+    public static final IntegerProperty PROP_SAMPLE_WINDOW = new IntegerProperty("imagery.generic.prefetch.window", 1000);
+
+    /** Maximum number of samples that are kept */
+    private static final int MAX_SAMPLES = 8;
+    /** The predicted viewport is never moved by more than this factor of the viewport size */
+    private static final double MAX_SHIFT = 1.0;
+    /** The predicted viewport is never scaled by more than this factor (and never less than its inverse) */
+    private static final double MAX_SCALE = 2.0;
+    /** Relative changes below this threshold are considered as no motion */
+    private static final double EPSILON = 1e-3;
+
+    private final Deque<Sample> samples = new ArrayDeque<>(MAX_SAMPLES);
+
+    private static final class Sample {
+        private final EastNorth center;
+        private final double width;
+        private final double height;
+        private final long time;
+
+        Sample(ProjectionBounds bounds, long time) {
+            this.center = bounds.getCenter();
+            this.width = bounds.maxEast - bounds.minEast;
+            this.height = bounds.maxNorth - bounds.minNorth;
+            this.time = time;
+        }
+
+        boolean sameView(ProjectionBounds bounds) {
+            return center.equalsEpsilon(bounds.getCenter(), EPSILON * width)
+                    && Math.abs(width - (bounds.maxEast - bounds.minEast)) <= EPSILON * width;
+        }
+    }
+
+    /**
+     * Records the currently displayed viewport.
+     * @param bounds the displayed bounds
+     * @param time the time (in milliseconds) at which the bounds were displayed
+     */
+    public synchronized void viewChanged(ProjectionBounds bounds, long time) {
+        if (bounds == null || !bounds.hasExtend()) {
+            return;
+        }
+        Sample last = samples.peekLast();
+        if (last != null && last.sameView(bounds)) {
+            return;
+        }
+        if (samples.size() == MAX_SAMPLES) {
+            samples.removeFirst();
+        }
+        samples.addLast(new Sample(bounds, time));
+    }
+
+    /**
+     * Forgets all recorded viewports, e.g. after the projection has changed.
+     */
+    public synchronized void reset() {
+        samples.clear();
+    }
+
+    /**
+     * Predicts the viewport {@link #PROP_LOOKAHEAD} milliseconds after {@code now}.
+     * @param now the current time in milliseconds
+     * @return the predicted viewport, or {@code null} if the view is not moving
+     */
+    public synchronized ProjectionBounds predictBounds(long now) {
+        Sample last = samples.peekLast();
+        Sample first = getFirstSampleInWindow(now);
+        if (last == null || first == null || first == last || last.time <= first.time) {
+            return null;
+        }
+        double dt = last.time - first.time;
+        double factor = (now - last.time + PROP_LOOKAHEAD.get()) / dt;
+
+        double maxShiftEast = MAX_SHIFT * last.width;
+        double maxShiftNorth = MAX_SHIFT * last.height;
+        double shiftEast = clamp((last.center.east() - first.center.east()) * factor, maxShiftEast);
+        double shiftNorth = clamp((last.center.north() - first.center.north()) * factor, maxShiftNorth);
+        double scale = Math.pow(last.width / first.width, factor);
+        scale = Math.max(1 / MAX_SCALE, Math.min(MAX_SCALE, scale));
+
+        if (Math.abs(shiftEast) < EPSILON * last.width && Math.abs(shiftNorth) < EPSILON * last.height
+                && Math.abs(scale - 1) < EPSILON) {
+            return null;
+        }
+        return new ProjectionBounds(last.center.add(shiftEast, shiftNorth), last.width * scale, last.height * scale);
+    }
+
+    /**
+     * Determines whether the view is currently zooming in, i.e. the visible area shrinks.
+     * @param now the current time in milliseconds
+     * @return {@code true} if the view is zooming in
+     */
+    public synchronized boolean isZoomingIn(long now) {
+        Sample last = samples.peekLast();
+        Sample first = getFirstSampleInWindow(now);
+        return last != null && first != null && last.width < first.width * (1 - EPSILON);
+    }
+
+    private Sample getFirstSampleInWindow(long now) {
+        long windowStart = now - PROP_SAMPLE_WINDOW.get();
+        for (Sample s : samples) {
+            if (s.time >= windowStart) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    private static double clamp(double value, double limit) {
+        return Math.max(-limit, Math.min(limit, value));
+    }
+}
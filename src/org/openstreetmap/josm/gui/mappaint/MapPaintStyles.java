@@ -281,13 +281,14 @@ public final class MapPaintStyles {
                 Logging.error(e);
             }
         }
-        for (StyleSource source : styles.getStyleSources()) {
+        // the styles are independent of each other, parse them in parallel
+        styles.getStyleSources().parallelStream().forEach(source -> {
             if (source.active) {
                 loadStyleForFirstTime(source);
             } else {
                 source.loadStyleSource(true);
             }
-        }
+        });
         fireMapPaintStylesUpdated();
     }
 
@@ -79,6 +79,7 @@ public class MapCSSStyleSource extends StyleSource {
     private ZipFile zipFile;
 
     private boolean removeAreaStylePseudoClass;
+    private final Object loadLock = new Object();
 
     /**
      * This lock prevents concurrent execution of {@link MapCSSRuleIndex#clear() } /
@@ -153,54 +154,66 @@ public class MapCSSStyleSource extends StyleSource {
 
     @Override
     public void loadStyleSource(boolean metadataOnly) {
-        STYLE_SOURCE_LOCK.writeLock().lock();
-        try {
-            init();
-            rules.clear();
-            ruleIndex.clear();
+        synchronized (loadLock) {
+            // parse the style before taking the global lock, so that several styles can be loaded in parallel
+            MapCSSStyleSource parsed = new MapCSSStyleSource(url, name, title);
             // remove "areaStyle" pseudo classes intended only for validator (causes StackOverflowError otherwise), see #16183
-            removeAreaStylePseudoClass = url == null || !url.contains("validator"); // resource://data/validator/ or xxx.validator.mapcss
-            try (InputStream in = getSourceInputStream()) {
-                try (Reader reader = new BufferedReader(UTFInputStreamReader.create(in))) {
-                    // evaluate @media { ... } blocks
-                    MapCSSParser preprocessor = new MapCSSParser(reader, MapCSSParser.LexicalState.PREPROCESSOR);
-
-                    // do the actual mapcss parsing
-                    try (Reader in2 = new StringReader(preprocessor.pp_root(this))) {
-                        new MapCSSParser(in2, MapCSSParser.LexicalState.DEFAULT).sheet(this);
-                    }
+            parsed.removeAreaStylePseudoClass = url == null || !url.contains("validator"); // resource://data/validator/ or xxx.validator.mapcss
+            parse(parsed);
 
-                    loadMeta();
-                    if (!metadataOnly) {
-                        loadCanvas();
-                        loadSettings();
-                    } else {
-                        rules.clear();
-                    }
-                } finally {
-                    closeSourceInputStream(in);
+            STYLE_SOURCE_LOCK.writeLock().lock();
+            try {
+                init();
+                rules.clear();
+                ruleIndex.clear();
+                removeAreaStylePseudoClass = parsed.removeAreaStylePseudoClass;
+                parsed.getErrors().forEach(this::logError);
+                rules.addAll(parsed.rules);
+                loadMeta();
+                if (metadataOnly) {
+                    rules.clear();
+                    return;
                 }
-            } catch (IOException | IllegalArgumentException e) {
-                Logging.warn(tr("Failed to load Mappaint styles from ''{0}''. Exception was: {1}", url, e.toString()));
-                Logging.log(Logging.LEVEL_ERROR, e);
-                logError(e);
-            } catch (TokenMgrError e) {
-                Logging.warn(tr("Failed to parse Mappaint styles from ''{0}''. Error was: {1}", url, e.getMessage()));
-                Logging.error(e);
-                logError(e);
-            } catch (ParseException e) {
-                Logging.warn(tr("Failed to parse Mappaint styles from ''{0}''. Error was: {1}", url, e.getMessage()));
-                Logging.error(e);
-                logError(new ParseException(e.getMessage())); // allow e to be garbage collected, it links to the entire token stream
+                loadCanvas();
+                loadSettings();
+                // optimization: filter rules for different primitive types
+                ruleIndex.buildIndex(rules.stream());
+                loaded = true;
+            } finally {
+                STYLE_SOURCE_LOCK.writeLock().unlock();
             }
-            if (metadataOnly) {
-                return;
+        }
+    }
+
+    /**
+     * Parses this style into the given sheet.
+     * @param sheet the sheet receiving the rules and errors
+     */
+    private void parse(MapCSSStyleSource sheet) {
+        try (InputStream in = getSourceInputStream()) {
+            try (Reader reader = new BufferedReader(UTFInputStreamReader.create(in))) {
+                // evaluate @media { ... } blocks
+                MapCSSParser preprocessor = new MapCSSParser(reader, MapCSSParser.LexicalState.PREPROCESSOR);
+
+                // do the actual mapcss parsing
+                try (Reader in2 = new StringReader(preprocessor.pp_root(sheet))) {
+                    new MapCSSParser(in2, MapCSSParser.LexicalState.DEFAULT).sheet(sheet);
+                }
+            } finally {
+                closeSourceInputStream(in);
             }
-            // optimization: filter rules for different primitive types
-            ruleIndex.buildIndex(rules.stream());
-            loaded = true;
-        } finally {
-            STYLE_SOURCE_LOCK.writeLock().unlock();
+        } catch (IOException | IllegalArgumentException e) {
+            Logging.warn(tr("Failed to load Mappaint styles from ''{0}''. Exception was: {1}", url, e.toString()));
+            Logging.log(Logging.LEVEL_ERROR, e);
+            sheet.logError(e);
+        } catch (TokenMgrError e) {
+            Logging.warn(tr("Failed to parse Mappaint styles from ''{0}''. Error was: {1}", url, e.getMessage()));
+            Logging.error(e);
+            sheet.logError(e);
+        } catch (ParseException e) {
+            Logging.warn(tr("Failed to parse Mappaint styles from ''{0}''. Error was: {1}", url, e.getMessage()));
+            Logging.error(e);
+            sheet.logError(new ParseException(e.getMessage())); // allow e to be garbage collected, it links to the entire token stream
         }
     }
 
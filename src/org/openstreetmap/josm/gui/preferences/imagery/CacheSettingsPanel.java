@@ -35,6 +35,7 @@ import org.apache.commons.jcs3.engine.stats.behavior.IStats;
 import org.openstreetmap.josm.data.cache.BufferedImageCacheEntry;
 import org.openstreetmap.josm.data.cache.JCSCacheManager;
 import org.openstreetmap.josm.data.imagery.CachedTileLoaderFactory;
+import org.openstreetmap.josm.data.imagery.TileImageStore;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.layer.AbstractCachedTileSourceLayer;
 import org.openstreetmap.josm.gui.layer.TMSLayer;
@@ -61,6 +62,8 @@ public class CacheSettingsPanel extends JPanel {
     private final JosmTextField cacheDir = new JosmTextField(11);
     private final JSpinner maxElementsOnDisk = new JSpinner(new SpinnerNumberModel(
             (int) AbstractCachedTileSourceLayer.MAX_DISK_CACHE_SIZE.get(), 0, Integer.MAX_VALUE, 1));
+    private final JSpinner maxOffHeapSize = new JSpinner(new SpinnerNumberModel(
+            (int) TileImageStore.OFF_HEAP_CACHE_SIZE.get(), 0, Integer.MAX_VALUE, 1));
 
     /**
      * Creates cache content panel
@@ -74,7 +77,11 @@ public class CacheSettingsPanel extends JPanel {
 
         add(new JLabel(tr("Maximum size of disk cache (per imagery) in MB: ")), GBC.std());
         add(GBC.glue(5, 0), GBC.std());
-        add(maxElementsOnDisk, GBC.eop());
+        add(maxElementsOnDisk, GBC.eol());
+
+        add(new JLabel(tr("Maximum size of decoded tile memory cache (outside of Java heap) in MB: ")), GBC.std());
+        add(GBC.glue(5, 0), GBC.std());
+        add(maxOffHeapSize, GBC.eop());
 
         MainApplication.worker.submit(() -> {
             addToPanel(TMSLayer.getCache(), "TMS");
@@ -185,6 +192,7 @@ public class CacheSettingsPanel extends JPanel {
     void loadSettings() {
         this.cacheDir.setText(CachedTileLoaderFactory.PROP_TILECACHE_DIR.get());
         this.maxElementsOnDisk.setValue(AbstractCachedTileSourceLayer.MAX_DISK_CACHE_SIZE.get());
+        this.maxOffHeapSize.setValue(TileImageStore.OFF_HEAP_CACHE_SIZE.get());
     }
 
     /**
@@ -200,6 +208,7 @@ public class CacheSettingsPanel extends JPanel {
             restartRequired = true;
         }
 
+        TileImageStore.OFF_HEAP_CACHE_SIZE.put((Integer) this.maxOffHeapSize.getValue());
 
         if (!CachedTileLoaderFactory.PROP_TILECACHE_DIR.get().equals(this.cacheDir.getText())) {
             restartRequired = true;
@@ -8,10 +8,10 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -59,6 +59,10 @@ import org.openstreetmap.josm.tools.Utils;
  * data set in order to build up the auto completion list for a specific input
  * field is not efficient enough, hence this cache.
  *
+ * The cache counts how many primitives use each tag and member role. It is built once from the data set,
+ * then updated from the data set events, so that a tag or role is removed when its last use is removed.
+ * The events are collected and applied when the cache is read next.
+ *
  * TODO: respect the relation type for member role autocompletion
  */
 public class AutoCompletionManager implements DataSetListener {
@@ -139,6 +143,16 @@ public class AutoCompletionManager implements DataSetListener {
 
     private static final Map<DataSet, AutoCompletionManager> INSTANCES = new HashMap<>();
 
+    /** The max. number of data set events which are applied to the cache, a full rebuild is cheaper beyond */
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    /** The number of primitives using each tag */
+    private final Map<String, Map<String, Integer>> tagCounts = new HashMap<>();
+    /** The number of relation members with each role */
+    private final Map<String, Integer> roleCounts = new HashMap<>();
+    /** The data set events which have not been applied to the counts yet */
+    private final List<AbstractDatasetChangedEvent> pendingEvents = new ArrayList<>();
+
     /**
      * Constructs a new {@code AutoCompletionManager}.
      * @param ds data set
@@ -150,19 +164,24 @@ public class AutoCompletionManager implements DataSetListener {
     }
 
     protected MultiMap<String, String> getTagCache() {
-        if (dirty) {
-            rebuild();
-            dirty = false;
-        }
+        updateCaches();
         return tagCache;
     }
 
     protected Set<String> getRoleCache() {
+        updateCaches();
+        return roleCache;
+    }
+
+    private void updateCaches() {
+        if (!dirty && !pendingEvents.isEmpty()) {
+            update(pendingEvents);
+            pendingEvents.clear();
+        }
         if (dirty) {
             rebuild();
             dirty = false;
         }
-        return roleCache;
     }
 
     /**
@@ -171,9 +190,17 @@ public class AutoCompletionManager implements DataSetListener {
     protected void rebuild() {
         tagCache = new MultiMap<>();
         roleCache = new HashSet<>();
+        tagCounts.clear();
+        roleCounts.clear();
+        pendingEvents.clear();
         cachePrimitives(ds.allNonDeletedCompletePrimitives());
     }
 
+    /**
+     * Adds the tags and member roles of the given primitives to the cache.
+     *
+     * @param primitives the primitives
+     */
     protected void cachePrimitives(Collection<? extends OsmPrimitive> primitives) {
         for (OsmPrimitive primitive : primitives) {
             cachePrimitiveTags(primitive);
@@ -184,24 +211,178 @@ public class AutoCompletionManager implements DataSetListener {
     }
 
     /**
-     * make sure, the keys and values of all tags held by primitive are
-     * in the auto completion cache
+     * Adds the tags of the given primitive to the cache.
      *
      * @param primitive an OSM primitive
      */
     protected void cachePrimitiveTags(OsmPrimitive primitive) {
-        primitive.visitKeys((p, key, value) -> tagCache.put(key, value));
+        primitive.visitKeys((p, key, value) -> addTag(key, value));
+    }
+
+    private void addTag(String key, String value) {
+        if (tagCounts.computeIfAbsent(key, k -> new HashMap<>()).merge(value, 1, Integer::sum) == 1) {
+            tagCache.put(key, value);
+        }
+    }
+
+    private void removeTag(String key, String value) {
+        Map<String, Integer> values = tagCounts.get(key);
+        if (values != null && values.computeIfPresent(value, (v, count) -> count > 1 ? count - 1 : null) == null) {
+            tagCache.remove(key, value);
+            if (values.isEmpty()) {
+                tagCounts.remove(key);
+                tagCache.remove(key);
+            }
+        }
     }
 
     /**
-     * Caches all member roles of the relation <code>relation</code>
+     * Adds the member roles of the relation <code>relation</code> to the cache.
      *
      * @param relation the relation
      */
     protected void cacheRelationMemberRoles(Relation relation) {
-        for (RelationMember m: relation.getMembers()) {
-            if (m.hasRole()) {
-                roleCache.add(m.getRole());
+        addRoles(relation.getMembers());
+    }
+
+    private void addRoles(List<RelationMember> members) {
+        for (RelationMember member : members) {
+            if (member.hasRole()) {
+                roleCounts.merge(member.getRole(), 1, Integer::sum);
+                roleCache.add(member.getRole());
+            }
+        }
+    }
+
+    private void removeRoles(List<RelationMember> members) {
+        for (RelationMember member : members) {
+            if (member.hasRole() && roleCounts.computeIfPresent(member.getRole(), (r, count) -> count > 1 ? count - 1 : null) == null) {
+                roleCache.remove(member.getRole());
+            }
+        }
+    }
+
+    /**
+     * The state of a primitive before a sequence of data set events, as far as the events tell.
+     */
+    private static final class OriginalState {
+        /** Whether the primitive was cached, {@code null} if no event added or removed it */
+        private Boolean cached;
+        /** The number of events which removed the primitive */
+        private int removals;
+        /** The tags, {@code null} if they have not changed */
+        private Map<String, String> tags;
+        /** The relation members, {@code null} if they have not changed */
+        private List<RelationMember> members;
+    }
+
+    /**
+     * Remembers a data set event, to apply it when the cache is read.
+     * <p>
+     * The events of a data set update are fired when the update has ended, so the primitives are already
+     * in their final state when the listeners receive the first event. Applying the events one by one would
+     * count that state several times. Instead, the events received since the cache was last read are applied
+     * together, see {@link #update(Collection)}.
+     *
+     * @param event the event
+     */
+    private void addPendingEvent(AbstractDatasetChangedEvent event) {
+        if (dirty)
+            return;
+        if (pendingEvents.size() < MAX_PENDING_EVENTS) {
+            pendingEvents.add(event);
+        } else {
+            pendingEvents.clear();
+            dirty = true;
+        }
+    }
+
+    /**
+     * Updates the cache from a sequence of data set events.
+     * <p>
+     * Only the state of each primitive before the first event and its current state matter: the former is taken
+     * from the first event which adds or removes the primitive, changes its tags, or changes its members.
+     *
+     * @param events the events
+     */
+    private void update(Collection<? extends AbstractDatasetChangedEvent> events) {
+        Map<OsmPrimitive, OriginalState> states = new IdentityHashMap<>();
+        if (collectOriginalStates(events, states)) {
+            states.forEach(this::update);
+        } else {
+            // the events do not tell the original state
+            dirty = true;
+        }
+    }
+
+    private static boolean collectOriginalStates(Collection<? extends AbstractDatasetChangedEvent> events,
+            Map<OsmPrimitive, OriginalState> states) {
+        for (AbstractDatasetChangedEvent event : events) {
+            if (event instanceof TagsChangedEvent) {
+                Map<String, String> tags = ((TagsChangedEvent) event).getOriginalKeys();
+                if (tags == null) {
+                    return false;
+                }
+                OriginalState state = states.computeIfAbsent(((TagsChangedEvent) event).getPrimitive(), p -> new OriginalState());
+                if (state.tags == null) {
+                    state.tags = tags;
+                }
+            } else if (event instanceof RelationMembersChangedEvent) {
+                List<RelationMember> members = ((RelationMembersChangedEvent) event).getOriginalMembers();
+                if (members == null) {
+                    return false;
+                }
+                OriginalState state = states.computeIfAbsent(((RelationMembersChangedEvent) event).getRelation(), p -> new OriginalState());
+                if (state.members == null) {
+                    state.members = members;
+                }
+            } else if (event instanceof PrimitivesAddedEvent || event instanceof PrimitivesRemovedEvent) {
+                boolean removed = event instanceof PrimitivesRemovedEvent;
+                for (OsmPrimitive primitive : event.getPrimitives()) {
+                    OriginalState state = states.computeIfAbsent(primitive, p -> new OriginalState());
+                    if (state.cached == null) {
+                        state.cached = removed;
+                    }
+                    if (removed) {
+                        state.removals++;
+                    }
+                }
+            } else if (event instanceof DataChangedEvent) {
+                List<AbstractDatasetChangedEvent> dataEvents = ((DataChangedEvent) event).getEvents();
+                if (dataEvents == null || !collectOriginalStates(dataEvents, states)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private void update(OsmPrimitive primitive, OriginalState original) {
+        boolean cached = primitive.getDataSet() == ds && !primitive.isDeleted() && !primitive.isIncomplete();
+        boolean wasCached;
+        if (original.cached == null) {
+            wasCached = cached;
+        } else {
+            // a primitive which was already deleted or incomplete is removed from the data set by a single event
+            wasCached = original.cached && (original.removals > 1 || primitive.getDataSet() == ds
+                    || !(primitive.isDeleted() || primitive.isIncomplete()));
+        }
+        boolean tagsChanged = original.tags != null || wasCached != cached;
+        boolean membersChanged = primitive instanceof Relation && (original.members != null || wasCached != cached);
+        if (wasCached) {
+            if (tagsChanged) {
+                (original.tags != null ? original.tags : primitive.getKeys()).forEach(this::removeTag);
+            }
+            if (membersChanged) {
+                removeRoles(original.members != null ? original.members : ((Relation) primitive).getMembers());
+            }
+        }
+        if (cached) {
+            if (tagsChanged) {
+                cachePrimitiveTags(primitive);
+            }
+            if (membersChanged) {
+                cacheRelationMemberRoles((Relation) primitive);
             }
         }
     }
@@ -438,36 +619,17 @@ public class AutoCompletionManager implements DataSetListener {
 
     @Override
     public void primitivesAdded(PrimitivesAddedEvent event) {
-        if (dirty)
-            return;
-        cachePrimitives(event.getPrimitives());
+        addPendingEvent(event);
     }
 
     @Override
     public void primitivesRemoved(PrimitivesRemovedEvent event) {
-        dirty = true;
+        addPendingEvent(event);
     }
 
     @Override
     public void tagsChanged(TagsChangedEvent event) {
-        if (dirty)
-            return;
-        Map<String, String> newKeys = event.getPrimitive().getKeys();
-        Map<String, String> oldKeys = event.getOriginalKeys();
-
-        if (!newKeys.keySet().containsAll(oldKeys.keySet())) {
-            // Some keys removed, might be the last instance of key, rebuild necessary
-            dirty = true;
-        } else {
-            for (Entry<String, String> oldEntry: oldKeys.entrySet()) {
-                if (!oldEntry.getValue().equals(newKeys.get(oldEntry.getKey()))) {
-                    // Value changed, might be last instance of value, rebuild necessary
-                    dirty = true;
-                    return;
-                }
-            }
-            cachePrimitives(Collections.singleton(event.getPrimitive()));
-        }
+        addPendingEvent(event);
     }
 
     @Override
@@ -478,7 +640,7 @@ public class AutoCompletionManager implements DataSetListener {
 
     @Override
     public void relationMembersChanged(RelationMembersChangedEvent event) {
-        dirty = true; // TODO: not necessary to rebuild if a member is added
+        addPendingEvent(event);
     }
 
     @Override
@@ -486,7 +648,7 @@ public class AutoCompletionManager implements DataSetListener {
 
     @Override
     public void dataChanged(DataChangedEvent event) {
-        dirty = true;
+        addPendingEvent(event);
     }
 
     private AutoCompletionManager registerListeners() {
@@ -502,6 +664,9 @@ public class AutoCompletionManager implements DataSetListener {
                     dirty = true;
                     tagCache = null;
                     roleCache = null;
+                    tagCounts.clear();
+                    roleCounts.clear();
+                    pendingEvents.clear();
                     ds = null;
                 }
             }
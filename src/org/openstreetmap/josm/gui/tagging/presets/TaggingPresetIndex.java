@@ -0,0 +1,188 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.tagging.presets;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openstreetmap.josm.data.osm.IPrimitive;
+import org.openstreetmap.josm.gui.tagging.presets.items.CheckGroup;
+import org.openstreetmap.josm.gui.tagging.presets.items.KeyedItem;
+import org.openstreetmap.josm.tools.Logging;
+
+/**
+ * Index of the tagging presets by the tags they can match.
+ * <p>
+ * A preset only matches tags if at least one of its items gives a positive match (see {@link TaggingPresetItem#matches}).
+ * For the items of this package, a positive match requires the item key to be present, and for the {@code keyvalue}
+ * match types one of the item values as well. The index maps these keys and tags to the presets, so that only a few
+ * candidates have to be {@linkplain TaggingPreset#matches tested} for given tags. Presets that cannot be indexed,
+ * e.g. with a plugin item overriding {@code matches}, are always candidates.
+ */
+final class TaggingPresetIndex {
+
+    private static final int MAX_CACHED_TAG_SETS = 1024;
+
+    private final List<TaggingPreset> presets;
+    private final Map<TaggingPreset, Integer> positions = new IdentityHashMap<>();
+    private final Map<String, BitSet> byKey = new HashMap<>();
+    private final Map<String, Map<String, BitSet>> byTag = new HashMap<>();
+    private final BitSet residual = new BitSet();
+    private final Map<Class<?>, Boolean> indexableClasses = new HashMap<>();
+
+    /** The candidates of the last tag sets, most recently used last */
+    private final Map<Map<String, String>, BitSet> cache = new LinkedHashMap<Map<String, String>, BitSet>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Map<String, String>, BitSet> eldest) {
+            return size() > MAX_CACHED_TAG_SETS;
+        }
+    };
+
+    /**
+     * Constructs a new {@code TaggingPresetIndex}.
+     * @param presets the presets to index, in the order in which matching presets are returned
+     */
+    TaggingPresetIndex(List<TaggingPreset> presets) {
+        this.presets = new ArrayList<>(presets);
+        for (int i = 0; i < this.presets.size(); i++) {
+            TaggingPreset preset = this.presets.get(i);
+            positions.putIfAbsent(preset, i);
+            if (!isIndexable(preset.getClass())) {
+                residual.set(i);
+                continue;
+            }
+            for (TaggingPresetItem item : preset.data) {
+                if (!indexItem(item, i)) {
+                    residual.set(i);
+                    break;
+                }
+            }
+        }
+        indexableClasses.clear();
+        Logging.debug("Indexed {0} tagging presets, {1} not indexable", this.presets.size(), residual.cardinality());
+    }
+
+    /**
+     * Indexes the tags for which an item may give a positive match.
+     * @param item the item
+     * @param position the position of the preset in the list
+     * @return {@code false} if the item cannot be indexed
+     */
+    private boolean indexItem(TaggingPresetItem item, int position) {
+        if (item instanceof KeyedItem && isIndexable(item.getClass(), KeyedItem.class)) {
+            KeyedItem ki = (KeyedItem) item;
+            String match = ki.match();
+            if ("key".equals(match) || "key!".equals(match)) {
+                if (ki.key != null) {
+                    byKey.computeIfAbsent(ki.key, k -> new BitSet()).set(position);
+                }
+            } else if ("keyvalue".equals(match) || "keyvalue!".equals(match)) {
+                if (ki.key != null && ki.getValues() != null) {
+                    Map<String, BitSet> values = byTag.computeIfAbsent(ki.key, k -> new HashMap<>());
+                    for (String value : ki.getValues()) {
+                        values.computeIfAbsent(value, v -> new BitSet()).set(position);
+                    }
+                }
+            }
+            return true;
+        } else if (item instanceof CheckGroup && isIndexable(item.getClass(), CheckGroup.class)) {
+            for (KeyedItem check : ((CheckGroup) item).checks) {
+                if (!indexItem(check, position)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return isIndexable(item.getClass(), TaggingPresetItem.class);
+    }
+
+    /**
+     * Determines if the given preset class uses the matching of {@link TaggingPreset}.
+     * @param presetClass the preset class
+     * @return {@code true} if the preset class does not override {@link TaggingPreset#test} nor {@link TaggingPreset#matches}
+     */
+    private boolean isIndexable(Class<?> presetClass) {
+        return indexableClasses.computeIfAbsent(presetClass, c -> {
+            try {
+                return c.getMethod("test", IPrimitive.class).getDeclaringClass() == TaggingPreset.class
+                        && c.getMethod("matches", Collection.class, Map.class, boolean.class).getDeclaringClass() == TaggingPreset.class;
+            } catch (NoSuchMethodException | SecurityException e) {
+                Logging.trace(e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Determines if the given item class uses the matching of the given base class.
+     * @param itemClass the item class
+     * @param baseClass the class whose matching is indexed
+     * @return {@code true} if the item class does not override {@link TaggingPresetItem#matches}
+     */
+    private boolean isIndexable(Class<?> itemClass, Class<?> baseClass) {
+        return indexableClasses.computeIfAbsent(itemClass, c -> {
+            try {
+                return c.getMethod("matches", Map.class).getDeclaringClass() == baseClass;
+            } catch (NoSuchMethodException | SecurityException e) {
+                Logging.trace(e);
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Returns the presets which may match the given tags.
+     * @param tags the tags
+     * @return the candidate presets, in the order of the indexed presets
+     */
+    List<TaggingPreset> getCandidates(Map<String, String> tags) {
+        BitSet candidates = getCandidateSet(tags);
+        List<TaggingPreset> result = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            result.add(presets.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Determines if the given preset may match the given tags.
+     * @param preset the preset
+     * @param tags the tags
+     * @return {@code false} if the preset cannot match the tags
+     */
+    boolean isCandidate(TaggingPreset preset, Map<String, String> tags) {
+        Integer position = positions.get(preset);
+        // presets which are not indexed have to be tested
+        return position == null || getCandidateSet(tags).get(position);
+    }
+
+    private BitSet getCandidateSet(Map<String, String> tags) {
+        synchronized (cache) {
+            BitSet candidates = cache.get(tags);
+            if (candidates != null) {
+                return candidates;
+            }
+        }
+        BitSet candidates = (BitSet) residual.clone();
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            BitSet withKey = byKey.get(tag.getKey());
+            if (withKey != null) {
+                candidates.or(withKey);
+            }
+            BitSet withTag = byTag.getOrDefault(tag.getKey(), Collections.emptyMap()).get(tag.getValue());
+            if (withTag != null) {
+                candidates.or(withTag);
+            }
+        }
+        synchronized (cache) {
+            cache.put(new HashMap<>(tags), candidates);
+        }
+        return candidates;
+    }
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import org.openstreetmap.josm.data.osm.IPrimitive;
 import org.openstreetmap.josm.tools.Logging;
@@ -53,14 +54,20 @@ public final class TaggingPresetNameTemplateList implements TaggingPresetListene
      */
     public TaggingPreset findPresetTemplate(IPrimitive primitive) {
         synchronized (this) {
+            Map<String, String> tags = null;
             for (TaggingPreset t : presetsWithPattern) {
                 Collection<TaggingPresetType> type = EnumSet.of(TaggingPresetType.forPrimitive(primitive));
                 if (t.typeMatches(type)) {
                     if (t.nameTemplateFilter != null) {
                         if (t.nameTemplateFilter.match(primitive))
                             return t;
-                    } else if (t.matches(type, primitive.getKeys(), false)) {
-                        return t;
+                    } else {
+                        if (tags == null) {
+                            tags = primitive.getKeys();
+                        }
+                        if (TaggingPresets.mayMatch(t, tags) && t.matches(type, tags, false)) {
+                            return t;
+                        }
                     }
                 }
             }
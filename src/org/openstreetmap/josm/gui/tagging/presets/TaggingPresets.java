@@ -47,6 +47,8 @@ public final class TaggingPresets {
     private static final MultiMap<String, String> PRESET_TAG_CACHE = new MultiMap<>();
     /** cache for roles found in the preset */
     private static final Set<String> PRESET_ROLE_CACHE = new HashSet<>();
+    /** index of the presets by the tags they can match */
+    private static volatile TaggingPresetIndex presetIndex = new TaggingPresetIndex(Collections.emptyList());
 
     /** The collection of listeners */
     private static final Collection<TaggingPresetListener> listeners = new ArrayList<>();
@@ -71,6 +73,7 @@ public final class TaggingPresets {
         TAGGING_PRESETS.clear();
         TAGGING_PRESETS.addAll(TaggingPresetReader.readFromPreferences(false, false));
         cachePresets(TAGGING_PRESETS);
+        presetIndex = new TaggingPresetIndex(TAGGING_PRESETS);
     }
 
     /**
@@ -150,6 +153,7 @@ public final class TaggingPresets {
         TAGGING_PRESETS.clear();
         PRESET_TAG_CACHE.clear();
         PRESET_ROLE_CACHE.clear();
+        presetIndex = new TaggingPresetIndex(Collections.emptyList());
         MainApplication.getMenu().presetsMenu.removeAll();
     }
 
@@ -243,7 +247,7 @@ public final class TaggingPresets {
      */
     public static Collection<TaggingPreset> getMatchingPresets(final Collection<TaggingPresetType> t,
                                                                final Map<String, String> tags, final boolean onlyShowable) {
-        return SubclassFilteredCollection.filter(getTaggingPresets(), preset -> preset.matches(t, tags, onlyShowable));
+        return SubclassFilteredCollection.filter(presetIndex.getCandidates(tags), preset -> preset.matches(t, tags, onlyShowable));
     }
 
     /**
@@ -255,7 +259,17 @@ public final class TaggingPresets {
      * @since 13623 (signature)
      */
     public static Collection<TaggingPreset> getMatchingPresets(final IPrimitive primitive) {
-        return SubclassFilteredCollection.filter(getTaggingPresets(), preset -> preset.test(primitive));
+        return SubclassFilteredCollection.filter(presetIndex.getCandidates(primitive.getKeys()), preset -> preset.test(primitive));
+    }
+
+    /**
+     * Determines if the given preset may match the given tags, i.e., if it is worth {@linkplain TaggingPreset#matches testing} it.
+     * @param preset the preset
+     * @param tags the tags
+     * @return {@code false} if the preset cannot match the tags
+     */
+    static boolean mayMatch(TaggingPreset preset, Map<String, String> tags) {
+        return presetIndex.isCandidate(preset, tags);
     }
 
     /**
@@ -264,6 +278,7 @@ public final class TaggingPresets {
      */
     public static void addTaggingPresets(Collection<TaggingPreset> presets) {
         if (presets != null && TAGGING_PRESETS.addAll(presets)) {
+            presetIndex = new TaggingPresetIndex(TAGGING_PRESETS);
             listeners.forEach(TaggingPresetListener::taggingPresetsModified);
         }
     }
@@ -0,0 +1,192 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.openstreetmap.josm.tools.I18n.tr;
+import static org.openstreetmap.josm.tools.I18n.trn;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+import org.openstreetmap.josm.tools.JosmRuntimeException;
+import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Utils;
+import org.xml.sax.SAXException;
+
+/**
+ * Reads several GPX-like files (GPX, NMEA, ...) concurrently, on a shared pool of worker threads.
+ * <p>
+ * The progress of all files is reported to a single progress monitor, weighted by file size. The results are returned
+ * in the order of the files, independently of the order in which the files have been read.
+ */
+public final class GpxBulkReader {
+
+    private static final ForkJoinPool POOL = Utils.newForkJoinPool("gpx.import.threads", "gpx-import-%d", Thread.NORM_PRIORITY);
+
+    /**
+     * Creates a reader for a single file.
+     * @param <T> GPX reader type
+     */
+    @FunctionalInterface
+    public interface ReaderFactory<T extends IGpxReader> {
+        /**
+         * Creates a new reader.
+         * @param source the uncompressed content of the file
+         * @return a new reader for the file
+         * @throws IOException if the reader cannot be created
+         */
+        T create(InputStream source) throws IOException;
+    }
+
+    /**
+     * The result of reading a single file.
+     * @param <T> GPX reader type
+     */
+    public static final class Result<T extends IGpxReader> {
+        private final File file;
+        private final T reader;
+        private final boolean parsedProperly;
+        private final IOException exception;
+
+        private Result(File file, T reader, boolean parsedProperly, IOException exception) {
+            this.file = file;
+            this.reader = reader;
+            this.parsedProperly = parsedProperly;
+            this.exception = exception;
+        }
+
+        /**
+         * Returns the file.
+         * @return the file
+         */
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Returns the reader, holding the data that has been read.
+         * @return the reader, or {@code null} if the file could not be read
+         */
+        public T getReader() {
+            return reader;
+        }
+
+        /**
+         * Determines if the file has been parsed without errors.
+         * @return {@code true} if the file has been parsed without errors, {@code false} if only a part of the data
+         * is available
+         */
+        public boolean isParsedProperly() {
+            return parsedProperly;
+        }
+
+        /**
+         * Returns the error that occurred while reading the file.
+         * @return the error, or {@code null} if the file has been read
+         */
+        public IOException getException() {
+            return exception;
+        }
+    }
+
+    private GpxBulkReader() {
+        // Hide default constructor for utils classes
+    }
+
+    /**
+     * Reads the given files concurrently.
+     * @param <T> GPX reader type
+     * @param files the files to read, may be compressed
+     * @param factory creates the reader of a file
+     * @param progressMonitor the progress monitor
+     * @return the results, in the order of the files. If the operation has been canceled, only the files that have been
+     * read completely are included.
+     */
+    public static <T extends IGpxReader> List<Result<T>> read(List<File> files, ReaderFactory<T> factory,
+            ProgressMonitor progressMonitor) {
+        // progress in KiB, so that large files count more than small ones
+        int totalTicks = 0;
+        for (File file : files) {
+            totalTicks += getTicks(file);
+        }
+        progressMonitor.beginTask(trn("Opening {0} file...", "Opening {0} files...", files.size(), files.size()), totalTicks);
+        try {
+            CompletionService<Result<T>> completionService = new ExecutorCompletionService<>(POOL);
+            Map<Future<Result<T>>, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < files.size(); i++) {
+                File file = files.get(i);
+                indexes.put(completionService.submit(() -> read(file, factory)), i);
+            }
+            List<Result<T>> results = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                results.add(null);
+            }
+            int done = 0;
+            while (done < files.size()) {
+                if (progressMonitor.isCanceled()) {
+                    indexes.keySet().forEach(f -> f.cancel(true));
+                    break;
+                }
+                Future<Result<T>> future = completionService.poll(100, TimeUnit.MILLISECONDS);
+                if (future != null) {
+                    Result<T> result = getResult(future);
+                    results.set(indexes.remove(future), result);
+                    done++;
+                    progressMonitor.subTask(tr("Opened ''{0}''", result.file.getName()));
+                    progressMonitor.worked(getTicks(result.file));
+                }
+            }
+            results.removeIf(Objects::isNull);
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JosmRuntimeException(e);
+        } finally {
+            progressMonitor.finishTask();
+        }
+    }
+
+    private static <T extends IGpxReader> Result<T> read(File file, ReaderFactory<T> factory) {
+        try (InputStream is = Compression.getUncompressedFileInputStream(file)) {
+            T reader = factory.create(is);
+            boolean parsedProperly = reader.parse(true);
+            return new Result<>(file, reader, parsedProperly, null);
+        } catch (SAXException e) {
+            Logging.error(e);
+            return new Result<>(file, null, false, new IOException(e.getLocalizedMessage(), e));
+        } catch (IOException e) {
+            Logging.error(e);
+            return new Result<>(file, null, false, e);
+        }
+    }
+
+    private static <T extends IGpxReader> Result<T> getResult(Future<Result<T>> future) throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            // runtime exceptions and errors are not expected, they are reported as bugs
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new JosmRuntimeException(e);
+        }
+    }
+
+    private static int getTicks(File file) {
+        return (int) Math.min(1 << 20, Math.max(1, file.length() / 1024));
+    }
+}
@@ -28,13 +28,13 @@ import java.util.Stack;
 
 import org.openstreetmap.josm.data.Bounds;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxConstants;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.data.gpx.GpxExtensionCollection;
 import org.openstreetmap.josm.data.gpx.GpxLink;
 import org.openstreetmap.josm.data.gpx.GpxRoute;
 import org.openstreetmap.josm.data.gpx.GpxTrack;
-import org.openstreetmap.josm.data.gpx.GpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.IGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.WayPoint;
 import org.openstreetmap.josm.tools.Logging;
@@ -66,7 +66,7 @@ class GpxParser extends DefaultHandler {
     private GpxData data;
     private Collection<IGpxTrackSegment> currentTrack;
     private Map<String, Object> currentTrackAttr;
-    private Collection<WayPoint> currentTrackSeg;
+    private CompactGpxTrackSegment.Builder currentTrackSeg;
     private GpxRoute currentRoute;
     private WayPoint currentWayPoint;
 
@@ -309,7 +309,7 @@ class GpxParser extends DefaultHandler {
             case "trkseg":
                 states.push(currentState);
                 currentState = State.TRKSEG;
-                currentTrackSeg = new ArrayList<>();
+                currentTrackSeg = new CompactGpxTrackSegment.Builder();
                 break;
             case "link":
                 states.push(currentState);
@@ -675,7 +675,7 @@ class GpxParser extends DefaultHandler {
         if ("trkseg".equals(localName)) {
             currentState = states.pop();
             if (!currentTrackSeg.isEmpty()) {
-                GpxTrackSegment seg = new GpxTrackSegment(currentTrackSeg);
+                IGpxTrackSegment seg = currentTrackSeg.build();
                 if (!currentExtensionCollection.isEmpty()) {
                     seg.getExtensions().addAll(currentExtensionCollection);
                 }
@@ -0,0 +1,129 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.openstreetmap.josm.tools.Utils;
+
+/**
+ * Schedules the packages of ids fetched by {@link MultiFetchServerObjectReader}.
+ * <p>
+ * The number of ids in a package and the number of concurrent requests are adapted to the response time of the server:
+ * they grow while the server replies fast, and shrink when it replies slowly. A package is always limited by the length
+ * of its ids in the request URL, and the number of concurrent requests by the number of download threads.
+ */
+class MultiFetchScheduler {
+    /**
+     * the initial number of ids in a package.
+     */
+    static final int IDS_PER_REQUEST = 170;
+
+    /**
+     * the min. number of ids in a package.
+     */
+    static final int MIN_IDS_PER_REQUEST = 10;
+
+    /**
+     * the max. length of the ids and separators in one request URL. With IDs of 11 digits, this allows
+     * {@link #IDS_PER_REQUEST} ids and leads to a max. request URL of ~ 2100 Bytes ((11 digits + 1 Separator) * 170),
+     * which should be safe according to the
+     * <a href="https://web.archive.org/web/20190902193246/https://boutell.com/newfaq/misc/urllength.html">WWW FAQ</a>.
+     */
+    static final int MAX_IDS_LENGTH = IDS_PER_REQUEST * 12;
+
+    /**
+     * responses faster than this (in milliseconds) let the packages and the number of concurrent requests grow.
+     */
+    static final long FAST_RESPONSE = 2_000;
+
+    /**
+     * responses slower than this (in milliseconds) let the packages and the number of concurrent requests shrink.
+     */
+    static final long SLOW_RESPONSE = 10_000;
+
+    private final int maxRequests;
+    private final long fastResponse;
+    private final long slowResponse;
+
+    private int idsPerRequest = IDS_PER_REQUEST;
+    private int requests;
+
+    /**
+     * Constructs a new {@code MultiFetchScheduler}.
+     * @param maxRequests the max. number of concurrent requests
+     */
+    MultiFetchScheduler(int maxRequests) {
+        this(maxRequests, FAST_RESPONSE, SLOW_RESPONSE);
+    }
+
+    /**
+     * Constructs a new {@code MultiFetchScheduler}.
+     * @param maxRequests the max. number of concurrent requests
+     * @param fastResponse responses faster than this (in milliseconds) let the packages and the number of requests grow
+     * @param slowResponse responses slower than this (in milliseconds) let the packages and the number of requests shrink
+     */
+    MultiFetchScheduler(int maxRequests, long fastResponse, long slowResponse) {
+        this.maxRequests = Math.max(1, maxRequests);
+        this.fastResponse = fastResponse;
+        this.slowResponse = slowResponse;
+        this.requests = this.maxRequests;
+    }
+
+    /**
+     * Returns the number of ids in the next package, if their length fits into the request URL.
+     * @return the number of ids in the next package
+     */
+    int getIdsPerRequest() {
+        return idsPerRequest;
+    }
+
+    /**
+     * Returns the number of requests which may currently run concurrently.
+     * @return the number of concurrent requests
+     */
+    int getConcurrentRequests() {
+        return requests;
+    }
+
+    /**
+     * Extracts the next package from <code>ids</code> and replies it. The extracted package is removed from <code>ids</code>.
+     * <p>
+     * The package contains at most {@link #getIdsPerRequest()} ids, and fewer if their length in the request URL
+     * exceeds {@link #MAX_IDS_LENGTH}.
+     *
+     * @param ids a set of ids
+     * @return the package of ids, empty if <code>ids</code> is empty
+     */
+    Set<Long> extractIdPackage(Set<Long> ids) {
+        Set<Long> pkg = new HashSet<>();
+        int length = 0;
+        for (Iterator<Long> it = ids.iterator(); it.hasNext() && pkg.size() < idsPerRequest;) {
+            Long id = it.next();
+            // id and separator
+            length += Long.toString(id).length() + 1;
+            if (length > MAX_IDS_LENGTH && !pkg.isEmpty())
+                break;
+            pkg.add(id);
+            it.remove();
+        }
+        return pkg;
+    }
+
+    /**
+     * Adapts the packages and the number of concurrent requests to the response time of a request.
+     * @param responseTime the time between the start of the request and the end of the parsing of its response, in milliseconds
+     */
+    void responseReceived(long responseTime) {
+        if (responseTime < fastResponse) {
+            idsPerRequest += idsPerRequest / 2;
+            requests = Math.min(requests + 1, maxRequests);
+        } else if (responseTime > slowResponse) {
+            idsPerRequest = Math.max(idsPerRequest / 2, MIN_IDS_PER_REQUEST);
+            requests = Math.max(requests - 1, 1);
+        }
+        // more ids than this never fit into the request URL
+        idsPerRequest = Utils.clamp(idsPerRequest, MIN_IDS_PER_REQUEST, MAX_IDS_LENGTH / 2);
+    }
+}
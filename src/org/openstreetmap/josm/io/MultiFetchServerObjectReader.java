@@ -7,11 +7,12 @@ import static org.openstreetmap.josm.tools.I18n.trn;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -25,6 +26,7 @@ import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.openstreetmap.josm.data.Bounds;
@@ -62,14 +64,6 @@ import org.openstreetmap.josm.tools.Utils;
  * </pre>
  */
 public class MultiFetchServerObjectReader extends OsmServerReader {
-    /**
-     * the max. number of primitives retrieved in one step. Assuming IDs with 10 digits,
-     * this leads to a max. request URL of ~ 1900 Bytes ((10 digits +  1 Separator) * 170),
-     * which should be safe according to the
-     * <a href="https://web.archive.org/web/20190902193246/https://boutell.com/newfaq/misc/urllength.html">WWW FAQ</a>.
-     */
-    private static final int MAX_IDS_PER_REQUEST = 170;
-
     private final Set<Long> nodes;
     private final Set<Long> ways;
     private final Set<Long> relations;
@@ -81,6 +75,8 @@ public class MultiFetchServerObjectReader extends OsmServerReader {
     private boolean recurseDownAppended = true;
 
     private ExecutorService exec;
+    /** The scheduler of the packages being fetched by {@link #fetchPrimitives} */
+    private MultiFetchScheduler scheduler;
 
     /**
      * Constructs a {@code MultiFetchServerObjectReader}.
@@ -238,27 +234,27 @@ public class MultiFetchServerObjectReader extends OsmServerReader {
     }
 
     /**
-     * extracts a subset of max {@link #MAX_IDS_PER_REQUEST} ids from <code>ids</code> and
-     * replies the subset. The extracted subset is removed from <code>ids</code>.
+     * extracts a subset of ids from <code>ids</code> and replies the subset. The extracted subset is removed from
+     * <code>ids</code>.
+     * <p>
+     * While {@link #fetchPrimitives} runs, the size of the subset is adapted to the response time of the server,
+     * otherwise it contains max {@link MultiFetchScheduler#IDS_PER_REQUEST} ids. The size of the subset is also
+     * limited by the length of the ids in the request URL.
      *
      * @param ids a set of ids
-     * @return the subset of ids
+     * @return the subset of ids, empty if <code>ids</code> is empty
      */
     protected Set<Long> extractIdPackage(Set<Long> ids) {
-        Set<Long> pkg = new HashSet<>();
-        if (ids.isEmpty())
-            return pkg;
-        if (ids.size() > MAX_IDS_PER_REQUEST) {
-            Iterator<Long> it = ids.iterator();
-            for (int i = 0; i < MAX_IDS_PER_REQUEST; i++) {
-                pkg.add(it.next());
-            }
-            ids.removeAll(pkg);
-        } else {
-            pkg.addAll(ids);
-            ids.clear();
-        }
-        return pkg;
+        return (scheduler != null ? scheduler : new MultiFetchScheduler(1)).extractIdPackage(ids);
+    }
+
+    /**
+     * Creates the scheduler of the packages fetched by {@link #fetchPrimitives}.
+     * @param maxRequests the max. number of concurrent requests
+     * @return the scheduler
+     */
+    MultiFetchScheduler createScheduler(int maxRequests) {
+        return new MultiFetchScheduler(maxRequests);
     }
 
     /**
@@ -317,31 +313,53 @@ public class MultiFetchServerObjectReader extends OsmServerReader {
         progressMonitor.setTicks(0);
         // The complete set containing all primitives to fetch
         Set<Long> toFetch = new HashSet<>(ids);
-        // Build a list of fetchers that will  download smaller sets containing only MAX_IDS_PER_REQUEST (200) primitives each.
+        // Download smaller packages of ids, whose size is adapted to the response time of the server.
         // we will run up to MAX_DOWNLOAD_THREADS concurrent fetchers.
         int threadsNumber = Config.getPref().getInt("osm.download.threads", OsmApi.MAX_DOWNLOAD_THREADS);
         threadsNumber = Utils.clamp(threadsNumber, 1, OsmApi.MAX_DOWNLOAD_THREADS);
+        scheduler = createScheduler(threadsNumber);
         exec = Executors.newFixedThreadPool(
                 threadsNumber, Utils.newThreadFactory(getClass() + "-%d", Thread.NORM_PRIORITY));
         CompletionService<FetchResult> ecs = new ExecutorCompletionService<>(exec);
         List<Future<FetchResult>> jobs = new ArrayList<>();
-        // There exists a race condition where this is cancelled after isCanceled is called, such that
-        // the exec ThreadPool has been shut down. This can cause a RejectedExecutionException.
-        synchronized (this) {
-            while (!toFetch.isEmpty() && !isCanceled()) {
-                jobs.add(ecs.submit(new Fetcher(type, extractIdPackage(toFetch), progressMonitor)));
+        // Packages which have been split after a 404 response, fetched before the remaining ids
+        Deque<Set<Long>> splitPackages = new ArrayDeque<>();
+        int running = 0;
+        while (!isCanceled()) {
+            // The packages are only extracted when a fetcher can run, so that they are sized after the last responses.
+            // There exists a race condition where this is cancelled after isCanceled is called, such that
+            // the exec ThreadPool has been shut down. This can cause a RejectedExecutionException.
+            synchronized (this) {
+                while (running < scheduler.getConcurrentRequests() && !isCanceled()) {
+                    Set<Long> pkg = splitPackages.isEmpty() ? extractIdPackage(toFetch) : splitPackages.poll();
+                    if (pkg.isEmpty())
+                        break;
+                    jobs.add(ecs.submit(new Fetcher(type, pkg, progressMonitor)));
+                    running++;
+                }
             }
-        }
-        // Run the fetchers
-        for (int i = 0; i < jobs.size() && !isCanceled(); i++) {
+            if (running == 0 || isCanceled())
+                break;
             progressMonitor.subTask(msg + "... " + progressMonitor.getTicks() + '/' + progressMonitor.getTicksCount());
+            Future<FetchResult> job;
+            try {
+                job = ecs.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Logging.error(e);
+                break;
+            }
+            running--;
             try {
-                FetchResult result = ecs.take().get();
+                FetchResult result = job.get();
+                if (result == null)
+                    continue;
+                scheduler.responseReceived(result.responseTime);
                 if (result.rc404 != null) {
                     List<Long> toSplit = new ArrayList<>(result.rc404);
                     int n = toSplit.size() / 2;
-                    jobs.add(ecs.submit(new Fetcher(type, new HashSet<>(toSplit.subList(0, n)), progressMonitor)));
-                    jobs.add(ecs.submit(new Fetcher(type, new HashSet<>(toSplit.subList(n, toSplit.size())), progressMonitor)));
+                    splitPackages.add(new HashSet<>(toSplit.subList(0, n)));
+                    splitPackages.add(new HashSet<>(toSplit.subList(n, toSplit.size())));
                 }
                 if (result.missingPrimitives != null) {
                     missingPrimitives.addAll(result.missingPrimitives);
@@ -367,6 +385,7 @@ public class MultiFetchServerObjectReader extends OsmServerReader {
             }
         }
         exec = null;
+        scheduler = null;
     }
 
     /**
@@ -530,6 +549,8 @@ public class MultiFetchServerObjectReader extends OsmServerReader {
 
         private Set<Long> rc404;
 
+        private long responseTime;
+
         /**
          * Constructs a {@code FetchResult}
          * @param dataSet The resulting data set
@@ -575,7 +596,12 @@ public class MultiFetchServerObjectReader extends OsmServerReader {
 
         @Override
         public FetchResult call() throws Exception {
-            return fetch(progressMonitor);
+            long start = System.nanoTime();
+            FetchResult result = fetch(progressMonitor);
+            if (result != null) {
+                result.responseTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            }
+            return result;
         }
 
         /**
@@ -6,6 +6,7 @@ import static org.openstreetmap.josm.tools.I18n.tr;
 import static org.openstreetmap.josm.tools.I18n.trn;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringReader;
 import java.io.StringWriter;
@@ -593,18 +594,23 @@ public class OsmApi extends OsmConnection {
 
             // prepare upload request
             //
-            OsmChangeBuilder changeBuilder = new OsmChangeBuilder(changeset);
+            // the document is written directly into the connection, and written once before to count its length
             monitor.subTask(tr("Preparing upload request..."));
-            changeBuilder.start();
-            changeBuilder.append(list);
-            changeBuilder.finish();
-            String diffUploadRequest = changeBuilder.getDocument();
+            final Changeset uploadChangeset = changeset;
+            HttpClient.RequestBodyWriter diffUploadRequest = out -> {
+                OsmChangeBuilder changeBuilder = new OsmChangeBuilder(uploadChangeset, null, out);
+                changeBuilder.start();
+                changeBuilder.append(list);
+                changeBuilder.finish();
+            };
+            long length = countBytes(diffUploadRequest);
 
             // Upload to the server
             //
             monitor.indeterminateSubTask(
                     trn("Uploading {0} object...", "Uploading {0} objects...", list.size(), list.size()));
-            String diffUploadResponse = sendPostRequest(CHANGESET_SLASH + changeset.getId() + "/upload", diffUploadRequest, monitor);
+            String diffUploadResponse = sendRequestBody("POST", CHANGESET_SLASH + changeset.getId() + "/upload",
+                    length, diffUploadRequest, monitor, null, true, false);
 
             // Process the response from the server
             //
@@ -617,13 +623,29 @@ public class OsmApi extends OsmConnection {
         } catch (ChangesetClosedException e) {
             e.setSource(ChangesetClosedException.Source.UPLOAD_DATA);
             throw e;
-        } catch (XmlParsingException e) {
+        } catch (XmlParsingException | IOException e) {
             throw new OsmTransferException(e);
         } finally {
             monitor.finishTask();
         }
     }
 
+    private static long countBytes(HttpClient.RequestBodyWriter body) throws IOException {
+        final long[] count = new long[1];
+        body.writeTo(new OutputStream() {
+            @Override
+            public void write(int b) {
+                count[0]++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                count[0] += len;
+            }
+        });
+        return count[0];
+    }
+
     private void sleepAndListen(int retry, ProgressMonitor monitor) throws OsmTransferCanceledException {
         Logging.info(tr("Waiting 10 seconds ... "));
         for (int i = 0; i < 10; i++) {
@@ -759,6 +781,32 @@ public class OsmApi extends OsmConnection {
      */
     protected final String sendRequest(String requestMethod, String urlSuffix, String requestBody, ProgressMonitor monitor,
             String contentType, boolean doAuthenticate, boolean fastFail) throws OsmTransferException {
+        final byte[] body = requestBody != null ? requestBody.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return sendRequestBody(requestMethod, urlSuffix, body.length, out -> out.write(body),
+                monitor, contentType, doAuthenticate, fastFail);
+    }
+
+    /**
+     * Sends a request with a body written into the connection to the OSM API, see {@link #sendRequest(String, String, String,
+     * ProgressMonitor, String, boolean, boolean)}.
+     * <p>
+     * This avoids to hold large request bodies, such as the diff uploads, in memory. The body is written again for each retry.
+     *
+     * @param requestMethod The http method used when talking with the server.
+     * @param urlSuffix The suffix to add at the server url, not including the version number.
+     * @param requestBodyLength the length of the body of the HTTP request in bytes
+     * @param requestBody writes the body of the HTTP request encoded in UTF-8
+     * @param monitor the progress monitor
+     * @param contentType Content-Type to set for PUT/POST/DELETE requests, {@code null} for {@code text/xml}
+     * @param doAuthenticate  set to true, if the request sent to the server shall include authentication credentials;
+     * @param fastFail true to request a short timeout
+     *
+     * @return the body of the HTTP response, if and only if the response code was "200 OK".
+     * @throws OsmTransferException if the HTTP return code was not 200 (and retries have
+     *    been exhausted), or rewrapping a Java exception.
+     */
+    private String sendRequestBody(String requestMethod, String urlSuffix, long requestBodyLength, HttpClient.RequestBodyWriter requestBody,
+            ProgressMonitor monitor, String contentType, boolean doAuthenticate, boolean fastFail) throws OsmTransferException {
         int retries = fastFail ? 0 : getMaxRetries();
 
         while (true) { // the retry loop
@@ -787,7 +835,7 @@ public class OsmApi extends OsmConnection {
                     // Since Java will not generate a Content-length header unless
                     // we use the output stream, we create an output stream for PUT/POST
                     // even if there is no payload.
-                    client.setRequestBody((requestBody != null ? requestBody : "").getBytes(StandardCharsets.UTF_8));
+                    client.setRequestBody(requestBodyLength, requestBody);
                 }
 
                 final HttpClient.Response response = client.connect();
@@ -3,8 +3,11 @@ package org.openstreetmap.josm.io;
 
 import static org.openstreetmap.josm.tools.I18n.tr;
 
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
-import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 
 import org.openstreetmap.josm.data.osm.Changeset;
@@ -21,7 +24,7 @@ public class OsmChangeBuilder {
 
     private String currentMode;
     private final PrintWriter writer;
-    private final StringWriter swriter;
+    private final ByteArrayOutputStream buffer;
     private final OsmWriter osmwriter;
     private String apiVersion = DEFAULT_API_VERSION;
     private boolean prologWritten;
@@ -40,9 +43,24 @@ public class OsmChangeBuilder {
      * @param apiVersion OSM API version
      */
     public OsmChangeBuilder(Changeset changeset, String apiVersion) {
+        this(changeset, apiVersion, new ByteArrayOutputStream(), true);
+    }
+
+    /**
+     * Constructs a new {@code OsmChangeBuilder} which writes the document encoded in UTF-8 to the given stream, e.g.
+     * directly into the connection of an upload. The document is not kept, {@link #getDocument()} is not available.
+     * @param changeset changeset
+     * @param apiVersion OSM API version
+     * @param out the stream to write the document to
+     */
+    public OsmChangeBuilder(Changeset changeset, String apiVersion, OutputStream out) {
+        this(changeset, apiVersion, out, false);
+    }
+
+    private OsmChangeBuilder(Changeset changeset, String apiVersion, OutputStream out, boolean keepDocument) {
         this.apiVersion = apiVersion == null ? DEFAULT_API_VERSION : apiVersion;
-        swriter = new StringWriter();
-        writer = new PrintWriter(swriter);
+        buffer = keepDocument ? (ByteArrayOutputStream) out : null;
+        writer = new PrintWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
         osmwriter = OsmWriterFactory.createOsmWriter(writer, false, apiVersion);
         osmwriter.setChangeset(changeset);
         osmwriter.setIsOsmChange(true);
@@ -140,13 +158,18 @@ public class OsmChangeBuilder {
             writer.println(">");
         }
         writer.println("</osmChange>");
+        writer.flush();
     }
 
     /**
      * Returns XML document.
      * @return XML document
+     * @throws IllegalStateException if the document has been written to a stream
      */
     public String getDocument() {
-        return swriter.toString();
+        if (buffer == null)
+            throw new IllegalStateException("The document has been written to a stream");
+        writer.flush();
+        return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
     }
 }
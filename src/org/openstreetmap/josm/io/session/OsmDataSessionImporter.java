@@ -32,6 +32,11 @@ import org.w3c.dom.NodeList;
  */
 public class OsmDataSessionImporter implements SessionLayerImporter {
 
+    @Override
+    public boolean isParallelLoadingSupported() {
+        return true;
+    }
+
     @Override
     public Layer load(Element elem, ImportSupport support, ProgressMonitor progressMonitor) throws IOException, IllegalDataException {
         checkMetaVersion(elem);
@@ -27,5 +27,14 @@ public interface SessionLayerImporter {
      * @throws IllegalDataException if invalid data is read
      */
     Layer load(Element elem, ImportSupport support, ProgressMonitor progressMonitor) throws IOException, IllegalDataException;
+
+    /**
+     * Determines if layers without dependencies can be loaded by this importer while other layers are loaded.
+     * The importer must then be able to load a layer in any thread, without accessing other layers.
+     * @return {@code true} if layers can be loaded in parallel
+     */
+    default boolean isParallelLoadingSupported() {
+        return false;
+    }
 }
 
@@ -7,8 +7,10 @@ import java.awt.GraphicsEnvironment;
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -24,6 +26,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.zip.ZipEntry;
@@ -32,6 +37,7 @@ import java.util.zip.ZipFile;
 
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
+import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
 
 import org.openstreetmap.josm.data.ViewportData;
@@ -157,6 +163,8 @@ public class SessionReader {
 
     private static final Map<String, Class<? extends SessionLayerImporter>> sessionLayerImporters = new HashMap<>();
 
+    private static final ForkJoinPool LOADER = Utils.newForkJoinPool("session.load.threads", "session-loader-%d", Thread.NORM_PRIORITY);
+
     private URI sessionFileURI;
     private boolean zip; // true, if session file is a .joz file; false if it is a .jos file
     private boolean pluginData; // true, if a plugin restored state from a .joz file. False otherwise.
@@ -266,6 +274,10 @@ public class SessionReader {
         private final int layerIndex;
         private final List<LayerDependency> layerDependencies;
         private Map<Integer, Entry<Layer, Element>> subLayers;
+        /** The post layers tasks of a layer loaded in parallel, added to the session in the order of the layers */
+        private List<Runnable> deferredPostLayersTasks;
+        /** Set when the loading of a layer loaded in parallel is no longer needed, its input streams fail on the next read */
+        private volatile boolean canceled;
 
         /**
          * Path of the file inside the zip archive.
@@ -291,7 +303,11 @@ public class SessionReader {
          * @param task task to run in EDT
          */
         public void addPostLayersTask(Runnable task) {
-            postLoadTasks.add(task);
+            if (deferredPostLayersTasks != null) {
+                deferredPostLayersTasks.add(task);
+            } else {
+                postLoadTasks.add(task);
+            }
         }
 
         /**
@@ -349,19 +365,48 @@ public class SessionReader {
             File file = getFile(uriStr);
             if (file != null) {
                 try {
-                    return new BufferedInputStream(Compression.getUncompressedFileInputStream(file));
+                    return cancelable(new BufferedInputStream(Compression.getUncompressedFileInputStream(file)));
                 } catch (FileNotFoundException e) {
                     throw new IOException(tr("File ''{0}'' does not exist.", file.getPath()), e);
                 }
             } else if (inZipPath != null) {
                 ZipEntry entry = zipFile.getEntry(inZipPath);
                 if (entry != null) {
-                    return zipFile.getInputStream(entry);
+                    return cancelable(zipFile.getInputStream(entry));
                 }
             }
             throw new IOException(tr("Unable to locate file  ''{0}''.", uriStr));
         }
 
+        /**
+         * Lets the input stream of a layer loaded in parallel fail once the loading is canceled,
+         * so that importers which do not check their progress monitor stop too.
+         */
+        private InputStream cancelable(InputStream in) {
+            if (deferredPostLayersTasks == null) {
+                return in;
+            }
+            return new FilterInputStream(in) {
+                @Override
+                public int read() throws IOException {
+                    checkCanceled();
+                    return super.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    checkCanceled();
+                    return super.read(b, off, len);
+                }
+
+                private void checkCanceled() throws InterruptedIOException {
+                    if (canceled) {
+                        throw new InterruptedIOException(tr("Loading of layer ''{0}'' was canceled", layerName));
+                    }
+                }
+            };
+        }
+
         /**
          * Return a File for a URI from a .jos/.joz file.
          * <p>
@@ -474,6 +519,103 @@ public class SessionReader {
         }
     }
 
+    /**
+     * A layer loaded in parallel with the other layers.
+     */
+    private final class PreloadedLayer {
+        private final SessionLayerImporter importer;
+        private final ImportSupport support;
+        private final Future<Layer> layer;
+
+        PreloadedLayer(SessionLayerImporter importer, ImportSupport support, Future<Layer> layer) {
+            this.importer = importer;
+            this.support = support;
+            this.layer = layer;
+        }
+
+        /**
+         * Cancels the loading of the layer, if it is not completed yet. A running load stops at its next read.
+         */
+        void cancel() {
+            support.canceled = true;
+            layer.cancel(true);
+        }
+
+        /**
+         * Waits for the layer to be loaded, and adds its post layers tasks to the session.
+         * @return the loaded layer
+         * @throws IOException if any I/O error occurs
+         * @throws IllegalDataException if invalid data is read
+         */
+        Layer get() throws IOException, IllegalDataException {
+            try {
+                return layer.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof IllegalDataException) {
+                    throw (IllegalDataException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new JosmRuntimeException(cause);
+            } finally {
+                postLoadTasks.addAll(support.deferredPostLayersTasks);
+            }
+        }
+    }
+
+    /**
+     * Starts loading the layers without dependencies in parallel, if their importer supports it.
+     * @param sorted the layer indexes, sorted by dependencies
+     * @param elems the layer elements by index
+     * @param deps the layer dependencies by index
+     * @param progressMonitor progress monitor
+     * @return the layers being loaded by index
+     */
+    private Map<Integer, PreloadedLayer> preloadLayers(List<Integer> sorted, Map<Integer, Element> elems,
+            MultiMap<Integer, Integer> deps, ProgressMonitor progressMonitor) {
+        Map<Integer, SessionLayerImporter> importers = new TreeMap<>();
+        for (int idx : sorted) {
+            Element e = elems.get(idx);
+            if (e != null && e.hasAttribute("name") && deps.get(idx).isEmpty()) {
+                SessionLayerImporter imp = getSessionLayerImporter(e.getAttribute("type"));
+                if (imp != null && imp.isParallelLoadingSupported()) {
+                    importers.put(idx, imp);
+                }
+            }
+        }
+        if (importers.size() < 2) {
+            return Collections.emptyMap();
+        }
+        DocumentBuilder builder;
+        try {
+            builder = XmlUtils.newSafeDOMBuilder();
+        } catch (ParserConfigurationException e) {
+            Logging.warn(e);
+            return Collections.emptyMap();
+        }
+        Map<Integer, PreloadedLayer> preloaded = new HashMap<>();
+        for (Entry<Integer, SessionLayerImporter> entry : importers.entrySet()) {
+            int idx = entry.getKey();
+            SessionLayerImporter imp = entry.getValue();
+            Element e = elems.get(idx);
+            // The DOM is not thread-safe, each layer is loaded from a copy of its element in its own document
+            Document layerDoc = builder.newDocument();
+            Element layerEl = (Element) layerDoc.importNode(e, true);
+            layerDoc.appendChild(layerEl);
+            ImportSupport support = new ImportSupport(e.getAttribute("name"), idx, Collections.emptyList());
+            support.deferredPostLayersTasks = new ArrayList<>();
+            ProgressMonitor monitor = progressMonitor.createSubTaskMonitor(1, false);
+            preloaded.put(idx, new PreloadedLayer(imp, support, LOADER.submit(() -> imp.load(layerEl, support, monitor))));
+        }
+        return preloaded;
+    }
+
     private static void error(String msg) throws IllegalDataException {
         throw new IllegalDataException(msg);
     }
@@ -549,9 +691,30 @@ public class SessionReader {
 
         List<Integer> sorted = Utils.topologicalSort(deps);
         final Map<Integer, Layer> layersMap = new TreeMap<>(Collections.reverseOrder());
-        final Map<Integer, SessionLayerImporter> importers = new HashMap<>();
 
         progressMonitor.setTicksCount(sorted.size());
+        final Map<Integer, PreloadedLayer> preloaded = preloadLayers(sorted, elems, deps, progressMonitor);
+        try {
+            loadLayers(sorted, elems, deps, preloaded, layersMap, progressMonitor);
+        } finally {
+            preloaded.values().forEach(PreloadedLayer::cancel);
+        }
+        if (progressMonitor.isCanceled())
+            return;
+
+        layers = new ArrayList<>();
+        for (Entry<Integer, Layer> entry : layersMap.entrySet()) {
+            Layer layer = entry.getValue();
+            if (layer != null) {
+                layers.add(layer);
+            }
+        }
+    }
+
+    private void loadLayers(List<Integer> sorted, Map<Integer, Element> elems, MultiMap<Integer, Integer> deps,
+            Map<Integer, PreloadedLayer> preloaded, Map<Integer, Layer> layersMap, ProgressMonitor progressMonitor)
+            throws IllegalDataException {
+        final Map<Integer, SessionLayerImporter> importers = new HashMap<>();
         LAYER: for (int idx: sorted) {
             Element e = elems.get(idx);
             if (e == null) {
@@ -567,7 +730,8 @@ public class SessionReader {
                 return;
             }
             String type = e.getAttribute("type");
-            SessionLayerImporter imp = getSessionLayerImporter(type);
+            PreloadedLayer preload = preloaded.get(idx);
+            SessionLayerImporter imp = preload != null ? preload.importer : getSessionLayerImporter(type);
             if (imp == null && !GraphicsEnvironment.isHeadless()) {
                 CancelOrContinueDialog dialog = new CancelOrContinueDialog();
                 dialog.show(
@@ -602,11 +766,11 @@ public class SessionReader {
                     }
                     depsImp.add(new LayerDependency(d, layersMap.get(d), dImp));
                 }
-                ImportSupport support = new ImportSupport(name, idx, depsImp);
+                ImportSupport support = preload != null ? preload.support : new ImportSupport(name, idx, depsImp);
                 Layer layer = null;
                 Exception exception = null;
                 try {
-                    layer = imp.load(e, support, progressMonitor.createSubTaskMonitor(1, false));
+                    layer = preload != null ? preload.get() : imp.load(e, support, progressMonitor.createSubTaskMonitor(1, false));
                     if (layer == null) {
                         throw new IllegalStateException("Importer " + imp + " returned null for " + support);
                     }
@@ -651,15 +815,6 @@ public class SessionReader {
                 return;
             progressMonitor.worked(1);
         }
-
-
-        layers = new ArrayList<>();
-        for (Entry<Integer, Layer> entry : layersMap.entrySet()) {
-            Layer layer = entry.getValue();
-            if (layer != null) {
-                layers.add(layer);
-            }
-        }
     }
 
     private static void setLayerAttributes(Layer layer, Element e) {
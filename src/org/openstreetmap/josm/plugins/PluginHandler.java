@@ -36,6 +36,7 @@ import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -81,6 +82,7 @@ import org.openstreetmap.josm.tools.Logging;
 import org.openstreetmap.josm.tools.OpenBrowser;
 import org.openstreetmap.josm.tools.PlatformManager;
 import org.openstreetmap.josm.tools.ResourceProvider;
+import org.openstreetmap.josm.tools.Stopwatch;
 import org.openstreetmap.josm.tools.SubclassFilteredCollection;
 import org.openstreetmap.josm.tools.Utils;
 
@@ -920,17 +922,82 @@ public final class PluginHandler {
 
             extendJoinedPluginResourceCL(toLoad);
             ResourceProvider.addAdditionalClassLoaders(getResourceClassLoaders());
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            Map<String, Long> classLoadingTimes = Config.getPref().getBoolean("plugins.load.parallel", true)
+                    ? preloadPluginClasses(toLoad) : Collections.emptyMap();
             monitor.setTicksCount(toLoad.size());
             for (PluginInformation info : toLoad) {
                 monitor.setExtraText(tr("Loading plugin ''{0}''...", info.name));
+                Stopwatch pluginStopwatch = Stopwatch.createStarted();
                 loadPlugin(parent, info, classLoaders.get(info.name));
+                Logging.debug("Plugin {0}: main class loaded in {1} ms, initialized in {2} ms",
+                        info.name, classLoadingTimes.getOrDefault(info.name, 0L), pluginStopwatch.elapsed());
                 monitor.worked(1);
             }
+            Logging.info(stopwatch.toString(trn("Loading {0} plugin", "Loading {0} plugins", toLoad.size(), toLoad.size())));
         } finally {
             monitor.finishTask();
         }
     }
 
+    /**
+     * Loads the main classes of the plugins concurrently, without initializing them. The plugins are loaded in waves,
+     * each plugin after the plugins it depends on, so that independent plugins read their jar files and define their
+     * classes at the same time. The classes are initialized and the plugins instantiated afterwards, in their order.
+     * @param toLoad The plugins, with their class loaders
+     * @return the time spent to load the main class of each plugin, in milliseconds
+     */
+    private static Map<String, Long> preloadPluginClasses(List<PluginInformation> toLoad) {
+        Map<PluginInformation, Integer> waves = new HashMap<>();
+        for (PluginInformation info : toLoad) {
+            getLoadingWave(info, toLoad, waves, new HashSet<>());
+        }
+        Map<String, Long> times = new ConcurrentHashMap<>();
+        waves.entrySet().stream()
+                .collect(Collectors.groupingBy(Entry::getValue, TreeMap::new, Collectors.mapping(Entry::getKey, Collectors.toList())))
+                .values()
+                .forEach(wave -> wave.parallelStream().filter(info -> info.className != null).forEach(info -> {
+                    Stopwatch stopwatch = Stopwatch.createStarted();
+                    try {
+                        Class.forName(info.className, false, classLoaders.get(info.name));
+                    } catch (ClassNotFoundException | LinkageError e) {
+                        // reported when the plugin is loaded
+                        Logging.trace(e);
+                    }
+                    times.put(info.name, stopwatch.elapsed());
+                }));
+        return times;
+    }
+
+    /**
+     * Returns the wave in which the given plugin can be loaded, {@code 0} if it does not depend on another plugin to load.
+     * @param info The plugin
+     * @param toLoad The plugins to load
+     * @param waves The waves computed so far
+     * @param visiting The plugins whose wave is being computed, to break dependency cycles
+     * @return the wave of the plugin
+     */
+    static int getLoadingWave(PluginInformation info, List<PluginInformation> toLoad,
+            Map<PluginInformation, Integer> waves, Set<PluginInformation> visiting) {
+        Integer wave = waves.get(info);
+        if (wave != null) {
+            return wave;
+        } else if (!visiting.add(info)) {
+            return 0;
+        }
+        int result = 0;
+        for (String depName : info.getLocalRequiredPlugins()) {
+            for (PluginInformation depInfo : toLoad) {
+                if (depInfo != info && isDependency(depInfo, depName)) {
+                    result = Math.max(result, getLoadingWave(depInfo, toLoad, waves, visiting) + 1);
+                }
+            }
+        }
+        visiting.remove(info);
+        waves.put(info, result);
+        return result;
+    }
+
     /**
      * Generate classloaders for a list of plugins
      * @param toLoad The plugins to generate the classloaders for
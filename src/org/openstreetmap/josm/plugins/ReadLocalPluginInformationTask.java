@@ -13,8 +13,10 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import org.openstreetmap.josm.data.Preferences;
 import org.openstreetmap.josm.gui.PleaseWaitRunnable;
@@ -40,6 +42,8 @@ import org.xml.sax.SAXException;
  */
 public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
     private final Map<String, PluginInformation> availablePlugins;
+    /** Plugin information read concurrently in advance by {@link #scanPluginFiles}, by jar file */
+    private final Map<File, PluginInformation> prereadPlugins = new ConcurrentHashMap<>();
     private boolean canceled;
 
     /**
@@ -70,10 +74,10 @@ public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
     }
 
     protected void processJarFile(File f, String pluginName) throws PluginException {
-        PluginInformation info = new PluginInformation(
-                f,
-                pluginName
-        );
+        PluginInformation info = prereadPlugins.remove(f);
+        if (info == null) {
+            info = new PluginInformation(f, pluginName);
+        }
         if (!availablePlugins.containsKey(info.getName())) {
             info.updateLocalInfo(info);
             availablePlugins.put(info.getName(), info);
@@ -83,6 +87,15 @@ public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
         }
     }
 
+    private static String getPluginName(String fname) {
+        if (fname.endsWith(".jar")) {
+            return fname.substring(0, fname.length() - 4);
+        } else if (fname.endsWith(".jar.new")) {
+            return fname.substring(0, fname.length() - 8);
+        }
+        return null;
+    }
+
     private static File[] listFiles(File pluginsDirectory, final String regex) {
         final Matcher matcher = Pattern.compile(regex).matcher("");
         return pluginsDirectory.listFiles((dir, name) -> matcher.reset(name).matches());
@@ -115,22 +128,29 @@ public class ReadLocalPluginInformationTask extends PleaseWaitRunnable {
             return;
         monitor.subTask(tr("Processing plugin files..."));
         monitor.setTicksCount(pluginFiles.length);
-        for (File f: pluginFiles) {
-            String fname = f.getName();
-            monitor.setCustomText(tr("Processing file ''{0}''", fname));
+        // the manifests are read concurrently, and processed in the order of the files
+        IntStream.range(0, pluginFiles.length).parallel().forEach(i -> {
             try {
-                if (fname.endsWith(".jar")) {
-                    String pluginName = fname.substring(0, fname.length() - 4);
-                    processJarFile(f, pluginName);
-                } else if (fname.endsWith(".jar.new")) {
-                    String pluginName = fname.substring(0, fname.length() - 8);
-                    processJarFile(f, pluginName);
-                }
+                prereadPlugins.put(pluginFiles[i], new PluginInformation(pluginFiles[i], getPluginName(pluginFiles[i].getName())));
             } catch (PluginException e) {
-                Logging.log(Logging.LEVEL_WARN, "PluginException: ", e);
-                Logging.warn(tr("Failed to scan file ''{0}'' for plugin information. Skipping.", fname));
+                // reported by processJarFile
+                Logging.trace(e);
             }
-            monitor.worked(1);
+        });
+        try {
+            for (File f : pluginFiles) {
+                String fname = f.getName();
+                monitor.setCustomText(tr("Processing file ''{0}''", fname));
+                try {
+                    processJarFile(f, getPluginName(fname));
+                } catch (PluginException e) {
+                    Logging.log(Logging.LEVEL_WARN, "PluginException: ", e);
+                    Logging.warn(tr("Failed to scan file ''{0}'' for plugin information. Skipping.", fname));
+                }
+                monitor.worked(1);
+            }
+        } finally {
+            prereadPlugins.clear();
         }
     }
 
@@ -1,17 +1,27 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.spi.lifecycle;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 
+import org.openstreetmap.josm.tools.Stopwatch;
+
 /**
  * Initialization task notifying the current lifecycle {@link InitStatusListener}.
+ * <p>
+ * A task can depend on other tasks. When run in parallel by {@link Lifecycle#initialize}, it is only started
+ * once its dependencies are completed.
  * @since 14125
  */
 public final class InitializationTask implements Callable<Void> {
 
     private final String name;
     private final Runnable task;
+    private final List<InitializationTask> dependencies;
+    private volatile long elapsed = -1;
 
     /**
      * Constructs a new {@code InitializationTask}.
@@ -19,8 +29,43 @@ public final class InitializationTask implements Callable<Void> {
      * @param task runnable initialization task
      */
     public InitializationTask(String name, Runnable task) {
+        this(name, task, new InitializationTask[0]);
+    }
+
+    /**
+     * Constructs a new {@code InitializationTask} depending on other tasks.
+     * @param name translated name to be displayed to user
+     * @param task runnable initialization task
+     * @param dependencies the tasks that must be completed before this task is run
+     */
+    public InitializationTask(String name, Runnable task, InitializationTask... dependencies) {
         this.name = Objects.requireNonNull(name);
         this.task = Objects.requireNonNull(task);
+        this.dependencies = Collections.unmodifiableList(Arrays.asList(dependencies.clone()));
+    }
+
+    /**
+     * Returns the translated name of this task.
+     * @return the translated name of this task
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the tasks that must be completed before this task is run.
+     * @return the tasks that must be completed before this task is run
+     */
+    public List<InitializationTask> getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Returns the duration of the last run of this task.
+     * @return the duration in milliseconds, or {@code -1} if the task has not been completed yet
+     */
+    long getElapsed() {
+        return elapsed;
     }
 
     @Override
@@ -30,10 +75,17 @@ public final class InitializationTask implements Callable<Void> {
         if (initListener != null) {
             status = initListener.updateStatus(name);
         }
+        Stopwatch stopwatch = Stopwatch.createStarted();
         task.run();
+        elapsed = stopwatch.elapsed();
         if (initListener != null) {
             initListener.finish(status);
         }
         return null;
     }
+
+    @Override
+    public String toString() {
+        return name;
+    }
 }
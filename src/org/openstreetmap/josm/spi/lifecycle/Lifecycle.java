@@ -1,15 +1,24 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.spi.lifecycle;
 
+import static org.openstreetmap.josm.tools.I18n.tr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.openstreetmap.josm.tools.JosmRuntimeException;
 import org.openstreetmap.josm.tools.Logging;
+import org.openstreetmap.josm.tools.Stopwatch;
 import org.openstreetmap.josm.tools.Utils;
 import org.openstreetmap.josm.tools.bugreport.BugReport;
 
@@ -63,22 +72,32 @@ public final class Lifecycle {
 
     /**
      * Initializes the main object. A lot of global variables are initialized here.
+     * <p>
+     * The parallel tasks are started as soon as their {@linkplain InitializationTask#getDependencies() dependencies}
+     * are completed. The duration of each task is logged once the initialization is done.
      * @param initSequence Initialization sequence
      * @since 14139
      */
     // PMD wasn't detecting that we were trying to shutdown the ExecutorService
     @SuppressWarnings("PMD.CloseResource")
     public static void initialize(InitializationSequence initSequence) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<InitializationTask> tasks = new ArrayList<>();
+
         // Initializes tasks that must be run before parallel tasks
-        runInitializationTasks(initSequence.beforeInitializationTasks());
+        tasks.addAll(runInitializationTasks(initSequence.beforeInitializationTasks()));
 
         // Initializes tasks to be executed (in parallel) by a ExecutorService
         try {
             ExecutorService service = Executors.newFixedThreadPool(
                     Runtime.getRuntime().availableProcessors(), Utils.newThreadFactory("main-init-%d", Thread.NORM_PRIORITY));
-            for (Future<Void> i : service.invokeAll(initSequence.parallelInitializationTasks())) {
-                i.get();
+            Collection<InitializationTask> parallelTasks = initSequence.parallelInitializationTasks();
+            Map<InitializationTask, CompletableFuture<Void>> futures = new LinkedHashMap<>();
+            for (InitializationTask task : parallelTasks) {
+                schedule(task, parallelTasks, futures, service);
             }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).get();
+            tasks.addAll(parallelTasks);
             // asynchronous initializations to be completed eventually
             initSequence.asynchronousRunnableTasks().forEach(x -> {
                 if (x != null) service.submit(x);
@@ -99,10 +118,38 @@ public final class Lifecycle {
         }
 
         // Initializes tasks that must be run after parallel tasks
-        runInitializationTasks(initSequence.afterInitializationTasks());
+        tasks.addAll(runInitializationTasks(initSequence.afterInitializationTasks()));
+
+        logTimings(tasks, stopwatch);
     }
 
-    private static void runInitializationTasks(List<InitializationTask> tasks) {
+    /**
+     * Schedules a parallel task to be run once its dependencies are completed.
+     * Dependencies which are not part of the parallel tasks are considered as already completed.
+     * @param task the task to schedule
+     * @param parallelTasks all parallel tasks
+     * @param futures the futures of the tasks already scheduled
+     * @param executor the executor running the tasks
+     * @return the future completed when the task is completed
+     */
+    static CompletableFuture<Void> schedule(InitializationTask task, Collection<InitializationTask> parallelTasks,
+            Map<InitializationTask, CompletableFuture<Void>> futures, Executor executor) {
+        CompletableFuture<Void> future = futures.get(task);
+        if (future != null) {
+            return future;
+        } else if (!parallelTasks.contains(task)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        // No cycle is possible since the dependencies of a task are created before the task itself
+        CompletableFuture<?>[] dependencies = task.getDependencies().stream()
+                .map(dependency -> schedule(dependency, parallelTasks, futures, executor))
+                .toArray(CompletableFuture<?>[]::new);
+        future = CompletableFuture.allOf(dependencies).thenRunAsync(task::call, executor);
+        futures.put(task, future);
+        return future;
+    }
+
+    private static List<InitializationTask> runInitializationTasks(List<InitializationTask> tasks) {
         for (InitializationTask task : tasks) {
             try {
                 task.call();
@@ -112,6 +159,17 @@ public final class Lifecycle {
                 BugReport.intercept(e).warn();
             }
         }
+        return tasks;
+    }
+
+    private static void logTimings(List<InitializationTask> tasks, Stopwatch stopwatch) {
+        if (Logging.isDebugEnabled()) {
+            tasks.stream()
+                    .filter(task -> task.getElapsed() >= 0)
+                    .sorted(Comparator.comparingLong(InitializationTask::getElapsed).reversed())
+                    .forEach(task -> Logging.debug(tr("{0} completed in {1}", task.getName(), Utils.getDurationString(task.getElapsed()))));
+        }
+        Logging.info(stopwatch.toString(tr("Initialization")));
     }
 
     /**
@@ -61,13 +61,13 @@ public final class Http1Client extends HttpClient {
 
         if (requiresBody()) {
             logRequestBody();
-            byte[] body = getRequestBody();
-            connection.setFixedLengthStreamingMode(body.length);
+            long length = getRequestBodyLength();
+            connection.setFixedLengthStreamingMode(length);
             connection.setDoOutput(true);
             try (OutputStream out = new BufferedOutputStream(
-                    new ProgressOutputStream(connection.getOutputStream(), body.length,
+                    new ProgressOutputStream(connection.getOutputStream(), length,
                             progressMonitor, getOutputMessage(), isFinishOnCloseOutput()))) {
-                out.write(body);
+                writeRequestBody(out);
             }
         }
     }
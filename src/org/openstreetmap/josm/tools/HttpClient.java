@@ -4,8 +4,11 @@ package org.openstreetmap.josm.tools;
 import static org.openstreetmap.josm.tools.I18n.tr;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.CookieHandler;
 import java.net.CookieManager;
 import java.net.CookiePolicy;
@@ -57,11 +60,28 @@ public abstract class HttpClient {
         HttpClient create(URL url, String requestMethod);
     }
 
+    /**
+     * Writes a request body into the connection, so that large bodies do not have to be held in memory.
+     * @see #setRequestBody(long, RequestBodyWriter)
+     */
+    @FunctionalInterface
+    public interface RequestBodyWriter {
+        /**
+         * Writes the request body. This may be called several times for one request, e.g. when the request is redirected,
+         * and has to write the same bytes each time.
+         * @param out the stream to write to
+         * @throws IOException if any I/O error occurs
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
     private URL url;
     private final String requestMethod;
     private int connectTimeout = (int) TimeUnit.SECONDS.toMillis(Config.getPref().getInt("socket.timeout.connect", 15));
     private int readTimeout = (int) TimeUnit.SECONDS.toMillis(Config.getPref().getInt("socket.timeout.read", 30));
     private byte[] requestBody;
+    private RequestBodyWriter requestBodyWriter;
+    private long requestBodyLength;
     private long ifModifiedSince;
     private final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
     private int maxRedirects = Config.getPref().getInt("socket.maxredirects", 5);
@@ -246,9 +266,9 @@ public abstract class HttpClient {
     }
 
     protected final void logRequestBody() {
-        logRequest("{0} {1} ({2}) ...", requestMethod, url, Utils.getSizeString(requestBody.length, Locale.getDefault()));
+        logRequest("{0} {1} ({2}) ...", requestMethod, url, Utils.getSizeString(getRequestBodyLength(), Locale.getDefault()));
         if (Logging.isTraceEnabled() && hasRequestBody()) {
-            Logging.trace("BODY: {0}", new String(requestBody, StandardCharsets.UTF_8));
+            Logging.trace("BODY: {0}", new String(getRequestBody(), StandardCharsets.UTF_8));
         }
     }
 
@@ -582,16 +602,50 @@ public abstract class HttpClient {
      * @since 15229
      */
     public final byte[] getRequestBody() {
+        if (requestBodyWriter != null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                requestBodyWriter.writeTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
         return Utils.copyArray(requestBody);
     }
 
+    /**
+     * Returns the length of the request body set for this connection.
+     * @return the length of the HTTP request body in bytes, 0 if there is none
+     */
+    public final long getRequestBodyLength() {
+        if (requestBodyWriter != null) {
+            return requestBodyLength;
+        }
+        return requestBody != null ? requestBody.length : 0;
+    }
+
+    /**
+     * Writes the request body set for this connection, without holding it in memory if it has been set with
+     * {@link #setRequestBody(long, RequestBodyWriter)}.
+     * @param out the stream to write to
+     * @throws IOException if any I/O error occurs
+     */
+    protected final void writeRequestBody(OutputStream out) throws IOException {
+        if (requestBodyWriter != null) {
+            requestBodyWriter.writeTo(out);
+        } else if (requestBody != null) {
+            out.write(requestBody);
+        }
+    }
+
     /**
      * Determines if a non-empty request body has been set for this connection.
      * @return {@code true} if the request body is set and non-empty
      * @since 15229
      */
     public final boolean hasRequestBody() {
-        return requestBody != null && requestBody.length > 0;
+        return getRequestBodyLength() > 0;
     }
 
     /**
@@ -765,6 +819,21 @@ public abstract class HttpClient {
      */
     public final HttpClient setRequestBody(byte[] requestBody) {
         this.requestBody = Utils.copyArray(requestBody);
+        this.requestBodyWriter = null;
+        return this;
+    }
+
+    /**
+     * Sets the request body for {@code PUT}/{@code POST} requests, which is written into the connection when it is sent.
+     * @param length the length of the request body in bytes, as written by {@code writer}
+     * @param writer writes the request body
+     *
+     * @return {@code this}
+     */
+    public final HttpClient setRequestBody(long length, RequestBodyWriter writer) {
+        this.requestBody = null;
+        this.requestBodyWriter = Objects.requireNonNull(writer);
+        this.requestBodyLength = length;
         return this;
     }
 
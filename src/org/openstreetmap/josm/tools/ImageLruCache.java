@@ -0,0 +1,87 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * LRU cache (least recently used) of images, bounded by the size of their pixel data.
+ * <p>
+ * The least recently used images are removed when the cache exceeds its maximum size. Images larger than the
+ * maximum size are not cached at all. This class is not thread-safe, callers have to synchronize the access.
+ * @param <K> the type of keys maintained by this cache
+ */
+public final class ImageLruCache<K> {
+
+    private final Map<K, BufferedImage> images;
+    private final LongSupplier maxSize;
+    private long size;
+
+    /**
+     * Constructs an empty {@code ImageLruCache}.
+     * @param initialCapacity the initial capacity of the underlying map
+     * @param maxSize supplies the maximum size of the cached images in bytes, it is queried whenever an image is added
+     */
+    public ImageLruCache(int initialCapacity, LongSupplier maxSize) {
+        this.images = new LinkedHashMap<>(initialCapacity, 0.75f, true);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns a cached image, and marks it as recently used.
+     * @param key the key
+     * @return the cached image, or {@code null}
+     */
+    public BufferedImage get(K key) {
+        return images.get(key);
+    }
+
+    /**
+     * Adds an image to the cache, and removes the least recently used images if the cache exceeds its maximum size.
+     * @param key the key
+     * @param image the image
+     */
+    public void put(K key, BufferedImage image) {
+        long max = maxSize.getAsLong();
+        long imageSize = getSize(image);
+        if (imageSize > max) {
+            return;
+        }
+        BufferedImage old = images.put(key, image);
+        size += imageSize - (old != null ? getSize(old) : 0);
+        for (Iterator<BufferedImage> it = images.values().iterator(); size > max && it.hasNext();) {
+            size -= getSize(it.next());
+            it.remove();
+        }
+    }
+
+    /**
+     * Returns the size of the cached images.
+     * @return the size in bytes
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    public void clear() {
+        images.clear();
+        size = 0;
+    }
+
+    /**
+     * Returns the size of the pixel data of an image.
+     * @param image the image
+     * @return the size in bytes
+     */
+    public static long getSize(BufferedImage image) {
+        DataBuffer buffer = image.getRaster().getDataBuffer();
+        return (long) buffer.getSize() * buffer.getNumBanks() * DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+    }
+}
@@ -843,6 +843,7 @@ public class ImageProvider {
      */
     public static void clearCache() {
         cache.clear();
+        ScaledImageCache.clear();
         synchronized (osmPrimitiveTypeCache) {
             osmPrimitiveTypeCache.clear();
         }
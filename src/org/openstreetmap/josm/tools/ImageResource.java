@@ -5,8 +5,6 @@ import java.awt.Dimension;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -29,10 +27,6 @@ import com.kitfox.svg.SVGDiagram;
  */
 public class ImageResource {
 
-    /**
-     * Caches the image data for resized versions of the same image. The key is obtained using {@link ImageResizeMode#cacheKey(Dimension)}.
-     */
-    private final Map<Integer, BufferedImage> imgCache = new ConcurrentHashMap<>(4);
     /**
      * SVG diagram information in case of SVG vector image.
      */
@@ -188,7 +182,8 @@ public class ImageResource {
             resizeMode = ImageResizeMode.BOUNDED;
         }
         final int cacheKey = resizeMode.cacheKey(dim);
-        BufferedImage img = imgCache.get(cacheKey);
+        // the resized versions of the same image are cached in ScaledImageCache
+        BufferedImage img = ScaledImageCache.get(this, cacheKey, highResolution);
         if (img == null) {
             if (svg != null) {
                 img = ImageProvider.createImageFromSvg(svg, dim, resizeMode);
@@ -221,7 +216,7 @@ public class ImageResource {
                 img = new BufferedImage(img.getWidth(), img.getHeight(), BufferedImage.TYPE_4BYTE_ABGR);
                 disabledIcon.paintIcon(new JPanel(), img.getGraphics(), 0, 0);
             }
-            imgCache.put(cacheKey, img);
+            ScaledImageCache.put(this, cacheKey, highResolution, img);
         }
 
         if (!multiResolution || svg == null)
@@ -0,0 +1,96 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import java.awt.image.BufferedImage;
+
+import org.openstreetmap.josm.spi.preferences.Config;
+
+/**
+ * Cache of the images rendered by the {@link ImageResource}s at a given size.
+ * <p>
+ * The images of all resources share one byte budget, the least recently used images are removed when the cache exceeds it.
+ * Images are stored by pixel size, so that the variants of an icon rendered for HiDPI screens are cached separately.
+ */
+final class ScaledImageCache {
+
+    private static final ImageLruCache<Key> images = new ImageLruCache<>(256, ScaledImageCache::getMaxSize);
+
+    private ScaledImageCache() {
+        // Hide default constructor for utilities classes
+    }
+
+    /**
+     * Identifies a rendered image.
+     */
+    private static final class Key {
+        private final ImageResource resource;
+        private final int cacheKey;
+        private final boolean highResolution;
+
+        Key(ImageResource resource, int cacheKey, boolean highResolution) {
+            this.resource = resource;
+            this.cacheKey = cacheKey;
+            this.highResolution = highResolution;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(resource) + cacheKey) + Boolean.hashCode(highResolution);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (obj == null || getClass() != obj.getClass())
+                return false;
+            Key other = (Key) obj;
+            return resource == other.resource && cacheKey == other.cacheKey && highResolution == other.highResolution;
+        }
+    }
+
+    /**
+     * Returns the maximum size of the cached images.
+     * @return the maximum size in bytes
+     */
+    static long getMaxSize() {
+        return Config.getPref().getInt("image.cache.size", 64) * 1024L * 1024L;
+    }
+
+    /**
+     * Returns a cached image.
+     * @param resource the image resource
+     * @param cacheKey the size and resize mode, see {@link ImageResizeMode#cacheKey}
+     * @param highResolution whether the image is the high resolution variant
+     * @return the cached image, or {@code null}
+     */
+    static synchronized BufferedImage get(ImageResource resource, int cacheKey, boolean highResolution) {
+        return images.get(new Key(resource, cacheKey, highResolution));
+    }
+
+    /**
+     * Adds an image to the cache, and removes the least recently used images if the cache exceeds its size.
+     * @param resource the image resource
+     * @param cacheKey the size and resize mode, see {@link ImageResizeMode#cacheKey}
+     * @param highResolution whether the image is the high resolution variant
+     * @param image the image
+     */
+    static synchronized void put(ImageResource resource, int cacheKey, boolean highResolution, BufferedImage image) {
+        images.put(new Key(resource, cacheKey, highResolution), image);
+    }
+
+    /**
+     * Returns the size of the cached images.
+     * @return the size in bytes
+     */
+    static synchronized long size() {
+        return images.size();
+    }
+
+    /**
+     * Removes all images from the cache.
+     */
+    static synchronized void clear() {
+        images.clear();
+    }
+}
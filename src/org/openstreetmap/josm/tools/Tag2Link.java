@@ -55,6 +55,8 @@ public final class Tag2Link {
      */
     static final MultiMap<String, String> wikidataRules = new MultiMap<>();
 
+    private static boolean initialized;
+
     static final Map<String, UnaryOperator<String>> valueFormatter = Collections.singletonMap(
             "ref:bag", v -> String.format("%16s", v).replace(' ', '0')
     );
@@ -91,7 +93,8 @@ public final class Tag2Link {
     /**
      * Initializes the tag2link rules
      */
-    public static void initialize() {
+    public static synchronized void initialize() {
+        initialized = true;
         try {
             wikidataRules.clear();
             for (String source : PREF_SOURCE.get()) {
@@ -103,6 +106,16 @@ public final class Tag2Link {
         }
     }
 
+    /**
+     * Initializes the tag2link rules, unless they have already been initialized.
+     * The rules are loaded on first use if they were not loaded at startup.
+     */
+    public static synchronized void ensureInitialized() {
+        if (!initialized) {
+            initialize();
+        }
+    }
+
     /**
      * Initializes the tag2link rules from the resources.
      *
@@ -210,6 +223,7 @@ public final class Tag2Link {
                     tr("View category on Wikimedia Commons"), getWikimediaCommonsUrl(i), imageResource.get()));
         }
 
+        ensureInitialized();
         final Set<String> formatterUrls = wikidataRules.getValues(key);
         if (!formatterUrls.isEmpty()) {
             final String formattedValue = valueFormatter.getOrDefault(key, x -> x).apply(value);
@@ -6,6 +6,8 @@ import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.time.DateTimeException;
 import java.time.Instant;
+import java.time.Month;
+import java.time.Year;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
@@ -78,6 +80,10 @@ public final class DateUtils {
      * @throws UncheckedParseException if the date does not match any of the supported date formats
      */
     public static Instant parseInstant(String str) {
+        final Instant iso = parseIsoInstant(str);
+        if (iso != null) {
+            return iso;
+        }
         // "2007-07-25T09:26:24{Z|{+|-}01[:00]}"
         try {
             if (checkLayout(str, "xxxx-xx-xx") ||
@@ -211,6 +217,106 @@ public final class DateUtils {
         return d != null ? (Date) d.clone() : null;
     }
 
+    /**
+     * Parses the XML schema date format used in GPX and OSM files ("2007-07-25T09:26:24.123Z") directly into the
+     * number of seconds since the epoch. The fraction of seconds and the time zone offset are optional; the fraction
+     * may have one to nine digits if an offset is given.
+     * @param str the date string
+     * @return the parsed instant, or {@code null} if the string does not use this format or is not a valid date
+     */
+    private static Instant parseIsoInstant(String str) {
+        final int len = str.length();
+        if (len < 19 || str.charAt(4) != '-' || str.charAt(7) != '-' || str.charAt(10) != 'T'
+                || str.charAt(13) != ':' || str.charAt(16) != ':'
+                || !isAsciiDigits(str, 0, 4) || !isAsciiDigits(str, 5, 7) || !isAsciiDigits(str, 8, 10)
+                || !isAsciiDigits(str, 11, 13) || !isAsciiDigits(str, 14, 16) || !isAsciiDigits(str, 17, 19)) {
+            return null;
+        }
+        int pos = 19;
+        int nanos = 0;
+        int fractionDigits = 0;
+        if (pos < len && str.charAt(pos) == '.') {
+            pos++;
+            while (pos < len && isAsciiDigit(str.charAt(pos))) {
+                if (++fractionDigits > 9) {
+                    return null;
+                }
+                nanos = 10 * nanos + num(str.charAt(pos++));
+            }
+            if (fractionDigits == 0) {
+                return null;
+            }
+            for (int i = fractionDigits; i < 9; i++) {
+                nanos *= 10;
+            }
+        }
+        int offsetSeconds = 0;
+        if (pos == len) {
+            if (fractionDigits != 0 && fractionDigits != 3) {
+                return null;
+            }
+        } else if (str.charAt(pos) == 'Z' && pos + 1 == len) {
+            pos++;
+        } else if (str.charAt(pos) == '+' || str.charAt(pos) == '-') {
+            final boolean hoursOnly = pos + 3 == len && fractionDigits == 0;
+            if (!(hoursOnly || (pos + 6 == len && str.charAt(pos + 3) == ':'))
+                    || !isAsciiDigits(str, pos + 1, pos + 3) || (!hoursOnly && !isAsciiDigits(str, pos + 4, pos + 6))) {
+                return null;
+            }
+            final int hours = parsePart2(str, pos + 1);
+            final int minutes = hoursOnly ? 0 : parsePart2(str, pos + 4);
+            if (hours > 18 || minutes > 59) {
+                return null;
+            }
+            offsetSeconds = (str.charAt(pos) == '+' ? 1 : -1) * (hours * 3600 + minutes * 60);
+        } else {
+            return null;
+        }
+        final int year = parsePart4(str, 0);
+        final int month = parsePart2(str, 5);
+        final int day = parsePart2(str, 8);
+        final int hour = parsePart2(str, 11);
+        final int minute = parsePart2(str, 14);
+        final int second = parsePart2(str, 17);
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+        final long epochSecond = TimeUnit.DAYS.toSeconds(toEpochDay(year, month, day))
+                + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return Instant.ofEpochSecond(epochSecond, nanos);
+    }
+
+    /**
+     * Returns the number of days since 1970-01-01 of a date of the proleptic Gregorian calendar.
+     * @param year the year, not negative
+     * @param month the month, from 1 to 12
+     * @param day the day of month
+     * @return the epoch day
+     */
+    private static long toEpochDay(int year, int month, int day) {
+        // years starting in March, so that the leap day is the last day of the year
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = Math.floorDiv(y, 400);
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468;
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiDigits(String str, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (!isAsciiDigit(str.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Check text for a specified layout
      * @param text The text to check
@@ -2,8 +2,23 @@
 package org.openstreetmap.josm.data;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.xml.stream.XMLStreamException;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openstreetmap.josm.spi.preferences.IBaseDirectories;
+import org.openstreetmap.josm.spi.preferences.Setting;
+import org.openstreetmap.josm.spi.preferences.StringSetting;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
 import org.openstreetmap.josm.testutils.annotations.OsmApi;
 
@@ -25,4 +40,55 @@ class PreferencesTest {
             "</preferences>%n", Version.getInstance().getVersion()),
                 Preferences.main().toXML(true));
     }
+
+    /**
+     * Test that changes are saved in the background and by {@link Preferences#flush}.
+     * @param dir temporary directory
+     * @throws IOException if the preferences file cannot be read
+     * @throws XMLStreamException if the preferences file is not valid
+     */
+    @Test
+    void testSaveOnPut(@TempDir Path dir) throws IOException, XMLStreamException {
+        Preferences pref = new Preferences(new IBaseDirectories() {
+            @Override
+            public File getPreferencesDirectory(boolean createIfMissing) {
+                return dir.toFile();
+            }
+
+            @Override
+            public File getUserDataDirectory(boolean createIfMissing) {
+                return dir.toFile();
+            }
+
+            @Override
+            public File getCacheDirectory(boolean createIfMissing) {
+                return dir.toFile();
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            assertTrue(pref.put("test.key" + i, "value" + i));
+        }
+        pref.flush();
+        Preferences saved = new Preferences();
+        saved.fromXML(new StringReader(new String(Files.readAllBytes(pref.getPreferenceFile().toPath()), StandardCharsets.UTF_8)));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, saved.get("test.key" + i));
+        }
+        assertTrue(new File(dir.toFile(), "preferences.xml").isFile());
+    }
+
+    /**
+     * Test that reading a setting only replaces its default when the default has changed.
+     */
+    @Test
+    void testGetSettingDefaults() {
+        Preferences pref = new Preferences();
+        pref.getSetting("test.default", new StringSetting("a"), StringSetting.class);
+        Setting<?> def = pref.getAllDefaults().get("test.default");
+        assertEquals("a", def.getValue());
+        pref.getSetting("test.default", new StringSetting("a"), StringSetting.class);
+        assertSame(def, pref.getAllDefaults().get("test.default"));
+        pref.getSetting("test.default", new StringSetting("b"), StringSetting.class);
+        assertEquals("b", pref.getAllDefaults().get("test.default").getValue());
+    }
 }
@@ -2,10 +2,13 @@
 package org.openstreetmap.josm.data.cache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Map;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -31,6 +34,7 @@ class HostLimitQueueTest {
     static class Task extends JCSCachedTileLoaderJob<String, CacheEntry> {
         private final URL url;
         private final AtomicInteger counter;
+        private Object source;
 
         Task(ICacheAccess<String, CacheEntry> cache, URL url, AtomicInteger counter) {
             super(cache, new TileJobOptions(1, 1, null, 10));
@@ -60,6 +64,11 @@ class HostLimitQueueTest {
             return this.url;
        }
 
+        @Override
+        public Object getSource() {
+            return source;
+        }
+
         @Override
         protected CacheEntry createCacheEntry(byte[] content) {
             return null;
@@ -142,4 +151,118 @@ class HostLimitQueueTest {
         assertTrue(duration < 6*1000 & duration > 4*1000,
                 "Expected duration between 4 and 6 seconds not met. Actual duration: " + (duration /1000));
     }
+
+    /**
+     * Check that regular jobs are preferred over speculative ones, and that speculative jobs are dropped when regular jobs arrive
+     * @throws Exception in case of error
+     */
+    @Test
+    void testSpeculativeJobs() throws Exception {
+        HostLimitQueue queue = new HostLimitQueue(1);
+        ICacheAccess<String, CacheEntry> cache = JCSCacheManager.getCache("testHostLimitQueue", 3, 0, "");
+        AtomicInteger counter = new AtomicInteger(0);
+        Task regular = new Task(cache, new URL("http://localhost/1"), counter);
+        Task speculative = new Task(cache, new URL("http://hostlocal/2"), counter);
+        speculative.setSpeculative(true);
+        queue.offer(regular);
+        queue.offer(speculative);
+        assertEquals(2, queue.size());
+        // regular job is taken first
+        assertSame(regular, queue.poll(1, TimeUnit.SECONDS));
+        assertSame(speculative, queue.poll(1, TimeUnit.SECONDS));
+
+        // speculative jobs in range of the view are kept when regular jobs arrive
+        queue.offer(speculative);
+        queue.offer(new Task(cache, new URL("http://hostlocal/3"), counter));
+        assertEquals(2, queue.size());
+        assertTrue(queue.contains(speculative));
+
+        // only speculative jobs out of view and of the same source are dropped
+        queue.clear();
+        speculative.source = "layer1";
+        speculative.setPriority(HostLimitQueue.OUT_OF_VIEW_PRIORITY);
+        Task other = new Task(cache, new URL("http://hostlocal/4"), counter);
+        other.source = "layer2";
+        other.setSpeculative(true);
+        other.setPriority(HostLimitQueue.OUT_OF_VIEW_PRIORITY);
+        Task near = new Task(cache, new URL("http://hostlocal/6"), counter);
+        near.source = "layer2";
+        near.setSpeculative(true);
+        near.setPriority(2);
+        queue.offer(speculative);
+        queue.offer(other);
+        queue.offer(near);
+        Task regular2 = new Task(cache, new URL("http://hostlocal/5"), counter);
+        regular2.source = "layer2";
+        queue.offer(regular2);
+        assertEquals(3, queue.size());
+        assertTrue(queue.contains(speculative));
+        assertTrue(queue.contains(near));
+        assertEquals(2, queue.cancelSpeculativeJobs());
+    }
+
+    /**
+     * Check that jobs are taken in the order of their priority and that queued jobs can be reprioritized and canceled
+     * @throws Exception in case of error
+     */
+    @Test
+    void testPriority() throws Exception {
+        HostLimitQueue queue = new HostLimitQueue(1);
+        ICacheAccess<String, CacheEntry> cache = JCSCacheManager.getCache("testHostLimitQueue", 3, 0, "");
+        AtomicInteger counter = new AtomicInteger(0);
+        Task far = new Task(cache, new URL("http://host1/far"), counter);
+        Task near = new Task(cache, new URL("http://host2/near"), counter);
+        Task middle = new Task(cache, new URL("http://host3/middle"), counter);
+        far.setPriority(2);
+        near.setPriority(0.5);
+        middle.setPriority(1);
+        queue.offer(far);
+        queue.offer(near);
+        queue.offer(middle);
+        assertSame(near, queue.poll(1, TimeUnit.SECONDS));
+        assertSame(middle, queue.poll(1, TimeUnit.SECONDS));
+
+        // far job becomes the nearest one, middle job is out of view
+        queue.offer(middle);
+        assertEquals(1, queue.reprioritize(job -> job == middle ? Double.NaN : 0));
+        assertEquals(0, far.getPriority());
+        assertEquals(1, queue.size());
+        assertSame(far, queue.poll(1, TimeUnit.SECONDS));
+        assertEquals(0, queue.cancelIf(job -> true));
+    }
+
+    /**
+     * Check per host statistics
+     * @throws Exception in case of error
+     */
+    @Test
+    void testStatistics() throws Exception {
+        HostLimitQueue queue = new HostLimitQueue(2);
+        ICacheAccess<String, CacheEntry> cache = JCSCacheManager.getCache("testHostLimitQueue", 3, 0, "");
+        AtomicInteger counter = new AtomicInteger(0);
+        for (int i = 0; i < 3; i++) {
+            queue.offer(new Task(cache, new URL("http://localhost/" + i), counter));
+        }
+        queue.offer(new Task(cache, new URL("http://hostlocal/1"), counter));
+        assertTrue(queue.getStatistics().isEmpty());
+        // host limit is 2, so the third localhost job stays in the queue
+        for (int i = 0; i < 3; i++) {
+            assertNotNull(queue.poll(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, queue.size());
+
+        Map<String, HostLimitQueue.HostStatistics> stats = queue.getStatistics();
+        assertEquals(2, stats.size());
+        HostLimitQueue.HostStatistics local = stats.get("localhost");
+        assertEquals(1, local.getQueueDepth());
+        assertEquals(2, local.getStartedJobs());
+        assertEquals(0, local.getCanceledJobs());
+        assertTrue(local.getMaxWaitTime() >= local.getAverageWaitTime());
+        assertEquals(1, stats.get("hostlocal").getStartedJobs());
+
+        assertEquals(1, queue.cancelIf(job -> true));
+        local = queue.getStatistics().get("localhost");
+        assertEquals(0, local.getQueueDepth());
+        assertEquals(1, local.getCanceledJobs());
+    }
 }
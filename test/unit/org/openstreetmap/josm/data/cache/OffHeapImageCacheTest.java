@@ -0,0 +1,106 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link OffHeapImageCache} class.
+ */
+class OffHeapImageCacheTest {
+    private static final long MB = 1024L * 1024L;
+
+    private static BufferedImage createImage(int width, int height, int type, int seed) {
+        BufferedImage img = new BufferedImage(width, height, type);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                img.setRGB(x, y, 0xff000000 | (x * 31 + y * 17 + seed) & 0xffffff);
+            }
+        }
+        return img;
+    }
+
+    private static void assertSamePixels(BufferedImage expected, BufferedImage actual) {
+        assertNotNull(actual);
+        assertEquals(expected.getWidth(), actual.getWidth());
+        assertEquals(expected.getHeight(), actual.getHeight());
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "Pixel " + x + "/" + y);
+            }
+        }
+    }
+
+    /**
+     * Images of various types and sizes, spanning several pages, are restored unchanged.
+     */
+    @Test
+    void testRoundTrip() {
+        OffHeapImageCache<String> cache = new OffHeapImageCache<>(16 * MB);
+        BufferedImage argb = createImage(256, 256, BufferedImage.TYPE_INT_ARGB, 1);
+        BufferedImage bgr = createImage(300, 77, BufferedImage.TYPE_3BYTE_BGR, 2);
+        BufferedImage gray = createImage(13, 7, BufferedImage.TYPE_BYTE_GRAY, 3);
+        assertTrue(cache.put("argb", argb));
+        assertTrue(cache.put("bgr", bgr));
+        assertTrue(cache.put("gray", gray));
+        assertEquals(3, cache.size());
+
+        assertSamePixels(argb, cache.get("argb"));
+        assertEquals(BufferedImage.TYPE_INT_ARGB, cache.get("argb").getType());
+        assertSamePixels(bgr, cache.get("bgr"));
+        assertEquals(BufferedImage.TYPE_INT_RGB, cache.get("bgr").getType());
+        assertSamePixels(gray, cache.get("gray"));
+        assertNull(cache.get("missing"));
+
+        // replace an entry
+        BufferedImage other = createImage(256, 256, BufferedImage.TYPE_INT_ARGB, 4);
+        assertTrue(cache.put("argb", other));
+        assertSamePixels(other, cache.get("argb"));
+        assertEquals(3, cache.size());
+
+        assertTrue(cache.remove("bgr"));
+        assertFalse(cache.remove("bgr"));
+        assertFalse(cache.contains("bgr"));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getAllocatedBytes());
+    }
+
+    /**
+     * The budget is respected, recently accessed entries get a second chance.
+     */
+    @Test
+    void testEviction() {
+        // 256x256 ARGB tile takes 256 KiB, 16 of them fit into the budget
+        OffHeapImageCache<Integer> cache = new OffHeapImageCache<>(4 * MB);
+        for (int i = 0; i < 16; i++) {
+            assertTrue(cache.put(i, createImage(256, 256, BufferedImage.TYPE_INT_RGB, i)));
+        }
+        assertEquals(16, cache.size());
+        assertEquals(4 * MB, cache.getUsedBytes());
+
+        assertNotNull(cache.get(0));
+        assertTrue(cache.put(16, createImage(256, 256, BufferedImage.TYPE_INT_RGB, 16)));
+        assertEquals(16, cache.size());
+        assertTrue(cache.getUsedBytes() <= cache.getBudget());
+        // entry 0 has been accessed, so entry 1 is evicted instead
+        assertTrue(cache.contains(0));
+        assertFalse(cache.contains(1));
+        assertSamePixels(createImage(256, 256, BufferedImage.TYPE_INT_RGB, 16), cache.get(16));
+
+        // images larger than the budget are rejected
+        assertFalse(cache.put(17, createImage(2048, 1024, BufferedImage.TYPE_INT_RGB, 17)));
+
+        // decreasing the budget evicts entries
+        cache.setBudget(MB);
+        assertEquals(4, cache.size());
+        assertTrue(cache.getUsedBytes() <= MB);
+    }
+}
@@ -0,0 +1,156 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.io.GpxReaderTest;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+import org.xml.sax.SAXException;
+
+/**
+ * Unit tests for class {@link CompactGpxTrackSegment}.
+ */
+@BasicPreferences
+@Projection
+class CompactGpxTrackSegmentTest {
+    /**
+     * The materialized points have the same attributes as the original points.
+     */
+    @Test
+    void testRoundTrip() {
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            WayPoint wpt = new WayPoint(new LatLon(47 + i * 0.001, 8 + i * 0.002));
+            points.add(wpt);
+        }
+        points.get(0).setInstant(Instant.parse("2021-01-01T12:00:00.123Z"));
+        points.get(0).put(GpxConstants.PT_ELE, "412");
+        points.get(0).put(GpxConstants.PT_HDOP, 1.5f);
+        points.get(1).setInstant(Instant.parse("2021-01-01T12:00:01.123456Z")); // sub-millisecond precision
+        points.get(1).put(GpxConstants.PT_ELE, "412.50"); // not in canonical form
+        points.get(2).put(GpxConstants.PT_ELE, "412.5");
+        points.get(2).put(GpxConstants.GPX_NAME, "name");
+        points.get(3).put(GpxConstants.PT_ELE, "unknown");
+        points.get(4).getExtensions().add("josm", "test", "value");
+
+        CompactGpxTrackSegment seg = new CompactGpxTrackSegment(points);
+        assertEquals(5, seg.size());
+        assertEquals(new ArrayList<>(points), new ArrayList<>(seg.getWayPoints()));
+        assertEquals(new GpxTrackSegment(points).length(), seg.length(), 1e-6);
+        assertEquals(new GpxTrackSegment(points).getBounds(), seg.getBounds());
+
+        assertTrue(seg.hasTime(0));
+        assertEquals(points.get(1).getTimeInMillis(), seg.getTimeInMillis(1));
+        assertFalse(seg.hasTime(2));
+        assertEquals(412.5, seg.getElevation(2));
+        assertTrue(Double.isNaN(seg.getElevation(3)));
+        assertEquals(1.5, seg.getHdop(0));
+        assertEquals("value", seg.createWayPoint(4).getExtensions().find("josm", "test").getValue());
+        EastNorth en = seg.getEastNorth(2, ProjectionRegistry.getProjection());
+        assertEquals(points.get(2).getEastNorth(ProjectionRegistry.getProjection()), en);
+    }
+
+    /**
+     * Gpx files read with compact segments have the same points and support the same operations.
+     * @throws IOException if an error occurs during reading
+     * @throws SAXException if any XML error occurs
+     */
+    @Test
+    void testReadCompact() throws IOException, SAXException {
+        String file = TestUtils.getTestDataRoot() + "tracks/tracks.gpx";
+        CompactGpxTrackSegment.MIN_POINTS.put(0);
+        GpxData expected = GpxReaderTest.parseGpxData(file);
+        CompactGpxTrackSegment.MIN_POINTS.put(1);
+        GpxData compact = GpxReaderTest.parseGpxData(file);
+        CompactGpxTrackSegment.MIN_POINTS.remove();
+
+        assertTrue(compact.getTracks().stream().flatMap(t -> t.getSegments().stream())
+                .allMatch(CompactGpxTrackSegment.class::isInstance));
+        assertEquals(expected.getTrackPoints().collect(Collectors.toList()), compact.getTrackPoints().collect(Collectors.toList()));
+        assertEquals(expected.length(), compact.length(), 1e-6);
+
+        WayPoint point = expected.getTrackPoints().skip(10).findFirst().orElseThrow(AssertionError::new);
+        EastNorth en = point.getEastNorth(ProjectionRegistry.getProjection());
+        WayPoint nearest = compact.nearestPointOnTrack(en, 1);
+        assertNotNull(nearest);
+        assertEquals(expected.nearestPointOnTrack(en, 1), nearest);
+        assertInstanceOf(CompactGpxTrackSegment.class, compact.getTracks().iterator().next().getSegments().iterator().next());
+    }
+
+    /**
+     * Changes to the materialized points are kept and the points keep their identity.
+     */
+    @Test
+    void testMaterializedPointsKept() {
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            points.add(new WayPoint(new LatLon(47 + i * 0.001, 8)));
+        }
+        CompactGpxTrackSegment seg = new CompactGpxTrackSegment(points);
+        WayPoint first = seg.getWayPoints().iterator().next();
+        first.put(GpxConstants.GPX_NAME, "changed");
+        first.drawLine = true;
+        System.gc();
+        WayPoint again = seg.getWayPoints().iterator().next();
+        assertSame(first, again);
+        assertEquals("changed", again.getString(GpxConstants.GPX_NAME));
+        assertTrue(again.drawLine);
+    }
+
+    /**
+     * The points of the view are not kept, except for the first and the last point and the drawing state.
+     */
+    @Test
+    void testWayPointsView() {
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            points.add(new WayPoint(new LatLon(47 + i * 0.001, 8)));
+        }
+        CompactGpxTrackSegment seg = new CompactGpxTrackSegment(points);
+        List<WayPoint> view = seg.getWayPointsView();
+        assertEquals(points, new ArrayList<>(view));
+        assertNotSame(view.get(1), view.get(1));
+        assertSame(view.get(0), view.get(0));
+        assertSame(view.get(3), view.get(3));
+
+        WayPoint second = view.get(1);
+        second.put(GpxConstants.GPX_NAME, "changed");
+        second.customColoring = Color.RED;
+        second.drawLine = true;
+        second.dir = 5;
+        seg.setDrawState(1, second);
+        WayPoint again = view.get(1);
+        assertNull(again.get(GpxConstants.GPX_NAME));
+        assertEquals(Color.RED, again.customColoring);
+        assertTrue(again.drawLine);
+        assertEquals(5, again.dir);
+        assertFalse(view.get(2).drawLine);
+
+        // materializing keeps the identity of the first point and the drawing state
+        WayPoint first = view.get(0);
+        List<WayPoint> materialized = new ArrayList<>(seg.getWayPoints());
+        assertSame(first, materialized.get(0));
+        assertEquals(Color.RED, materialized.get(1).customColoring);
+        assertSame(materialized.get(1), view.get(1));
+    }
+}
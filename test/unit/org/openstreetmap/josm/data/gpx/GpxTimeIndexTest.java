@@ -0,0 +1,73 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+
+/**
+ * Unit tests of {@link GpxTimeIndex} class.
+ */
+class GpxTimeIndexTest {
+
+    private static final GpxTimeIndex.Settings SETTINGS = new GpxTimeIndex.Settings(
+            false, Integer.MAX_VALUE, Integer.MAX_VALUE, true, 2, true, 60, 50, true, 2);
+
+    private static IGpxTrack createTrack(long start, int n) {
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            WayPoint wpt = new WayPoint(new LatLon(50, 8 + i * 1e-4));
+            wpt.setTimeInMillis(start + i * 1000L);
+            points.add(wpt);
+        }
+        return new GpxTrack(Collections.singletonList(points), Collections.emptyMap());
+    }
+
+    /**
+     * Images are matched with the interval of the track points around them.
+     */
+    @Test
+    void testFind() {
+        GpxTimeIndex index = new GpxTimeIndex(Arrays.asList(createTrack(100_000, 100), createTrack(1_000_000, 100)), SETTINGS);
+        // 200 intervals, and one to tag images after the last point
+        assertEquals(201, index.size());
+
+        // between two points of the first track
+        assertEquals(11, index.find(110_500, 0));
+        assertEquals(10, index.find(110_000, 0));
+        // between the two tracks, tagged by the interval to the start of the second track (2 minutes)
+        assertEquals(100, index.find(199_000 + 60_000, 0));
+        assertEquals(-1, index.find(199_000 + 600_000, 0));
+        // before the first track
+        assertEquals(0, index.find(100_000 - 60_000, 0));
+        assertEquals(-1, index.find(100_000 - 600_000, 0));
+        // second track
+        assertEquals(150, index.find(1_049_500, 0));
+        // with offset
+        assertEquals(150, index.find(1_049_500 + 900_000, 900_000));
+        // after the last track point
+        assertEquals(200, index.find(1_099_000 + 60_000, 0));
+    }
+
+    /**
+     * The intervals matched by the images are cached per offset.
+     */
+    @Test
+    void testFindCached() {
+        GpxTimeIndex index = new GpxTimeIndex(Collections.singletonList(createTrack(100_000, 100)), SETTINGS);
+        long[] imageTimes = {110_500, 150_500, 500_000};
+        int[] matches = index.find(imageTimes, 0);
+        assertArrayEquals(new int[] {11, 51, -1}, matches);
+        assertArrayEquals(new int[] {1, 41, -1}, index.find(imageTimes, 10_000));
+        assertSame(matches, index.find(imageTimes, 0));
+        assertArrayEquals(new int[] {21, 51, -1}, index.find(new long[] {120_500, 150_500, 500_000}, 0));
+    }
+}
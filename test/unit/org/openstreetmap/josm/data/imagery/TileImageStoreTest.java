@@ -0,0 +1,100 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.gui.jmapviewer.Tile;
+import org.openstreetmap.gui.jmapviewer.interfaces.TileSource;
+import org.openstreetmap.gui.jmapviewer.tilesources.OsmTileSource;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link TileImageStore} class.
+ */
+@BasicPreferences
+class TileImageStoreTest {
+
+    private static Tile createTile(int x, BufferedImage image) {
+        return createTile(null, x, image);
+    }
+
+    private static Tile createTile(TileSource source, int x, BufferedImage image) {
+        Tile tile = new Tile(source, x, 0, 10);
+        tile.setImage(image);
+        tile.finishLoading();
+        return tile;
+    }
+
+    /**
+     * Images exceeding the heap budget are moved off the heap and restored when the tile is painted again.
+     */
+    @Test
+    void testSpillAndRestore() {
+        TileImageStore.HEAP_CACHE_SIZE.put(1);
+        TileImageStore store = TileImageStore.getInstance();
+        BufferedImage image = new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(1, 2, 0xff123456);
+        Tile first = createTile(1, image);
+        Tile second = createTile(2, new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB));
+        store.imageLoaded(first);
+        store.imageLoaded(second);
+        assertNull(first.getImage());
+        assertTrue(first.isLoaded());
+
+        BufferedImage restored = store.getImage(first);
+        assertNotNull(restored);
+        assertEquals(0xff123456, restored.getRGB(1, 2));
+        assertTrue(first.isLoaded());
+        TileImageStore.HEAP_CACHE_SIZE.remove();
+    }
+
+    /**
+     * The tiles of a tile source are released when it is cleared, the other tiles are kept.
+     */
+    @Test
+    void testClear() {
+        TileImageStore.HEAP_CACHE_SIZE.put(1);
+        TileImageStore store = TileImageStore.getInstance();
+        TileSource source1 = new OsmTileSource.Mapnik();
+        TileSource source2 = new OsmTileSource.Mapnik();
+        Tile first = createTile(source1, 1, new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB));
+        Tile second = createTile(source2, 2, new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB));
+        Tile third = createTile(source2, 3, new BufferedImage(512, 512, BufferedImage.TYPE_INT_ARGB));
+        store.imageLoaded(first);
+        store.imageLoaded(second);
+        store.imageLoaded(third);
+        assertNull(first.getImage());
+        assertNull(second.getImage());
+
+        store.clear(source1);
+        // the pixels of the first tile are gone, it is loaded again
+        assertFalse(first.isLoaded());
+        assertNull(store.getImage(first));
+        // the tiles of the other source are still managed, restoring the second tile moves the third one off the heap
+        assertNotNull(store.getImage(second));
+        assertNull(third.getImage());
+        store.clear(source2);
+        assertNotNull(second.getImage());
+        assertTrue(second.isLoaded());
+        assertFalse(third.isLoaded());
+        TileImageStore.HEAP_CACHE_SIZE.remove();
+    }
+
+    /**
+     * Loaded tiles without image which have not been moved off the heap are not loaded again.
+     */
+    @Test
+    void testEmptyTile() {
+        Tile empty = createTile(3, null);
+        assertNull(TileImageStore.getInstance().getImage(empty));
+        assertTrue(empty.isLoaded());
+        assertFalse(empty.hasError());
+    }
+}
@@ -0,0 +1,106 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.imagery.vectortile.mapbox;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Test class for {@link DecodedTileCache}
+ */
+@BasicPreferences
+class DecodedTileCacheTest {
+    /**
+     * Tiles restored from the cache have the same content as freshly parsed tiles
+     * @throws IOException if the test file cannot be read
+     */
+    @Test
+    void testCachedTileEqualsParsedTile() throws IOException {
+        byte[] content = Files.readAllBytes(Paths.get(TestUtils.getTestDataRoot(), "pbf/mapillary/14/3249/6258.mvt"));
+        DecodedTileCache cache = DecodedTileCache.getInstance();
+        cache.clear();
+        final long hits = getStat(cache, "hits");
+        final long misses = getStat(cache, "misses");
+        List<Layer> parsed = cache.getLayers("14/3249/6258@test", content);
+        List<Layer> cached = cache.getLayers("14/3249/6258@test", content);
+        assertNotSame(parsed, cached);
+        assertFalse(parsed.isEmpty());
+        assertEquals(parsed.size(), cached.size());
+        for (int i = 0; i < parsed.size(); i++) {
+            Layer expected = parsed.get(i);
+            Layer actual = cached.get(i);
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getVersion(), actual.getVersion());
+            assertEquals(expected.getExtent(), actual.getExtent());
+            List<Feature> expectedFeatures = new ArrayList<>(expected.getFeatures());
+            List<Feature> actualFeatures = new ArrayList<>(actual.getFeatures());
+            assertEquals(expectedFeatures.size(), actualFeatures.size());
+            for (int j = 0; j < expectedFeatures.size(); j++) {
+                Feature expectedFeature = expectedFeatures.get(j);
+                Feature actualFeature = actualFeatures.get(j);
+                assertEquals(expectedFeature.getId(), actualFeature.getId());
+                assertEquals(expectedFeature.getGeometryType(), actualFeature.getGeometryType());
+                assertEquals(expectedFeature.getTags(), actualFeature.getTags());
+                assertEquals(expectedFeature.getGeometry().size(), actualFeature.getGeometry().size());
+                for (int k = 0; k < expectedFeature.getGeometry().size(); k++) {
+                    assertEquals(expectedFeature.getGeometry().get(k).getType(), actualFeature.getGeometry().get(k).getType());
+                    assertArrayEquals(expectedFeature.getGeometry().get(k).getOperations(),
+                            actualFeature.getGeometry().get(k).getOperations());
+                }
+            }
+        }
+
+        assertEquals(hits + 1, getStat(cache, "hits"), cache.getStats());
+        assertEquals(misses + 1, getStat(cache, "misses"), cache.getStats());
+
+        // a tile with different content is parsed again
+        cache.getLayers("14/3249/6258@test", new byte[0]);
+        assertEquals(hits + 1, getStat(cache, "hits"), cache.getStats());
+        assertEquals(misses + 2, getStat(cache, "misses"), cache.getStats());
+        cache.clear();
+    }
+
+    /**
+     * The tag dictionaries are counted in the memory budget and evicted with their tile
+     * @throws IOException if the test file cannot be read
+     */
+    @Test
+    void testEviction() throws IOException {
+        byte[] content = Files.readAllBytes(Paths.get(TestUtils.getTestDataRoot(), "pbf/mapillary/14/3249/6258.mvt"));
+        DecodedTileCache cache = DecodedTileCache.getInstance();
+        cache.clear();
+        cache.getLayers("14/3249/6258@test", content);
+        final long strings = getStat(cache, "strings");
+        assertTrue(strings > 0, cache.getStats());
+        cache.getLayers("14/3249/6258@test2", content);
+        assertEquals(2 * strings, getStat(cache, "strings"), cache.getStats());
+
+        // a budget smaller than one tile evicts all tiles with their dictionary
+        DecodedTileCache.CACHE_SIZE.put(0);
+        cache.getLayers("14/3249/6258@test3", content);
+        assertEquals(0, getStat(cache, "strings"), cache.getStats());
+        assertEquals(0, getStat(cache, "tiles"), cache.getStats());
+        DecodedTileCache.CACHE_SIZE.remove();
+        cache.clear();
+    }
+
+    private static long getStat(DecodedTileCache cache, String name) {
+        Matcher matcher = Pattern.compile(name + ": (\\d+)").matcher(cache.getStats());
+        assertTrue(matcher.find(), cache.getStats());
+        return Long.parseLong(matcher.group(1));
+    }
+}
@@ -16,6 +16,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.StringWriter;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.function.BiConsumer;
@@ -31,6 +32,10 @@ import org.openstreetmap.josm.TestUtils;
 import org.openstreetmap.josm.data.conflict.Conflict;
 import org.openstreetmap.josm.data.conflict.ConflictCollection;
 import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.osm.event.AbstractDatasetChangedEvent;
+import org.openstreetmap.josm.data.osm.event.DataSetListenerAdapter;
+import org.openstreetmap.josm.data.osm.event.RelationMembersChangedEvent;
+import org.openstreetmap.josm.data.osm.event.WayNodesChangedEvent;
 import org.openstreetmap.josm.data.projection.ProjectionRegistry;
 import org.openstreetmap.josm.data.projection.Projections;
 import org.openstreetmap.josm.gui.layer.OsmDataLayer;
@@ -1432,4 +1437,39 @@ class DataSetMergerTest {
         assertFalse(theirNode.isDeleted());
         assertFalse(myNode.isDeleted());
     }
+
+    /**
+     * Merging unchanged ways and relations keeps their nodes and members without firing events for them.
+     */
+    @Test
+    void testUnchangedWayAndRelation() {
+        for (DataSet ds : Arrays.asList(my, their)) {
+            Node n1 = new Node(1, 1);
+            n1.setCoor(LatLon.ZERO);
+            Node n2 = new Node(2, 1);
+            n2.setCoor(new LatLon(1, 1));
+            Way w = new Way(3, 1);
+            w.setNodes(Arrays.asList(n1, n2));
+            Relation r = new Relation(4, 1);
+            r.setMembers(Arrays.asList(new RelationMember("outer", w), new RelationMember("", n1)));
+            ds.addPrimitive(n1);
+            ds.addPrimitive(n2);
+            ds.addPrimitive(w);
+            ds.addPrimitive(r);
+        }
+        Way myWay = (Way) my.getPrimitiveById(3, OsmPrimitiveType.WAY);
+        Relation myRelation = (Relation) my.getPrimitiveById(4, OsmPrimitiveType.RELATION);
+        List<AbstractDatasetChangedEvent> events = new ArrayList<>();
+        my.addDataSetListener(new DataSetListenerAdapter(events::add));
+
+        DataSetMerger visitor = new DataSetMerger(my, their);
+        visitor.merge();
+
+        assertTrue(visitor.getConflicts().isEmpty());
+        assertEquals(Arrays.asList(my.getPrimitiveById(1, OsmPrimitiveType.NODE), my.getPrimitiveById(2, OsmPrimitiveType.NODE)),
+                myWay.getNodes());
+        assertSame(myWay, myRelation.getMember(0).getMember());
+        assertEquals(2, myRelation.getMembersCount());
+        assertFalse(events.stream().anyMatch(e -> e instanceof WayNodesChangedEvent || e instanceof RelationMembersChangedEvent));
+    }
 }
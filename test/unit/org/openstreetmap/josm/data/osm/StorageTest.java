@@ -1,6 +1,12 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.data.osm;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
 
@@ -23,4 +29,23 @@ class StorageTest {
             .withPrefabValues(Hash.class, Storage.<Integer>defaultHash(), Storage.<Boolean>defaultHash())
             .verify();
     }
+
+    /**
+     * Unit test of {@link Storage#ensureCapacity}.
+     */
+    @Test
+    void testEnsureCapacity() {
+        Storage<Integer> storage = new Storage<>(true);
+        storage.add(1);
+        Iterator<Integer> it = storage.iterator();
+        storage.ensureCapacity(1000);
+        for (int i = 2; i <= 1000; i++) {
+            storage.add(i);
+        }
+        assertEquals(1000, storage.size());
+        assertTrue(storage.contains(500));
+        // the iterator created before works on the previous elements
+        assertEquals(1, it.next());
+        assertFalse(it.hasNext());
+    }
 }
@@ -0,0 +1,109 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.data.osm.history;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.User;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests for class {@link HistoryDataSet}.
+ */
+@BasicPreferences
+class HistoryDataSetTest {
+    private static HistoryWay createWay(long id, long version, Long... nodeIds) {
+        HistoryWay way = new HistoryWay(id, version, true, User.createOsmUser(3, "testuser"), 4, Instant.now(), Arrays.asList(nodeIds));
+        way.put("highway", "residential");
+        return way;
+    }
+
+    /**
+     * Unchanged tags and nodes are shared between versions, and copied before they are modified.
+     */
+    @Test
+    void testShareUnchanged() {
+        HistoryDataSet ds = new HistoryDataSet();
+        HistoryWay v1 = createWay(1, 1, 1L, 2L);
+        HistoryWay v2 = createWay(1, 2, 1L, 2L);
+        v2.put("name", "Main Street");
+        HistoryWay v3 = createWay(1, 3, 1L, 2L, 3L);
+        v3.put("name", "Main Street");
+        ds.put(v1);
+        ds.put(v2);
+        ds.put(v3);
+
+        v2.addNode(3L);
+        assertEquals(Arrays.asList(1L, 2L), v1.getNodes());
+        assertEquals(Arrays.asList(1L, 2L, 3L), v2.getNodes());
+        v3.put("oneway", "yes");
+        assertEquals(Collections.singletonMap("highway", "residential"), v1.getTags());
+        assertEquals(2, v2.getNumKeys());
+        assertEquals(3, v3.getNumKeys());
+        assertEquals(3, ds.getHistory(1, OsmPrimitiveType.WAY).getNumVersions());
+    }
+
+    /**
+     * The least recently used histories are removed when the data set exceeds its size.
+     */
+    @Test
+    void testEviction() {
+        Config.getPref().putInt("history.max-versions", 4);
+        HistoryDataSet ds = new HistoryDataSet(true);
+        ds.put(createWay(1, 1, 1L, 2L));
+        ds.put(createWay(1, 2, 1L, 2L));
+        ds.put(createWay(2, 1, 1L, 2L));
+        ds.put(createWay(3, 1, 1L, 2L));
+        assertNotNull(ds.getHistory(1, OsmPrimitiveType.WAY));
+        ds.put(createWay(4, 1, 1L, 2L));
+        assertNull(ds.getHistory(2, OsmPrimitiveType.WAY));
+        assertNotNull(ds.getHistory(1, OsmPrimitiveType.WAY));
+        assertNotNull(ds.getHistory(3, OsmPrimitiveType.WAY));
+        assertNotNull(ds.getHistory(4, OsmPrimitiveType.WAY));
+        // the history which is updated is kept
+        for (int version = 2; version <= 5; version++) {
+            ds.put(createWay(4, version, 1L, 2L));
+        }
+        assertEquals(5, ds.getHistory(4, OsmPrimitiveType.WAY).getNumVersions());
+        assertNull(ds.getHistory(1, OsmPrimitiveType.WAY));
+        assertNull(ds.getHistory(3, OsmPrimitiveType.WAY));
+    }
+
+    /**
+     * Histories loaded at once are kept, even if they exceed the size of the data set.
+     */
+    @Test
+    void testEvictionOnMerge() {
+        Config.getPref().putInt("history.max-versions", 4);
+        HistoryDataSet ds = new HistoryDataSet(true);
+        ds.put(createWay(1, 1, 1L, 2L));
+        ds.put(createWay(2, 1, 1L, 2L));
+
+        // the data sets used to load histories are not bounded
+        HistoryDataSet loaded = new HistoryDataSet();
+        for (long id = 3; id <= 7; id++) {
+            loaded.put(createWay(id, 1, 1L, 2L));
+        }
+        assertNotNull(loaded.getHistory(3, OsmPrimitiveType.WAY));
+
+        ds.mergeInto(loaded);
+        assertNull(ds.getHistory(1, OsmPrimitiveType.WAY));
+        assertNull(ds.getHistory(2, OsmPrimitiveType.WAY));
+        for (long id = 3; id <= 7; id++) {
+            assertNotNull(ds.getHistory(id, OsmPrimitiveType.WAY));
+        }
+        // older histories are removed by the next addition
+        ds.put(createWay(8, 1, 1L, 2L));
+        assertNull(ds.getHistory(3, OsmPrimitiveType.WAY));
+        assertNull(ds.getHistory(4, OsmPrimitiveType.WAY));
+        assertNotNull(ds.getHistory(8, OsmPrimitiveType.WAY));
+    }
+}
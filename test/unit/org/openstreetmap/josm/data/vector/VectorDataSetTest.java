@@ -2,6 +2,7 @@
 package org.openstreetmap.josm.data.vector;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.nio.file.Paths;
@@ -9,6 +10,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.awaitility.Awaitility;
 import org.awaitility.Durations;
@@ -19,6 +22,8 @@ import org.openstreetmap.josm.data.imagery.ImageryInfo;
 import org.openstreetmap.josm.data.imagery.vectortile.mapbox.MVTTile;
 import org.openstreetmap.josm.data.imagery.vectortile.mapbox.MapboxVectorCachedTileLoader;
 import org.openstreetmap.josm.data.imagery.vectortile.mapbox.MapboxVectorTileSource;
+import org.openstreetmap.josm.data.osm.PrimitiveId;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
 import org.openstreetmap.josm.gui.layer.imagery.MVTLayer;
 import org.openstreetmap.josm.testutils.annotations.Projection;
 
@@ -124,4 +129,69 @@ class VectorDataSetTest {
         assertEquals(1, dataSet.getWays().size());
         assertEquals(0, dataSet.getRelations().size());
     }
+
+    /**
+     * Tiles can be added one at a time, and a tile that is loaded again replaces the old one.
+     */
+    @RepeatedTest(2)
+    void testAddTiles() {
+        final VectorDataSet dataSet = this.layer.getData();
+        dataSet.setZoom(14);
+        loadTile(this.layer, 14, 3248, 6258);
+        final int firstTileNodes = dataSet.getNodes().size();
+        assertTrue(firstTileNodes > 0);
+
+        this.layer.finishedLoading().clear();
+        loadTile(this.layer, 14, 3249, 6258);
+        final int bothTilesNodes = dataSet.getNodes().size();
+        assertTrue(bothTilesNodes > firstTileNodes);
+
+        // loading the same tile again must not duplicate the data
+        this.layer.finishedLoading().clear();
+        loadTile(this.layer, 14, 3248, 6258);
+        assertEquals(bothTilesNodes, dataSet.getNodes().size());
+    }
+
+    /**
+     * Removing a tile removes its primitives, and keeps the pieces of features shared with other tiles.
+     */
+    @RepeatedTest(2)
+    void testRemoveTile() {
+        final VectorDataSet dataSet = this.layer.getData();
+        dataSet.setZoom(14);
+        loadTile(this.layer, 14, 3248, 6258);
+        final MVTTile first = this.layer.finishedLoading().iterator().next();
+        final int firstTileNodes = dataSet.getNodes().size();
+        this.layer.finishedLoading().clear();
+        loadTile(this.layer, 14, 3249, 6258);
+        final MVTTile second = this.layer.finishedLoading().iterator().next();
+        final int bothTilesNodes = dataSet.getNodes().size();
+
+        final Set<PrimitiveId> firstIds = first.getData().getAllPrimitives().stream()
+                .map(p -> new SimplePrimitiveId(p.getUniqueId(), p.getType())).collect(Collectors.toSet());
+        final Set<PrimitiveId> secondIds = second.getData().getAllPrimitives().stream()
+                .map(p -> new SimplePrimitiveId(p.getUniqueId(), p.getType())).collect(Collectors.toSet());
+        final Set<PrimitiveId> sharedIds = new HashSet<>(firstIds);
+        sharedIds.retainAll(secondIds);
+        assertFalse(sharedIds.isEmpty());
+
+        assertTrue(dataSet.removeTileData(first));
+        assertEquals(bothTilesNodes - firstTileNodes, dataSet.getNodes().size());
+        assertTrue(first.getData().getAllPrimitives().stream().allMatch(p -> p.getDataSet() == null));
+        // the pieces in the second tile are still there
+        for (PrimitiveId id : sharedIds) {
+            assertTrue(dataSet.getPrimitivesById(id).allMatch(p -> p.getDataSet() == dataSet));
+            assertEquals(1, dataSet.getPrimitivesById(id).count(), id::toString);
+        }
+        // the primitives only in the first tile are gone
+        for (PrimitiveId id : firstIds) {
+            if (!sharedIds.contains(id)) {
+                assertEquals(0, dataSet.getPrimitivesById(id).count(), id::toString);
+            }
+        }
+        assertFalse(dataSet.removeTileData(first));
+
+        assertTrue(dataSet.removeTileData(second));
+        assertTrue(dataSet.allPrimitives().isEmpty());
+    }
 }
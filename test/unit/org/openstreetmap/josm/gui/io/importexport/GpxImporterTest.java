@@ -0,0 +1,73 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.io.importexport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.gui.MainApplication;
+import org.openstreetmap.josm.gui.progress.CLIProgressMonitor;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.gui.progress.ProgressMonitor;
+import org.openstreetmap.josm.gui.util.GuiHelper;
+import org.openstreetmap.josm.testutils.annotations.Main;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+import org.openstreetmap.josm.testutils.mockers.HelpAwareOptionPaneMocker;
+
+/**
+ * Unit tests of {@link GpxImporter} class.
+ */
+@Main
+@Projection
+class GpxImporterTest {
+    /**
+     * Only the files that could be read are reported as imported, when importing several files at once.
+     * @param tempDir temporary directory
+     * @throws IOException if the invalid file cannot be written
+     */
+    @Test
+    void testImportFilesPartialFailure(@TempDir Path tempDir) throws IOException {
+        final HelpAwareOptionPaneMocker haMocker = new HelpAwareOptionPaneMocker() {
+            @Override
+            protected Object getMockResultForMessage(Object message) {
+                return "OK";
+            }
+        };
+        MainApplication.getLayerManager().resetState();
+        File valid = new File(TestUtils.getTestDataRoot() + "tracks/tracks.gpx");
+        File invalid = tempDir.resolve("invalid.gpx").toFile();
+        Files.write(invalid.toPath(), "<gpx><trk>".getBytes(StandardCharsets.UTF_8));
+        List<File> files = Arrays.asList(valid, invalid);
+
+        GpxImporter importer = new GpxImporter();
+        assertEquals(Collections.singletonList(valid), importer.importFilesHandleExceptions(files, NullProgressMonitor.INSTANCE));
+        assertFalse(importer.importDataHandleExceptions(files, NullProgressMonitor.INSTANCE));
+        GuiHelper.runInEDTAndWait(() -> { /* wait for the error dialogs */ });
+        assertEquals(2, haMocker.getInvocationLog().size());
+    }
+
+    /**
+     * Files skipped because the import has been canceled are not reported as imported.
+     */
+    @Test
+    void testImportFilesCanceled() {
+        MainApplication.getLayerManager().resetState();
+        List<File> files = Arrays.asList(
+                new File(TestUtils.getTestDataRoot() + "tracks/tracks.gpx"),
+                new File(TestUtils.getTestDataRoot() + "minimal.gpx"));
+        ProgressMonitor monitor = new CLIProgressMonitor();
+        monitor.cancel();
+        assertEquals(Collections.emptyList(), new GpxImporter().importFilesHandleExceptions(files, monitor));
+    }
+}
@@ -0,0 +1,125 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Dimension;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link DecodedImageCache} class.
+ */
+@BasicPreferences
+class DecodedImageCacheTest {
+    private static final Dimension TARGET = new Dimension(1000, 1000);
+
+    /**
+     * Images are decoded once, per region.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testGet() throws Exception {
+        DecodedImageCache cache = new DecodedImageCache();
+        ImageEntry entry = new ImageEntry(new File("foo.jpg"));
+        AtomicInteger count = new AtomicInteger();
+        BufferedImage image = cache.get(DecodedImageCache.getKey(entry, null, TARGET), () -> {
+            count.incrementAndGet();
+            return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        });
+        assertSame(image, cache.get(DecodedImageCache.getKey(entry, null, TARGET), () -> null));
+        assertSame(image, cache.getAsync(DecodedImageCache.getKey(entry, null, TARGET), () -> null).get());
+        assertEquals(1, count.get());
+
+        BufferedImage region = cache.getAsync(DecodedImageCache.getKey(entry, new Rectangle(0, 0, 5, 5), TARGET),
+                () -> new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB)).get();
+        assertNotSame(image, region);
+        assertSame(region, cache.get(DecodedImageCache.getKey(entry, new Rectangle(0, 0, 5, 5), TARGET), () -> null));
+
+        // images without file are not cached
+        ImageEntry noFile = new ImageEntry();
+        assertNull(DecodedImageCache.getKey(noFile, null, TARGET));
+        assertNotSame(image, cache.get(null, () -> new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB)));
+    }
+
+    /**
+     * The least recently used images are removed.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testEviction() throws Exception {
+        DecodedImageCache.MAX_SIZE.put(1);
+        try {
+            DecodedImageCache cache = new DecodedImageCache();
+            ImageEntry entry1 = new ImageEntry(new File("foo.jpg"));
+            ImageEntry entry2 = new ImageEntry(new File("bar.jpg"));
+            // 640 kB each
+            BufferedImage image1 = cache.get(DecodedImageCache.getKey(entry1, null, TARGET),
+                    () -> new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB));
+            BufferedImage image2 = cache.get(DecodedImageCache.getKey(entry2, null, TARGET),
+                    () -> new BufferedImage(400, 400, BufferedImage.TYPE_INT_RGB));
+            assertSame(image2, cache.get(DecodedImageCache.getKey(entry2, null, TARGET), () -> null));
+            assertNull(cache.get(DecodedImageCache.getKey(entry1, null, TARGET), () -> null));
+            assertNotSame(image1, image2);
+        } finally {
+            DecodedImageCache.MAX_SIZE.remove();
+        }
+    }
+
+    /**
+     * Cancelled background decodings do not affect later requests of the same image.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testCancel() throws Exception {
+        DecodedImageCache cache = new DecodedImageCache();
+        DecodedImageCache.Key key = DecodedImageCache.getKey(new ImageEntry(new File("foo.jpg")), null, TARGET);
+        CountDownLatch latch = new CountDownLatch(1);
+        CompletableFuture<BufferedImage> prefetch = cache.getAsync(key, () -> {
+            latch.await();
+            return new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        });
+        cache.cancel(key);
+        assertTrue(prefetch.isCancelled());
+        BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        assertSame(image, cache.get(key, () -> image));
+        latch.countDown();
+    }
+
+    /**
+     * Only neighbours which fit into a third of the cache are prefetched.
+     */
+    @Test
+    void testIsPrefetchable() {
+        Dimension target = new Dimension(6000, 6000);
+        assertEquals(6000L * 3000 * 3, DecodedImageCache.estimateSize(6000, 3000, target, 3));
+        // panoramas slightly wider than the target are decoded at full size
+        assertEquals(11904L * 5952 * 3, DecodedImageCache.estimateSize(11904, 5952, target, 3));
+        assertEquals(6001L * 3001 * 3, DecodedImageCache.estimateSize(12002, 6002, target, 3));
+
+        ImageEntry entry = new ImageEntry(new File("foo.jpg"));
+        // unknown size
+        assertTrue(DecodedImageCache.isPrefetchable(entry, target));
+        entry.setWidth(6000);
+        entry.setHeight(3000);
+        assertTrue(DecodedImageCache.isPrefetchable(entry, target));
+        entry.setExifOrientation(6);
+        assertFalse(DecodedImageCache.isPrefetchable(entry, target));
+        entry.setExifOrientation(1);
+        entry.setWidth(11904);
+        entry.setHeight(5952);
+        assertFalse(DecodedImageCache.isPrefetchable(entry, target));
+    }
+}
@@ -1,8 +1,12 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.gui.layer.geoimage;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.awt.Dimension;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.util.ArrayList;
 
@@ -29,6 +33,23 @@ class ImageEntryTest {
         assertNotNull(e.getExifInstant());
     }
 
+    /**
+     * Unit test of {@link ImageEntry#readRegion}.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testReadRegion() throws Exception {
+        ImageEntry e = new ImageEntry(new File(TestUtils.getRegressionDataFile(12255, "G0016941.JPG")));
+        BufferedImage image = e.read(null);
+        BufferedImage region = e.readRegion(new Rectangle2D.Double(0.5, 0.5, 0.25, 0.25), new Dimension(10_000, 10_000));
+        assertEquals(image.getWidth() / 4, region.getWidth());
+        assertEquals(image.getHeight() / 4, region.getHeight());
+        assertEquals(image.getRGB(image.getWidth() / 2, image.getHeight() / 2), region.getRGB(0, 0));
+        // subsampled
+        region = e.readRegion(new Rectangle2D.Double(0.5, 0.5, 0.25, 0.25), new Dimension(image.getWidth() / 8, image.getHeight() / 8));
+        assertEquals(image.getWidth() / 8, region.getWidth());
+    }
+
     /**
      * Unit test of methods {@link ImageEntry#equals} and {@link ImageEntry#hashCode}.
      */
@@ -0,0 +1,44 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.geoimage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link ImageMetadataCache} class.
+ */
+@BasicPreferences
+class ImageMetadataCacheTest {
+    /**
+     * The metadata read from the cache is the same as the one extracted from the file.
+     */
+    @Test
+    void testExtractExif() {
+        File file = new File("nodist/data/exif-example_direction.jpg");
+        ImageMetadataCache.clear();
+        assertNull(ImageMetadataCache.getCache().get(ImageMetadataCache.getCacheKey(file)));
+
+        ImageEntry expected = new ImageEntry(file);
+        expected.extractExif();
+        assertNotNull(expected.getPos());
+        assertNotNull(expected.getExifImgDir());
+
+        ImageEntry first = new ImageEntry(file);
+        ImageMetadataCache.extractExif(first);
+        assertEquals(expected, first);
+        assertNotNull(ImageMetadataCache.getCache().get(ImageMetadataCache.getCacheKey(file)));
+
+        ImageEntry cached = new ImageEntry(file);
+        ImageMetadataCache.extractExif(cached);
+        assertEquals(expected, cached);
+        assertEquals(expected.getPos(), cached.getPos());
+        assertEquals(expected.getExifInstant(), cached.getExifInstant());
+        assertEquals(expected.getExifImgDir(), cached.getExifImgDir());
+    }
+}
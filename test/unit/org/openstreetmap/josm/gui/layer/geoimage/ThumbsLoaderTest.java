@@ -6,21 +6,46 @@ import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
 import org.openstreetmap.josm.tools.StreamUtils;
 
+import java.io.File;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 
 /**
  * Unit tests of {@link ThumbsLoader} class.
  */
 @BasicPreferences
 class ThumbsLoaderTest {
+    /**
+     * Thumbnails are read from the EXIF data or created from the images.
+     * @throws Exception if any error occurs
+     */
+    @Test
+    void testLoadThumbnails() throws Exception {
+        // with and without an embedded thumbnail
+        List<ImageEntry> imageEntries = Stream.of("exif-example_direction.jpg", "IMG_20150711_193419.jpg")
+                .map(name -> new ImageEntry(new File("nodist/data", name)))
+                .collect(Collectors.toList());
+        imageEntries.forEach(ImageEntry::extractExif);
+        assertEquals(160, ImageUtils.readExifThumbnail(imageEntries.get(0).getFile()).getWidth());
+        assertNull(ImageUtils.readExifThumbnail(imageEntries.get(1).getFile()));
+
+        new ThumbsLoader(imageEntries).run();
+        // the embedded thumbnail, scaled down to the thumbnail size
+        assertEquals(120, imageEntries.get(0).getThumbnail().getWidth(null));
+        assertEquals(90, imageEntries.get(0).getThumbnail().getHeight(null));
+        // the decoded image
+        assertEquals(1, imageEntries.get(1).getThumbnail().getWidth(null));
+    }
+
     /**
      * Performance test for {@link ThumbsLoader}
      * @throws Exception if any error occurs
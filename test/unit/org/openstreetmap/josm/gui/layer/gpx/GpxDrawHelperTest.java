@@ -2,6 +2,7 @@
 package org.openstreetmap.josm.gui.layer.gpx;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -13,6 +14,7 @@ import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.gpx.CompactGpxTrackSegment;
 import org.openstreetmap.josm.data.gpx.GpxData;
 import org.openstreetmap.josm.gui.layer.GpxLayer;
 import org.openstreetmap.josm.gui.layer.gpx.GpxDrawHelper.ColorMode;
@@ -110,6 +112,28 @@ class GpxDrawHelperTest {
         assertEquals("[#000000, #FF0000, #FF0000, #FF0500, #FF0500, #FF0A00, #FF0A00, #FF1F00, #FF2E00, #FF3300]", colors.toString());
     }
 
+    /**
+     * Tests that the colors of compact segments are the same, without materializing their points.
+     * @throws IOException if any I/O error occurs
+     * @throws SAXException if any SAX error occurs
+     */
+    @Test
+    void testCompactSegments() throws IOException, SAXException {
+        final Map<String, String> prefs = Collections.singletonMap("colormode", Integer.toString(ColorMode.VELOCITY.toIndex()));
+        final List<String> expected = calculateColors("nodist/data/2094047.gpx", prefs, 10);
+        CompactGpxTrackSegment.MIN_POINTS.put(1);
+        final GpxData data = GpxReaderTest.parseGpxData("nodist/data/2094047.gpx");
+        CompactGpxTrackSegment.MIN_POINTS.remove();
+        data.getLayerPrefs().putAll(prefs);
+        final GpxDrawHelper gdh = new GpxDrawHelper(new GpxLayer(data));
+        gdh.readPreferences();
+        gdh.calculateColors();
+        assertEquals(expected, data.getTrackPoints().limit(10).map(p -> ColorHelper.color2html(p.customColoring))
+                .collect(Collectors.toList()));
+        CompactGpxTrackSegment seg = (CompactGpxTrackSegment) data.getTracks().iterator().next().getSegments().iterator().next();
+        assertNotSame(seg.getWayPointsView().get(1), seg.getWayPointsView().get(1));
+    }
+
     /**
      *
      * @param fileName the GPX filename to parse
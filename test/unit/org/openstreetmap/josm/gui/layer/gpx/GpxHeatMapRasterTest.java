@@ -0,0 +1,150 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.EastNorth;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link GpxHeatMapRaster} class.
+ */
+@BasicPreferences
+@Projection
+class GpxHeatMapRasterTest {
+
+    private static final int WIDTH = 600;
+    private static final int HEIGHT = 400;
+
+    /**
+     * Creates a horizontal line at the given row of the test view, from pixel column 10 to 510, with a gap from 60 to 110.
+     */
+    private static List<WayPoint> createLine(int row) {
+        List<WayPoint> points = new ArrayList<>();
+        for (int i = 0; i <= 10; i++) {
+            WayPoint wpt = new WayPoint(ProjectionRegistry.getProjection().eastNorth2latlon(
+                    new EastNorth(10.5 + 50 * i, HEIGHT - row - 0.5)));
+            wpt.drawLine = i > 0 && i != 2;
+            points.add(wpt);
+        }
+        return points;
+    }
+
+    private static int[] getCounts(GpxHeatMapRaster raster) {
+        int[] counts = new int[WIDTH * HEIGHT];
+        // the missing tiles are computed by the first call
+        if (!raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts)) {
+            assertTrue(raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts));
+        }
+        return counts;
+    }
+
+    /**
+     * Test of {@link GpxHeatMapRaster#getLevel}.
+     */
+    @Test
+    void testGetLevel() {
+        assertEquals(0, GpxHeatMapRaster.getLevel(1));
+        assertEquals(1, GpxHeatMapRaster.getLevel(1.5));
+        assertEquals(-3, GpxHeatMapRaster.getLevel(0.125));
+        assertEquals(4, GpxHeatMapRaster.getLevel(9));
+    }
+
+    /**
+     * Lines are counted in each cell they pass, and tracks can be added and removed.
+     */
+    @Test
+    void testCounts() {
+        GpxHeatMapRaster raster = new GpxHeatMapRaster(Runnable::run, () -> { });
+        List<WayPoint> line1 = createLine(100);
+        raster.update(Collections.singletonList(line1));
+        int[] counts = getCounts(raster);
+        assertEquals(0, counts[100 * WIDTH + 9]);
+        assertEquals(1, counts[100 * WIDTH + 10]);
+        assertEquals(1, counts[100 * WIDTH + 150]);
+        // the gap
+        assertEquals(0, counts[100 * WIDTH + 80]);
+        // across the border of two tiles
+        assertEquals(1, counts[100 * WIDTH + 255]);
+        assertEquals(1, counts[100 * WIDTH + 256]);
+        assertEquals(1, counts[100 * WIDTH + 510]);
+        assertEquals(0, counts[100 * WIDTH + 511]);
+        assertEquals(0, counts[101 * WIDTH + 100]);
+        assertEquals(51 + 401, Arrays.stream(counts).sum());
+
+        // added to the cached tiles
+        List<WayPoint> line2 = createLine(100);
+        List<WayPoint> line3 = createLine(300);
+        raster.update(Arrays.asList(line1, line2, line3));
+        counts = getCounts(raster);
+        assertEquals(2, counts[100 * WIDTH + 10]);
+        assertEquals(1, counts[300 * WIDTH + 10]);
+        assertEquals(3 * (51 + 401), Arrays.stream(counts).sum());
+
+        // removed
+        raster.update(Collections.singletonList(line3));
+        counts = getCounts(raster);
+        assertEquals(0, counts[100 * WIDTH + 10]);
+        assertEquals(1, counts[300 * WIDTH + 10]);
+
+        // lines changed
+        line3.get(4).drawLine = false;
+        raster.update(Collections.singletonList(line3));
+        counts = getCounts(raster);
+        assertEquals(1, counts[300 * WIDTH + 10]);
+        assertEquals(0, counts[300 * WIDTH + 180]);
+        assertEquals(1, counts[300 * WIDTH + 220]);
+    }
+
+    /**
+     * The tracks are updated and the tiles are computed in the background, the previous state is drawn meanwhile.
+     */
+    @Test
+    void testBackground() {
+        List<Runnable> tasks = new ArrayList<>();
+        AtomicInteger updates = new AtomicInteger();
+        GpxHeatMapRaster raster = new GpxHeatMapRaster(tasks::add, updates::incrementAndGet);
+        List<WayPoint> line1 = createLine(100);
+        raster.update(Collections.singletonList(line1));
+        assertEquals(1, tasks.size());
+        runAll(tasks);
+        assertEquals(1, updates.get());
+
+        // tiles are computed in the background, drawn empty meanwhile
+        int[] counts = new int[WIDTH * HEIGHT];
+        assertFalse(raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts));
+        assertEquals(0, Arrays.stream(counts).sum());
+        assertFalse(raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts));
+        assertEquals(6, tasks.size()); // only requested once
+        runAll(tasks);
+        assertEquals(7, updates.get());
+        assertTrue(raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts));
+        assertEquals(51 + 401, Arrays.stream(counts).sum());
+
+        // the previous tracks are drawn until the update is complete
+        raster.update(Arrays.asList(line1, createLine(300)));
+        assertTrue(raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts));
+        assertEquals(51 + 401, Arrays.stream(counts).sum());
+        runAll(tasks);
+        assertTrue(raster.getCounts(new EastNorth(0, HEIGHT), 1, WIDTH, HEIGHT, counts));
+        assertEquals(2 * (51 + 401), Arrays.stream(counts).sum());
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        List<Runnable> copy = new ArrayList<>(tasks);
+        tasks.clear();
+        copy.forEach(Runnable::run);
+    }
+}
@@ -0,0 +1,91 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.gpx;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.coor.LatLon;
+import org.openstreetmap.josm.data.gpx.WayPoint;
+import org.openstreetmap.josm.data.projection.ProjectionRegistry;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.Projection;
+
+/**
+ * Unit tests of {@link GpxLevelOfDetail} class.
+ */
+@BasicPreferences
+@Projection
+class GpxLevelOfDetailTest {
+
+    /**
+     * Creates a straight track with a small zigzag and one spike in the middle.
+     */
+    private static List<WayPoint> createTrack(int n) {
+        List<WayPoint> points = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            double offset = i == n / 2 ? 0.01 : (i % 2) * 1e-7;
+            WayPoint wpt = new WayPoint(new LatLon(50 + offset, 8 + i * 1e-4));
+            wpt.drawLine = i > 0;
+            points.add(wpt);
+        }
+        return points;
+    }
+
+    /**
+     * Coarse levels keep only the points that deviate from the simplified line.
+     */
+    @Test
+    void testComputeLevels() {
+        List<WayPoint> track = createTrack(1000);
+        track.get(300).drawLine = false;
+        GpxLevelOfDetail.Levels levels = GpxLevelOfDetail.computeLevels(track, ProjectionRegistry.getProjection());
+        assertTrue(levels.getLevelCount() > 0);
+        assertNull(levels.getLevel(0));
+
+        // larger than the zigzag (about 1 cm), smaller than the spike (about 1 km)
+        assertArrayEquals(new int[] {0, 299, 300, 499, 500, 501, 999}, levels.getLevel(10));
+        // the line is interrupted at point 300, so it is kept at all levels
+        assertTrue(Arrays.stream(levels.getLevel(Double.MAX_VALUE)).anyMatch(i -> i == 300));
+    }
+
+    /**
+     * Levels are computed in the background, the full segment is used until they are available.
+     */
+    @Test
+    void testGetPoints() {
+        AtomicInteger updates = new AtomicInteger();
+        GpxLevelOfDetail lod = new GpxLevelOfDetail(Runnable::run, updates::incrementAndGet);
+        List<WayPoint> track = createTrack(1000);
+        List<WayPoint> small = createTrack(GpxLevelOfDetail.MIN_POINTS - 1);
+
+        assertSame(track, lod.getPoints(track, 0));
+        assertSame(small, lod.getPoints(small, 10));
+        assertEquals(0, updates.get());
+        assertSame(track, lod.getPoints(track, 10));
+        assertEquals(1, updates.get());
+        assertEquals(5, count(lod.getPoints(track, 10)));
+        assertSame(track.get(0), lod.getPoints(track, 10).iterator().next());
+        assertSame(track, lod.getPoints(track, 1e-9));
+
+        lod.invalidate();
+        assertSame(track, lod.getPoints(track, 10));
+        assertEquals(2, updates.get());
+    }
+
+    private static int count(Iterable<WayPoint> points) {
+        int count = 0;
+        for (WayPoint ignored : points) {
+            count++;
+        }
+        return count;
+    }
+}
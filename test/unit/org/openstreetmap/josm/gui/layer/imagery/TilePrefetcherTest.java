@@ -0,0 +1,79 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.layer.imagery;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.data.ProjectionBounds;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link TilePrefetcher} class.
+ */
+@BasicPreferences
+class TilePrefetcherTest {
+    /**
+     * No prediction is made without motion.
+     */
+    @Test
+    void testNoMotion() {
+        TilePrefetcher prefetcher = new TilePrefetcher();
+        assertNull(prefetcher.predictBounds(0));
+        prefetcher.viewChanged(new ProjectionBounds(0, 0, 100, 100), 0);
+        assertNull(prefetcher.predictBounds(100));
+        prefetcher.viewChanged(new ProjectionBounds(0, 0, 100, 100), 100);
+        assertNull(prefetcher.predictBounds(200));
+        assertFalse(prefetcher.isZoomingIn(200));
+    }
+
+    /**
+     * Panning is extrapolated linearly and limited to one viewport.
+     */
+    @Test
+    void testPan() {
+        TilePrefetcher prefetcher = new TilePrefetcher();
+        prefetcher.viewChanged(new ProjectionBounds(0, 0, 100, 100), 1000);
+        prefetcher.viewChanged(new ProjectionBounds(10, 0, 110, 100), 1100);
+        // 10 units per 100 ms, predicted 500 ms ahead
+        ProjectionBounds predicted = prefetcher.predictBounds(1100);
+        assertNotNull(predicted);
+        assertEquals(60, predicted.minEast, 1e-6);
+        assertEquals(160, predicted.maxEast, 1e-6);
+        assertEquals(0, predicted.minNorth, 1e-6);
+        assertEquals(100, predicted.maxNorth, 1e-6);
+
+        // fast motion is limited to one viewport
+        prefetcher.viewChanged(new ProjectionBounds(90, 0, 190, 100), 1110);
+        predicted = prefetcher.predictBounds(1110);
+        assertNotNull(predicted);
+        assertEquals(190, predicted.minEast, 1e-6);
+        assertFalse(prefetcher.isZoomingIn(1110));
+
+        // old samples are ignored
+        assertNull(prefetcher.predictBounds(5000));
+    }
+
+    /**
+     * Zooming is extrapolated geometrically.
+     */
+    @Test
+    void testZoom() {
+        TilePrefetcher prefetcher = new TilePrefetcher();
+        prefetcher.viewChanged(new ProjectionBounds(0, 0, 100, 100), 0);
+        prefetcher.viewChanged(new ProjectionBounds(10, 10, 90, 90), 250);
+        assertTrue(prefetcher.isZoomingIn(250));
+        ProjectionBounds predicted = prefetcher.predictBounds(250);
+        assertNotNull(predicted);
+        assertEquals(50, predicted.getCenter().east(), 1e-6);
+        // 0.8^2 as the lookahead is twice the sampled interval
+        assertEquals(80 * 0.8 * 0.8, predicted.maxEast - predicted.minEast, 1e-6);
+
+        prefetcher.reset();
+        assertNull(prefetcher.predictBounds(250));
+        assertFalse(prefetcher.isZoomingIn(250));
+    }
+}
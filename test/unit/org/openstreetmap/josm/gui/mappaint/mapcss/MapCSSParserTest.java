@@ -15,6 +15,7 @@ import java.io.StringReader;
 import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -741,4 +742,18 @@ class MapCSSParserTest {
         source.apply(mc, OsmUtils.createPrimitive("node ele=12.123456"), 20, false);
         assertEquals("ele=12.12", mc.getCascade(null).get("fixAdd"));
     }
+
+    /**
+     * Reloading a style replaces its rules and errors, also when it is reloaded concurrently.
+     */
+    @Test
+    void testReloadStyleSource() {
+        MapCSSStyleSource source = new MapCSSStyleSource("node[foo] {color: red;} way[bar] {width: 2;} node:foobar {}");
+        IntStream.range(0, 8).parallel().forEach(i -> source.loadStyleSource());
+        assertEquals(2, source.rules.size());
+        assertEquals(1, source.getErrors().size());
+        MultiCascade mc = new MultiCascade();
+        source.apply(mc, OsmUtils.createPrimitive("node foo=1"), 20, false);
+        assertNotNull(mc.getCascade(null).get("color"));
+    }
 }
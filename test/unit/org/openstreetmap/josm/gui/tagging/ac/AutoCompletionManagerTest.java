@@ -1,9 +1,20 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.gui.tagging.ac;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.Node;
+import org.openstreetmap.josm.data.osm.Relation;
+import org.openstreetmap.josm.data.osm.RelationMember;
 import org.openstreetmap.josm.gui.MainApplication;
 import org.openstreetmap.josm.gui.layer.OsmDataLayer;
 import org.openstreetmap.josm.gui.tagging.ac.AutoCompletionManager.UserInputTag;
@@ -35,4 +46,94 @@ class AutoCompletionManagerTest {
         EqualsVerifier.forClass(UserInputTag.class).usingGetClass()
             .verify();
     }
+
+    /**
+     * The cache is updated from the data set events, and tags and roles are removed with their last use.
+     */
+    @Test
+    void testIncrementalUpdate() {
+        DataSet ds = new DataSet();
+        Node n1 = new Node(LatLon.ZERO);
+        n1.put("highway", "primary");
+        Node n2 = new Node(LatLon.ZERO);
+        n2.put("highway", "primary");
+        Relation r = new Relation();
+        r.addMember(new RelationMember("outer", n1));
+        ds.addPrimitiveRecursive(r);
+        ds.addPrimitive(n2);
+        AutoCompletionManager manager = new AutoCompletionManager(ds);
+        ds.addDataSetListener(manager);
+        assertEquals(Collections.singletonList("primary"), manager.getDataValues("highway"));
+        assertEquals(Collections.singletonList("outer"), manager.getMemberRoles());
+
+        n1.put("highway", "secondary");
+        assertEquals(new HashSet<>(Arrays.asList("primary", "secondary")), new HashSet<>(manager.getDataValues("highway")));
+        n2.put("highway", "secondary");
+        assertEquals(Collections.singletonList("secondary"), manager.getDataValues("highway"));
+
+        // several changes of the same primitive fired at once
+        ds.update(() -> {
+            n1.put("name", "foo");
+            n1.remove("highway");
+            n1.put("name", "bar");
+        });
+        assertEquals(Collections.singletonList("bar"), manager.getDataValues("name"));
+        assertEquals(Collections.singletonList("secondary"), manager.getDataValues("highway"));
+
+        ds.removePrimitive(n2);
+        assertTrue(manager.getDataValues("highway").isEmpty());
+        assertEquals(Collections.singletonList("name"), manager.getDataKeys());
+
+        r.setMembers(Collections.singletonList(new RelationMember("inner", n1)));
+        assertEquals(Collections.singletonList("inner"), manager.getMemberRoles());
+        r.setDeleted(true);
+        assertTrue(manager.getMemberRoles().isEmpty());
+    }
+
+    /**
+     * Primitives which are added, changed and removed within one data set update are counted once.
+     */
+    @Test
+    void testIncrementalUpdateInOneUpdate() {
+        DataSet ds = new DataSet();
+        Node n1 = new Node(LatLon.ZERO);
+        n1.put("highway", "primary");
+        ds.addPrimitive(n1);
+        AutoCompletionManager manager = new AutoCompletionManager(ds);
+        ds.addDataSetListener(manager);
+        assertEquals(Collections.singletonList("primary"), manager.getDataValues("highway"));
+
+        Node n2 = new Node(LatLon.ZERO);
+        Relation r = new Relation();
+        ds.update(() -> {
+            ds.addPrimitive(n2);
+            n2.put("highway", "primary");
+            ds.addPrimitive(r);
+            r.addMember(new RelationMember("outer", n1));
+            r.addMember(0, new RelationMember("inner", n2));
+        });
+        assertEquals(new HashSet<>(Arrays.asList("inner", "outer")), new HashSet<>(manager.getMemberRoles()));
+
+        // n1 and n2 use the same tag, so it remains while one of them exists
+        ds.update(() -> {
+            n2.setDeleted(true);
+            ds.removePrimitive(n2);
+            r.setMember(0, new RelationMember("outer", n1));
+        });
+        assertEquals(Collections.singletonList("primary"), manager.getDataValues("highway"));
+        assertEquals(Collections.singletonList("outer"), manager.getMemberRoles());
+
+        // a deleted primitive is not counted again when it is removed from the data set
+        n1.setDeleted(true);
+        assertTrue(manager.getDataValues("highway").isEmpty());
+        n1.setDeleted(false);
+        Node n3 = new Node(LatLon.ZERO);
+        n3.put("highway", "primary");
+        n3.setDeleted(true);
+        ds.addPrimitive(n3);
+        ds.cleanupDeletedPrimitives();
+        assertEquals(Collections.singletonList("primary"), manager.getDataValues("highway"));
+        ds.removePrimitive(n1);
+        assertTrue(manager.getDataValues("highway").isEmpty());
+    }
 }
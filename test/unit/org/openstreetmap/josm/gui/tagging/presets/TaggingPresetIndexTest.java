@@ -0,0 +1,64 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.gui.tagging.presets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.openstreetmap.josm.data.osm.OsmPrimitive;
+import org.openstreetmap.josm.data.osm.OsmUtils;
+import org.openstreetmap.josm.gui.tagging.presets.items.Key;
+
+/**
+ * Unit tests of {@link TaggingPresetIndex} class.
+ */
+@org.openstreetmap.josm.testutils.annotations.TaggingPresets
+class TaggingPresetIndexTest {
+
+    /**
+     * The presets matched through the index are the presets matching the primitive, in the same order.
+     * @param primitive the primitive to match
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"node amenity=restaurant cuisine=pizza", "way highway=residential name=Foo",
+            "way building=yes addr:housenumber=1", "node shop=unknown_value", "relation type=multipolygon landuse=forest",
+            "node foo=bar", "way"})
+    void testGetMatchingPresets(String primitive) {
+        OsmPrimitive p = OsmUtils.createPrimitive(primitive);
+        List<TaggingPreset> expected = TaggingPresets.getTaggingPresets().stream().filter(preset -> preset.test(p))
+                .collect(Collectors.toList());
+        assertEquals(expected, TaggingPresets.getMatchingPresets(p).stream().collect(Collectors.toList()));
+        TaggingPresetIndex index = new TaggingPresetIndex((List<TaggingPreset>) TaggingPresets.getTaggingPresets());
+        List<TaggingPreset> candidates = index.getCandidates(p.getKeys());
+        assertTrue(candidates.containsAll(expected));
+        // memoized
+        assertEquals(candidates, index.getCandidates(p.getKeys()));
+    }
+
+    /**
+     * Presets are candidates for the keys and tags they can match.
+     */
+    @ParameterizedTest
+    @ValueSource(strings = {"key", "keyvalue"})
+    void testIsCandidate(String match) {
+        TaggingPreset preset = new TaggingPreset();
+        Key key = new Key();
+        key.key = "foo";
+        key.value = "bar";
+        key.setMatch(match);
+        preset.data.add(key);
+        TaggingPresetIndex index = new TaggingPresetIndex(Collections.singletonList(preset));
+        assertTrue(index.isCandidate(preset, Map.of("foo", "bar")));
+        assertEquals("key".equals(match), index.isCandidate(preset, Map.of("foo", "baz")));
+        assertFalse(index.isCandidate(preset, Map.of("bar", "foo")));
+        // not indexed
+        assertTrue(index.isCandidate(new TaggingPreset(), Map.of("bar", "foo")));
+    }
+}
@@ -0,0 +1,80 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.data.gpx.GpxData;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.io.nmea.NmeaReader;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link GpxBulkReader} class.
+ */
+@BasicPreferences
+class GpxBulkReaderTest {
+    /**
+     * Files are read concurrently, the results are in the order of the files and match a sequential import.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    void testRead() throws Exception {
+        List<File> files = Arrays.asList(
+                new File(TestUtils.getTestDataRoot(), "sessions/data.gpx"),
+                new File(TestUtils.getTestDataRoot(), "missing.gpx"),
+                new File(TestUtils.getTestDataRoot(), "minimal.gpx"),
+                new File(TestUtils.getTestDataRoot(), "sessions/markers.gpx"));
+        List<GpxBulkReader.Result<GpxReader>> results = GpxBulkReader.read(files, GpxReader::new, NullProgressMonitor.INSTANCE);
+        assertEquals(files.size(), results.size());
+        for (int i = 0; i < files.size(); i++) {
+            GpxBulkReader.Result<GpxReader> result = results.get(i);
+            assertEquals(files.get(i), result.getFile());
+            if (i == 1) {
+                assertNotNull(result.getException());
+                assertNull(result.getReader());
+                assertFalse(result.isParsedProperly());
+            } else {
+                assertNull(result.getException());
+                assertTrue(result.isParsedProperly());
+                try (InputStream is = new FileInputStream(files.get(i))) {
+                    GpxReader reader = new GpxReader(is);
+                    assertTrue(reader.parse(true));
+                    GpxData expected = reader.getGpxData();
+                    GpxData actual = result.getReader().getGpxData();
+                    assertEquals(new ArrayList<>(expected.getTracks()), new ArrayList<>(actual.getTracks()));
+                    assertEquals(new ArrayList<>(expected.getWaypoints()), new ArrayList<>(actual.getWaypoints()));
+                    assertEquals(new ArrayList<>(expected.getRoutes()), new ArrayList<>(actual.getRoutes()));
+                }
+            }
+        }
+    }
+
+    /**
+     * NMEA files are read as well.
+     */
+    @Test
+    void testReadNmea() {
+        List<File> files = Arrays.asList(
+                new File(TestUtils.getTestDataRoot(), "sessions/data.nmea"),
+                new File(TestUtils.getTestDataRoot(), "regress/1433/2008-08-14-16-04-58.nmea"));
+        List<GpxBulkReader.Result<NmeaReader>> results = GpxBulkReader.read(files, NmeaReader::new, NullProgressMonitor.INSTANCE);
+        assertEquals(2, results.size());
+        for (GpxBulkReader.Result<NmeaReader> result : results) {
+            assertNull(result.getException());
+            assertTrue(result.getReader().getNumberOfCoordinates() > 0);
+        }
+    }
+}
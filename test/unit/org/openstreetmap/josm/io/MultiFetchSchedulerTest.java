@@ -0,0 +1,176 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.io;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.openstreetmap.josm.data.osm.DataSet;
+import org.openstreetmap.josm.data.osm.OsmPrimitiveType;
+import org.openstreetmap.josm.data.osm.SimplePrimitiveId;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.BasicWiremock;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
+
+/**
+ * Unit tests of {@link MultiFetchScheduler} class.
+ */
+@BasicPreferences
+@BasicWiremock
+@ExtendWith(BasicWiremock.OsmApiExtension.class)
+class MultiFetchSchedulerTest {
+    private WireMockRuntimeInfo wireMockRuntimeInfo;
+
+    /**
+     * Setup tests.
+     * @param wireMockRuntimeInfo the mock API server
+     */
+    @BeforeEach
+    void setUp(WireMockRuntimeInfo wireMockRuntimeInfo) {
+        this.wireMockRuntimeInfo = wireMockRuntimeInfo;
+    }
+
+    private static Set<Long> ids(long from, long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Test {@link MultiFetchScheduler#extractIdPackage}
+     */
+    @Test
+    void testExtractIdPackage() {
+        MultiFetchScheduler scheduler = new MultiFetchScheduler(1);
+        Set<Long> ids = ids(10_000_000_000L, 10_000_000_400L);
+        assertEquals(170, scheduler.extractIdPackage(ids).size());
+        assertEquals(230, ids.size());
+        assertEquals(170, scheduler.extractIdPackage(ids).size());
+        assertEquals(60, scheduler.extractIdPackage(ids).size());
+        assertTrue(ids.isEmpty());
+        assertTrue(scheduler.extractIdPackage(ids).isEmpty());
+        // {@link MultiFetchServerObjectReader#extractIdPackage} uses the initial package size
+        ids = ids(100, 1000);
+        assertEquals(170, new MultiFetchServerObjectReader().extractIdPackage(ids).size());
+        assertEquals(730, ids.size());
+    }
+
+    /**
+     * Test {@link MultiFetchScheduler#responseReceived}
+     */
+    @Test
+    void testResponseReceived() {
+        MultiFetchScheduler scheduler = new MultiFetchScheduler(4, 100, 1000);
+        assertEquals(170, scheduler.getIdsPerRequest());
+        assertEquals(4, scheduler.getConcurrentRequests());
+        // responses in the expected time do not change anything
+        scheduler.responseReceived(500);
+        assertEquals(170, scheduler.getIdsPerRequest());
+        assertEquals(4, scheduler.getConcurrentRequests());
+        // slow responses shrink the packages and the number of requests
+        scheduler.responseReceived(2000);
+        assertEquals(85, scheduler.getIdsPerRequest());
+        assertEquals(3, scheduler.getConcurrentRequests());
+        for (int i = 0; i < 10; i++) {
+            scheduler.responseReceived(2000);
+        }
+        assertEquals(MultiFetchScheduler.MIN_IDS_PER_REQUEST, scheduler.getIdsPerRequest());
+        assertEquals(1, scheduler.getConcurrentRequests());
+        // fast responses let them grow again
+        scheduler.responseReceived(50);
+        assertEquals(15, scheduler.getIdsPerRequest());
+        assertEquals(2, scheduler.getConcurrentRequests());
+        for (int i = 0; i < 20; i++) {
+            scheduler.responseReceived(50);
+        }
+        assertEquals(MultiFetchScheduler.MAX_IDS_LENGTH / 2, scheduler.getIdsPerRequest());
+        assertEquals(4, scheduler.getConcurrentRequests());
+        // short ids are fetched in bigger packages, long ids are still limited by the URL length
+        assertEquals(MultiFetchScheduler.MAX_IDS_LENGTH / 4, scheduler.extractIdPackage(ids(100, 10_000)).size());
+        assertEquals(170, scheduler.extractIdPackage(ids(10_000_000_000L, 10_000_001_000L)).size());
+    }
+
+    /**
+     * Test that {@link MultiFetchServerObjectReader} sizes its requests with the scheduler, against a mock API server.
+     * @throws OsmTransferException if an error occurs
+     */
+    @Test
+    void testFetchFromMockServer() throws OsmTransferException {
+        Config.getPref().putInt("osm.download.threads", 1);
+        wireMockRuntimeInfo.getWireMock().register(get(urlPathEqualTo("/api/0.6/nodes"))
+                .willReturn(aResponse().withStatus(200).withBody("<osm version=\"0.6\" generator=\"mock\"/>")));
+        MultiFetchServerObjectReader reader = new MultiFetchServerObjectReader() {
+            @Override
+            MultiFetchScheduler createScheduler(int maxRequests) {
+                // every response is considered slow
+                return new MultiFetchScheduler(maxRequests, -1, -1);
+            }
+        };
+        for (long id : ids(10_000_000_000L, 10_000_000_400L)) {
+            reader.append(new SimplePrimitiveId(id, OsmPrimitiveType.NODE));
+        }
+        DataSet ds = reader.parseOsm(NullProgressMonitor.INSTANCE);
+        assertTrue(ds.isEmpty());
+
+        List<Integer> sizes = new ArrayList<>();
+        for (LoggedRequest request : wireMockRuntimeInfo.getWireMock().find(getRequestedFor(urlPathEqualTo("/api/0.6/nodes")))) {
+            sizes.add(request.queryParameter("nodes").firstValue().split(",", -1).length);
+        }
+        sizes.sort(Collections.reverseOrder());
+        List<Integer> expected = new ArrayList<>(List.of(170, 85, 42, 21));
+        expected.addAll(Collections.nCopies(8, 10));
+        expected.add(2);
+        assertEquals(expected, sizes);
+    }
+
+    /**
+     * Test that {@link MultiFetchServerObjectReader#fetchPrimitives} extracts the packages with
+     * {@link MultiFetchServerObjectReader#extractIdPackage}, so that subclasses can override it.
+     * @throws OsmTransferException if an error occurs
+     */
+    @Test
+    void testExtractIdPackageOverride() throws OsmTransferException {
+        Config.getPref().putInt("osm.download.threads", 1);
+        wireMockRuntimeInfo.getWireMock().register(get(urlPathEqualTo("/api/0.6/nodes"))
+                .willReturn(aResponse().withStatus(200).withBody("<osm version=\"0.6\" generator=\"mock\"/>")));
+        MultiFetchServerObjectReader reader = new MultiFetchServerObjectReader() {
+            @Override
+            protected Set<Long> extractIdPackage(Set<Long> ids) {
+                Set<Long> pkg = new LinkedHashSet<>();
+                for (Iterator<Long> it = ids.iterator(); it.hasNext() && pkg.size() < 50;) {
+                    pkg.add(it.next());
+                    it.remove();
+                }
+                return pkg;
+            }
+        };
+        for (long id : ids(1, 121)) {
+            reader.append(new SimplePrimitiveId(id, OsmPrimitiveType.NODE));
+        }
+        reader.parseOsm(NullProgressMonitor.INSTANCE);
+
+        List<Integer> sizes = new ArrayList<>();
+        for (LoggedRequest request : wireMockRuntimeInfo.getWireMock().find(getRequestedFor(urlPathEqualTo("/api/0.6/nodes")))) {
+            sizes.add(request.queryParameter("nodes").firstValue().split(",", -1).length);
+        }
+        sizes.sort(Collections.reverseOrder());
+        assertEquals(List.of(50, 50, 20), sizes);
+    }
+}
@@ -1,19 +1,37 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.io;
 
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.openstreetmap.josm.data.coor.LatLon;
 import org.openstreetmap.josm.data.osm.Changeset;
+import org.openstreetmap.josm.data.osm.Node;
 import org.openstreetmap.josm.data.osm.User;
 import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+import org.openstreetmap.josm.testutils.annotations.BasicWiremock;
+
+import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
+import com.github.tomakehurst.wiremock.verification.LoggedRequest;
 
 /**
  * Unit tests of {@link OsmApi} class.
  */
+@BasicPreferences
+@BasicWiremock
+@ExtendWith(BasicWiremock.OsmApiExtension.class)
 class OsmApiTest {
     /**
      * Non-regression test for <a href="https://josm.openstreetmap.de/ticket/12675">Bug #12675</a>.
@@ -36,4 +54,52 @@ class OsmApiTest {
                 NullProgressMonitor.INSTANCE).iterator().next();
         assertEquals(User.getAnonymous(), cs2.getUser());
     }
+
+    /**
+     * Test that {@link OsmApi#uploadDiff} writes the osmChange document into the connection, against a mock API server.
+     * @param wireMockRuntimeInfo the mock API server
+     * @throws OsmTransferException if an error occurs
+     */
+    @Test
+    void testUploadDiff(WireMockRuntimeInfo wireMockRuntimeInfo) throws OsmTransferException {
+        List<Node> nodes = new ArrayList<>();
+        StringBuilder diffResult = new StringBuilder("<diffResult version=\"0.6\" generator=\"mock\">");
+        for (int i = 0; i < 1000; i++) {
+            Node n = new Node(new LatLon(47 + i * 1e-4, 8));
+            n.put("name", "Straße " + i);
+            nodes.add(n);
+            diffResult.append("<node old_id=\"").append(n.getUniqueId()).append("\" new_id=\"").append(1000 + i)
+                    .append("\" new_version=\"1\"/>");
+        }
+        diffResult.append("</diffResult>");
+        wireMockRuntimeInfo.getWireMock().register(post(urlEqualTo("/api/0.6/changeset/1/upload"))
+                .willReturn(aResponse().withStatus(200).withBody(diffResult.toString())));
+
+        Changeset cs = new Changeset(1);
+        cs.setOpen(true);
+        OsmChangeBuilder builder = new OsmChangeBuilder(cs);
+        builder.start();
+        builder.append(nodes);
+        builder.finish();
+        byte[] expected = builder.getDocument().getBytes(StandardCharsets.UTF_8);
+
+        Config.getPref().put("osm-server.auth-method", "basic");
+        Config.getPref().put("osm-server.username", "test");
+        Config.getPref().put("osm-server.password", "test");
+        OsmApi api = OsmApi.getOsmApi();
+        api.setChangeset(cs);
+        try {
+            assertEquals(nodes, new ArrayList<>(api.uploadDiff(nodes, NullProgressMonitor.INSTANCE)));
+        } finally {
+            api.setChangeset(null);
+        }
+        for (int i = 0; i < nodes.size(); i++) {
+            assertEquals(1000 + i, nodes.get(i).getId());
+        }
+
+        List<LoggedRequest> requests = wireMockRuntimeInfo.getWireMock().find(postRequestedFor(urlEqualTo("/api/0.6/changeset/1/upload")));
+        assertEquals(1, requests.size());
+        assertEquals(new String(expected, StandardCharsets.UTF_8), requests.get(0).getBodyAsString());
+        assertEquals(Integer.toString(expected.length), requests.get(0).getHeader("Content-Length"));
+    }
 }
@@ -2,8 +2,12 @@
 package org.openstreetmap.josm.io;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 
 import org.openstreetmap.josm.data.coor.LatLon;
@@ -123,6 +127,33 @@ class OsmChangeBuilderTest {
                 "</osmChange>%n"), builder.getDocument());
     }
 
+    /**
+     * Test writing the document encoded in UTF-8 to a stream
+     */
+    @Test
+    void testWriteToStream() {
+        Changeset cs = new Changeset(1);
+        Node n = new Node(LatLon.ZERO);
+        n.setOsmId(1, 1);
+        n.put("name", "Straße");
+        n.setModified(true);
+
+        OsmChangeBuilder builder = new OsmChangeBuilder(cs);
+        builder.start();
+        builder.append(n);
+        builder.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        OsmChangeBuilder streamBuilder = new OsmChangeBuilder(cs, null, out);
+        streamBuilder.start();
+        streamBuilder.append(n);
+        streamBuilder.finish();
+
+        assertEquals(builder.getDocument(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        assertTrue(builder.getDocument().contains("v='Straße'"));
+        assertThrows(IllegalStateException.class, streamBuilder::getDocument);
+    }
+
     /**
      * Test building a document with a deleted node
      */
@@ -2,6 +2,7 @@
 package org.openstreetmap.josm.io.session;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -87,6 +88,26 @@ class SessionReaderTest {
         }
     }
 
+    /**
+     * Tests to read a .jos file containing several layers loaded in parallel.
+     * @throws IOException if any I/O error occurs
+     * @throws IllegalDataException is the test file is considered as invalid
+     */
+    @Test
+    void testReadParallel() throws IOException, IllegalDataException {
+        List<Layer> layers = testRead("osm_gpx.jos");
+        assertEquals(3, layers.size());
+        OsmDataLayer osm3 = assertInstanceOf(OsmDataLayer.class, layers.get(0));
+        assertEquals("OSM layer 3", osm3.getName());
+        assertFalse(osm3.isVisible());
+        GpxLayer gpx = assertInstanceOf(GpxLayer.class, layers.get(1));
+        assertEquals("GPX layer name", gpx.getName());
+        OsmDataLayer osm1 = assertInstanceOf(OsmDataLayer.class, layers.get(2));
+        assertEquals("OSM layer 1", osm1.getName());
+        assertTrue(osm1.isVisible());
+        assertEquals(osm1.getDataSet().allPrimitives().size(), osm3.getDataSet().allPrimitives().size());
+    }
+
     /**
      * Tests to read a .joz file containing GPX and marker data.
      * @throws IOException if any I/O error occurs
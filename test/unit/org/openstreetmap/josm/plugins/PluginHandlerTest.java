@@ -6,10 +6,15 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -193,4 +198,35 @@ class PluginHandlerTest {
             .anyMatch(l -> l.getText().equals("No plugins installed"));
         assertTrue(found, "Should find 'No plugins installed' label");
     }
+
+    private static PluginInformation createPluginInformation(String name, String requires) throws PluginException {
+        String manifest = "Manifest-Version: 1.0\n" + (requires != null ? "Plugin-Requires: " + requires + "\n" : "");
+        PluginInformation info = new PluginInformation(new ByteArrayInputStream(manifest.getBytes(StandardCharsets.UTF_8)), name, null);
+        info.updateLocalInfo(info);
+        return info;
+    }
+
+    /**
+     * Unit test of {@link PluginHandler#getLoadingWave}.
+     * @throws PluginException if an error occurs
+     */
+    @Test
+    void testGetLoadingWave() throws PluginException {
+        PluginInformation a = createPluginInformation("a", null);
+        PluginInformation b = createPluginInformation("b", "a");
+        PluginInformation c = createPluginInformation("c", "a;b");
+        PluginInformation d = createPluginInformation("d", "e;missing");
+        PluginInformation e = createPluginInformation("e", "d");
+        List<PluginInformation> toLoad = Arrays.asList(c, b, a, d, e);
+        Map<PluginInformation, Integer> waves = new HashMap<>();
+        for (PluginInformation info : toLoad) {
+            PluginHandler.getLoadingWave(info, toLoad, waves, new HashSet<>());
+        }
+        assertEquals(0, waves.get(a));
+        assertEquals(1, waves.get(b));
+        assertEquals(2, waves.get(c));
+        // the dependency cycle is broken where it was entered
+        assertEquals(1, waves.get(e));
+        assertEquals(2, waves.get(d));
+    }
 }
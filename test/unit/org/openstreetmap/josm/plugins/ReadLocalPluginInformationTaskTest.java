@@ -0,0 +1,50 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.plugins;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.TestUtils;
+import org.openstreetmap.josm.gui.progress.NullProgressMonitor;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link ReadLocalPluginInformationTask} class.
+ */
+@BasicPreferences
+class ReadLocalPluginInformationTaskTest {
+    /**
+     * The plugin jars are processed by {@link ReadLocalPluginInformationTask#processJarFile}, in the order of the files.
+     */
+    @Test
+    void testScanPluginFiles() {
+        File pluginDir = new File(TestUtils.getTestDataRoot(), "__files/plugin");
+        List<String> processed = Collections.synchronizedList(new ArrayList<>());
+        ReadLocalPluginInformationTask task = new ReadLocalPluginInformationTask(NullProgressMonitor.INSTANCE) {
+            @Override
+            protected void processJarFile(File f, String pluginName) throws PluginException {
+                processed.add(pluginName);
+                super.processJarFile(f, pluginName);
+            }
+        };
+        task.scanPluginFiles(NullProgressMonitor.INSTANCE, pluginDir);
+
+        File[] jars = pluginDir.listFiles((dir, name) -> name.endsWith(".jar"));
+        List<String> expected = new ArrayList<>();
+        for (File jar : jars) {
+            expected.add(jar.getName().substring(0, jar.getName().length() - 4));
+        }
+        assertEquals(expected, processed);
+        // the corrupted plugin is skipped
+        expected.remove("corrupted_plugin");
+        Collections.sort(expected);
+        assertEquals(expected,
+                task.getAvailablePlugins().stream().map(PluginInformation::getName).sorted().collect(Collectors.toList()));
+    }
+}
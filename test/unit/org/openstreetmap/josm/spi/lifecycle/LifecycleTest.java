@@ -1,9 +1,20 @@
 // License: GPL. For details, see LICENSE file.
 package org.openstreetmap.josm.spi.lifecycle;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import org.junit.jupiter.api.Test;
 import org.openstreetmap.josm.testutils.annotations.HTTPS;
 import org.openstreetmap.josm.testutils.annotations.Main;
@@ -48,4 +59,33 @@ class LifecycleTest {
         assertTrue(listener.updated);
         assertTrue(listener.finished);
     }
+
+    /**
+     * Unit test of {@link Lifecycle#schedule}.
+     * @throws Exception if an error occurs
+     */
+    @Test
+    void testSchedule() throws Exception {
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        InitializationTask before = new InitializationTask("before", () -> order.add("before"));
+        InitializationTask a = new InitializationTask("a", () -> order.add("a"), before);
+        InitializationTask b = new InitializationTask("b", () -> order.add("b"), a);
+        InitializationTask c = new InitializationTask("c", () -> order.add("c"), a, b);
+        List<InitializationTask> tasks = Arrays.asList(c, b, a);
+        Map<InitializationTask, CompletableFuture<Void>> futures = new HashMap<>();
+        ExecutorService service = Executors.newFixedThreadPool(3);
+        try {
+            for (InitializationTask task : tasks) {
+                Lifecycle.schedule(task, tasks, futures, service);
+            }
+            CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0])).get();
+        } finally {
+            service.shutdown();
+        }
+        // the task which is not part of the parallel tasks is considered as already run
+        assertEquals(Arrays.asList("a", "b", "c"), order);
+        assertEquals(3, futures.size());
+        assertTrue(c.getElapsed() >= 0);
+        assertEquals(-1, before.getElapsed());
+    }
 }
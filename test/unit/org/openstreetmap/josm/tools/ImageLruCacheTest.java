@@ -0,0 +1,58 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link ImageLruCache} class.
+ */
+class ImageLruCacheTest {
+
+    /**
+     * Test {@link ImageLruCache#getSize}
+     */
+    @Test
+    void testGetSize() {
+        assertEquals(40_000, ImageLruCache.getSize(new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB)));
+        assertEquals(30_000, ImageLruCache.getSize(new BufferedImage(100, 100, BufferedImage.TYPE_3BYTE_BGR)));
+        assertEquals(10_000, ImageLruCache.getSize(new BufferedImage(100, 100, BufferedImage.TYPE_BYTE_GRAY)));
+    }
+
+    /**
+     * The least recently used images are removed, images larger than the cache are not added.
+     */
+    @Test
+    void testPut() {
+        ImageLruCache<String> cache = new ImageLruCache<>(16, () -> 100_000);
+        BufferedImage a = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        BufferedImage b = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        BufferedImage c = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        cache.put("a", a);
+        cache.put("b", b);
+        assertEquals(80_000, cache.size());
+        assertSame(a, cache.get("a"));
+        cache.put("c", c);
+        assertEquals(80_000, cache.size());
+        assertSame(a, cache.get("a"));
+        assertNull(cache.get("b"));
+        assertSame(c, cache.get("c"));
+
+        // replacing an image updates the size
+        cache.put("c", new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+        assertEquals(40_400, cache.size());
+
+        cache.put("d", new BufferedImage(200, 200, BufferedImage.TYPE_INT_RGB));
+        assertNull(cache.get("d"));
+        assertEquals(40_400, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a"));
+    }
+}
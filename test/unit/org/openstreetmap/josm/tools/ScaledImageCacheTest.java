@@ -0,0 +1,67 @@
+// License: GPL. For details, see LICENSE file.
+package org.openstreetmap.josm.tools;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.awt.Dimension;
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.openstreetmap.josm.spi.preferences.Config;
+import org.openstreetmap.josm.testutils.annotations.BasicPreferences;
+
+/**
+ * Unit tests of {@link ScaledImageCache} class.
+ */
+@BasicPreferences
+class ScaledImageCacheTest {
+
+    @AfterEach
+    void tearDown() {
+        ScaledImageCache.clear();
+    }
+
+    private static BufferedImage createImage() {
+        // 256 KB
+        return new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * The least recently used images are removed when the cache exceeds its size.
+     */
+    @Test
+    void testEviction() {
+        Config.getPref().putInt("image.cache.size", 1);
+        ImageResource resource = new ImageResource(createImage());
+        BufferedImage[] images = new BufferedImage[5];
+        for (int i = 0; i < 4; i++) {
+            images[i] = createImage();
+            ScaledImageCache.put(resource, i, false, images[i]);
+        }
+        assertEquals(1024 * 1024, ScaledImageCache.size());
+        assertSame(images[0], ScaledImageCache.get(resource, 0, false));
+        images[4] = createImage();
+        ScaledImageCache.put(resource, 4, false, images[4]);
+        assertEquals(1024 * 1024, ScaledImageCache.size());
+        assertSame(images[0], ScaledImageCache.get(resource, 0, false));
+        assertNull(ScaledImageCache.get(resource, 1, false));
+        assertSame(images[4], ScaledImageCache.get(resource, 4, false));
+        // the high resolution variant is cached separately
+        assertNull(ScaledImageCache.get(resource, 4, true));
+    }
+
+    /**
+     * The images of a resource are cached per size.
+     */
+    @Test
+    void testImageResource() {
+        ImageResource resource = new ImageResource(createImage());
+        BufferedImage small = (BufferedImage) resource.getImageIcon(new Dimension(16, 16), false, null).getImage();
+        assertSame(small, resource.getImageIcon(new Dimension(16, 16), false, null).getImage());
+        assertNotSame(small, resource.getImageIcon(new Dimension(24, 24), false, null).getImage());
+    }
+}
@@ -11,6 +11,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.text.DateFormat;
 import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.time.format.FormatStyle;
 import java.util.Date;
 import java.util.Random;
@@ -317,6 +320,30 @@ public class DateUtilsTest {
         }
     }
 
+    /**
+     * Unit test of the fast path of {@link DateUtils#parseInstant} for XML schema dates, compared to the JDK parser.
+     */
+    @Test
+    void testParseInstantXmlSchema() {
+        Random random = new Random(42);
+        String[] offsets = {"Z", "+00:00", "-00:00", "+01:00", "-11:00", "+05:30", "-03:45", "+14:00"};
+        for (int i = 0; i < 10_000; i++) {
+            Instant instant = Instant.ofEpochSecond(random.nextInt(Integer.MAX_VALUE) * 2L - Integer.MAX_VALUE,
+                    random.nextInt(1_000_000_000));
+            String offset = offsets[random.nextInt(offsets.length)];
+            String str = OffsetDateTime.ofInstant(instant, ZoneOffset.of(offset)).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            assertEquals(OffsetDateTime.parse(str).toInstant(), DateUtils.parseInstant(str), str);
+        }
+        assertEquals(Instant.parse("2000-02-29T23:59:59Z"), DateUtils.parseInstant("2000-02-29T23:59:59"));
+        assertEquals(Instant.parse("2000-03-01T00:00:00Z"), DateUtils.parseInstant("2000-03-01T01:00:00+01"));
+        assertEquals(Instant.parse("1969-12-31T23:59:59.5Z"), DateUtils.parseInstant("1969-12-31T23:59:59.5Z"));
+        assertEquals(Instant.parse("0001-01-01T00:00:00.000000001Z"), DateUtils.parseInstant("0001-01-01T00:00:00.000000001Z"));
+        assertThrows(UncheckedParseException.class, () -> DateUtils.parseInstant("1900-02-29T00:00:00Z"));
+        assertThrows(UncheckedParseException.class, () -> DateUtils.parseInstant("2016-04-31T00:00:00Z"));
+        assertThrows(UncheckedParseException.class, () -> DateUtils.parseInstant("2016-04-03T24:00:00Z"));
+        assertThrows(UncheckedParseException.class, () -> DateUtils.parseInstant("2016-04-03T15:00:00.0000000001Z"));
+    }
+
     /**
      * Some Java version use narrow no-break space ("NNBSP") instead of a space.
      * @param time The time string with NNBSP instead of a space